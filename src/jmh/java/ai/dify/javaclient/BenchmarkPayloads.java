@@ -0,0 +1,113 @@
+package ai.dify.javaclient;
+
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Representative Dify payloads shared by the benchmarks.
+ */
+final class BenchmarkPayloads {
+
+    /**
+     * Blocking chat message response with usage and three retriever resources.
+     */
+    static final String CHAT_MESSAGE_RESPONSE = "{"
+            + "\"event\":\"message\",\"task_id\":\"c3800678-a077-43df-a102-53f23ed20b88\","
+            + "\"id\":\"9da23599-e713-473b-982c-4328d4f5c78a\",\"message_id\":\"9da23599-e713-473b-982c-4328d4f5c78a\","
+            + "\"conversation_id\":\"45701982-8118-4bc5-8e9b-64562b4555f2\",\"mode\":\"chat\","
+            + "\"answer\":\"iPhone 13 Pro Max specs are listed here: 6.7-inch Super Retina XDR display with ProMotion, "
+            + "A15 Bionic chip, Pro 12MP camera system with telephoto, wide and ultra wide, up to 28 hours of video playback.\","
+            + "\"metadata\":{\"usage\":{\"prompt_tokens\":1033,\"prompt_unit_price\":\"0.001\",\"prompt_price_unit\":\"0.001\","
+            + "\"prompt_price\":\"0.0010330\",\"completion_tokens\":128,\"completion_unit_price\":\"0.002\","
+            + "\"completion_price_unit\":\"0.001\",\"completion_price\":\"0.0002560\",\"total_tokens\":1161,"
+            + "\"total_price\":\"0.0012890\",\"currency\":\"USD\",\"latency\":0.7682376249867957},"
+            + "\"retriever_resources\":["
+            + retrieverResource(1, 0.98457545) + ","
+            + retrieverResource(2, 0.87213221) + ","
+            + retrieverResource(3, 0.75512019)
+            + "]},\"created_at\":1705407629}";
+
+    /**
+     * Blocking workflow run response.
+     */
+    static final String WORKFLOW_RUN_RESPONSE = "{"
+            + "\"workflow_run_id\":\"djflajgkldjgd\",\"task_id\":\"9da23599-e713-473b-982c-4328d4f5c78a\","
+            + "\"data\":{\"id\":\"fdlsjfjejkghjda\",\"workflow_id\":\"fldjaslkfjlsda\",\"status\":\"succeeded\","
+            + "\"outputs\":{\"text\":\"Nice to meet you.\",\"score\":0.93,\"tags\":[\"greeting\",\"smalltalk\"],"
+            + "\"details\":{\"language\":\"en\",\"length\":17}},"
+            + "\"error\":null,\"elapsed_time\":0.875,\"total_tokens\":3562,\"total_steps\":8,"
+            + "\"created_at\":1705407629,\"finished_at\":1727807631}}";
+
+    /**
+     * Streaming workflow response with three nodes and fifty text chunks, as SSE.
+     */
+    static final String WORKFLOW_EVENT_STREAM = workflowEventStream(3, 50);
+
+    static final String TTS_EVENT_STREAM = ttsEventStream(20, 8 * 1024);
+
+    private BenchmarkPayloads() {
+    }
+
+    private static String retrieverResource(int position, double score) {
+        return "{\"position\":" + position + ",\"dataset_id\":\"101b4c97-fc2e-463c-90b1-5261a4cdcafb\","
+                + "\"dataset_name\":\"iPhone\",\"document_id\":\"8dd1ad74-0b5f-4175-b735-7d98bbbb4e00\","
+                + "\"document_name\":\"iPhone List\",\"segment_id\":\"ed599c7f-2766-4294-9d1d-e5235a61270a\","
+                + "\"score\":" + score + ",\"content\":\"\\\"Model\\\",\\\"Release Date\\\",\\\"Display Size\\\","
+                + "\\\"Resolution\\\",\\\"Processor\\\",\\\"RAM\\\",\\\"Storage\\\",\\\"Camera\\\",\\\"Battery\\\","
+                + "\\\"Operating System\\\"\\n\\\"iPhone 13 Pro Max\\\",\\\"September 24, 2021\\\",\\\"6.7 inch\\\","
+                + "\\\"1284 x 2778\\\",\\\"Hexa-core\\\",\\\"6 GB\\\",\\\"128, 256, 512 GB, 1TB\\\",\\\"12 MP\\\","
+                + "\\\"4352 mAh\\\",\\\"iOS 15\\\"\"}";
+    }
+
+    private static String workflowEventStream(int nodes, int chunks) {
+        String head = "\"workflow_run_id\":\"5ad498-f0c7-4085-b384-88cbe6290\",\"task_id\":\"5ad4cb98-f0c7-4085-b384-88c403be6290\"";
+        StringBuilder sb = new StringBuilder();
+        event(sb, "{\"event\":\"workflow_started\"," + head + ",\"data\":{\"id\":\"5ad498-f0c7-4085-b384-88cbe6290\","
+                + "\"workflow_id\":\"dfjasklfjdslag\",\"created_at\":1679586595}}");
+        for (int i = 0; i < nodes; i++) {
+            event(sb, "{\"event\":\"node_started\"," + head + ",\"data\":{\"id\":\"node-run-" + i + "\",\"node_id\":\"node-" + i
+                    + "\",\"node_type\":\"llm\",\"title\":\"LLM " + i + "\",\"index\":" + i + ",\"predecessor_node_id\":\"node-" + (i - 1)
+                    + "\",\"inputs\":{\"query\":\"What are the Q1 sales trends?\",\"context\":\"" + repeat("Quarterly revenue grew. ", 20)
+                    + "\"},\"created_at\":1679586595}}");
+            event(sb, "{\"event\":\"node_finished\"," + head + ",\"data\":{\"id\":\"node-run-" + i + "\",\"node_id\":\"node-" + i
+                    + "\",\"index\":" + i + ",\"predecessor_node_id\":\"node-" + (i - 1) + "\",\"inputs\":{\"query\":\"What are the Q1 sales trends?\"},"
+                    + "\"outputs\":{\"text\":\"" + repeat("Sales rose 12% quarter over quarter. ", 20) + "\"},"
+                    + "\"status\":\"succeeded\",\"elapsed_time\":0.324,\"execution_metadata\":{\"total_tokens\":63127864,"
+                    + "\"total_price\":2.378,\"currency\":\"USD\"},\"created_at\":1679586595}}");
+        }
+        for (int i = 0; i < chunks; i++) {
+            event(sb, "{\"event\":\"text_chunk\"," + head + ",\"data\":{\"text\":\"token" + i + " \","
+                    + "\"from_variable_selector\":[\"node-" + (nodes - 1) + "\",\"text\"]}}");
+        }
+        event(sb, "{\"event\":\"workflow_finished\"," + head + ",\"data\":{\"id\":\"5ad498-f0c7-4085-b384-88cbe6290\","
+                + "\"workflow_id\":\"dfjasklfjdslag\",\"status\":\"succeeded\",\"outputs\":{\"text\":\"done\"},"
+                + "\"elapsed_time\":0.324,\"total_tokens\":63127864,\"total_steps\":\"1\",\"created_at\":1679586595,"
+                + "\"finished_at\":1679976595}}");
+        return sb.toString();
+    }
+
+    private static String ttsEventStream(int chunks, int chunkBytes) {
+        String head = "\"task_id\":\"5ad4cb98-f0c7-4085-b384-88c403be6290\",\"message_id\":\"5ad4cb98-f0c7-4085-b384-88c403be6290\"";
+        byte[] audio = new byte[chunkBytes];
+        new Random(1).nextBytes(audio);
+        String base64 = Base64.getEncoder().encodeToString(audio);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < chunks; i++) {
+            event(sb, "{\"event\":\"tts_message\"," + head + ",\"audio\":\"" + base64 + "\",\"created_at\":1679586595}");
+        }
+        event(sb, "{\"event\":\"tts_message_end\"," + head + ",\"audio\":\"\",\"created_at\":1679586595}");
+        return sb.toString();
+    }
+
+    private static void event(StringBuilder sb, String data) {
+        sb.append("data: ").append(data).append("\n\n");
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder sb = new StringBuilder(s.length() * times);
+        for (int i = 0; i < times; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
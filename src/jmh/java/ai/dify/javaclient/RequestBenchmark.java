@@ -0,0 +1,83 @@
+package ai.dify.javaclient;
+
+import ai.dify.javaclient.http.DifyRoute;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building request payloads and HTTP requests, the work done by
+ * {@link DifyClient#sendRequest} before the call goes on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+    private static final DifyRoute STOP_ROUTE = new DifyRoute("POST", WorkflowClient.WORKFLOW_STOP_ROUTE);
+
+    private WorkflowClient client;
+    private ObjectNode chatPayload;
+    private ObjectNode workflowPayload;
+    private RequestBody body;
+
+    @Setup
+    public void setUp() {
+        client = new WorkflowClient("app-benchmark", "http://localhost:5001/v1");
+
+        chatPayload = client.mapper.createObjectNode();
+        chatPayload.put("inputs", "{\"name\":\"test name a\"}");
+        chatPayload.put("query", "Please tell me a short story in 10 words or less.");
+        chatPayload.put("user", "user-123");
+        chatPayload.put("response_mode", "blocking");
+        chatPayload.put("conversation_id", "45701982-8118-4bc5-8e9b-64562b4555f2");
+
+        Map<String, Object> inputs = new HashMap<>();
+        inputs.put("query", "What are the Q1 sales trends?");
+        inputs.put("role", "FINANCIAL_ANALYST");
+        inputs.put("dataSource", "sales_database");
+        inputs.put("timeRange", "2024-Q1");
+        workflowPayload = client.mapper.createObjectNode();
+        workflowPayload.set("inputs", client.mapper.valueToTree(inputs));
+        workflowPayload.put("user", "user-123");
+        workflowPayload.put("response_mode", "blocking");
+
+        body = client.createJsonPayload(chatPayload);
+    }
+
+    @Benchmark
+    public RequestBody chatPayload() {
+        return client.createJsonPayload(chatPayload);
+    }
+
+    @Benchmark
+    public RequestBody workflowPayload() {
+        return client.createJsonPayload(workflowPayload);
+    }
+
+    @Benchmark
+    public Request buildRequest() {
+        return client.buildRequest(DifyClient.CREATE_CHAT_MESSAGE, null, body);
+    }
+
+    @Benchmark
+    public Request buildRequestWithFormatArgs() {
+        return client.buildRequest(STOP_ROUTE, new String[]{"5ad4cb98-f0c7-4085-b384-88c403be6290"}, body);
+    }
+}
@@ -0,0 +1,64 @@
+package ai.dify.javaclient;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+import ai.dify.javaclient.helper.JsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures binding blocking response bodies into the SDK's DTOs, and binding workflow outputs
+ * into a caller's class through the output map or straight from the buffered tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+    private final ObjectMapper mapper = JsonUtil.buildMapper();
+
+    @Benchmark
+    public ChatMessageResponse chatMessageResponse() throws IOException {
+        return mapper.readValue(BenchmarkPayloads.CHAT_MESSAGE_RESPONSE, ChatMessageResponse.class);
+    }
+
+    @Benchmark
+    public WorkflowRunResponse workflowRunResponse() throws IOException {
+        return mapper.readValue(BenchmarkPayloads.WORKFLOW_RUN_RESPONSE, WorkflowRunResponse.class);
+    }
+
+    @Benchmark
+    public Outputs workflowOutputsViaMap() throws IOException {
+        WorkflowRunResponse response = mapper.readValue(BenchmarkPayloads.WORKFLOW_RUN_RESPONSE, WorkflowRunResponse.class);
+        return mapper.convertValue(response.getData().getOutputs(), Outputs.class);
+    }
+
+    @Benchmark
+    public Outputs workflowOutputsTyped() throws IOException {
+        WorkflowRunResponse response = mapper.readValue(BenchmarkPayloads.WORKFLOW_RUN_RESPONSE, WorkflowRunResponse.class);
+        return response.getData().getOutputs(Outputs.class);
+    }
+
+    /**
+     * Outputs of the benchmarked workflow, as a caller would declare them.
+     */
+    public static class Outputs {
+        public String text;
+        public double score;
+        public List<String> tags;
+    }
+}
@@ -0,0 +1,88 @@
+package ai.dify.javaclient;
+
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.SseReplay;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of a complete streaming workflow call through the client, from
+ * {@link WorkflowClient#runWorkflow} to the last parsed event, with the response replayed
+ * from a recording instead of the network.
+ * <p>
+ * Uses the stream recorded with {@link ai.dify.javaclient.stream.SseRecorder} in the file
+ * given by {@code -p recording=<path>}, or a synthetic stream of {@code 3} nodes and
+ * {@code 50} text chunks.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamReplayBenchmark {
+    private final WorkflowEventParser parser = new WorkflowEventParser();
+    private WorkflowClient client;
+    private Path generated;
+
+    @Param({""})
+    public String recording;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path file;
+        if (recording.isEmpty()) {
+            generated = Files.createTempFile("workflow", ".sse");
+            Files.write(generated, BenchmarkPayloads.WORKFLOW_EVENT_STREAM.getBytes(StandardCharsets.UTF_8));
+            file = generated;
+        } else {
+            file = Paths.get(recording);
+        }
+        OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+                .addInterceptor(SseReplay.interceptor(file, SseReplay.UNTIMED))
+                .build();
+        client = new WorkflowClient("app-benchmark", "http://localhost:5001/v1", httpClient);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (generated != null) {
+            Files.delete(generated);
+        }
+    }
+
+    @Benchmark
+    public void runWorkflowStreaming(Blackhole blackhole) throws Exception {
+        Response response = client.runWorkflow(Collections.emptyMap(), "user-123", true);
+        try (SseReader reader = new SseReader(response.body().source())) {
+            WorkflowEvent event;
+            while ((event = parser.read(reader)) != null) {
+                blackhole.consume(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ai.dify.javaclient;
+
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.helper.JsonUtil;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okio.Buffer;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading and parsing a complete streaming workflow response.
+ * One operation is one stream of {@code 3} nodes and {@code 50} text chunks, or the stream
+ * recorded with {@link ai.dify.javaclient.stream.SseRecorder} in the file given by
+ * {@code -p recording=<path>}. The TTS benchmarks read {@code 20} audio chunks of {@code 8} KiB,
+ * decoded from strings or straight into a sink. {@code parseSelectedEvents} reads only the text
+ * chunks and the end of the run, skipping node inputs and outputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowEventBenchmark {
+    private final WorkflowEventParser parser = new WorkflowEventParser();
+    private final WorkflowEventParser selectingParser = new WorkflowEventParser(JsonUtil.buildMapper(),
+            new HashSet<>(Arrays.asList(WorkflowEvent.EVENT_TEXT_CHUNK, WorkflowEvent.EVENT_WORKFLOW_FINISHED)), true);
+    private final ByteString ttsStream = ByteString.encodeUtf8(BenchmarkPayloads.TTS_EVENT_STREAM);
+    private ByteString stream;
+
+    @Param({""})
+    public String recording;
+
+    @Setup
+    public void setUp() throws IOException {
+        stream = recording.isEmpty()
+                ? ByteString.encodeUtf8(BenchmarkPayloads.WORKFLOW_EVENT_STREAM)
+                : ByteString.of(Files.readAllBytes(Paths.get(recording)));
+    }
+
+    @Benchmark
+    public void readEvents(Blackhole blackhole) throws IOException {
+        SseReader reader = new SseReader(new Buffer().write(stream));
+        String data;
+        while ((data = reader.readEvent()) != null) {
+            blackhole.consume(data);
+        }
+    }
+
+    @Benchmark
+    public void parseEvents(Blackhole blackhole) throws IOException {
+        SseReader reader = new SseReader(new Buffer().write(stream));
+        WorkflowEvent event;
+        while ((event = parser.read(reader)) != null) {
+            blackhole.consume(event);
+        }
+    }
+
+    @Benchmark
+    public void parseSelectedEvents(Blackhole blackhole) throws IOException {
+        SseReader reader = new SseReader(new Buffer().write(stream));
+        WorkflowEvent event;
+        while ((event = selectingParser.read(reader)) != null) {
+            blackhole.consume(event);
+        }
+    }
+
+    @Benchmark
+    public void decodeTtsStrings(Blackhole blackhole) throws IOException {
+        SseReader reader = new SseReader(new Buffer().write(ttsStream));
+        ByteArrayOutputStream audio = new ByteArrayOutputStream();
+        WorkflowEvent event;
+        while ((event = parser.read(reader)) != null) {
+            if (event.isEventType(WorkflowEvent.EVENT_TTS_MESSAGE)) {
+                audio.write(Base64.getDecoder().decode(event.getAudio()));
+            }
+        }
+        blackhole.consume(audio.size());
+    }
+
+    @Benchmark
+    public void decodeTtsSink(Blackhole blackhole) throws IOException {
+        SseReader reader = new SseReader(new Buffer().write(ttsStream));
+        ByteArrayOutputStream audio = new ByteArrayOutputStream();
+        WorkflowEvent event;
+        while ((event = parser.read(reader, audio)) != null) {
+            blackhole.consume(event);
+        }
+        blackhole.consume(audio.size());
+    }
+}
@@ -1,9 +1,17 @@
 package ai.dify.javaclient;
 
 import ai.dify.javaclient.dto.ChatMessageResponse;
-import ai.dify.javaclient.helper.JsonUtil;
+import ai.dify.javaclient.dto.ConversationMessagesResponse;
+import ai.dify.javaclient.dto.compact.CompactChatMessage;
+import ai.dify.javaclient.dto.compact.CompactMessagePage;
+import ai.dify.javaclient.dto.compact.StringCanonicalizer;
+import ai.dify.javaclient.stream.CancellableStream;
+import ai.dify.javaclient.stream.ChatEventListener;
+import ai.dify.javaclient.stream.ChatEventParser;
+import ai.dify.javaclient.stream.SseReader;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import okhttp3.*;
 
@@ -12,13 +20,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * This class represents a client for interacting with the Dify Chat API.
  * It provides methods for creating, retrieving, and managing chat messages and conversations.
  */
 public class ChatClient extends DifyClient {
-    ObjectMapper mapper = JsonUtil.buildMapper();
+    private final ChatEventParser eventParser = new ChatEventParser(mapper);
 
     /**
      * Constructs a new ChatClient with the provided API key.
@@ -39,6 +49,17 @@ public class ChatClient extends DifyClient {
         super(apiKey, baseUrl);
     }
 
+    /**
+     * Constructs a new ChatClient that sends its requests through the given HTTP client.
+     *
+     * @param apiKey     The API key to use for authentication.
+     * @param baseUrl    The base URL of the Dify API.
+     * @param httpClient The HTTP client to send requests with, possibly shared with other clients.
+     */
+    public ChatClient(String apiKey, String baseUrl, OkHttpClient httpClient) {
+        super(apiKey, baseUrl, httpClient);
+    }
+
     /**
      * Generates query parameters in the form of key-value pairs joined by "&".
      *
@@ -78,6 +99,16 @@ public class ChatClient extends DifyClient {
         return chatMessageResponse;
     }
 
+    /**
+     * Creates a new chat message in blocking mode, bound to an immutable compact response with
+     * enum-coded event and mode and fixed-point prices.
+     *
+     * @see #createChatMessage(String, String, String, boolean, String)
+     */
+    public CompactChatMessage createChatMessageCompactSync(String inputs, String query, String user, String conversation_id) throws DifyClientException {
+        return readResponse(createChatMessage(inputs, query, user, false, conversation_id), mapper.readerFor(CompactChatMessage.class));
+    }
+
     /**
      * Creates a new chat message.
      *
@@ -90,6 +121,128 @@ public class ChatClient extends DifyClient {
      * @throws DifyClientException If an error occurs while sending the request.
      */
     public Response createChatMessage(String inputs, String query, String user, boolean stream, String conversation_id) throws DifyClientException {
+        return sendRequest(CREATE_CHAT_MESSAGE, null, createJsonPayload(chatMessagePayload(inputs, query, user, stream, conversation_id)));
+    }
+
+    /**
+     * Creates a new chat message in blocking mode without blocking the caller.
+     * <p>
+     * Cancelling the returned future cancels the underlying HTTP call.
+     * </p>
+     *
+     * @param inputs          The chat message inputs.
+     * @param query           The query associated with the chat message.
+     * @param user            The user associated with the chat message.
+     * @param conversation_id The ID of the conversation, if applicable.
+     * @return A future completed with the chat message response.
+     * @see #createChatMessageSync(String, String, String, String)
+     */
+    public CompletableFuture<ChatMessageResponse> createChatMessageAsync(String inputs, String query, String user, String conversation_id) {
+        return sendRequestAsync(CREATE_CHAT_MESSAGE, null, createJsonPayload(chatMessagePayload(inputs, query, user, false, conversation_id)),
+                ChatMessageResponse.class);
+    }
+
+    /**
+     * Creates a new chat message in streaming mode, returning its events as a stream that stops
+     * the generation on the server when it is cancelled.
+     * <p>
+     * Cancelling or closing the stream before {@code message_end} closes the connection and
+     * calls {@link #stopChatMessage(String, String)} for the task of the message.
+     * </p>
+     *
+     * @param inputs          The chat message inputs.
+     * @param query           The query associated with the chat message.
+     * @param user            The user associated with the chat message, also used to stop it.
+     * @param conversation_id The ID of the conversation, if applicable.
+     * @return The stream of events, read with {@link CancellableStream#next()}.
+     * @throws DifyClientException If an error occurs while sending the request.
+     */
+    public CancellableStream<ChatMessageResponse> streamChatMessage(String inputs, String query, String user, String conversation_id) throws DifyClientException {
+        return openStream(CREATE_CHAT_MESSAGE, createJsonPayload(chatMessagePayload(inputs, query, user, true, conversation_id)),
+                (call, response) -> new ChatStream(call, response, user));
+    }
+
+    /**
+     * Creates a new chat message in streaming mode without blocking the caller, handing its
+     * events to the listener on a thread of a shared pool of daemon threads.
+     *
+     * @param inputs          The chat message inputs.
+     * @param query           The query associated with the chat message.
+     * @param user            The user associated with the chat message, also used to stop it.
+     * @param conversation_id The ID of the conversation, if applicable.
+     * @param listener        The listener to notify.
+     * @return A future completed at the end of the stream.
+     * @see #streamChatMessageAsync(String, String, String, String, ChatEventListener, Executor)
+     */
+    public CompletableFuture<Void> streamChatMessageAsync(String inputs, String query, String user, String conversation_id,
+                                                          ChatEventListener listener) {
+        return streamChatMessageAsync(inputs, query, user, conversation_id, listener, STREAM_READERS);
+    }
+
+    /**
+     * Creates a new chat message in streaming mode without blocking the caller, handing its
+     * events to the listener on the given executor.
+     * <p>
+     * The stream is read by a task of the executor, which runs until the stream ends; the HTTP
+     * client's dispatcher is only used to send the request. Cancelling the returned future
+     * closes the connection and, once the first event arrived, stops the generation on the
+     * server; the listener is then told of a {@link java.util.concurrent.CancellationException}.
+     * </p>
+     *
+     * @param inputs          The chat message inputs.
+     * @param query           The query associated with the chat message.
+     * @param user            The user associated with the chat message, also used to stop it.
+     * @param conversation_id The ID of the conversation, if applicable.
+     * @param listener        The listener to notify.
+     * @param executor        The executor reading the stream; it must run as many tasks at once
+     *                        as streams are open.
+     * @return A future completed at the end of the stream.
+     */
+    public CompletableFuture<Void> streamChatMessageAsync(String inputs, String query, String user, String conversation_id,
+                                                          ChatEventListener listener, Executor executor) {
+        CompletableFuture<Void> future = streamAsync(CREATE_CHAT_MESSAGE, createJsonPayload(chatMessagePayload(inputs, query, user, true, conversation_id)),
+                (call, response) -> new ChatStream(call, response, user), listener::onEvent, executor);
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                listener.onError(error);
+            } else {
+                listener.onComplete();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Stops the generation of a streamed chat message.
+     *
+     * @param taskId The task ID of the message, from any of its streamed events.
+     * @param user   The user associated with the chat message.
+     * @return The HTTP response containing the result of the stop operation.
+     * @throws DifyClientException If an error occurs while sending the request.
+     */
+    public Response stopChatMessage(String taskId, String user) throws DifyClientException {
+        return sendRequest(STOP_CHAT_MESSAGE, new String[]{taskId}, createJsonPayload(stopPayload(user)));
+    }
+
+    /**
+     * Stops the generation of a streamed chat message without blocking the caller.
+     *
+     * @param taskId The task ID of the message, from any of its streamed events.
+     * @param user   The user associated with the chat message.
+     * @return A future completed with the result of the stop operation, or failed with a DifyClientException.
+     * @see #stopChatMessage(String, String)
+     */
+    public CompletableFuture<JsonNode> stopChatMessageAsync(String taskId, String user) {
+        return sendRequestAsync(STOP_CHAT_MESSAGE, new String[]{taskId}, createJsonPayload(stopPayload(user)), JsonNode.class);
+    }
+
+    private ObjectNode stopPayload(String user) {
+        ObjectNode json = mapper.createObjectNode();
+        json.put("user", user);
+        return json;
+    }
+
+    private ObjectNode chatMessagePayload(String inputs, String query, String user, boolean stream, String conversation_id) {
         ObjectNode json = mapper.createObjectNode();
         json.put("inputs", inputs);
         json.put("query", query);
@@ -98,8 +251,36 @@ public class ChatClient extends DifyClient {
         if (conversation_id != null && !conversation_id.isEmpty()) {
             json.put("conversation_id", conversation_id);
         }
+        return json;
+    }
 
-        return sendRequest(CREATE_CHAT_MESSAGE, null, createJsonPayload(json));
+    /**
+     * @see #getConversationMessages(String, String, String, int)
+     */
+    public ConversationMessagesResponse getConversationMessagesSync(String user, String conversation_id, String first_id, int limit) throws DifyClientException {
+        return readResponse(getConversationMessages(user, conversation_id, first_id, limit), ConversationMessagesResponse.class);
+    }
+
+    /**
+     * Retrieves conversation messages as an immutable compact page, e.g. for caching long
+     * histories.
+     *
+     * @param user            The user associated with the conversation.
+     * @param conversation_id The ID of the conversation.
+     * @param first_id        The ID of the first message to start fetching from.
+     * @param limit           The maximum number of messages to retrieve.
+     * @param canonicalizer   The canonicalizer to share repeated identifiers through, or {@code null}.
+     * @return The page of messages.
+     * @throws DifyClientException If an error occurs while sending the request or reading the page.
+     * @see #getConversationMessages(String, String, String, int)
+     */
+    public CompactMessagePage getConversationMessagesCompactSync(String user, String conversation_id, String first_id, int limit,
+                                                                 StringCanonicalizer canonicalizer) throws DifyClientException {
+        ObjectReader reader = mapper.readerFor(CompactMessagePage.class);
+        if (canonicalizer != null) {
+            reader = reader.withAttribute(StringCanonicalizer.class, canonicalizer);
+        }
+        return readResponse(getConversationMessages(user, conversation_id, first_id, limit), reader);
     }
 
     /**
@@ -131,20 +312,20 @@ public class ChatClient extends DifyClient {
     }
 
     /**
-     * Retrieves conversations.
+     * Retrieves conversations, most recently updated first.
      *
      * @param user           The user associated with the conversations.
-     * @param first_id       The ID of the first conversation to start fetching from.
+     * @param last_id        The ID of the last conversation of the previous page, or {@code null} for the first page.
      * @param limit          The maximum number of conversations to retrieve.
      * @param pinned         The pinned status of conversations to retrieve.
      * @return The HTTP response containing the result of the API request.
      * @throws DifyClientException If an error occurs while sending the request.
      */
-    public Response getConversations(String user, String first_id, int limit, String pinned) throws DifyClientException {
+    public Response getConversations(String user, String last_id, int limit, String pinned) throws DifyClientException {
         Map<String, String> queryParams = new HashMap<>();
         queryParams.put("user", user);
-        if (first_id != null && !first_id.isEmpty()) {
-            queryParams.put("first_id", first_id);
+        if (last_id != null && !last_id.isEmpty()) {
+            queryParams.put("last_id", last_id);
         }
         if (limit > 0) {
             queryParams.put("limit", String.valueOf(limit));
@@ -187,4 +368,36 @@ public class ChatClient extends DifyClient {
 
         return sendRequest(DELETE_CONVERSATION, new String[]{conversation_id}, createJsonPayload(json));
     }
+
+    /**
+     * Events of a streamed chat message, stopping its generation when cancelled.
+     */
+    private class ChatStream extends CancellableStream<ChatMessageResponse> {
+        private final String user;
+
+        ChatStream(Call call, Response response, String user) {
+            super(call, response);
+            this.user = user;
+        }
+
+        @Override
+        protected ChatMessageResponse readEvent(SseReader reader) throws IOException {
+            return eventParser.read(reader);
+        }
+
+        @Override
+        protected String taskIdOf(ChatMessageResponse event) {
+            return event.getTask_id();
+        }
+
+        @Override
+        protected boolean isLast(ChatMessageResponse event) {
+            return ChatMessageResponse.EVENT_MESSAGE_END.equals(event.getEvent()) || ChatMessageResponse.EVENT_ERROR.equals(event.getEvent());
+        }
+
+        @Override
+        protected CompletableFuture<?> stopTask(String taskId) {
+            return stopChatMessageAsync(taskId, user);
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package ai.dify.javaclient;
 
+import ai.dify.javaclient.dto.ChatMessageResponse;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.OkHttpClient;
 import okhttp3.Response;
 
 /**
@@ -26,6 +28,24 @@ public class CompletionClient extends DifyClient {
         super(apiKey, baseUrl);
     }
 
+    /**
+     * Constructs a new CompletionClient that sends its requests through the given HTTP client.
+     *
+     * @param apiKey     The API key to use for authentication.
+     * @param baseUrl    The base URL of the Dify API.
+     * @param httpClient The HTTP client to send requests with, possibly shared with other clients.
+     */
+    public CompletionClient(String apiKey, String baseUrl, OkHttpClient httpClient) {
+        super(apiKey, baseUrl, httpClient);
+    }
+
+    /**
+     * @see #createCompletionMessage(String, String, String, boolean)
+     */
+    public ChatMessageResponse createCompletionMessageSync(String inputs, String query, String user) throws DifyClientException {
+        return readResponse(createCompletionMessage(inputs, query, user, false), ChatMessageResponse.class);
+    }
+
     /**
      * Creates a new completion message.
      *
@@ -1,27 +1,73 @@
 package ai.dify.javaclient;
 
 import ai.dify.javaclient.constants.DifyServerConstants;
+import ai.dify.javaclient.dto.FileUploadResponse;
 import ai.dify.javaclient.helper.JsonUtil;
 import ai.dify.javaclient.http.DifyRoute;
+import ai.dify.javaclient.http.FileRequestBody;
+import ai.dify.javaclient.http.UploadProgressListener;
+import ai.dify.javaclient.http.WarmUpReport;
+import ai.dify.javaclient.stream.CancellableStream;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.ConnectionPool;
 import okhttp3.MediaType;
+import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 
 import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * This class serves as a client for interacting with the Dify API.
  * It provides methods for sending various types of requests to the API.
+ * <p>
+ * Clients are thread-safe, so a single instance can serve every thread of a process without
+ * copies or locking. The only mutator is the deprecated {@link #updateApiKey(String)}; other
+ * threads see its new key only in requests built after the call. All clients share one JSON
+ * mapper, which is configured once and never changed afterwards.
+ * </p>
  */
 public class DifyClient {
-    ObjectMapper mapper = JsonUtil.buildMapper();
+
+    /**
+     * The mapper of all clients; Jackson mappers are thread-safe once configured, and sharing
+     * one means its serializer and deserializer caches are built and warmed up only once.
+     */
+    private static final ObjectMapper SHARED_MAPPER = JsonUtil.buildMapper();
+
+    final ObjectMapper mapper = SHARED_MAPPER;
+
+    /**
+     * Reads the asynchronous streams of callers that supply no executor: one daemon thread per
+     * open stream, reused once idle.
+     */
+    static final ExecutorService STREAM_READERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "dify-stream-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * API route for retrieving application parameters.
@@ -47,6 +93,12 @@ public class DifyClient {
      */
     public static final DifyRoute CREATE_CHAT_MESSAGE = new DifyRoute("POST", "/chat-messages");
 
+    /**
+     * API route for stopping the generation of a streamed chat message.
+     * <p>Endpoint: POST /chat-messages/{taskId}/stop</p>
+     */
+    public static final DifyRoute STOP_CHAT_MESSAGE = new DifyRoute("POST", "/chat-messages/%s/stop");
+
     /**
      * API route for retrieving conversation messages.
      * <p>Endpoint: GET /messages?{queryParams}</p>
@@ -55,9 +107,9 @@ public class DifyClient {
 
     /**
      * API route for retrieving conversations.
-     * <p>Endpoint: GET /conversations</p>
+     * <p>Endpoint: GET /conversations?{queryParams}</p>
      */
-    public static final DifyRoute GET_CONVERSATIONS = new DifyRoute("GET", "/conversations");
+    public static final DifyRoute GET_CONVERSATIONS = new DifyRoute("GET", "/conversations?%s");
 
     /**
      * API route for renaming a conversation.
@@ -72,9 +124,22 @@ public class DifyClient {
     public static final DifyRoute DELETE_CONVERSATION = new DifyRoute("DELETE", "/conversations/%s");
 
     /**
-     * API key for authentication with Dify services
+     * API route for uploading a file, e.g. for use as a workflow file input.
+     * <p>Endpoint: POST /files/upload</p>
+     */
+    public static final DifyRoute FILE_UPLOAD = new DifyRoute("POST", "/files/upload");
+
+    /**
+     * Route requested to open connections on warm-up. Any response will do, so the
+     * request asks for headers only.
      */
-    private String apiKey;
+    static final DifyRoute WARM_UP = new DifyRoute("HEAD", "/");
+
+    /**
+     * API key for authentication with Dify services; only changed by the deprecated
+     * {@link #updateApiKey(String)}, and volatile so that the change is seen by all threads
+     */
+    private volatile String apiKey;
 
     /**
      * Base URL of the Dify API server
@@ -84,7 +149,7 @@ public class DifyClient {
     /**
      * HTTP connection pool for managing persistent connections
      */
-    private ConnectionPool connectionPool;
+    private final ConnectionPool connectionPool;
 
     /**
      * OkHttp client instance for executing HTTP requests
@@ -107,30 +172,139 @@ public class DifyClient {
      * @param baseUrl  The base URL of the Dify API.
      */
     public DifyClient(String apiKey, String baseUrl) {
+        this(apiKey, baseUrl, defaultHttpClientBuilder().build());
+    }
+
+    /**
+     * Constructs a new DifyClient that sends its requests through the given HTTP client.
+     * <p>
+     * Clients for different apps or API keys can share one HTTP client and with it one
+     * connection pool and dispatcher. Note that OkHttp's dispatcher runs at most 5
+     * asynchronous calls per host by default.
+     * </p>
+     *
+     * @param apiKey     The API key to use for authentication.
+     * @param baseUrl    The base URL of the Dify API.
+     * @param httpClient The HTTP client to send requests with.
+     */
+    public DifyClient(String apiKey, String baseUrl, OkHttpClient httpClient) {
         this.apiKey = apiKey;
         this.baseUrl = baseUrl;
-        /**
-         * TODO: Provide configuration options for connection pool and timeout settings
-         * Default connection pool: max 5 idle connections, 10 minutes keep-alive
-         * Default read timeout: 60 seconds
-         */
-        this.connectionPool = new ConnectionPool(5,10,TimeUnit.MINUTES);
-        this.client = new OkHttpClient.Builder()
+        this.connectionPool = httpClient.connectionPool();
+        this.client = httpClient;
+    }
+
+    /**
+     * Creates an HTTP client builder with the SDK's default settings, for building an HTTP
+     * client that is shared between several DifyClient instances.
+     * <p>
+     * Default connection pool: max 5 idle connections, 10 minutes keep-alive.
+     * Default read timeout: 60 seconds.
+     * </p>
+     *
+     * @return A new builder.
+     */
+    public static OkHttpClient.Builder defaultHttpClientBuilder() {
+        return new OkHttpClient.Builder()
             .readTimeout(60, TimeUnit.SECONDS)
-            .connectionPool(connectionPool)
-            .build();
+            .connectionPool(new ConnectionPool(5, 10, TimeUnit.MINUTES));
     }
 
     /**
      * Updates the API key used for authentication.
+     * <p>
+     * Requests built before the update, including retries of calls in flight, keep the old key.
+     * </p>
      *
      * @param apiKey The new API key.
+     * @deprecated Clients are meant to be immutable once shared. Create a new client for the new
+     * key instead; it can send its requests through the same {@link OkHttpClient}, see
+     * {@link #DifyClient(String, String, OkHttpClient)}.
      */
+    @Deprecated
     public void updateApiKey(String apiKey) {
         this.apiKey = apiKey;
     }
 
 
+    /**
+     * Warms the client up before it serves traffic: primes the JSON mapper for the SDK's DTOs
+     * and opens connections to the base URL, paying for DNS, TCP and TLS ahead of the first
+     * requests. Blocks until done, so a readiness probe can report ready once it returns.
+     * <p>
+     * The connections are opened by concurrent {@code HEAD} requests that are held until all of
+     * them are connected or failed, so each takes its own connection. They stay in the HTTP client's pool,
+     * which by default keeps up to 5 idle connections for 10 minutes; connections beyond
+     * its limit are closed again.
+     * </p>
+     *
+     * @param connections The number of connections to open; must be positive.
+     * @return How long the warm-up took and how many connections are pooled.
+     * @throws DifyClientException If the mapper cannot be primed. Connection failures are reported
+     *                             in the returned report instead.
+     */
+    public WarmUpReport warmUp(int connections) throws DifyClientException {
+        if (connections <= 0) {
+            throw new IllegalArgumentException("connections must be positive");
+        }
+        long start = System.nanoTime();
+        try {
+            JsonUtil.warmUp(mapper);
+        } catch (IOException e) {
+            DifyClientException ex = new DifyClientException("Error occurred while priming the mapper: " + e.getMessage());
+            ex.initCause(e);
+            throw ex;
+        }
+        long connectStart = System.nanoTime();
+
+        // Each request counts down once connected, or once failed, and then waits for the others
+        CountDownLatch connected = new CountDownLatch(connections);
+        Set<Call> counted = ConcurrentHashMap.newKeySet();
+        long maxWaitMillis = client.connectTimeoutMillis() > 0 ? client.connectTimeoutMillis() : 10_000;
+        // Shares the connection pool and dispatcher with the client
+        OkHttpClient warmUpClient = client.newBuilder()
+                .addNetworkInterceptor(chain -> {
+                    if (counted.add(chain.call())) {
+                        connected.countDown();
+                    }
+                    try {
+                        connected.await(maxWaitMillis, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return chain.proceed(chain.request());
+                })
+                .build();
+
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Thread[] threads = new Thread[connections];
+        for (int i = 0; i < connections; i++) {
+            Call call = warmUpClient.newCall(buildRequest(WARM_UP, null, null));
+            threads[i] = new Thread(() -> {
+                try (Response response = call.execute()) {
+                    // Any status means the connection works
+                } catch (IOException | RuntimeException e) {
+                    error.compareAndSet(null, e);
+                    if (counted.add(call)) {
+                        connected.countDown();
+                    }
+                }
+            }, "dify-warm-up-" + i);
+            threads[i].start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error.compareAndSet(null, e);
+        }
+        long end = System.nanoTime();
+        return new WarmUpReport(connections, client.connectionPool().connectionCount(),
+                connectStart - start, end - connectStart, error.get());
+    }
+
     /**
      * Sends an HTTP request to the Dify API.
      *
@@ -142,19 +316,9 @@ public class DifyClient {
      */
     public Response sendRequest(DifyRoute route, String[] formatArgs, RequestBody body) throws DifyClientException {
         try {
-            String formattedURL = (formatArgs != null && formatArgs.length > 0)
-                    ? String.format(route.url, (Object[]) formatArgs)
-                    : route.url;
-
-            Request request = new Request.Builder()
-                    .url(baseUrl + formattedURL)
-                    .method(route.method, body)
-                    .addHeader("Authorization", "Bearer " + apiKey)
-                    .addHeader("Content-Type", "application/json")
-                    .build();
-
-            Response response = client.newCall(request).execute();
+            Response response = client.newCall(buildRequest(route, formatArgs, body)).execute();
             if (!response.isSuccessful()) {
+                response.close();
                 throw new DifyRequestException("Request failed with status: " + response.code());
             }
             return response;
@@ -164,6 +328,191 @@ public class DifyClient {
     }
 
 
+    /**
+     * Sends an HTTP request to the Dify API asynchronously and binds the response body.
+     * <p>
+     * The request runs on the HTTP client's dispatcher. Cancelling the returned future
+     * cancels the call and releases its connection.
+     * </p>
+     *
+     * @param route        The API route to send the request to.
+     * @param formatArgs   Format arguments for route URL placeholders.
+     * @param body         The request body, if applicable.
+     * @param responseType The type to bind the response body to.
+     * @return A future completed with the bound response body, or failed with a DifyClientException.
+     */
+    public <T> CompletableFuture<T> sendRequestAsync(DifyRoute route, String[] formatArgs, RequestBody body, Class<T> responseType) {
+        final Call call = client.newCall(buildRequest(route, formatArgs, body));
+        final CompletableFuture<T> future = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                DifyClientException ex = new DifyClientException("Error occurred while sending request: " + e.getMessage());
+                ex.initCause(e);
+                future.completeExceptionally(ex);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!response.isSuccessful()) {
+                    response.close();
+                    future.completeExceptionally(new DifyRequestException("Request failed with status: " + response.code()));
+                    return;
+                }
+                try {
+                    future.complete(readResponse(response, responseType));
+                } catch (DifyClientException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Sends a streaming request and wraps the response into a cancellable stream.
+     *
+     * @param route The API route to send the request to.
+     * @param body  The request body, asking for streaming response mode.
+     * @param open  Creates the stream over the call and its successful response.
+     * @return The open stream.
+     * @throws DifyClientException If an error occurs while sending the request.
+     */
+    <S extends CancellableStream<?>> S openStream(DifyRoute route, RequestBody body, BiFunction<Call, Response, S> open) throws DifyClientException {
+        Call call = client.newCall(buildRequest(route, null, body));
+        Response response;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            DifyClientException ex = new DifyClientException("Error occurred while sending request: " + e.getMessage());
+            ex.initCause(e);
+            throw ex;
+        }
+        if (!response.isSuccessful()) {
+            response.close();
+            throw new DifyRequestException("Request failed with status: " + response.code());
+        }
+        return open.apply(call, response);
+    }
+
+    /**
+     * Sends a streaming request asynchronously and hands its events to a consumer, on the given
+     * executor.
+     * <p>
+     * The stream is read on the executor rather than in the HTTP client's callback, so the call
+     * gives back its dispatcher slot as soon as the response headers arrive. Otherwise a few
+     * open streams would hold every slot for their host, and queue the stop requests sent when
+     * other streams are cancelled.
+     * </p>
+     * <p>
+     * Cancelling the returned future cancels the call, or once the response arrived, cancels the
+     * stream and with it the task on the server. A consumer throwing an exception cancels the
+     * stream the same way, and fails the future.
+     * </p>
+     *
+     * @param route    The API route to send the request to.
+     * @param body     The request body, asking for streaming response mode.
+     * @param open     Creates the stream over the call and its successful response.
+     * @param onEvent  The consumer of the events.
+     * @param executor The executor reading the stream, for as long as the stream lasts.
+     * @return A future completed at the end of the stream, or failed with a DifyClientException.
+     */
+    <T> CompletableFuture<Void> streamAsync(DifyRoute route, RequestBody body,
+                                            BiFunction<Call, Response, ? extends CancellableStream<T>> open,
+                                            Consumer<? super T> onEvent, Executor executor) {
+        final Call call = client.newCall(buildRequest(route, null, body));
+        final AtomicReference<CancellableStream<T>> stream = new AtomicReference<>();
+        final CompletableFuture<Void> future = new CompletableFuture<Void>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                CancellableStream<T> opened = stream.get();
+                if (opened != null) {
+                    opened.cancel();
+                } else {
+                    call.cancel();
+                }
+                return cancelled;
+            }
+        };
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                DifyClientException ex = new DifyClientException("Error occurred while sending request: " + e.getMessage());
+                ex.initCause(e);
+                future.completeExceptionally(ex);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!response.isSuccessful()) {
+                    response.close();
+                    future.completeExceptionally(new DifyRequestException("Request failed with status: " + response.code()));
+                    return;
+                }
+                CancellableStream<T> opened = open.apply(call, response);
+                stream.set(opened);
+                // The future may have been cancelled before the stream was published
+                if (future.isCancelled()) {
+                    opened.cancel();
+                    return;
+                }
+                try {
+                    executor.execute(() -> readStream(opened, onEvent, future));
+                } catch (RejectedExecutionException e) {
+                    opened.cancel();
+                    DifyClientException ex = new DifyClientException("Error occurred while reading stream: " + e.getMessage());
+                    ex.initCause(e);
+                    future.completeExceptionally(ex);
+                }
+            }
+        });
+        return future;
+    }
+
+    private static <T> void readStream(CancellableStream<T> stream, Consumer<? super T> onEvent, CompletableFuture<Void> future) {
+        try (CancellableStream<T> opened = stream) {
+            T event;
+            while ((event = opened.next()) != null) {
+                onEvent.accept(event);
+            }
+            future.complete(null);
+        } catch (IOException | RuntimeException e) {
+            DifyClientException ex = new DifyClientException("Error occurred while reading stream: " + e.getMessage());
+            ex.initCause(e);
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Builds the HTTP request for a route. The route is attached as the request's
+     * {@code DifyRoute} tag, so event listeners and interceptors can tell routes apart.
+     *
+     * @param route      The API route to send the request to.
+     * @param formatArgs Format arguments for route URL placeholders.
+     * @param body       The request body, if applicable.
+     * @return The request.
+     */
+    Request buildRequest(DifyRoute route, String[] formatArgs, RequestBody body) {
+        String formattedURL = (formatArgs != null && formatArgs.length > 0)
+                ? String.format(route.url, (Object[]) formatArgs)
+                : route.url;
+
+        return new Request.Builder()
+                .url(baseUrl + formattedURL)
+                .method(route.method, body)
+                .tag(DifyRoute.class, route)
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .addHeader("Content-Type", "application/json")
+                .build();
+    }
+
     /**
      * Sends a message feedback to the Dify API.
      *
@@ -192,15 +541,164 @@ public class DifyClient {
         return sendRequest(APPLICATION, new String[]{user}, null);
     }
 
+    /**
+     * Uploads a file, streaming it from disk without loading it on-heap.
+     *
+     * @param file     The file to upload; its name is sent as the file name.
+     * @param user     The user uploading the file.
+     * @param listener The listener to report upload progress to, or {@link UploadProgressListener#NONE}.
+     * @return The HTTP response containing the uploaded file's details.
+     * @throws DifyClientException If the file cannot be read or an error occurs while sending the request.
+     * @see FileRequestBody
+     */
+    public Response uploadFile(Path file, String user, UploadProgressListener listener) throws DifyClientException {
+        String fileName = file.getFileName().toString();
+        return sendRequest(FILE_UPLOAD, null, fileUploadPayload(fileBody(file, fileName, listener), fileName, user));
+    }
+
+    /**
+     * Uploads the content of an open file channel, from position 0 to its size. The channel
+     * is neither closed nor moved, so several uploads may read it at the same time.
+     *
+     * @param channel  The channel to upload.
+     * @param fileName The file name to send; its extension tells Dify the file type.
+     * @param user     The user uploading the file.
+     * @param listener The listener to report upload progress to, or {@link UploadProgressListener#NONE}.
+     * @return The HTTP response containing the uploaded file's details.
+     * @throws DifyClientException If the channel cannot be read or an error occurs while sending the request.
+     */
+    public Response uploadFile(FileChannel channel, String fileName, String user, UploadProgressListener listener) throws DifyClientException {
+        try {
+            FileRequestBody body = FileRequestBody.of(channel, contentTypeOf(fileName), listener);
+            return sendRequest(FILE_UPLOAD, null, fileUploadPayload(body, fileName, user));
+        } catch (IOException e) {
+            DifyClientException ex = new DifyClientException("Error occurred while reading file: " + e.getMessage());
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    /**
+     * Uploads a file and binds the response into a {@link FileUploadResponse}.
+     *
+     * @param file     The file to upload.
+     * @param user     The user uploading the file.
+     * @param listener The listener to report upload progress to, or {@link UploadProgressListener#NONE}.
+     * @return The uploaded file, whose {@code id} can be passed as {@code upload_file_id}.
+     * @throws DifyClientException If the file cannot be read or an error occurs while sending the request.
+     * @see #uploadFile(Path, String, UploadProgressListener)
+     */
+    public FileUploadResponse uploadFileSync(Path file, String user, UploadProgressListener listener) throws DifyClientException {
+        return readResponse(uploadFile(file, user, listener), FileUploadResponse.class);
+    }
+
+    /**
+     * Uploads a file asynchronously on the HTTP client's dispatcher, so that several files
+     * can be uploaded concurrently. Each upload streams its file on its own.
+     *
+     * @param file     The file to upload.
+     * @param user     The user uploading the file.
+     * @param listener The listener to report upload progress to, called on the dispatcher thread.
+     * @return A future completed with the uploaded file, or failed with a DifyClientException.
+     * @see #uploadFile(Path, String, UploadProgressListener)
+     */
+    public CompletableFuture<FileUploadResponse> uploadFileAsync(Path file, String user, UploadProgressListener listener) {
+        String fileName = file.getFileName().toString();
+        RequestBody body;
+        try {
+            body = fileUploadPayload(fileBody(file, fileName, listener), fileName, user);
+        } catch (DifyClientException e) {
+            CompletableFuture<FileUploadResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return sendRequestAsync(FILE_UPLOAD, null, body, FileUploadResponse.class);
+    }
+
+    private static FileRequestBody fileBody(Path file, String fileName, UploadProgressListener listener) throws DifyClientException {
+        try {
+            return FileRequestBody.of(file, contentTypeOf(fileName), listener);
+        } catch (IOException e) {
+            DifyClientException ex = new DifyClientException("Error occurred while reading file: " + e.getMessage());
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    private static MediaType contentTypeOf(String fileName) {
+        String type = URLConnection.guessContentTypeFromName(fileName);
+        return MediaType.parse(type != null ? type : "application/octet-stream");
+    }
+
+    /**
+     * Creates the multipart body of a file upload. Its length is known up front, so it is
+     * sent with a content length rather than chunked.
+     *
+     * @param file     The body of the file part.
+     * @param fileName The file name.
+     * @param user     The user uploading the file.
+     * @return The created request body.
+     */
+    RequestBody fileUploadPayload(RequestBody file, String fileName, String user) {
+        return new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("file", fileName, file)
+                .addFormDataPart("user", user)
+                .build();
+    }
+
+    /**
+     * Reads the body of a successful response and binds it to the given type.
+     *
+     * @param response The HTTP response to read; its body is consumed and closed.
+     * @param type     The type to bind the body to.
+     * @return The bound response body.
+     * @throws DifyClientException If the body cannot be read or parsed.
+     */
+    <T> T readResponse(Response response, Class<T> type) throws DifyClientException {
+        try (Response closeable = response) {
+            assert closeable.body() != null;
+            return mapper.readValue(closeable.body().string(), type);
+        } catch (IOException e) {
+            DifyClientException ex = new DifyClientException(e.getMessage());
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads the body of a successful response with the given reader, e.g. one carrying
+     * attributes for custom deserializers.
+     *
+     * @param response The HTTP response to read; its body is consumed and closed.
+     * @param reader   The reader to bind the body with.
+     * @return The bound response body.
+     * @throws DifyClientException If the body cannot be read or parsed.
+     */
+    <T> T readResponse(Response response, ObjectReader reader) throws DifyClientException {
+        try (Response closeable = response) {
+            assert closeable.body() != null;
+            return reader.readValue(closeable.body().byteStream());
+        } catch (IOException e) {
+            DifyClientException ex = new DifyClientException(e.getMessage());
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
     /**
      * Creates a request body with the given JSON object.
+     * <p>
+     * The JSON is encoded straight to UTF-8 bytes, without an intermediate string, which
+     * matters for large workflow inputs.
+     * </p>
      *
      * @param jsonObject The JSON object to be used in the request body.
      * @return The created request body.
      */
     RequestBody createJsonPayload(ObjectNode jsonObject) {
         try {
-            return RequestBody.create(mapper.writeValueAsString(jsonObject),
+            return RequestBody.create(mapper.writeValueAsBytes(jsonObject),
                 MediaType.parse("application/json"));
         } catch (JsonProcessingException e) {
             throw new RuntimeException(e);
@@ -1,23 +1,29 @@
 package ai.dify.javaclient;
 
+import ai.dify.javaclient.dto.WorkflowEvent;
 import ai.dify.javaclient.dto.WorkflowRunResponse;
-import ai.dify.javaclient.helper.JsonUtil;
 import ai.dify.javaclient.http.DifyRoute;
+import ai.dify.javaclient.stream.CancellableStream;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventListener;
+import ai.dify.javaclient.stream.WorkflowEventParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
 import okhttp3.Response;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Client for interacting with Dify Workflow API.
  * Provides methods to run workflows, retrieve workflow status, and manage workflow executions.
  */
 public class WorkflowClient extends DifyClient {
-    ObjectMapper mapper = JsonUtil.buildMapper();
-
     /**
      * API route for running a workflow.
      * <p>Endpoint: POST /workflows/run</p>
@@ -37,6 +43,23 @@ public class WorkflowClient extends DifyClient {
      */
     public static final String WORKFLOW_STOP_ROUTE = "/workflows/tasks/%s/stop";
 
+    /**
+     * Route for running a workflow.
+     */
+    public static final DifyRoute RUN_WORKFLOW = new DifyRoute("POST", WORKFLOW_RUN_ROUTE);
+
+    /**
+     * Route for retrieving workflow execution status.
+     */
+    public static final DifyRoute GET_WORKFLOW_STATUS = new DifyRoute("GET", WORKFLOW_STATUS_ROUTE);
+
+    /**
+     * Route for stopping a running workflow task.
+     */
+    public static final DifyRoute STOP_WORKFLOW = new DifyRoute("POST", WORKFLOW_STOP_ROUTE);
+
+    private final WorkflowEventParser eventParser = new WorkflowEventParser(mapper);
+
     /**
      * Constructs a new WorkflowClient with the provided API key.
      *
@@ -56,6 +79,17 @@ public class WorkflowClient extends DifyClient {
         super(apiKey, baseUrl);
     }
 
+    /**
+     * Constructs a new WorkflowClient that sends its requests through the given HTTP client.
+     *
+     * @param apiKey     The API key to use for authentication.
+     * @param baseUrl    The base URL of the Dify API.
+     * @param httpClient The HTTP client to send requests with, possibly shared with other clients.
+     */
+    public WorkflowClient(String apiKey, String baseUrl, OkHttpClient httpClient) {
+        super(apiKey, baseUrl, httpClient);
+    }
+
     /**
      * Runs a workflow synchronously and waits for completion.
      *
@@ -97,6 +131,74 @@ public class WorkflowClient extends DifyClient {
      * @throws DifyClientException If an error occurs while executing the workflow.
      */
     public Response runWorkflow(Map<String, Object> inputs, String user, boolean streaming) throws DifyClientException {
+        // Use the fixed endpoint without workflow ID
+        return sendRequest(RUN_WORKFLOW, null, createJsonPayload(runWorkflowPayload(inputs, user, streaming)));
+    }
+
+    /**
+     * Runs a workflow in streaming mode, returning its events as a stream that stops the run on
+     * the server when it is cancelled.
+     * <p>
+     * Cancelling or closing the stream before {@code workflow_finished} closes the connection and
+     * calls {@link #stopWorkflow(String, String)} for the task of the run.
+     * </p>
+     *
+     * @param inputs The input variables for the workflow.
+     * @param user   The user identifier, also used to stop the run.
+     * @return The stream of events, read with {@link CancellableStream#next()}.
+     * @throws DifyClientException If an error occurs while starting the workflow.
+     */
+    public CancellableStream<WorkflowEvent> streamWorkflow(Map<String, Object> inputs, String user) throws DifyClientException {
+        return openStream(RUN_WORKFLOW, createJsonPayload(runWorkflowPayload(inputs, user, true)),
+                (call, response) -> new WorkflowStream(call, response, user));
+    }
+
+    /**
+     * Runs a workflow in streaming mode without blocking the caller, handing its events to the
+     * listener on a thread of a shared pool of daemon threads.
+     *
+     * @param inputs   The input variables for the workflow.
+     * @param user     The user identifier, also used to stop the run.
+     * @param listener The listener to notify.
+     * @return A future completed at the end of the stream.
+     * @see #streamWorkflowAsync(Map, String, WorkflowEventListener, Executor)
+     */
+    public CompletableFuture<Void> streamWorkflowAsync(Map<String, Object> inputs, String user, WorkflowEventListener listener) {
+        return streamWorkflowAsync(inputs, user, listener, STREAM_READERS);
+    }
+
+    /**
+     * Runs a workflow in streaming mode without blocking the caller, handing its events to the
+     * listener on the given executor.
+     * <p>
+     * The stream is read by a task of the executor, which runs until the stream ends; the HTTP
+     * client's dispatcher is only used to send the request. Cancelling the returned future
+     * closes the connection and, once the first event arrived, stops the run on the server; the
+     * listener is then told of a {@link java.util.concurrent.CancellationException}.
+     * </p>
+     *
+     * @param inputs   The input variables for the workflow.
+     * @param user     The user identifier, also used to stop the run.
+     * @param listener The listener to notify.
+     * @param executor The executor reading the stream; it must run as many tasks at once as
+     *                 streams are open.
+     * @return A future completed at the end of the stream.
+     */
+    public CompletableFuture<Void> streamWorkflowAsync(Map<String, Object> inputs, String user, WorkflowEventListener listener,
+                                                       Executor executor) {
+        CompletableFuture<Void> future = streamAsync(RUN_WORKFLOW, createJsonPayload(runWorkflowPayload(inputs, user, true)),
+                (call, response) -> new WorkflowStream(call, response, user), listener::onEvent, executor);
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                listener.onError(error);
+            } else {
+                listener.onComplete();
+            }
+        });
+        return future;
+    }
+
+    private ObjectNode runWorkflowPayload(Map<String, Object> inputs, String user, boolean streaming) {
         ObjectNode json = mapper.createObjectNode();
 
         // Add workflow inputs
@@ -110,11 +212,7 @@ public class WorkflowClient extends DifyClient {
 
         json.put("user", user);
         json.put("response_mode", streaming ? "streaming" : "blocking");
-
-        // Use the fixed endpoint without workflow ID
-        String url = WORKFLOW_RUN_ROUTE;
-
-        return sendRequest(new DifyRoute("POST", url), null, createJsonPayload(json));
+        return json;
     }
 
     /**
@@ -125,8 +223,23 @@ public class WorkflowClient extends DifyClient {
      * @throws DifyClientException If an error occurs while retrieving the status.
      */
     public Response getWorkflowStatus(String workflowRunId) throws DifyClientException {
-        String url = String.format(WORKFLOW_STATUS_ROUTE, workflowRunId);
-        return sendRequest(new DifyRoute("GET", url), null, null);
+        return sendRequest(GET_WORKFLOW_STATUS, new String[]{workflowRunId}, null);
+    }
+
+    /**
+     * Retrieves the status of a workflow run and binds it into a {@link WorkflowRunResponse}.
+     *
+     * @param workflowRunId The ID of the workflow run to check.
+     * @return The workflow run, with its details in {@link WorkflowRunResponse#getData()}.
+     * @throws DifyClientException If an error occurs while retrieving the status.
+     * @see #getWorkflowStatus(String)
+     */
+    public WorkflowRunResponse getWorkflowStatusSync(String workflowRunId) throws DifyClientException {
+        WorkflowRunResponse.WorkflowRunData data = readResponse(getWorkflowStatus(workflowRunId), WorkflowRunResponse.WorkflowRunData.class);
+        WorkflowRunResponse workflowResponse = new WorkflowRunResponse();
+        workflowResponse.setWorkflow_run_id(workflowRunId);
+        workflowResponse.setData(data);
+        return workflowResponse;
     }
 
     /**
@@ -141,23 +254,53 @@ public class WorkflowClient extends DifyClient {
         ObjectNode json = mapper.createObjectNode();
         json.put("user", user);
 
-        String url = String.format(WORKFLOW_STOP_ROUTE, taskId);
-        return sendRequest(new DifyRoute("POST", url), null, createJsonPayload(json));
+        return sendRequest(STOP_WORKFLOW, new String[]{taskId}, createJsonPayload(json));
     }
 
     /**
-     * Creates a request body with the given JSON object.
+     * Stops a running workflow task without blocking the caller.
      *
-     * @param jsonObject The JSON object to be used in the request body.
-     * @return The created request body.
+     * @param taskId The ID of the task to stop.
+     * @param user   The user identifier who is stopping the task.
+     * @return A future completed with the result of the stop operation, or failed with a DifyClientException.
+     * @see #stopWorkflow(String, String)
      */
-    @Override
-    okhttp3.RequestBody createJsonPayload(ObjectNode jsonObject) {
-        try {
-            return okhttp3.RequestBody.create(mapper.writeValueAsString(jsonObject),
-                    okhttp3.MediaType.parse("application/json"));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+    public CompletableFuture<JsonNode> stopWorkflowAsync(String taskId, String user) {
+        ObjectNode json = mapper.createObjectNode();
+        json.put("user", user);
+
+        return sendRequestAsync(STOP_WORKFLOW, new String[]{taskId}, createJsonPayload(json), JsonNode.class);
+    }
+
+    /**
+     * Events of a streamed workflow run, stopping the run when cancelled.
+     */
+    private class WorkflowStream extends CancellableStream<WorkflowEvent> {
+        private final String user;
+
+        WorkflowStream(Call call, Response response, String user) {
+            super(call, response);
+            this.user = user;
+        }
+
+        @Override
+        protected WorkflowEvent readEvent(SseReader reader) throws IOException {
+            return eventParser.read(reader);
+        }
+
+        @Override
+        protected String taskIdOf(WorkflowEvent event) {
+            return event.getTask_id();
+        }
+
+        @Override
+        protected boolean isLast(WorkflowEvent event) {
+            return event.isEventType(WorkflowEvent.EVENT_WORKFLOW_FINISHED) || event.isEventType(WorkflowEvent.EVENT_ERROR);
+        }
+
+        @Override
+        protected CompletableFuture<?> stopTask(String taskId) {
+            return stopWorkflowAsync(taskId, user);
         }
     }
 }
@@ -0,0 +1,40 @@
+package ai.dify.javaclient.batch;
+
+import lombok.Value;
+
+/**
+ * Outcome of a single item of a batch run.
+ *
+ * @param <I> The input type.
+ * @param <R> The response type.
+ */
+@Value
+public class BatchResult<I, R> {
+
+    /**
+     * Zero-based position of the item in the input sequence
+     */
+    long index;
+
+    /**
+     * The input the item was run with
+     */
+    I input;
+
+    /**
+     * The response, or {@code null} if the item failed
+     */
+    R response;
+
+    /**
+     * The failure, or {@code null} if the item succeeded
+     */
+    Exception error;
+
+    /**
+     * @return {@code true} if the item completed without error.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,293 @@
+package ai.dify.javaclient.batch;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a sequence of inputs against a Dify API with bounded concurrency and rate.
+ * <p>
+ * Inputs are pulled lazily from the source as capacity frees up, so at most
+ * {@code maxConcurrency} inputs and results are held at any time regardless of the size
+ * of the input set. Results are produced either in input order or in completion order.
+ * Failures of single items are reported in their {@link BatchResult} and do not stop
+ * the batch.
+ * </p>
+ * <p>
+ * Result iterators and streams must be consumed from a single thread. The runner itself
+ * is thread-safe and may serve several batches at once; concurrency and rate limits apply
+ * to all of them together.
+ * </p>
+ *
+ * @param <I> The input type.
+ * @param <R> The response type.
+ */
+public abstract class BatchRunner<I, R> implements AutoCloseable {
+    private final int maxConcurrency;
+    private final RateLimiter rateLimiter;
+    private final ExecutorService executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Constructs a new BatchRunner.
+     *
+     * @param maxConcurrency       The maximum number of requests in flight at once.
+     * @param maxRequestsPerSecond The maximum request rate, or a non-positive value for no limit.
+     */
+    protected BatchRunner(int maxConcurrency, double maxRequestsPerSecond) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.rateLimiter = new RateLimiter(maxRequestsPerSecond);
+        this.executor = Executors.newFixedThreadPool(maxConcurrency, new BatchThreadFactory());
+    }
+
+    /**
+     * Executes a single input.
+     *
+     * @param input The input.
+     * @return The response.
+     * @throws Exception If the request fails.
+     */
+    protected abstract R execute(I input) throws Exception;
+
+    /**
+     * Runs the inputs and returns results in input order.
+     * <p>
+     * A slow item holds back the results after it, but never more than
+     * {@code maxConcurrency} items are started ahead of the oldest unfinished one.
+     * </p>
+     *
+     * @param inputs The inputs to run.
+     * @return A lazy iterator over the results.
+     */
+    public Iterator<BatchResult<I, R>> runOrdered(Iterator<? extends I> inputs) {
+        return new OrderedIterator(inputs);
+    }
+
+    /**
+     * Runs the inputs and returns results as they complete.
+     * <p>
+     * Inputs are read on the consumer's thread, whenever it asks for a result. The input
+     * iterator may therefore report no further input while results are pending, to hold
+     * back its next input; it is asked again before each result.
+     * </p>
+     *
+     * @param inputs The inputs to run.
+     * @return A lazy iterator over the results.
+     */
+    public Iterator<BatchResult<I, R>> runUnordered(Iterator<? extends I> inputs) {
+        return new UnorderedIterator(inputs);
+    }
+
+    /**
+     * @see #runOrdered(Iterator)
+     */
+    public Stream<BatchResult<I, R>> runOrdered(Stream<? extends I> inputs) {
+        return toStream(runOrdered(inputs.iterator()), Spliterator.ORDERED).onClose(inputs::close);
+    }
+
+    /**
+     * @see #runUnordered(Iterator)
+     */
+    public Stream<BatchResult<I, R>> runUnordered(Stream<? extends I> inputs) {
+        return toStream(runUnordered(inputs.iterator()), 0).onClose(inputs::close);
+    }
+
+    /**
+     * Runs all inputs and hands each result to the consumer as it completes.
+     * Returns when every input has been processed.
+     *
+     * @param inputs   The inputs to run.
+     * @param consumer The consumer of the results, called on the calling thread.
+     */
+    public void run(Iterator<? extends I> inputs, Consumer<? super BatchResult<I, R>> consumer) {
+        runUnordered(inputs).forEachRemaining(consumer);
+    }
+
+    /**
+     * @return The number of inputs submitted so far.
+     */
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    /**
+     * @return The number of inputs that completed successfully.
+     */
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    /**
+     * @return The number of inputs that failed.
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return The number of inputs currently running or waiting for a rate permit.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Stops the worker threads. Requests already running are interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private BatchResult<I, R> call(long index, I input) {
+        try {
+            rateLimiter.acquire();
+            R response = execute(input);
+            succeeded.incrementAndGet();
+            return new BatchResult<>(index, input, response, null);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            failed.incrementAndGet();
+            return new BatchResult<>(index, input, null, e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private BatchResult<I, R> await(Future<BatchResult<I, R>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch result", e);
+        } catch (ExecutionException e) {
+            // call() reports exceptions in its result, so only an Error can get here
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> Stream<T> toStream(Iterator<T> iterator, int characteristics) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Keeps a window of started items and hands out the oldest one first.
+     */
+    private class OrderedIterator implements Iterator<BatchResult<I, R>> {
+        private final Iterator<? extends I> inputs;
+        private final ArrayDeque<Future<BatchResult<I, R>>> window = new ArrayDeque<>();
+        private long nextIndex;
+
+        OrderedIterator(Iterator<? extends I> inputs) {
+            this.inputs = inputs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (window.size() < maxConcurrency && inputs.hasNext()) {
+                final long index = nextIndex++;
+                final I input = inputs.next();
+                submitted.incrementAndGet();
+                inFlight.incrementAndGet();
+                window.add(executor.submit(() -> call(index, input)));
+            }
+            return !window.isEmpty();
+        }
+
+        @Override
+        public BatchResult<I, R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return await(window.poll());
+        }
+    }
+
+    /**
+     * Keeps up to {@code maxConcurrency} items running and hands out whichever finishes first.
+     */
+    private class UnorderedIterator implements Iterator<BatchResult<I, R>> {
+        private final Iterator<? extends I> inputs;
+        private final BlockingQueue<Future<BatchResult<I, R>>> completed = new LinkedBlockingQueue<>();
+        private int pending;
+        private long nextIndex;
+
+        UnorderedIterator(Iterator<? extends I> inputs) {
+            this.inputs = inputs;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending < maxConcurrency && inputs.hasNext()) {
+                final long index = nextIndex++;
+                final I input = inputs.next();
+                submitted.incrementAndGet();
+                inFlight.incrementAndGet();
+                pending++;
+                executor.execute(new FutureTask<BatchResult<I, R>>(() -> call(index, input)) {
+                    @Override
+                    protected void done() {
+                        completed.add(this);
+                    }
+                });
+            }
+            return pending > 0;
+        }
+
+        @Override
+        public BatchResult<I, R> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Future<BatchResult<I, R>> result;
+            try {
+                result = completed.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for batch result", e);
+            }
+            pending--;
+            return await(result);
+        }
+    }
+
+    private static class BatchThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "dify-batch-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
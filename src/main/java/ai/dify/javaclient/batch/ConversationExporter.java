@@ -0,0 +1,411 @@
+package ai.dify.javaclient.batch;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.helper.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Data;
+import lombok.Value;
+import okhttp3.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Exports the conversation history of a set of users to an NDJSON file or channel.
+ * <p>
+ * The conversations of each user are listed page by page with the {@code last_id} cursor, and
+ * the messages of up to {@code maxConcurrency} conversations are fetched in parallel, page by
+ * page with the {@code first_id} cursor. Each page is appended to the output as soon as it
+ * arrives, so at most one page per conversation in flight is held at any time, however long
+ * the history.
+ * </p>
+ * <p>
+ * Every conversation is written as one line {@code {"user": ..., "conversation": {...}}},
+ * followed by one line {@code {"user": ..., "conversation_id": ..., "message": {...}}} per
+ * message, as returned by the API. Pages are written newest first and messages oldest first
+ * within a page; lines of different conversations may interleave.
+ * </p>
+ * <p>
+ * When exporting to a file, progress is checkpointed to a small JSON file: the user and
+ * conversation the listing has reached, the message cursor of every conversation started but
+ * not finished, and the output size, all taken at the same moment. On restart, the output is
+ * truncated to that size and the export carries on from the cursors, so every line is written
+ * exactly once. Conversations that fail are kept in the checkpoint and retried by the next
+ * run. The same users must be passed to every run of an export.
+ * </p>
+ */
+public class ConversationExporter {
+
+    /**
+     * Default page size of conversations and messages (the API maximum).
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Default number of pages written between two checkpoints.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+
+    private final ObjectMapper mapper = JsonUtil.buildMapper();
+    private final ChatClient client;
+    private final int maxConcurrency;
+    private final int pageSize;
+    private final int checkpointInterval;
+
+    /**
+     * Constructs a new ConversationExporter with the default page size and checkpoint interval.
+     *
+     * @param client         The client used to read conversations.
+     * @param maxConcurrency The maximum number of conversations exported at once.
+     */
+    public ConversationExporter(ChatClient client, int maxConcurrency) {
+        this(client, maxConcurrency, DEFAULT_PAGE_SIZE, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Constructs a new ConversationExporter.
+     *
+     * @param client             The client used to read conversations.
+     * @param maxConcurrency     The maximum number of conversations exported at once.
+     * @param pageSize           The number of conversations or messages requested per page.
+     * @param checkpointInterval The number of pages written between two checkpoints.
+     */
+    public ConversationExporter(ChatClient client, int maxConcurrency, int pageSize, int checkpointInterval) {
+        if (pageSize <= 0 || pageSize > DEFAULT_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + DEFAULT_PAGE_SIZE);
+        }
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval must be positive");
+        }
+        this.client = client;
+        this.maxConcurrency = maxConcurrency;
+        this.pageSize = pageSize;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Exports the conversations of the users to a file, resuming a previous run if the
+     * checkpoint exists.
+     *
+     * @param users      The users whose conversations are exported.
+     * @param output     The output NDJSON file; created if missing, truncated to the
+     *                   checkpointed size otherwise.
+     * @param checkpoint The checkpoint file; created if missing.
+     * @return Counts of what this run exported.
+     * @throws IOException         If a file cannot be read or written.
+     * @throws DifyClientException If the conversations of a user cannot be listed; the
+     *                             checkpoint is saved first, so the export can be resumed.
+     */
+    public Summary export(List<String> users, Path output, Path checkpoint) throws IOException, DifyClientException {
+        Checkpoint state = Files.exists(checkpoint)
+                ? mapper.readValue(checkpoint.toFile(), Checkpoint.class)
+                : new Checkpoint();
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Lines written after the checkpoint are written again from its cursors
+            out.truncate(state.getOutput_bytes());
+            out.position(out.size());
+            return new Export(users, state, out, checkpoint).run();
+        }
+    }
+
+    /**
+     * Exports the conversations of the users to a channel, for instance a socket or a
+     * compressing stream. The export is not checkpointed, and the channel is not closed.
+     *
+     * @param users  The users whose conversations are exported.
+     * @param output The channel to write NDJSON to.
+     * @return Counts of what was exported.
+     * @throws IOException         If the channel cannot be written.
+     * @throws DifyClientException If the conversations of a user cannot be listed.
+     */
+    public Summary export(List<String> users, WritableByteChannel output) throws IOException, DifyClientException {
+        return new Export(users, new Checkpoint(), output, null).run();
+    }
+
+    /**
+     * Counts of what one run of an export wrote.
+     */
+    @Value
+    public static class Summary {
+
+        /**
+         * Conversations exported completely
+         */
+        long conversations;
+
+        /**
+         * Messages written
+         */
+        long messages;
+
+        /**
+         * Conversations that failed, and are retried by the next run
+         */
+        long failed;
+    }
+
+    /**
+     * Persisted export progress.
+     */
+    @Data
+    static class Checkpoint {
+
+        /**
+         * Index of the user whose conversations are being listed
+         */
+        private int next_user;
+
+        /**
+         * ID of the last conversation of that user handed out, the listing cursor
+         */
+        private String last_conversation_id;
+
+        /**
+         * Conversations handed out but not finished
+         */
+        private List<Pending> pending = new ArrayList<>();
+
+        /**
+         * Output size when the checkpoint was taken
+         */
+        private long output_bytes;
+    }
+
+    /**
+     * A conversation being exported.
+     */
+    @Data
+    static class Pending {
+
+        /**
+         * The user of the conversation
+         */
+        private String user;
+
+        /**
+         * The conversation as listed
+         */
+        private JsonNode conversation;
+
+        /**
+         * ID of the oldest message written, the message cursor, or {@code null} before the first page
+         */
+        private String first_id;
+    }
+
+    /**
+     * One run of an export. Progress and output are guarded by {@code this}, so that a
+     * checkpoint always matches the output it records.
+     */
+    private final class Export implements Iterator<Pending> {
+        private final List<String> users;
+        private final Checkpoint state;
+        private final WritableByteChannel out;
+        private final Path checkpoint;
+        private final Set<Pending> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Deque<Pending> resumed;
+        private final Deque<JsonNode> listed = new ArrayDeque<>();
+        private boolean lastPageListed;
+        private DifyClientException listingError;
+        private long bytesWritten;
+        private long pagesSinceCheckpoint;
+        private long conversations;
+        private long messages;
+
+        Export(List<String> users, Checkpoint state, WritableByteChannel out, Path checkpoint) {
+            this.users = users;
+            this.state = state;
+            this.out = out;
+            this.checkpoint = checkpoint;
+            this.pending.addAll(state.getPending());
+            this.resumed = new ArrayDeque<>(state.getPending());
+            this.bytesWritten = state.getOutput_bytes();
+        }
+
+        Summary run() throws IOException, DifyClientException {
+            long failed = 0;
+            try (BatchRunner<Pending, Void> runner = new BatchRunner<Pending, Void>(maxConcurrency, 0) {
+                @Override
+                protected Void execute(Pending conversation) throws Exception {
+                    exportMessages(conversation);
+                    return null;
+                }
+            }) {
+                Iterator<BatchResult<Pending, Void>> results = runner.runUnordered(this);
+                while (results.hasNext()) {
+                    BatchResult<Pending, Void> result = results.next();
+                    if (!result.isSuccess()) {
+                        if (result.getError() instanceof IOException) {
+                            // The output cannot be trusted anymore
+                            throw (IOException) result.getError();
+                        }
+                        failed++;
+                    }
+                }
+            }
+            synchronized (this) {
+                saveCheckpoint();
+                if (listingError != null) {
+                    throw listingError;
+                }
+                return new Summary(conversations, messages, failed);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (resumed.isEmpty() && listed.isEmpty() && listingError == null) {
+                try {
+                    if (!listNextPage()) {
+                        break;
+                    }
+                } catch (DifyClientException e) {
+                    listingError = e;
+                }
+            }
+            return !resumed.isEmpty() || !listed.isEmpty();
+        }
+
+        @Override
+        public Pending next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (!resumed.isEmpty()) {
+                return resumed.poll();
+            }
+            JsonNode conversation = listed.poll();
+            Pending next = new Pending();
+            synchronized (this) {
+                next.setUser(users.get(state.getNext_user()));
+                next.setConversation(conversation);
+                pending.add(next);
+                state.setLast_conversation_id(conversation.path("id").asText());
+            }
+            return next;
+        }
+
+        /**
+         * Lists the next page of conversations, moving on to the next user once the last page
+         * of the current one has been handed out. Runs on the thread consuming the results.
+         *
+         * @return Whether there was a user left to list.
+         */
+        private boolean listNextPage() throws DifyClientException {
+            int user;
+            String lastId;
+            synchronized (this) {
+                if (lastPageListed) {
+                    state.setNext_user(state.getNext_user() + 1);
+                    state.setLast_conversation_id(null);
+                    lastPageListed = false;
+                }
+                user = state.getNext_user();
+                lastId = state.getLast_conversation_id();
+            }
+            if (user >= users.size()) {
+                return false;
+            }
+            JsonNode page = read(client.getConversations(users.get(user), lastId, pageSize, null));
+            for (JsonNode conversation : page.path("data")) {
+                listed.add(conversation);
+            }
+            lastPageListed = listed.isEmpty() || !page.path("has_more").asBoolean();
+            return true;
+        }
+
+        private void exportMessages(Pending conversation) throws DifyClientException, IOException {
+            String conversationId = conversation.getConversation().path("id").asText();
+            boolean more = true;
+            while (more) {
+                JsonNode page = read(client.getConversationMessages(conversation.getUser(), conversationId, conversation.getFirst_id(), pageSize));
+                JsonNode data = page.path("data");
+                ByteArrayOutputStream lines = new ByteArrayOutputStream();
+                if (conversation.getFirst_id() == null) {
+                    writeLine(lines, mapper.createObjectNode()
+                            .put("user", conversation.getUser())
+                            .set("conversation", conversation.getConversation()));
+                }
+                for (JsonNode message : data) {
+                    writeLine(lines, mapper.createObjectNode()
+                            .put("user", conversation.getUser())
+                            .put("conversation_id", conversationId)
+                            .set("message", message));
+                }
+                more = page.path("has_more").asBoolean() && data.size() > 0;
+                append(conversation, lines.toByteArray(), data.size(), more ? data.get(0).path("id").asText() : null);
+            }
+        }
+
+        private synchronized void append(Pending conversation, byte[] lines, int messageCount, String firstId) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(lines);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            bytesWritten += lines.length;
+            messages += messageCount;
+            if (firstId != null) {
+                conversation.setFirst_id(firstId);
+            } else {
+                pending.remove(conversation);
+                conversations++;
+            }
+            if (++pagesSinceCheckpoint >= checkpointInterval) {
+                saveCheckpoint();
+            }
+        }
+
+        private void writeLine(ByteArrayOutputStream lines, ObjectNode line) throws IOException {
+            mapper.writeValue(lines, line);
+            lines.write('\n');
+        }
+
+        private JsonNode read(Response response) throws DifyClientException {
+            try (Response closeable = response) {
+                assert closeable.body() != null;
+                return mapper.readTree(closeable.body().byteStream());
+            } catch (IOException e) {
+                DifyClientException ex = new DifyClientException(e.getMessage());
+                ex.initCause(e);
+                throw ex;
+            }
+        }
+
+        private void saveCheckpoint() throws IOException {
+            pagesSinceCheckpoint = 0;
+            if (checkpoint == null) {
+                return;
+            }
+            // The output must be durable before the checkpoint claims it
+            ((FileChannel) out).force(false);
+            state.setPending(new ArrayList<>(pending));
+            state.setOutput_bytes(bytesWritten);
+
+            Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(mapper.writeValueAsBytes(state)));
+                channel.force(true);
+            }
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package ai.dify.javaclient.batch;
+
+import ai.dify.javaclient.CompletionClient;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.helper.JsonUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Data;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Resumable pipeline that runs every record of a JSONL file against a Dify API and
+ * appends the results to an output JSONL file.
+ * <p>
+ * Records are streamed from the input through a fixed-size buffer and run with bounded
+ * concurrency, and each result is appended as soon as it completes. No record is started
+ * more than {@link #WINDOW_FACTOR} times {@code maxConcurrency} records past the oldest
+ * one not done, so a stuck record pauses the run instead of letting the records done
+ * beyond it pile up in memory and in the checkpoint. Memory use is therefore constant
+ * regardless of file size.
+ * </p>
+ * <p>
+ * Every output line carries the zero-based {@code index} of its input record (counting
+ * non-blank lines) and either the {@code response} or the {@code error} message. Failed
+ * records are written like successful ones and are not retried on resume.
+ * </p>
+ * <p>
+ * Progress is checkpointed to a small JSON file: the offset below which every record is
+ * done, the records done beyond it, and the output size at that moment. On restart, the
+ * pipeline seeks to the checkpointed offset and also picks up results appended after the
+ * last checkpoint, so no record that reached the output is run twice.
+ * </p>
+ */
+public class JsonlBatchPipeline {
+
+    /**
+     * Default number of results between two checkpoints.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+
+    /**
+     * How many times {@code maxConcurrency} records may be started past the oldest record
+     * that is not done.
+     */
+    public static final int WINDOW_FACTOR = 4;
+
+    /**
+     * Runs a single input record.
+     */
+    @FunctionalInterface
+    public interface RecordProcessor {
+        /**
+         * Runs a single input record.
+         *
+         * @param record The input record.
+         * @return The response, serialized into the output line.
+         * @throws Exception If the request fails.
+         */
+        Object process(JsonNode record) throws Exception;
+    }
+
+    private final ObjectMapper mapper = JsonUtil.buildMapper();
+    private final RecordProcessor processor;
+    private final int maxConcurrency;
+    private final double maxRequestsPerSecond;
+    private final int checkpointInterval;
+
+    /**
+     * Constructs a new JsonlBatchPipeline with the default checkpoint interval.
+     *
+     * @param processor            The processor run for each record.
+     * @param maxConcurrency       The maximum number of records in flight at once.
+     * @param maxRequestsPerSecond The maximum request rate, or a non-positive value for no limit.
+     */
+    public JsonlBatchPipeline(RecordProcessor processor, int maxConcurrency, double maxRequestsPerSecond) {
+        this(processor, maxConcurrency, maxRequestsPerSecond, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Constructs a new JsonlBatchPipeline.
+     *
+     * @param processor            The processor run for each record.
+     * @param maxConcurrency       The maximum number of records in flight at once.
+     * @param maxRequestsPerSecond The maximum request rate, or a non-positive value for no limit.
+     * @param checkpointInterval   The number of results between two checkpoints.
+     */
+    public JsonlBatchPipeline(RecordProcessor processor, int maxConcurrency, double maxRequestsPerSecond, int checkpointInterval) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("checkpointInterval must be positive");
+        }
+        this.processor = processor;
+        this.maxConcurrency = maxConcurrency;
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Creates a processor that runs a workflow for each record.
+     * <p>
+     * Records have the form {@code {"inputs": {...}, "user": "..."}}; {@code user} is optional.
+     * </p>
+     *
+     * @param client      The client used to run the workflow.
+     * @param defaultUser The user for records that do not name one.
+     * @return The processor.
+     */
+    public static RecordProcessor workflow(WorkflowClient client, String defaultUser) {
+        ObjectMapper mapper = JsonUtil.buildMapper();
+        return record -> {
+            Map<String, Object> inputs = mapper.convertValue(record.path("inputs"), new TypeReference<Map<String, Object>>() {});
+            return client.runWorkflowSync(inputs, record.path("user").asText(defaultUser));
+        };
+    }
+
+    /**
+     * Creates a processor that creates a completion message for each record.
+     * <p>
+     * Records have the form {@code {"inputs": ..., "query": "...", "user": "..."}};
+     * {@code user} is optional.
+     * </p>
+     *
+     * @param client      The client used to create completion messages.
+     * @param defaultUser The user for records that do not name one.
+     * @return The processor.
+     */
+    public static RecordProcessor completion(CompletionClient client, String defaultUser) {
+        return record -> {
+            JsonNode inputs = record.path("inputs");
+            return client.createCompletionMessageSync(inputs.isTextual() ? inputs.asText() : inputs.toString(),
+                    record.path("query").asText(null), record.path("user").asText(defaultUser));
+        };
+    }
+
+    /**
+     * Runs all records of the input file that are not done yet.
+     *
+     * @param input      The input JSONL file.
+     * @param output     The output JSONL file; created if missing, appended to otherwise.
+     * @param checkpoint The checkpoint file; created if missing.
+     * @return Counts of the records processed by this run.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public Summary run(Path input, Path output, Path checkpoint) throws IOException {
+        Checkpoint state = Files.exists(checkpoint)
+                ? mapper.readValue(checkpoint.toFile(), Checkpoint.class)
+                : new Checkpoint();
+        Set<Long> alreadyDone = new HashSet<>(state.getCompleted());
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             JsonlRecordReader reader = new JsonlRecordReader(input, state.getNext_offset(), state.getNext_line(), mapper);
+             BatchRunner<JsonlRecord, Object> runner = new BatchRunner<JsonlRecord, Object>(maxConcurrency, maxRequestsPerSecond) {
+                 @Override
+                 protected Object execute(JsonlRecord record) throws Exception {
+                     if (record.getParseError() != null) {
+                         throw record.getParseError();
+                     }
+                     return processor.process(record.getRecord());
+                 }
+             }) {
+            recoverOutput(out, state.getOutput_bytes(), alreadyDone);
+            out.position(out.size());
+
+            Progress progress = new Progress(state.getNext_line(), state.getNext_offset());
+            SkippingIterator pending = new SkippingIterator(reader, alreadyDone, progress, (long) WINDOW_FACTOR * maxConcurrency);
+            long sinceCheckpoint = 0;
+            Iterator<BatchResult<JsonlRecord, Object>> results = runner.runUnordered(pending);
+            while (results.hasNext()) {
+                BatchResult<JsonlRecord, Object> result = results.next();
+                write(out, result);
+                progress.complete(result.getInput().getIndex(), result.getInput().getEndOffset());
+                if (++sinceCheckpoint >= checkpointInterval) {
+                    saveCheckpoint(checkpoint, out, progress);
+                    sinceCheckpoint = 0;
+                }
+            }
+            saveCheckpoint(checkpoint, out, progress);
+            return new Summary(runner.getSucceeded(), runner.getFailed(), pending.skipped);
+        }
+    }
+
+    /**
+     * Scans output written after the last checkpoint for records that are already done,
+     * dropping a trailing partial line left by a crash.
+     */
+    private void recoverOutput(FileChannel out, long checkpointedBytes, Set<Long> done) throws IOException {
+        long size = out.size();
+        if (size <= checkpointedBytes) {
+            return;
+        }
+        long lastLineEnd = checkpointedBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        byte[] line = new byte[1024];
+        int lineLength = 0;
+        long position = checkpointedBytes;
+        while (position < size) {
+            buffer.clear();
+            int read = out.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] array = buffer.array();
+            for (int i = 0; i < read; i++) {
+                if (array[i] == '\n') {
+                    JsonNode node = mapper.readTree(line, 0, lineLength);
+                    done.add(node.path("index").asLong());
+                    lineLength = 0;
+                    lastLineEnd = position + i + 1;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = array[i];
+                }
+            }
+            position += read;
+        }
+        if (lastLineEnd < size) {
+            out.truncate(lastLineEnd);
+        }
+    }
+
+    private void write(FileChannel out, BatchResult<JsonlRecord, Object> result) throws IOException {
+        ObjectNode line = mapper.createObjectNode();
+        line.put("index", result.getInput().getIndex());
+        if (result.isSuccess()) {
+            line.set("response", mapper.valueToTree(result.getResponse()));
+        } else {
+            line.put("error", String.valueOf(result.getError().getMessage()));
+        }
+        byte[] bytes = mapper.writeValueAsBytes(line);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 1);
+        buffer.put(bytes).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private void saveCheckpoint(Path checkpoint, FileChannel out, Progress progress) throws IOException {
+        // The output must be durable before the checkpoint claims it
+        out.force(false);
+        Checkpoint state = new Checkpoint();
+        state.setNext_line(progress.nextLine);
+        state.setNext_offset(progress.nextOffset);
+        state.setCompleted(new ArrayList<>(progress.doneAhead.keySet()));
+        state.setOutput_bytes(out.size());
+
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(mapper.writeValueAsBytes(state)));
+            channel.force(true);
+        }
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Counts of the records processed by one run of the pipeline.
+     */
+    @Value
+    public static class Summary {
+
+        /**
+         * Records that completed successfully
+         */
+        long succeeded;
+
+        /**
+         * Records that failed
+         */
+        long failed;
+
+        /**
+         * Records skipped because a previous run already completed them
+         */
+        long skipped;
+    }
+
+    /**
+     * Persisted pipeline progress.
+     */
+    @Data
+    static class Checkpoint {
+
+        /**
+         * Index of the first record that may not be done
+         */
+        private long next_line;
+
+        /**
+         * Input offset of that record
+         */
+        private long next_offset;
+
+        /**
+         * Indexes beyond {@code next_line} that are done
+         */
+        private List<Long> completed = new ArrayList<>();
+
+        /**
+         * Output size when the checkpoint was taken
+         */
+        private long output_bytes;
+    }
+
+    /**
+     * Tracks the low watermark below which every record is done.
+     */
+    private static final class Progress {
+        long nextLine;
+        long nextOffset;
+        final TreeMap<Long, Long> doneAhead = new TreeMap<>();
+
+        Progress(long nextLine, long nextOffset) {
+            this.nextLine = nextLine;
+            this.nextOffset = nextOffset;
+        }
+
+        void complete(long index, long endOffset) {
+            if (index != nextLine) {
+                doneAhead.put(index, endOffset);
+                return;
+            }
+            nextLine++;
+            nextOffset = endOffset;
+            Long next;
+            while ((next = doneAhead.remove(nextLine)) != null) {
+                nextLine++;
+                nextOffset = next;
+            }
+        }
+    }
+
+    /**
+     * Hands out the records that are not done yet and marks the others as done, holding
+     * back records too far past the oldest one not done.
+     */
+    private static final class SkippingIterator implements Iterator<JsonlRecord> {
+        private final Iterator<JsonlRecord> records;
+        private final Set<Long> done;
+        private final Progress progress;
+        private final long window;
+        private JsonlRecord next;
+        long skipped;
+
+        SkippingIterator(Iterator<JsonlRecord> records, Set<Long> done, Progress progress, long window) {
+            this.records = records;
+            this.done = done;
+            this.progress = progress;
+            this.window = window;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                if (next == null) {
+                    if (!records.hasNext()) {
+                        return false;
+                    }
+                    next = records.next();
+                }
+                if (next.getIndex() - progress.nextLine >= window) {
+                    // The oldest record not done is in flight; the runner asks again after its result
+                    return false;
+                }
+                if (!done.remove(next.getIndex())) {
+                    return true;
+                }
+                progress.complete(next.getIndex(), next.getEndOffset());
+                skipped++;
+                next = null;
+            }
+        }
+
+        @Override
+        public JsonlRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JsonlRecord record = next;
+            next = null;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ai.dify.javaclient.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Value;
+
+import java.io.IOException;
+
+/**
+ * A single record read from a JSONL file.
+ */
+@Value
+class JsonlRecord {
+
+    /**
+     * Zero-based number of the record among the non-blank lines of the file
+     */
+    long index;
+
+    /**
+     * File offset just past the record's line terminator
+     */
+    long endOffset;
+
+    /**
+     * The parsed record, or {@code null} if the line is not valid JSON
+     */
+    JsonNode record;
+
+    /**
+     * The parse failure, or {@code null} if the line is valid JSON
+     */
+    IOException parseError;
+}
@@ -0,0 +1,154 @@
+package ai.dify.javaclient.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads JSONL records from a file channel through a fixed-size buffer.
+ * <p>
+ * Memory use is bounded by the buffer plus the longest line, independent of file size.
+ * Blank lines are skipped and do not count towards record indexes. Lines that are not
+ * valid JSON are returned with a parse error instead of failing the whole read.
+ * </p>
+ */
+final class JsonlRecordReader implements Iterator<JsonlRecord>, Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper mapper;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private byte[] line = new byte[1024];
+    private int lineLength;
+
+    /**
+     * File offset of the next unread byte in the buffer
+     */
+    private long position;
+    private long nextIndex;
+    private boolean eof;
+    private JsonlRecord next;
+
+    /**
+     * Constructs a new JsonlRecordReader.
+     *
+     * @param path       The file to read.
+     * @param offset     The file offset to start at; must be the start of a line.
+     * @param firstIndex The index of the first record at that offset.
+     * @param mapper     The mapper used to parse records.
+     * @throws IOException If the file cannot be opened.
+     */
+    JsonlRecordReader(Path path, long offset, long firstIndex, ObjectMapper mapper) throws IOException {
+        this.mapper = mapper;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.position = offset;
+        this.nextIndex = firstIndex;
+        this.buffer.flip();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !eof) {
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public JsonlRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        JsonlRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private JsonlRecord readRecord() throws IOException {
+        while (true) {
+            boolean terminated = readLine();
+            if (!isBlank()) {
+                long index = nextIndex++;
+                try {
+                    return new JsonlRecord(index, position, mapper.readTree(line, 0, lineLength), null);
+                } catch (IOException e) {
+                    return new JsonlRecord(index, position, null, e);
+                }
+            }
+            if (!terminated) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Reads the next line into {@link #line}, without its terminator.
+     *
+     * @return {@code true} if the line ended with a newline, {@code false} at end of file.
+     */
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    eof = true;
+                    return false;
+                }
+            }
+            byte[] array = buffer.array();
+            int start = buffer.position();
+            int limit = buffer.limit();
+            for (int i = start; i < limit; i++) {
+                if (array[i] == '\n') {
+                    append(array, start, i - start);
+                    buffer.position(i + 1);
+                    position += i + 1 - start;
+                    return true;
+                }
+            }
+            append(array, start, limit - start);
+            buffer.position(limit);
+            position += limit - start;
+        }
+    }
+
+    private void append(byte[] src, int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(src, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private boolean isBlank() {
+        for (int i = 0; i < lineLength; i++) {
+            if (!Character.isWhitespace(line[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
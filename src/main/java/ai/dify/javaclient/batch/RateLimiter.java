@@ -0,0 +1,46 @@
+package ai.dify.javaclient.batch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal rate limiter that spaces permits evenly at a fixed rate.
+ * <p>
+ * Each caller reserves the next free slot and sleeps until it is due, so there is no
+ * burst allowance. A non-positive rate disables limiting.
+ * </p>
+ */
+final class RateLimiter {
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    /**
+     * Constructs a new RateLimiter.
+     *
+     * @param permitsPerSecond The permitted rate, or a non-positive value for no limit.
+     */
+    RateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the next permit is available.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextFreeNanos);
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
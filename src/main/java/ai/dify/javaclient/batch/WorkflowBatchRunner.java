@@ -0,0 +1,59 @@
+package ai.dify.javaclient.batch;
+
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+
+import java.util.Map;
+
+/**
+ * Runs many workflow input maps through {@link WorkflowClient#runWorkflowSync(Map, String)}
+ * with bounded concurrency and rate.
+ * <p>
+ * Example:
+ * <pre>
+ * try (WorkflowBatchRunner runner = new WorkflowBatchRunner(client, "batch-user", 16, 50)) {
+ *     runner.runUnordered(inputs).forEachRemaining(result -&gt; {
+ *         if (result.isSuccess()) {
+ *             store(result.getIndex(), result.getResponse());
+ *         }
+ *     });
+ * }
+ * </pre>
+ * </p>
+ *
+ * @see BatchRunner
+ */
+public class WorkflowBatchRunner extends BatchRunner<Map<String, Object>, WorkflowRunResponse> {
+    private final WorkflowClient client;
+    private final String user;
+
+    /**
+     * Constructs a new WorkflowBatchRunner without a rate limit.
+     *
+     * @param client         The client used to run the workflow.
+     * @param user           The user identifier sent with every run.
+     * @param maxConcurrency The maximum number of runs in flight at once.
+     */
+    public WorkflowBatchRunner(WorkflowClient client, String user, int maxConcurrency) {
+        this(client, user, maxConcurrency, 0);
+    }
+
+    /**
+     * Constructs a new WorkflowBatchRunner.
+     *
+     * @param client               The client used to run the workflow.
+     * @param user                 The user identifier sent with every run.
+     * @param maxConcurrency       The maximum number of runs in flight at once.
+     * @param maxRequestsPerSecond The maximum rate of runs started, or a non-positive value for no limit.
+     */
+    public WorkflowBatchRunner(WorkflowClient client, String user, int maxConcurrency, double maxRequestsPerSecond) {
+        super(maxConcurrency, maxRequestsPerSecond);
+        this.client = client;
+        this.user = user;
+    }
+
+    @Override
+    protected WorkflowRunResponse execute(Map<String, Object> input) throws Exception {
+        return client.runWorkflowSync(input, user);
+    }
+}
@@ -0,0 +1,266 @@
+package ai.dify.javaclient.cache;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.dto.ConversationMessage;
+import ai.dify.javaclient.dto.ConversationMessagesResponse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local cache of conversation history that only fetches messages it has not seen yet.
+ * <p>
+ * The first access to a conversation loads its full history. Later accesses request the
+ * newest page and, while it does not contain the newest cached message, walk further back
+ * with the {@code first_id} cursor. Reopening a conversation that gained a few messages
+ * therefore costs a single small request.
+ * </p>
+ * <p>
+ * Conversations are evicted in least-recently-used order once the estimated size of all
+ * cached messages exceeds the configured budget. The most recently used conversation is
+ * never evicted, even if it alone exceeds the budget.
+ * </p>
+ * <p>
+ * Instances are thread-safe. Concurrent accesses to the same conversation are serialized,
+ * accesses to different conversations proceed in parallel.
+ * </p>
+ */
+public class ConversationHistoryCache {
+
+    /**
+     * Default page size used when checking a cached conversation for new messages.
+     */
+    public static final int DEFAULT_DELTA_PAGE_SIZE = 20;
+
+    /**
+     * Page size used when loading a conversation for the first time (the API maximum).
+     */
+    public static final int FULL_PAGE_SIZE = 100;
+
+    /**
+     * Approximate fixed heap cost of a cached message besides its strings.
+     */
+    static final long MESSAGE_OVERHEAD_BYTES = 256;
+
+    private final ChatClient client;
+    private final long maxBytes;
+    private final int deltaPageSize;
+
+    /**
+     * Cached conversations in access order, guarded by {@code this}.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Sum of the accounted sizes of all cached conversations, guarded by {@code this}.
+     */
+    private long totalBytes;
+
+    /**
+     * Constructs a new cache with the default delta page size.
+     *
+     * @param client   The client used to fetch conversation messages.
+     * @param maxBytes The approximate memory budget for all cached messages.
+     */
+    public ConversationHistoryCache(ChatClient client, long maxBytes) {
+        this(client, maxBytes, DEFAULT_DELTA_PAGE_SIZE);
+    }
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param client        The client used to fetch conversation messages.
+     * @param maxBytes      The approximate memory budget for all cached messages.
+     * @param deltaPageSize The page size used when checking for new messages.
+     */
+    public ConversationHistoryCache(ChatClient client, long maxBytes, int deltaPageSize) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        if (deltaPageSize <= 0 || deltaPageSize > FULL_PAGE_SIZE) {
+            throw new IllegalArgumentException("deltaPageSize must be between 1 and " + FULL_PAGE_SIZE);
+        }
+        this.client = client;
+        this.maxBytes = maxBytes;
+        this.deltaPageSize = deltaPageSize;
+    }
+
+    /**
+     * Returns the full history of a conversation, fetching only messages not cached yet.
+     *
+     * @param user           The user associated with the conversation.
+     * @param conversationId The ID of the conversation.
+     * @return An unmodifiable list of the conversation's messages, oldest first.
+     * @throws DifyClientException If an error occurs while fetching messages.
+     */
+    public List<ConversationMessage> getMessages(String user, String conversationId) throws DifyClientException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(conversationId);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(conversationId, entry);
+            }
+        }
+
+        List<ConversationMessage> snapshot;
+        long bytes;
+        synchronized (entry) {
+            entry.sync(user, conversationId);
+            snapshot = Collections.unmodifiableList(new ArrayList<>(entry.messages));
+            bytes = entry.bytes;
+        }
+
+        synchronized (this) {
+            // The entry may have been evicted or invalidated while it was syncing
+            if (entries.get(conversationId) == entry) {
+                totalBytes += bytes - entry.accountedBytes;
+                entry.accountedBytes = bytes;
+                evict(entry);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Removes a conversation from the cache, e.g. after it has been deleted.
+     *
+     * @param conversationId The ID of the conversation.
+     */
+    public synchronized void invalidate(String conversationId) {
+        Entry entry = entries.remove(conversationId);
+        if (entry != null) {
+            totalBytes -= entry.accountedBytes;
+        }
+    }
+
+    /**
+     * Removes all conversations from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    /**
+     * @return The number of cached conversations.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The estimated heap size of all cached messages in bytes.
+     */
+    public synchronized long getEstimatedBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Evicts least recently used conversations until the cache fits its budget.
+     * Must be called while holding the cache lock.
+     *
+     * @param keep The entry that was just accessed and must not be evicted.
+     */
+    private void evict(Entry keep) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Entry candidate = it.next().getValue();
+            if (candidate != keep) {
+                totalBytes -= candidate.accountedBytes;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap size of a cached message.
+     *
+     * @param message The message.
+     * @return The estimated size in bytes.
+     */
+    static long estimateSize(ConversationMessage message) {
+        return MESSAGE_OVERHEAD_BYTES + 2L * (length(message.getId())
+                + length(message.getConversation_id())
+                + length(message.getQuery())
+                + length(message.getAnswer()));
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+
+    /**
+     * Cached history of one conversation. Fields other than {@code accountedBytes}
+     * are guarded by the entry itself.
+     */
+    private class Entry {
+        final List<ConversationMessage> messages = new ArrayList<>();
+        boolean loaded;
+        long bytes;
+
+        /**
+         * Size last added to the cache total, guarded by the cache lock.
+         */
+        long accountedBytes;
+
+        void sync(String user, String conversationId) throws DifyClientException {
+            String newestKnownId = messages.isEmpty() ? null : messages.get(messages.size() - 1).getId();
+            int pageSize = loaded ? deltaPageSize : FULL_PAGE_SIZE;
+
+            // Pages are walked from newest to oldest; pushing each onto the head keeps them oldest first
+            Deque<List<ConversationMessage>> pages = new ArrayDeque<>();
+            boolean foundKnown = false;
+            String firstId = null;
+            while (true) {
+                ConversationMessagesResponse page = client.getConversationMessagesSync(user, conversationId, firstId, pageSize);
+                List<ConversationMessage> data = page.getData() != null ? page.getData() : Collections.<ConversationMessage>emptyList();
+                int known = indexOf(data, newestKnownId);
+                if (known >= 0) {
+                    pages.push(data.subList(known + 1, data.size()));
+                    foundKnown = true;
+                    break;
+                }
+                pages.push(data);
+                if (!page.isHas_more() || data.isEmpty()) {
+                    break;
+                }
+                firstId = data.get(0).getId();
+                // Anything older than the first page is not a small delta anymore
+                pageSize = FULL_PAGE_SIZE;
+            }
+
+            if (newestKnownId != null && !foundKnown) {
+                // The cached history no longer matches the server; start over with what was fetched
+                messages.clear();
+                bytes = 0;
+            }
+            for (List<ConversationMessage> page : pages) {
+                for (ConversationMessage message : page) {
+                    messages.add(message);
+                    bytes += estimateSize(message);
+                }
+            }
+            loaded = true;
+        }
+
+        private int indexOf(List<ConversationMessage> data, String id) {
+            if (id == null) {
+                return -1;
+            }
+            for (int i = data.size() - 1; i >= 0; i--) {
+                if (id.equals(data.get(i).getId())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
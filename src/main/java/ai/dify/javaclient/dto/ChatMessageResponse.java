@@ -11,6 +11,14 @@ import lombok.Data;
 @Data
 public class ChatMessageResponse {
 
+  // Streaming event type constants
+  public static final String EVENT_MESSAGE = "message";
+  public static final String EVENT_AGENT_MESSAGE = "agent_message";
+  public static final String EVENT_AGENT_THOUGHT = "agent_thought";
+  public static final String EVENT_MESSAGE_END = "message_end";
+  public static final String EVENT_ERROR = "error";
+  public static final String EVENT_PING = "ping";
+
   /**
    * Event type identifier
    */
@@ -21,6 +29,11 @@ public class ChatMessageResponse {
    */
   private String message_id;
 
+  /**
+   * Task identifier of a streamed response, for stopping its generation
+   */
+  private String task_id;
+
   /**
    * Unique identifier for the conversation
    */
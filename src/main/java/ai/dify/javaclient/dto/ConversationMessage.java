@@ -0,0 +1,58 @@
+package ai.dify.javaclient.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single message of a conversation as returned by {@code GET /messages}.
+ */
+@Data
+public class ConversationMessage {
+
+  /**
+   * Unique identifier for the message
+   */
+  private String id;
+
+  /**
+   * Unique identifier for the conversation
+   */
+  private String conversation_id;
+
+  /**
+   * Input variables the message was created with
+   */
+  private Map<String, Object> inputs;
+
+  /**
+   * The user query
+   */
+  private String query;
+
+  /**
+   * The generated answer/response text
+   */
+  private String answer;
+
+  /**
+   * Files attached to the message
+   */
+  private List<Map<String, Object>> message_files;
+
+  /**
+   * Feedback given on the message, if any
+   */
+  private Map<String, Object> feedback;
+
+  /**
+   * Retrieved resources from knowledge base/retriever
+   */
+  private ChatMessageResponse.Metadata.RetrieverResource[] retriever_resources;
+
+  /**
+   * Timestamp when the message was created
+   */
+  private long created_at;
+}
@@ -0,0 +1,31 @@
+package ai.dify.javaclient.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of conversation history as returned by {@code GET /messages}.
+ * <p>
+ * Messages are ordered oldest first. Passing the id of the first (oldest) message
+ * as {@code first_id} fetches the page before it.
+ * </p>
+ */
+@Data
+public class ConversationMessagesResponse {
+
+  /**
+   * Page size requested
+   */
+  private int limit;
+
+  /**
+   * Whether older messages exist before this page
+   */
+  private boolean has_more;
+
+  /**
+   * Messages of this page, oldest first
+   */
+  private List<ConversationMessage> data;
+}
@@ -0,0 +1,62 @@
+package ai.dify.javaclient.dto;
+
+import lombok.Data;
+
+/**
+ * Response of {@code POST /files/upload}.
+ * <p>
+ * Pass the {@code id} as {@link WorkflowRunRequest.FileUpload#getUpload_file_id()} with
+ * transfer method {@code local_file} to use the file in a workflow or chat.
+ * </p>
+ *
+ * Example:
+ * <pre>
+ * {
+ *   "id": "72fa9618-8f89-4a37-9b33-7e1178a24a67",
+ *   "name": "report.pdf",
+ *   "size": 1048576,
+ *   "extension": "pdf",
+ *   "mime_type": "application/pdf",
+ *   "created_by": "6ad1ab0a-73ff-4ac1-b9e4-cdb312f71f13",
+ *   "created_at": 1577836800
+ * }
+ * </pre>
+ */
+@Data
+public class FileUploadResponse {
+
+  /**
+   * Upload file ID
+   */
+  private String id;
+
+  /**
+   * File name
+   */
+  private String name;
+
+  /**
+   * File size in bytes
+   */
+  private long size;
+
+  /**
+   * File extension
+   */
+  private String extension;
+
+  /**
+   * MIME type of the file
+   */
+  private String mime_type;
+
+  /**
+   * ID of the end user who uploaded the file
+   */
+  private String created_by;
+
+  /**
+   * Upload timestamp
+   */
+  private Long created_at;
+}
@@ -0,0 +1,125 @@
+package ai.dify.javaclient.dto;
+
+import ai.dify.javaclient.helper.JsonUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Workflow outputs kept as the JSON tokens they were read from, and bound only on access.
+ * <p>
+ * Outputs are bound straight into the type asked for, so callers with their own output
+ * classes never build the {@code Map<String, Object>} of boxed values, and reading a single
+ * output skips over the others. The map view is bound once, on first use.
+ * </p>
+ */
+final class LazyOutputs {
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private final TokenBuffer tokens;
+    private volatile Map<String, Object> map;
+
+    private LazyOutputs(TokenBuffer tokens, Map<String, Object> map) {
+        this.tokens = tokens;
+        this.map = map;
+    }
+
+    /**
+     * Wraps the tokens of the outputs object, as buffered by the mapper reading the response.
+     */
+    static LazyOutputs ofTokens(TokenBuffer tokens) {
+        return tokens != null ? new LazyOutputs(tokens, null) : null;
+    }
+
+    /**
+     * Wraps outputs that are already bound.
+     */
+    static LazyOutputs ofMap(Map<String, Object> map) {
+        return map != null ? new LazyOutputs(null, map) : null;
+    }
+
+    static Map<String, Object> asMap(LazyOutputs outputs) {
+        if (outputs == null) {
+            return null;
+        }
+        Map<String, Object> map = outputs.map;
+        if (map == null) {
+            map = outputs.bind(MAP_TYPE);
+            outputs.map = map;
+        }
+        return map;
+    }
+
+    static <T> T as(LazyOutputs outputs, Class<T> type) {
+        if (outputs == null) {
+            return null;
+        }
+        if (outputs.tokens == null) {
+            return convert(outputs.map, type);
+        }
+        try (JsonParser parser = outputs.parser()) {
+            return parser.readValueAs(type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot bind workflow outputs to " + type.getName(), e);
+        }
+    }
+
+    static <T> T get(LazyOutputs outputs, String name, Class<T> type) {
+        if (outputs == null) {
+            return null;
+        }
+        if (outputs.tokens == null) {
+            return convert(outputs.map.get(name), type);
+        }
+        try (JsonParser parser = outputs.parser()) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (field.equals(name)) {
+                    return parser.readValueAs(type);
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot bind workflow output " + name + " to " + type.getName(), e);
+        }
+    }
+
+    private <T> T bind(TypeReference<T> type) {
+        try (JsonParser parser = parser()) {
+            return parser.readValueAs(type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot bind workflow outputs", e);
+        }
+    }
+
+    private JsonParser parser() {
+        ObjectCodec codec = tokens.getCodec();
+        return tokens.asParser(codec != null ? codec : DefaultMapper.INSTANCE);
+    }
+
+    /**
+     * Converts outputs set by the caller, rather than read from a response.
+     */
+    private static <T> T convert(Object value, Class<T> type) {
+        return DefaultMapper.INSTANCE.convertValue(value, type);
+    }
+
+    /**
+     * Holds the mapper for outputs that were not read by a mapper, created on first use.
+     */
+    private static final class DefaultMapper {
+        static final ObjectMapper INSTANCE = JsonUtil.buildMapper();
+    }
+}
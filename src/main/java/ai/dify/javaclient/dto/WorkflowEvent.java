@@ -1,5 +1,8 @@
 package ai.dify.javaclient.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import lombok.Data;
 import java.util.Arrays;
 import java.util.Map;
@@ -18,6 +21,7 @@ import java.util.Map;
  * - workflow_finished: Workflow execution completed
  * - tts_message: Text-to-speech audio message
  * - tts_message_end: Text-to-speech stream ended
+ * - error: Streaming failed, ending the stream
  * - ping: Connection keep-alive ping (no additional data)
  */
 @Data
@@ -31,6 +35,7 @@ public class WorkflowEvent {
     public static final String EVENT_WORKFLOW_FINISHED = "workflow_finished";
     public static final String EVENT_TTS_MESSAGE = "tts_message";
     public static final String EVENT_TTS_MESSAGE_END = "tts_message_end";
+    public static final String EVENT_ERROR = "error";
     public static final String EVENT_PING = "ping";
 
     /**
@@ -108,16 +113,63 @@ public class WorkflowEvent {
     public static class NodeFinishedData {
         private String id;
         private String node_id;
+        private String node_type;
+        private String title;
         private Integer index;
         private String predecessor_node_id;
         private Map<String, Object> inputs;
-        private Map<String, Object> outputs;
+        private LazyOutputs outputs;
         private String status;
         private String error;
         private Double elapsed_time;
         private Map<String, Object> execution_metadata;
         private Long created_at;
 
+        /**
+         * Returns the outputs of the node as a map, binding them on first use.
+         *
+         * @return The outputs, or {@code null} if there are none.
+         */
+        public Map<String, Object> getOutputs() {
+            return LazyOutputs.asMap(outputs);
+        }
+
+        /**
+         * Binds the outputs of the node straight into a class of the caller's, without
+         * building the map of {@link #getOutputs()}.
+         *
+         * @param type The class to bind to.
+         * @param <T>  The type to bind to.
+         * @return The outputs, or {@code null} if there are none.
+         * @throws IllegalArgumentException If the outputs cannot be bound to the class.
+         */
+        public <T> T getOutputs(Class<T> type) {
+            return LazyOutputs.as(outputs, type);
+        }
+
+        /**
+         * Binds a single output of the node, skipping over the others.
+         *
+         * @param name The name of the output.
+         * @param type The class to bind to.
+         * @param <T>  The type to bind to.
+         * @return The output, or {@code null} if there is no such output.
+         * @throws IllegalArgumentException If the output cannot be bound to the class.
+         */
+        public <T> T getOutput(String name, Class<T> type) {
+            return LazyOutputs.get(outputs, name, type);
+        }
+
+        @JsonIgnore
+        public void setOutputs(Map<String, Object> outputs) {
+            this.outputs = LazyOutputs.ofMap(outputs);
+        }
+
+        @JsonProperty("outputs")
+        private void setOutputs(TokenBuffer outputs) {
+            this.outputs = LazyOutputs.ofTokens(outputs);
+        }
+
     }
 
     /**
@@ -128,7 +180,7 @@ public class WorkflowEvent {
         private String id;
         private String workflow_id;
         private String status;
-        private Map<String, Object> outputs;
+        private LazyOutputs outputs;
         private String error;
         private Double elapsed_time;
         private Integer total_tokens;
@@ -136,6 +188,51 @@ public class WorkflowEvent {
         private Long created_at;
         private Long finished_at;
 
+        /**
+         * Returns the outputs of the run as a map, binding them on first use.
+         *
+         * @return The outputs, or {@code null} if there are none.
+         */
+        public Map<String, Object> getOutputs() {
+            return LazyOutputs.asMap(outputs);
+        }
+
+        /**
+         * Binds the outputs of the run straight into a class of the caller's, without
+         * building the map of {@link #getOutputs()}.
+         *
+         * @param type The class to bind to.
+         * @param <T>  The type to bind to.
+         * @return The outputs, or {@code null} if there are none.
+         * @throws IllegalArgumentException If the outputs cannot be bound to the class.
+         */
+        public <T> T getOutputs(Class<T> type) {
+            return LazyOutputs.as(outputs, type);
+        }
+
+        /**
+         * Binds a single output of the run, skipping over the others.
+         *
+         * @param name The name of the output.
+         * @param type The class to bind to.
+         * @param <T>  The type to bind to.
+         * @return The output, or {@code null} if there is no such output.
+         * @throws IllegalArgumentException If the output cannot be bound to the class.
+         */
+        public <T> T getOutput(String name, Class<T> type) {
+            return LazyOutputs.get(outputs, name, type);
+        }
+
+        @JsonIgnore
+        public void setOutputs(Map<String, Object> outputs) {
+            this.outputs = LazyOutputs.ofMap(outputs);
+        }
+
+        @JsonProperty("outputs")
+        private void setOutputs(TokenBuffer outputs) {
+            this.outputs = LazyOutputs.ofTokens(outputs);
+        }
+
     }
 
     /**
@@ -1,5 +1,8 @@
 package ai.dify.javaclient.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import lombok.Data;
 import java.util.Map;
 
@@ -31,6 +34,13 @@ import java.util.Map;
 @Data
 public class WorkflowRunResponse {
 
+  // Workflow run status constants
+  public static final String STATUS_RUNNING = "running";
+  public static final String STATUS_SUCCEEDED = "succeeded";
+  public static final String STATUS_FAILED = "failed";
+  public static final String STATUS_STOPPED = "stopped";
+  public static final String STATUS_PARTIAL_SUCCEEDED = "partial-succeeded";
+
   /**
    * Unique identifier for the workflow run execution
    */
@@ -59,13 +69,58 @@ public class WorkflowRunResponse {
     private String id;
     private String workflow_id;
     private String status;
-    private Map<String, Object> outputs;
+    private LazyOutputs outputs;
     private String error;
     private Double elapsed_time;
     private Integer total_tokens;
     private Integer total_steps;
     private Long created_at;
     private Long finished_at;
+
+    /**
+     * Returns the outputs of the run as a map, binding them on first use.
+     *
+     * @return The outputs, or {@code null} if there are none.
+     */
+    public Map<String, Object> getOutputs() {
+      return LazyOutputs.asMap(outputs);
+    }
+
+    /**
+     * Binds the outputs of the run straight into a class of the caller's, without
+     * building the map of {@link #getOutputs()}.
+     *
+     * @param type The class to bind to.
+     * @param <T>  The type to bind to.
+     * @return The outputs, or {@code null} if there are none.
+     * @throws IllegalArgumentException If the outputs cannot be bound to the class.
+     */
+    public <T> T getOutputs(Class<T> type) {
+      return LazyOutputs.as(outputs, type);
+    }
+
+    /**
+     * Binds a single output of the run, skipping over the others.
+     *
+     * @param name The name of the output.
+     * @param type The class to bind to.
+     * @param <T>  The type to bind to.
+     * @return The output, or {@code null} if there is no such output.
+     * @throws IllegalArgumentException If the output cannot be bound to the class.
+     */
+    public <T> T getOutput(String name, Class<T> type) {
+      return LazyOutputs.get(outputs, name, type);
+    }
+
+    @JsonIgnore
+    public void setOutputs(Map<String, Object> outputs) {
+      this.outputs = LazyOutputs.ofMap(outputs);
+    }
+
+    @JsonProperty("outputs")
+    private void setOutputs(TokenBuffer outputs) {
+      this.outputs = LazyOutputs.ofTokens(outputs);
+    }
   }
 
   /**
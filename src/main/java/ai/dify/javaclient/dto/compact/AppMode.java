@@ -0,0 +1,53 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Mode of the app that answered a message.
+ */
+public enum AppMode {
+    CHAT("chat"),
+    AGENT_CHAT("agent-chat"),
+    ADVANCED_CHAT("advanced-chat"),
+    COMPLETION("completion"),
+    WORKFLOW("workflow"),
+
+    /**
+     * A value this version of the SDK does not know.
+     */
+    UNKNOWN(null);
+
+    private static final AppMode[] VALUES = values();
+
+    private final String value;
+
+    AppMode(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return The value as sent by Dify, or {@code null} for {@link #UNKNOWN}.
+     */
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @param value The value as sent by Dify.
+     * @return The constant, {@link #UNKNOWN} for unknown values, or {@code null} for {@code null}.
+     */
+    @JsonCreator
+    public static AppMode fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (AppMode constant : VALUES) {
+            if (value.equals(constant.value)) {
+                return constant;
+            }
+        }
+        return UNKNOWN;
+    }
+}
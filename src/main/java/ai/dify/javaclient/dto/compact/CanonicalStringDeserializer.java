@@ -0,0 +1,26 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a string and canonicalizes it with the {@link StringCanonicalizer} set as reader
+ * attribute, if any.
+ */
+class CanonicalStringDeserializer extends StdScalarDeserializer<String> {
+
+    CanonicalStringDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String value = StringDeserializer.instance.deserialize(p, ctxt);
+        Object canonicalizer = ctxt.getAttribute(StringCanonicalizer.class);
+        return canonicalizer instanceof StringCanonicalizer ? ((StringCanonicalizer) canonicalizer).canonicalize(value) : value;
+    }
+}
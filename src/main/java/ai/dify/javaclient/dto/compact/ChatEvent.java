@@ -0,0 +1,62 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Type of a chat, agent or completion streaming event, see {@code ChatMessageResponse#getEvent()}.
+ */
+public enum ChatEvent {
+    MESSAGE("message"),
+    AGENT_MESSAGE("agent_message"),
+    AGENT_THOUGHT("agent_thought"),
+    MESSAGE_FILE("message_file"),
+    MESSAGE_END("message_end"),
+    MESSAGE_REPLACE("message_replace"),
+    TTS_MESSAGE("tts_message"),
+    TTS_MESSAGE_END("tts_message_end"),
+    WORKFLOW_STARTED("workflow_started"),
+    NODE_STARTED("node_started"),
+    NODE_FINISHED("node_finished"),
+    WORKFLOW_FINISHED("workflow_finished"),
+    ERROR("error"),
+    PING("ping"),
+
+    /**
+     * A value this version of the SDK does not know.
+     */
+    UNKNOWN(null);
+
+    private static final ChatEvent[] VALUES = values();
+
+    private final String value;
+
+    ChatEvent(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return The value as sent by Dify, or {@code null} for {@link #UNKNOWN}.
+     */
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @param value The value as sent by Dify.
+     * @return The constant, {@link #UNKNOWN} for unknown values, or {@code null} for {@code null}.
+     */
+    @JsonCreator
+    public static ChatEvent fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (ChatEvent constant : VALUES) {
+            if (value.equals(constant.value)) {
+                return constant;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,57 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Value;
+
+/**
+ * Immutable and compact form of {@link ai.dify.javaclient.dto.ChatMessageResponse}: the event
+ * and mode are enums, prices are fixed-point numbers, and the conversation ID is canonicalized
+ * when read with a {@link StringCanonicalizer}.
+ */
+@Value
+public class CompactChatMessage {
+    @JsonProperty("event")
+    ChatEvent event;
+
+    @JsonProperty("message_id")
+    String messageId;
+
+    @JsonProperty("task_id")
+    String taskId;
+
+    @JsonProperty("conversation_id")
+    String conversationId;
+
+    @JsonProperty("mode")
+    AppMode mode;
+
+    @JsonProperty("answer")
+    String answer;
+
+    @JsonProperty("metadata")
+    CompactMetadata metadata;
+
+    @JsonProperty("created_at")
+    long createdAt;
+
+    @JsonCreator
+    public CompactChatMessage(@JsonProperty("event") ChatEvent event,
+                              @JsonProperty("message_id") String messageId,
+                              @JsonProperty("task_id") String taskId,
+                              @JsonProperty("conversation_id") @JsonDeserialize(using = CanonicalStringDeserializer.class) String conversationId,
+                              @JsonProperty("mode") AppMode mode,
+                              @JsonProperty("answer") String answer,
+                              @JsonProperty("metadata") CompactMetadata metadata,
+                              @JsonProperty("created_at") long createdAt) {
+        this.event = event;
+        this.messageId = messageId;
+        this.taskId = taskId;
+        this.conversationId = conversationId;
+        this.mode = mode;
+        this.answer = answer;
+        this.metadata = metadata;
+        this.createdAt = createdAt;
+    }
+}
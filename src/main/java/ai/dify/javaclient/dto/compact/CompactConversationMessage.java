@@ -0,0 +1,90 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable and compact form of {@link ai.dify.javaclient.dto.ConversationMessage}, for caching
+ * conversation histories. The conversation ID and feedback rating are canonicalized when read
+ * with a {@link StringCanonicalizer}. Attached files are not kept.
+ */
+@Value
+public class CompactConversationMessage {
+    @JsonProperty("id")
+    String id;
+
+    @JsonProperty("conversation_id")
+    String conversationId;
+
+    @JsonProperty("inputs")
+    Map<String, Object> inputs;
+
+    @JsonProperty("query")
+    String query;
+
+    @JsonProperty("answer")
+    String answer;
+
+    @JsonProperty("status")
+    MessageStatus status;
+
+    @JsonProperty("error")
+    String error;
+
+    @JsonProperty("retriever_resources")
+    List<CompactRetrieverResource> retrieverResources;
+
+    /**
+     * Rating of the feedback given on the message, e.g. {@code like}, or {@code null}
+     */
+    @JsonProperty("feedback_rating")
+    String feedbackRating;
+
+    @JsonProperty("created_at")
+    long createdAt;
+
+    @JsonCreator
+    public CompactConversationMessage(@JsonProperty("id") String id,
+                                      @JsonProperty("conversation_id") @JsonDeserialize(using = CanonicalStringDeserializer.class) String conversationId,
+                                      @JsonProperty("inputs") Map<String, Object> inputs,
+                                      @JsonProperty("query") String query,
+                                      @JsonProperty("answer") String answer,
+                                      @JsonProperty("status") MessageStatus status,
+                                      @JsonProperty("error") String error,
+                                      @JsonProperty("retriever_resources") List<CompactRetrieverResource> retrieverResources,
+                                      @JsonProperty("feedback") Feedback feedback,
+                                      @JsonProperty("feedback_rating") @JsonDeserialize(using = CanonicalStringDeserializer.class) String feedbackRating,
+                                      @JsonProperty("created_at") long createdAt) {
+        this.id = id;
+        this.conversationId = conversationId;
+        this.inputs = inputs == null || inputs.isEmpty()
+                ? Collections.<String, Object>emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(inputs));
+        this.query = query;
+        this.answer = answer;
+        this.status = status;
+        this.error = error;
+        this.retrieverResources = CompactLists.copyOf(retrieverResources);
+        this.feedbackRating = feedback != null ? feedback.rating : feedbackRating;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Feedback as sent by Dify, of which only the rating is kept.
+     */
+    static final class Feedback {
+        final String rating;
+
+        @JsonCreator
+        Feedback(@JsonProperty("rating") @JsonDeserialize(using = CanonicalStringDeserializer.class) String rating) {
+            this.rating = rating;
+        }
+    }
+}
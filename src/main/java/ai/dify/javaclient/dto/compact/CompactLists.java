@@ -0,0 +1,21 @@
+package ai.dify.javaclient.dto.compact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copies of bound lists, sharing the empty list.
+ */
+final class CompactLists {
+
+    private CompactLists() {
+    }
+
+    static <T> List<T> copyOf(List<T> list) {
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+}
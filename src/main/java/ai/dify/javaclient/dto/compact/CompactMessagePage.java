@@ -0,0 +1,34 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Immutable and compact form of {@link ai.dify.javaclient.dto.ConversationMessagesResponse}.
+ */
+@Value
+public class CompactMessagePage {
+    @JsonProperty("limit")
+    int limit;
+
+    @JsonProperty("has_more")
+    boolean hasMore;
+
+    /**
+     * Messages of this page, oldest first
+     */
+    @JsonProperty("data")
+    List<CompactConversationMessage> data;
+
+    @JsonCreator
+    public CompactMessagePage(@JsonProperty("limit") int limit,
+                              @JsonProperty("has_more") boolean hasMore,
+                              @JsonProperty("data") List<CompactConversationMessage> data) {
+        this.limit = limit;
+        this.hasMore = hasMore;
+        this.data = CompactLists.copyOf(data);
+    }
+}
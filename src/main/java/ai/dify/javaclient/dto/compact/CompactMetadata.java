@@ -0,0 +1,26 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Usage and retriever resources of a message.
+ */
+@Value
+public class CompactMetadata {
+    @JsonProperty("usage")
+    CompactUsage usage;
+
+    @JsonProperty("retriever_resources")
+    List<CompactRetrieverResource> retrieverResources;
+
+    @JsonCreator
+    public CompactMetadata(@JsonProperty("usage") CompactUsage usage,
+                           @JsonProperty("retriever_resources") List<CompactRetrieverResource> retrieverResources) {
+        this.usage = usage;
+        this.retrieverResources = CompactLists.copyOf(retrieverResources);
+    }
+}
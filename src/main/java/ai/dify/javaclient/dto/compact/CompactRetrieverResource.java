@@ -0,0 +1,56 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import lombok.Value;
+
+/**
+ * Resource retrieved from a knowledge base. Dataset and document identifiers and names are
+ * canonicalized when read with a {@link StringCanonicalizer}.
+ */
+@Value
+public class CompactRetrieverResource {
+    @JsonProperty("position")
+    int position;
+
+    @JsonProperty("dataset_id")
+    String datasetId;
+
+    @JsonProperty("dataset_name")
+    String datasetName;
+
+    @JsonProperty("document_id")
+    String documentId;
+
+    @JsonProperty("document_name")
+    String documentName;
+
+    @JsonProperty("segment_id")
+    String segmentId;
+
+    @JsonProperty("score")
+    double score;
+
+    @JsonProperty("content")
+    String content;
+
+    @JsonCreator
+    public CompactRetrieverResource(@JsonProperty("position") int position,
+                                    @JsonProperty("dataset_id") @JsonDeserialize(using = CanonicalStringDeserializer.class) String datasetId,
+                                    @JsonProperty("dataset_name") @JsonDeserialize(using = CanonicalStringDeserializer.class) String datasetName,
+                                    @JsonProperty("document_id") @JsonDeserialize(using = CanonicalStringDeserializer.class) String documentId,
+                                    @JsonProperty("document_name") @JsonDeserialize(using = CanonicalStringDeserializer.class) String documentName,
+                                    @JsonProperty("segment_id") String segmentId,
+                                    @JsonProperty("score") double score,
+                                    @JsonProperty("content") String content) {
+        this.position = position;
+        this.datasetId = datasetId;
+        this.datasetName = datasetName;
+        this.documentId = documentId;
+        this.documentName = documentName;
+        this.segmentId = segmentId;
+        this.score = score;
+        this.content = content;
+    }
+}
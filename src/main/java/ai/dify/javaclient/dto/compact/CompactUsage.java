@@ -0,0 +1,85 @@
+package ai.dify.javaclient.dto.compact;
+
+import ai.dify.javaclient.usage.FixedPoint;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Value;
+
+/**
+ * Token usage of a message, with prices as {@link FixedPoint} billionths of the currency
+ * instead of decimal strings.
+ */
+@Value
+public class CompactUsage {
+    @JsonProperty("prompt_tokens")
+    int promptTokens;
+
+    @JsonProperty("prompt_unit_price")
+    @JsonSerialize(using = FixedPointPrice.Serializer.class)
+    long promptUnitPrice;
+
+    @JsonProperty("prompt_price_unit")
+    @JsonSerialize(using = FixedPointPrice.Serializer.class)
+    long promptPriceUnit;
+
+    @JsonProperty("prompt_price")
+    @JsonSerialize(using = FixedPointPrice.Serializer.class)
+    long promptPrice;
+
+    @JsonProperty("completion_tokens")
+    int completionTokens;
+
+    @JsonProperty("completion_unit_price")
+    @JsonSerialize(using = FixedPointPrice.Serializer.class)
+    long completionUnitPrice;
+
+    @JsonProperty("completion_price_unit")
+    @JsonSerialize(using = FixedPointPrice.Serializer.class)
+    long completionPriceUnit;
+
+    @JsonProperty("completion_price")
+    @JsonSerialize(using = FixedPointPrice.Serializer.class)
+    long completionPrice;
+
+    @JsonProperty("total_tokens")
+    int totalTokens;
+
+    @JsonProperty("total_price")
+    @JsonSerialize(using = FixedPointPrice.Serializer.class)
+    long totalPrice;
+
+    @JsonProperty("currency")
+    String currency;
+
+    @JsonProperty("latency")
+    double latency;
+
+    @JsonCreator
+    public CompactUsage(@JsonProperty("prompt_tokens") int promptTokens,
+                        @JsonProperty("prompt_unit_price") @JsonDeserialize(using = FixedPointPrice.Deserializer.class) long promptUnitPrice,
+                        @JsonProperty("prompt_price_unit") @JsonDeserialize(using = FixedPointPrice.Deserializer.class) long promptPriceUnit,
+                        @JsonProperty("prompt_price") @JsonDeserialize(using = FixedPointPrice.Deserializer.class) long promptPrice,
+                        @JsonProperty("completion_tokens") int completionTokens,
+                        @JsonProperty("completion_unit_price") @JsonDeserialize(using = FixedPointPrice.Deserializer.class) long completionUnitPrice,
+                        @JsonProperty("completion_price_unit") @JsonDeserialize(using = FixedPointPrice.Deserializer.class) long completionPriceUnit,
+                        @JsonProperty("completion_price") @JsonDeserialize(using = FixedPointPrice.Deserializer.class) long completionPrice,
+                        @JsonProperty("total_tokens") int totalTokens,
+                        @JsonProperty("total_price") @JsonDeserialize(using = FixedPointPrice.Deserializer.class) long totalPrice,
+                        @JsonProperty("currency") @JsonDeserialize(using = CanonicalStringDeserializer.class) String currency,
+                        @JsonProperty("latency") double latency) {
+        this.promptTokens = promptTokens;
+        this.promptUnitPrice = promptUnitPrice;
+        this.promptPriceUnit = promptPriceUnit;
+        this.promptPrice = promptPrice;
+        this.completionTokens = completionTokens;
+        this.completionUnitPrice = completionUnitPrice;
+        this.completionPriceUnit = completionPriceUnit;
+        this.completionPrice = completionPrice;
+        this.totalTokens = totalTokens;
+        this.totalPrice = totalPrice;
+        this.currency = currency;
+        this.latency = latency;
+    }
+}
@@ -0,0 +1,60 @@
+package ai.dify.javaclient.dto.compact;
+
+import ai.dify.javaclient.usage.FixedPoint;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+
+/**
+ * Binds Dify's decimal price strings to {@link FixedPoint} billionths, and writes them back as
+ * decimal strings.
+ */
+final class FixedPointPrice {
+
+    private FixedPointPrice() {
+    }
+
+    static class Deserializer extends StdScalarDeserializer<Long> {
+
+        Deserializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token != JsonToken.VALUE_STRING && !token.isNumeric()) {
+                return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+            }
+            try {
+                // Numbers are parsed from their text as well, so that no digit is lost to a double
+                return FixedPoint.parse(p.getText());
+            } catch (NumberFormatException e) {
+                return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), e.getMessage());
+            }
+        }
+
+        @Override
+        public Long getNullValue(DeserializationContext ctxt) {
+            return 0L;
+        }
+    }
+
+    static class Serializer extends StdScalarSerializer<Long> {
+
+        Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeString(FixedPoint.format(value));
+        }
+    }
+}
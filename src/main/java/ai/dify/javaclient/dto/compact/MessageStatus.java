@@ -0,0 +1,50 @@
+package ai.dify.javaclient.dto.compact;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Status of a message in a conversation history.
+ */
+public enum MessageStatus {
+    NORMAL("normal"),
+    ERROR("error"),
+
+    /**
+     * A value this version of the SDK does not know.
+     */
+    UNKNOWN(null);
+
+    private static final MessageStatus[] VALUES = values();
+
+    private final String value;
+
+    MessageStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return The value as sent by Dify, or {@code null} for {@link #UNKNOWN}.
+     */
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @param value The value as sent by Dify.
+     * @return The constant, {@link #UNKNOWN} for unknown values, or {@code null} for {@code null}.
+     */
+    @JsonCreator
+    public static MessageStatus fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (MessageStatus constant : VALUES) {
+            if (value.equals(constant.value)) {
+                return constant;
+            }
+        }
+        return UNKNOWN;
+    }
+}
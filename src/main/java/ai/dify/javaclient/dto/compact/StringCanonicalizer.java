@@ -0,0 +1,75 @@
+package ai.dify.javaclient.dto.compact;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replaces equal strings by a single shared instance.
+ * <p>
+ * Pages of messages repeat the same conversation IDs, dataset and document names and
+ * currencies over and over. Reading them through a canonicalizer keeps one copy of each
+ * instead of one per message, see
+ * {@link ai.dify.javaclient.ChatClient#getConversationMessagesCompactSync(String, String, String, int, StringCanonicalizer)}.
+ * Only identifier-like fields are canonicalized, never queries, answers or contents.
+ * </p>
+ * <p>
+ * The number of distinct strings kept is bounded; once full, new strings are returned
+ * as they are. Instances are thread-safe and meant to be shared, e.g. by all reads
+ * feeding the same cache.
+ * </p>
+ */
+public final class StringCanonicalizer {
+
+    /**
+     * Default maximum number of distinct strings kept.
+     */
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * Constructs a new StringCanonicalizer keeping up to {@value #DEFAULT_MAX_SIZE} strings.
+     */
+    public StringCanonicalizer() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a new StringCanonicalizer.
+     *
+     * @param maxSize The maximum number of distinct strings kept.
+     */
+    public StringCanonicalizer(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param value A string.
+     * @return The shared instance equal to the string, or the string itself if it is the first
+     * of its value or the canonicalizer is full.
+     */
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = strings.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (strings.size() >= maxSize) {
+            return value;
+        }
+        canonical = strings.putIfAbsent(value, value);
+        return canonical != null ? canonical : value;
+    }
+
+    /**
+     * @return The number of distinct strings kept.
+     */
+    public int size() {
+        return strings.size();
+    }
+}
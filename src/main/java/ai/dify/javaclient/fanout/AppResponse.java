@@ -0,0 +1,38 @@
+package ai.dify.javaclient.fanout;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import lombok.Value;
+
+/**
+ * Outcome of a chat message sent to one app of a scatter-gather call.
+ */
+@Value
+public class AppResponse {
+
+    /**
+     * Name of the app as registered with the scatter-gather
+     */
+    String app;
+
+    /**
+     * The response, or {@code null} if the app failed or missed the deadline
+     */
+    ChatMessageResponse response;
+
+    /**
+     * The failure, or {@code null} if the app responded successfully
+     */
+    Throwable error;
+
+    /**
+     * Time from sending the request until the outcome was known
+     */
+    long latencyMillis;
+
+    /**
+     * @return {@code true} if the app responded successfully.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
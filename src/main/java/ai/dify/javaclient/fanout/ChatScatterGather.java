@@ -0,0 +1,278 @@
+package ai.dify.javaclient.fanout;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.dto.ChatMessageResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the same chat query to several Dify apps concurrently and gathers the answers.
+ * <p>
+ * Every app is a {@link ChatClient} with its own API key. Requests go out together via
+ * {@link ChatClient#createChatMessageAsync(String, String, String, String)}, so the
+ * latency of a call is that of the fastest app (first-wins), of the slowest required app
+ * (quorum), or at most the deadline (all). Requests that are no longer needed are cancelled.
+ * </p>
+ * <p>
+ * Clients built with {@link ChatClient#ChatClient(String, String, okhttp3.OkHttpClient)} on
+ * one shared HTTP client reuse its connections. When all apps live on the same host, raise
+ * the dispatcher's {@code maxRequestsPerHost} above the number of apps, or the requests
+ * beyond it queue instead of running in parallel.
+ * </p>
+ * <p>
+ * Each app starts a new conversation, as conversation IDs are specific to an app.
+ * </p>
+ */
+public class ChatScatterGather {
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final Map<String, ChatClient> apps;
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Constructs a new ChatScatterGather.
+     *
+     * @param apps The clients of the apps to query, by app name. Results follow this map's order.
+     */
+    public ChatScatterGather(Map<String, ChatClient> apps) {
+        this(apps, TIMER);
+    }
+
+    /**
+     * Constructs a new ChatScatterGather.
+     *
+     * @param apps  The clients of the apps to query, by app name. Results follow this map's order.
+     * @param timer The executor running the deadlines.
+     */
+    ChatScatterGather(Map<String, ChatClient> apps, ScheduledExecutorService timer) {
+        if (apps.isEmpty()) {
+            throw new IllegalArgumentException("At least one app is required");
+        }
+        this.apps = Collections.unmodifiableMap(new LinkedHashMap<>(apps));
+        this.timer = timer;
+    }
+
+    /**
+     * Sends the query to all apps and completes with the first successful answer.
+     * The remaining requests are cancelled as soon as one app succeeds.
+     *
+     * @param inputs The chat message inputs.
+     * @param query  The query to send.
+     * @param user   The user associated with the chat message.
+     * @return A future completed with the first successful response, or failed if every app failed.
+     */
+    public CompletableFuture<AppResponse> firstSuccessful(String inputs, String query, String user) {
+        List<Call> calls = scatter(inputs, query, user);
+        CompletableFuture<AppResponse> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (Call call : calls) {
+            call.future.whenComplete((response, error) -> {
+                if (error == null) {
+                    result.complete(call.toResponse(response));
+                } else if (failures.incrementAndGet() == calls.size()) {
+                    result.completeExceptionally(allFailed(calls.size(), error));
+                }
+            });
+        }
+        result.whenComplete((response, error) -> cancelAll(calls));
+        return result;
+    }
+
+    /**
+     * Sends the query to all apps and completes with every outcome once all apps have
+     * answered or the deadline has passed. Apps that miss the deadline are cancelled and
+     * reported with a {@link TimeoutException}.
+     *
+     * @param inputs  The chat message inputs.
+     * @param query   The query to send.
+     * @param user    The user associated with the chat message.
+     * @param timeout The deadline, relative to now.
+     * @param unit    The unit of the deadline.
+     * @return A future completed with one outcome per app, in app order.
+     */
+    public CompletableFuture<List<AppResponse>> all(String inputs, String query, String user, long timeout, TimeUnit unit) {
+        List<Call> calls = scatter(inputs, query, user);
+        CompletableFuture<List<AppResponse>> result = new CompletableFuture<>();
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable finish = () -> {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            List<AppResponse> responses = new ArrayList<>(calls.size());
+            for (Call call : calls) {
+                // Completes the call with a timeout unless it already has an outcome
+                call.future.completeExceptionally(new TimeoutException("No response from app " + call.app + " before the deadline"));
+                call.cancel();
+                responses.add(call.outcome());
+            }
+            result.complete(responses);
+        };
+
+        CompletableFuture.allOf(futures(calls)).whenComplete((ignored, error) -> finish.run());
+        ScheduledFuture<?> deadline = timer.schedule(finish, timeout, unit);
+        result.whenComplete((responses, error) -> {
+            deadline.cancel(false);
+            cancelAll(calls);
+        });
+        return result;
+    }
+
+    /**
+     * Sends the query to all apps and completes as soon as {@code required} apps have
+     * answered successfully. The remaining requests are then cancelled.
+     *
+     * @param inputs   The chat message inputs.
+     * @param query    The query to send.
+     * @param user     The user associated with the chat message.
+     * @param required The number of successful answers required.
+     * @param timeout  The deadline, relative to now.
+     * @param unit     The unit of the deadline.
+     * @return A future completed with the first {@code required} successful responses in completion
+     * order, or failed once the quorum can no longer be reached or the deadline passes.
+     */
+    public CompletableFuture<List<AppResponse>> quorum(String inputs, String query, String user, int required, long timeout, TimeUnit unit) {
+        if (required <= 0 || required > apps.size()) {
+            throw new IllegalArgumentException("required must be between 1 and " + apps.size());
+        }
+        List<Call> calls = scatter(inputs, query, user);
+        CompletableFuture<List<AppResponse>> result = new CompletableFuture<>();
+        List<AppResponse> successes = new ArrayList<>(required);
+        AtomicInteger failures = new AtomicInteger();
+        for (Call call : calls) {
+            call.future.whenComplete((response, error) -> {
+                if (error == null) {
+                    synchronized (successes) {
+                        if (successes.size() < required) {
+                            successes.add(call.toResponse(response));
+                            if (successes.size() == required) {
+                                result.complete(new ArrayList<>(successes));
+                            }
+                        }
+                    }
+                } else if (failures.incrementAndGet() == calls.size() - required + 1) {
+                    DifyClientException ex = new DifyClientException("Quorum of " + required + " out of " + calls.size()
+                            + " apps can no longer be reached: " + failures.get() + " failed");
+                    ex.initCause(unwrap(error));
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+        ScheduledFuture<?> deadline = timer.schedule(() -> result.completeExceptionally(
+                new TimeoutException("Quorum of " + required + " apps not reached before the deadline")), timeout, unit);
+        result.whenComplete((responses, error) -> {
+            deadline.cancel(false);
+            cancelAll(calls);
+        });
+        return result;
+    }
+
+    /**
+     * Creates the timer of the deadlines. Deadlines are cancelled when their call completes early,
+     * and removed from the queue right away, so that they do not keep the call's responses
+     * reachable until they would have expired.
+     */
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "dify-scatter-gather-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    private List<Call> scatter(String inputs, String query, String user) {
+        List<Call> calls = new ArrayList<>(apps.size());
+        for (Map.Entry<String, ChatClient> app : apps.entrySet()) {
+            calls.add(new Call(app.getKey(), app.getValue().createChatMessageAsync(inputs, query, user, null)));
+        }
+        return calls;
+    }
+
+    private static CompletableFuture<?>[] futures(List<Call> calls) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[calls.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = calls.get(i).future;
+        }
+        return futures;
+    }
+
+    private static void cancelAll(List<Call> calls) {
+        for (Call call : calls) {
+            call.cancel();
+        }
+    }
+
+    private static DifyClientException allFailed(int count, Throwable lastError) {
+        DifyClientException ex = new DifyClientException("All " + count + " apps failed");
+        ex.initCause(unwrap(lastError));
+        return ex;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * A request in flight to one app.
+     */
+    private static final class Call {
+        final String app;
+        final CompletableFuture<ChatMessageResponse> request;
+        final long startNanos = System.nanoTime();
+
+        /**
+         * Completes with the request's outcome; completing it early decides the outcome
+         * without waiting for the request
+         */
+        final CompletableFuture<ChatMessageResponse> future = new CompletableFuture<>();
+        volatile long latencyMillis;
+
+        Call(String app, CompletableFuture<ChatMessageResponse> request) {
+            this.app = app;
+            this.request = request;
+            future.whenComplete((response, error) ->
+                    latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            request.whenComplete((response, error) -> {
+                if (error == null) {
+                    future.complete(response);
+                } else {
+                    future.completeExceptionally(unwrap(error));
+                }
+            });
+        }
+
+        void cancel() {
+            if (!request.isDone()) {
+                request.cancel(true);
+            }
+        }
+
+        AppResponse toResponse(ChatMessageResponse response) {
+            return new AppResponse(app, response, null, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+
+        AppResponse outcome() {
+            try {
+                return new AppResponse(app, future.join(), null, latencyMillis);
+            } catch (CompletionException | CancellationException e) {
+                return new AppResponse(app, null, unwrap(e), latencyMillis);
+            }
+        }
+    }
+}
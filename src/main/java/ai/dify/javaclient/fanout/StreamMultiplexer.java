@@ -0,0 +1,383 @@
+package ai.dify.javaclient.fanout;
+
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.stream.CancellableStream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shares one streaming response with many subscribers, e.g. the viewers of an answer relayed
+ * to several WebSockets, without opening a Dify stream for each of them.
+ * <p>
+ * A single thread reads and parses the upstream events into a bounded ring buffer. Every
+ * subscriber reads the buffer through its own cursor, at its own pace, and picks how it is
+ * treated when it falls a whole buffer behind, see {@link Backpressure}. A subscriber joining
+ * late may replay the stream from its start, as long as the buffer still holds it; the
+ * buffer holds the last {@code capacity} events.
+ * </p>
+ * <p>
+ * Events are shared, not copied, between subscribers, which must not modify them.
+ * {@link #close() Closing} the multiplexer cancels the upstream stream, stopping its task
+ * on the server if it has not finished.
+ * </p>
+ *
+ * @param <T> The type of the events.
+ */
+public class StreamMultiplexer<T> implements AutoCloseable {
+
+    /**
+     * Default number of events held by the buffer, more than a typical streamed answer.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * How a subscriber is treated when it falls a whole buffer behind the upstream stream.
+     */
+    public enum Backpressure {
+        /**
+         * The oldest events are overwritten; the subscriber skips to the oldest event still
+         * buffered and the skipped events are counted in {@link Subscription#getDropped()}.
+         */
+        DROP,
+        /**
+         * The upstream stream is not read further until the subscriber has caught up, which
+         * slows down every other subscriber as well.
+         */
+        BLOCK,
+        /**
+         * The subscriber is disconnected: once it would miss an event, its reads fail.
+         */
+        DISCONNECT
+    }
+
+    private final CancellableStream<T> upstream;
+    private final Object[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // Guarded by lock
+    private final List<Subscription<T>> subscriptions = new ArrayList<>();
+    private long written;
+    private boolean finished;
+    private Throwable failure;
+    private boolean started;
+
+    /**
+     * Constructs a new StreamMultiplexer with a buffer of {@link #DEFAULT_CAPACITY} events.
+     *
+     * @param upstream The stream to share, e.g. from
+     *                 {@link ai.dify.javaclient.ChatClient#streamChatMessage(String, String, String, String)}.
+     */
+    public StreamMultiplexer(CancellableStream<T> upstream) {
+        this(upstream, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new StreamMultiplexer.
+     *
+     * @param upstream The stream to share.
+     * @param capacity The number of events held by the buffer.
+     */
+    public StreamMultiplexer(CancellableStream<T> upstream, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.upstream = upstream;
+        this.ring = new Object[capacity];
+    }
+
+    /**
+     * Starts reading the upstream stream on a new daemon thread. Subscribers added before
+     * starting read the stream from its first event, without replaying.
+     *
+     * @return This multiplexer.
+     */
+    public StreamMultiplexer<T> start() {
+        lock.lock();
+        try {
+            if (started) {
+                throw new IllegalStateException("Multiplexer already started");
+            }
+            started = true;
+        } finally {
+            lock.unlock();
+        }
+        Thread reader = new Thread(this::readUpstream, "dify-stream-multiplexer");
+        reader.setDaemon(true);
+        reader.start();
+        return this;
+    }
+
+    /**
+     * Adds a subscriber.
+     *
+     * @param backpressure How the subscriber is treated when it falls a whole buffer behind.
+     * @param replay       Whether to read the stream from its start, or from the oldest event
+     *                     still buffered if the buffer has wrapped; otherwise the subscriber
+     *                     only sees the events published after it joined.
+     * @return The subscription, to read the events with.
+     */
+    public Subscription<T> subscribe(Backpressure backpressure, boolean replay) {
+        lock.lock();
+        try {
+            long oldest = Math.max(0, written - ring.length);
+            Subscription<T> subscription = new Subscription<>(this, backpressure, replay ? oldest : written);
+            // Events overwritten before a replaying subscriber joined are missing from its replay
+            subscription.dropped = replay ? oldest : 0;
+            if (!finished) {
+                subscriptions.add(subscription);
+            }
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of events read from the upstream stream so far.
+     */
+    public long getPublished() {
+        lock.lock();
+        try {
+            return written;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the multiplexer. The upstream stream is cancelled if it has not finished, and
+     * subscribers end once they have read the events already buffered.
+     */
+    @Override
+    public void close() {
+        upstream.close();
+        finish(null);
+    }
+
+    private void readUpstream() {
+        try {
+            T event;
+            while ((event = upstream.next()) != null) {
+                if (!publish(event)) {
+                    return;
+                }
+            }
+            finish(null);
+        } catch (CancellationException e) {
+            // Closed
+            finish(null);
+        } catch (IOException | RuntimeException e) {
+            upstream.close();
+            finish(e);
+        }
+    }
+
+    /**
+     * Appends an event to the buffer, once every blocking subscriber has read the event it
+     * overwrites.
+     *
+     * @return {@code false} if the multiplexer was closed in the meantime.
+     */
+    private boolean publish(T event) {
+        lock.lock();
+        try {
+            while (!finished && written - slowestBlockingCursor() >= ring.length) {
+                notFull.awaitUninterruptibly();
+            }
+            if (finished) {
+                return false;
+            }
+            ring[(int) (written % ring.length)] = event;
+            written++;
+            for (int i = subscriptions.size() - 1; i >= 0; i--) {
+                Subscription<T> subscription = subscriptions.get(i);
+                if (subscription.backpressure == Backpressure.DISCONNECT && written - subscription.cursor > ring.length) {
+                    subscription.disconnected = true;
+                    subscriptions.remove(i);
+                }
+            }
+            notEmpty.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long slowestBlockingCursor() {
+        long slowest = written;
+        for (Subscription<T> subscription : subscriptions) {
+            if (subscription.backpressure == Backpressure.BLOCK) {
+                slowest = Math.min(slowest, subscription.cursor);
+            }
+        }
+        return slowest;
+    }
+
+    private void finish(Throwable error) {
+        lock.lock();
+        try {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            failure = error;
+            subscriptions.clear();
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A subscriber's view of the shared stream, read by one thread at a time.
+     *
+     * @param <T> The type of the events.
+     */
+    public static final class Subscription<T> implements AutoCloseable {
+        private final StreamMultiplexer<T> multiplexer;
+        private final Backpressure backpressure;
+
+        // Guarded by the multiplexer's lock
+        private long cursor;
+        private long dropped;
+        private boolean disconnected;
+        private boolean closed;
+
+        private Subscription(StreamMultiplexer<T> multiplexer, Backpressure backpressure, long cursor) {
+            this.multiplexer = multiplexer;
+            this.backpressure = backpressure;
+            this.cursor = cursor;
+        }
+
+        /**
+         * Reads the next event, blocking until it is published.
+         *
+         * @return The next event, or {@code null} at the end of the stream or once unsubscribed.
+         * @throws DifyClientException  If the subscriber was disconnected for falling behind, or
+         *                              reading the upstream stream failed.
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        public T next() throws DifyClientException, InterruptedException {
+            return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Reads the next event, waiting at most the given time for it to be published.
+         *
+         * @param timeout The maximum time to wait.
+         * @param unit    The unit of the timeout.
+         * @return The next event, or {@code null} if the timeout elapsed, at the end of the
+         * stream or once unsubscribed; see {@link #isFinished()}.
+         * @throws DifyClientException  If the subscriber was disconnected for falling behind, or
+         *                              reading the upstream stream failed.
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        @SuppressWarnings("unchecked")
+        public T poll(long timeout, TimeUnit unit) throws DifyClientException, InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            StreamMultiplexer<T> m = multiplexer;
+            m.lock.lock();
+            try {
+                while (true) {
+                    if (disconnected) {
+                        throw new DifyClientException("Subscriber fell more than " + m.ring.length
+                                + " events behind and was disconnected");
+                    }
+                    if (closed) {
+                        return null;
+                    }
+                    long oldest = m.written - m.ring.length;
+                    if (cursor < oldest) {
+                        dropped += oldest - cursor;
+                        cursor = oldest;
+                    }
+                    if (cursor < m.written) {
+                        T event = (T) m.ring[(int) (cursor % m.ring.length)];
+                        cursor++;
+                        if (backpressure == Backpressure.BLOCK) {
+                            m.notFull.signalAll();
+                        }
+                        return event;
+                    }
+                    if (m.finished) {
+                        if (m.failure != null) {
+                            DifyClientException ex = new DifyClientException("Error occurred while reading stream: " + m.failure.getMessage());
+                            ex.initCause(m.failure);
+                            throw ex;
+                        }
+                        return null;
+                    }
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = m.notEmpty.awaitNanos(nanos);
+                }
+            } finally {
+                m.lock.unlock();
+            }
+        }
+
+        /**
+         * @return Whether every event has been read and the stream has ended, or the
+         * subscription was closed or disconnected.
+         */
+        public boolean isFinished() {
+            multiplexer.lock.lock();
+            try {
+                return closed || disconnected || (multiplexer.finished && cursor >= multiplexer.written);
+            } finally {
+                multiplexer.lock.unlock();
+            }
+        }
+
+        /**
+         * @return The number of events this subscriber missed, overwritten before it read them.
+         */
+        public long getDropped() {
+            multiplexer.lock.lock();
+            try {
+                return dropped;
+            } finally {
+                multiplexer.lock.unlock();
+            }
+        }
+
+        /**
+         * @return Whether the subscriber was disconnected for falling behind.
+         */
+        public boolean isDisconnected() {
+            multiplexer.lock.lock();
+            try {
+                return disconnected;
+            } finally {
+                multiplexer.lock.unlock();
+            }
+        }
+
+        /**
+         * Unsubscribes. The upstream stream goes on for the other subscribers, and no longer
+         * waits for this one.
+         */
+        @Override
+        public void close() {
+            multiplexer.lock.lock();
+            try {
+                closed = true;
+                multiplexer.subscriptions.remove(this);
+                multiplexer.notFull.signalAll();
+                multiplexer.notEmpty.signalAll();
+            } finally {
+                multiplexer.lock.unlock();
+            }
+        }
+    }
+}
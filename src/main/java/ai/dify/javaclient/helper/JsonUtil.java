@@ -1,9 +1,22 @@
 package ai.dify.javaclient.helper;
 
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.ConversationMessage;
+import ai.dify.javaclient.dto.ConversationMessagesResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.dto.WorkflowRunRequest;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+import ai.dify.javaclient.dto.compact.CompactChatMessage;
+import ai.dify.javaclient.dto.compact.CompactMessagePage;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Utility class for JSON processing operations.
  * <p>
@@ -13,6 +26,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public class JsonUtil {
 
+  /**
+   * The SDK's DTO types, including the typed data of workflow events.
+   */
+  public static final List<Class<?>> DTO_TYPES = Collections.unmodifiableList(Arrays.asList(
+      ChatMessageResponse.class,
+      ConversationMessage.class,
+      ConversationMessagesResponse.class,
+      WorkflowRunRequest.class,
+      WorkflowRunResponse.class,
+      WorkflowEvent.class,
+      WorkflowEvent.WorkflowStartedData.class,
+      WorkflowEvent.NodeStartedData.class,
+      WorkflowEvent.TextChunkData.class,
+      WorkflowEvent.NodeFinishedData.class,
+      WorkflowEvent.WorkflowFinishedData.class,
+      CompactChatMessage.class,
+      CompactMessagePage.class));
+
   /**
    * Builds and configures an ObjectMapper instance with standard settings.
    * <p>
@@ -32,4 +63,21 @@ public class JsonUtil {
     return mapper;
   }
 
+  /**
+   * Primes a mapper's serializer and deserializer caches for all {@link #DTO_TYPES}, so that
+   * the first responses do not pay for introspecting the DTOs.
+   * <p>
+   * Every type is read from an empty object and the result written back, which builds and
+   * caches the bean serializers and deserializers along with those of their properties.
+   * </p>
+   *
+   * @param mapper The mapper to prime.
+   * @throws IOException If a type cannot be bound.
+   */
+  public static void warmUp(ObjectMapper mapper) throws IOException {
+    for (Class<?> type : DTO_TYPES) {
+      mapper.writeValueAsBytes(mapper.readValue("{}", type));
+    }
+  }
+
 }
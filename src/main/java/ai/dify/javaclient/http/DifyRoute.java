@@ -29,4 +29,17 @@ public class DifyRoute {
         this.method = method;
         this.url = url;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns a name identifying the route independently of its arguments, e.g.
+     * {@code "GET /workflows/run/{}"}: the method and the path without query string,
+     * with placeholders replaced by {@code {}}.
+     *
+     * @return The route name.
+     */
+    public String getName() {
+        int query = url.indexOf('?');
+        String path = query >= 0 ? url.substring(0, query) : url;
+        return method + " " + path.replace("%s", "{}");
+    }
+}
@@ -0,0 +1,107 @@
+package ai.dify.javaclient.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A request body streaming a file, without loading it on-heap.
+ * <p>
+ * The file is copied to the connection with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * in chunks of {@value #CHUNK_SIZE} bytes, which the JDK moves through a small direct buffer.
+ * Since OkHttp owns the socket, the bytes still pass through its buffers (and TLS); a true
+ * kernel-level zero-copy transfer is not possible here. Reads are positional, so the body
+ * can be written again when OkHttp retries the request, and several bodies may share one
+ * channel.
+ * </p>
+ */
+public final class FileRequestBody extends RequestBody {
+
+    /**
+     * Number of bytes written between two progress reports.
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final MediaType contentType;
+    private final UploadProgressListener listener;
+
+    private FileRequestBody(Path path, FileChannel channel, long size, MediaType contentType, UploadProgressListener listener) {
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+        this.contentType = contentType;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates a body that opens the file each time it is written.
+     *
+     * @param path        The file.
+     * @param contentType The content type, or {@code null}.
+     * @param listener    The listener to report progress to.
+     * @return The body.
+     * @throws IOException If the size of the file cannot be read.
+     */
+    public static FileRequestBody of(Path path, MediaType contentType, UploadProgressListener listener) throws IOException {
+        return new FileRequestBody(path, null, Files.size(path), contentType, listener);
+    }
+
+    /**
+     * Creates a body that reads an open channel from position 0 to its current size. The channel
+     * is not closed, and its position is not changed.
+     *
+     * @param channel     The channel.
+     * @param contentType The content type, or {@code null}.
+     * @param listener    The listener to report progress to.
+     * @return The body.
+     * @throws IOException If the size of the channel cannot be read.
+     */
+    public static FileRequestBody of(FileChannel channel, MediaType contentType, UploadProgressListener listener) throws IOException {
+        return new FileRequestBody(null, channel, channel.size(), contentType, listener);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return size;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (channel != null) {
+            transfer(channel, sink);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            transfer(file, sink);
+        }
+    }
+
+    private void transfer(FileChannel source, BufferedSink sink) throws IOException {
+        listener.onProgress(0, size);
+        long position = 0;
+        while (position < size) {
+            long transferred = source.transferTo(position, Math.min(CHUNK_SIZE, size - position), sink);
+            if (transferred <= 0) {
+                throw new IOException("File shrank while uploading: " + position + " of " + size + " bytes read");
+            }
+            position += transferred;
+            // Hand the chunk to the connection before reporting it
+            sink.emit();
+            listener.onProgress(position, size);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ai.dify.javaclient.http;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+import java.io.IOException;
+
+/**
+ * Compresses large request bodies with gzip, e.g. workflow runs with big documents in their inputs.
+ * <p>
+ * Opt in by installing it on the HTTP client the Dify clients are built with:
+ * <pre>
+ * OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+ *         .addInterceptor(new GzipRequestInterceptor())
+ *         .build();
+ * WorkflowClient client = new WorkflowClient(apiKey, baseUrl, httpClient);
+ * </pre>
+ * Bodies are compressed while they are written to the connection, through a {@link GzipSink},
+ * so no compressed copy is held in memory; they are then sent chunked, without a content length.
+ * Bodies smaller than the threshold, of unknown length, multipart uploads and requests that
+ * already have a {@code Content-Encoding} are sent as they are.
+ * </p>
+ * <p>
+ * The server, or a proxy in front of it, must accept gzip-encoded request bodies. Responses
+ * need no setup: OkHttp asks for gzip responses and decompresses them as they are read.
+ * </p>
+ */
+public final class GzipRequestInterceptor implements Interceptor {
+
+    /**
+     * Default smallest body size that is compressed, in bytes. Below it, compressing saves
+     * too little to be worth the CPU time.
+     */
+    public static final long DEFAULT_MIN_BYTES = 16 * 1024;
+
+    private final long minBytes;
+
+    /**
+     * Constructs a new GzipRequestInterceptor compressing bodies of at least {@value #DEFAULT_MIN_BYTES} bytes.
+     */
+    public GzipRequestInterceptor() {
+        this(DEFAULT_MIN_BYTES);
+    }
+
+    /**
+     * Constructs a new GzipRequestInterceptor.
+     *
+     * @param minBytes The smallest body size that is compressed, in bytes.
+     */
+    public GzipRequestInterceptor(long minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        if (body == null || request.header("Content-Encoding") != null || isMultipart(body.contentType())) {
+            return chain.proceed(request);
+        }
+        long length = body.contentLength();
+        if (length < 0 || length < minBytes) {
+            return chain.proceed(request);
+        }
+        return chain.proceed(request.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .method(request.method(), gzip(body))
+                .build());
+    }
+
+    private static boolean isMultipart(MediaType type) {
+        return type != null && "multipart".equals(type.type());
+    }
+
+    private static RequestBody gzip(RequestBody body) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+                // Unknown until compressed
+                return -1;
+            }
+
+            @Override
+            public boolean isOneShot() {
+                return body.isOneShot();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+                body.writeTo(gzipSink);
+                // Writes the gzip trailer
+                gzipSink.close();
+            }
+        };
+    }
+}
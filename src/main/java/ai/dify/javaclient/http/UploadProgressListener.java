@@ -0,0 +1,25 @@
+package ai.dify.javaclient.http;
+
+/**
+ * Receives the progress of a file upload.
+ *
+ * @see FileRequestBody
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    /**
+     * A listener that ignores progress.
+     */
+    UploadProgressListener NONE = (bytesWritten, totalBytes) -> {
+    };
+
+    /**
+     * Called on the thread sending the request each time a chunk of the file has been written.
+     * Starts over from 0 if the request is retried.
+     *
+     * @param bytesWritten The number of bytes of the file written so far.
+     * @param totalBytes   The size of the file.
+     */
+    void onProgress(long bytesWritten, long totalBytes);
+}
@@ -0,0 +1,54 @@
+package ai.dify.javaclient.http;
+
+import lombok.Value;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of warming up a client, see {@link ai.dify.javaclient.DifyClient#warmUp(int)}.
+ */
+@Value
+public class WarmUpReport {
+
+    /**
+     * Number of connections asked for
+     */
+    int requestedConnections;
+
+    /**
+     * Number of connections in the pool after the warm-up. Fewer than requested if connecting
+     * failed, the pool keeps fewer idle connections, or the server speaks HTTP/2, which
+     * multiplexes all requests over one connection.
+     */
+    int pooledConnections;
+
+    /**
+     * Time spent priming the JSON mapper
+     */
+    long mapperNanos;
+
+    /**
+     * Time spent opening connections
+     */
+    long connectNanos;
+
+    /**
+     * The first failure to reach the server, or {@code null} if every request got a response
+     */
+    Exception error;
+
+    /**
+     * @return Whether every warm-up request reached the server.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @param unit The unit to convert to.
+     * @return The total duration of the warm-up.
+     */
+    public long getDuration(TimeUnit unit) {
+        return unit.convert(mapperNanos + connectNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,64 @@
+package ai.dify.javaclient.metrics;
+
+import lombok.Value;
+
+/**
+ * Timings and outcome of one HTTP call to the Dify API.
+ * <p>
+ * Phase durations are {@code -1} when the phase did not happen, e.g. no DNS lookup or
+ * connect when a pooled connection was reused. When a call is retried or redirected,
+ * the durations of repeated phases are summed.
+ * </p>
+ */
+@Value
+public class CallMetrics {
+
+    /**
+     * Name of the route, see {@link ai.dify.javaclient.http.DifyRoute#getName()}
+     */
+    String route;
+
+    /**
+     * HTTP status of the response, or 0 if no response was received
+     */
+    int status;
+
+    /**
+     * The HTTP status for error responses, the simple class name of the exception for
+     * failed calls, or {@code null} if the call succeeded
+     */
+    String errorClass;
+
+    /**
+     * Time spent resolving the host name
+     */
+    long dnsNanos;
+
+    /**
+     * Time spent establishing connections, TLS handshake included
+     */
+    long connectNanos;
+
+    /**
+     * Time spent in the TLS handshake
+     */
+    long tlsNanos;
+
+    /**
+     * Time from the start of the call until the response headers started arriving
+     */
+    long timeToFirstByteNanos;
+
+    /**
+     * Time from the start of the call until the response body was consumed or the call failed.
+     * For streaming responses this includes the whole stream.
+     */
+    long totalNanos;
+
+    /**
+     * @return {@code true} if the call received a successful response.
+     */
+    public boolean isSuccess() {
+        return errorClass == null;
+    }
+}
@@ -0,0 +1,169 @@
+package ai.dify.javaclient.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory metrics per route: request and error counts, requests in flight, and latency
+ * histograms of each call phase.
+ * <p>
+ * Recording does not allocate once a route and its error classes have been seen, and
+ * takes no locks. Read the metrics at any time, e.g. from a scheduled reporter:
+ * <pre>
+ * for (DifyMetrics.RouteMetrics route : metrics.getRoutes().values()) {
+ *     System.out.println(route.getRoute() + " " + route.getTotal());
+ * }
+ * </pre>
+ * </p>
+ */
+public class DifyMetrics implements MetricsRecorder {
+    private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    @Override
+    public void callStarted(String route) {
+        route(route).inFlight.increment();
+    }
+
+    @Override
+    public void callEnded(CallMetrics metrics) {
+        RouteMetrics route = route(metrics.getRoute());
+        route.inFlight.decrement();
+        route.requests.increment();
+        if (metrics.getErrorClass() != null) {
+            route.errors.computeIfAbsent(metrics.getErrorClass(), k -> new LongAdder()).increment();
+        }
+        recordIfPresent(route.dns, metrics.getDnsNanos());
+        recordIfPresent(route.connect, metrics.getConnectNanos());
+        recordIfPresent(route.tls, metrics.getTlsNanos());
+        recordIfPresent(route.timeToFirstByte, metrics.getTimeToFirstByteNanos());
+        route.total.record(metrics.getTotalNanos());
+    }
+
+    /**
+     * @return The metrics of every route seen so far, by route name in alphabetical order.
+     */
+    public Map<String, RouteMetrics> getRoutes() {
+        return Collections.unmodifiableMap(new TreeMap<>(routes));
+    }
+
+    /**
+     * @param route The route name, see {@link ai.dify.javaclient.http.DifyRoute#getName()}.
+     * @return The metrics of the route, or {@code null} if it has not been called.
+     */
+    public RouteMetrics getRoute(String route) {
+        return routes.get(route);
+    }
+
+    private RouteMetrics route(String route) {
+        RouteMetrics metrics = routes.get(route);
+        return metrics != null ? metrics : routes.computeIfAbsent(route, RouteMetrics::new);
+    }
+
+    private static void recordIfPresent(LatencyHistogram histogram, long nanos) {
+        if (nanos >= 0) {
+            histogram.record(nanos);
+        }
+    }
+
+    /**
+     * Metrics of a single route.
+     */
+    public static final class RouteMetrics {
+        private final String route;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LatencyHistogram dns = new LatencyHistogram();
+        private final LatencyHistogram connect = new LatencyHistogram();
+        private final LatencyHistogram tls = new LatencyHistogram();
+        private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+        private final LatencyHistogram total = new LatencyHistogram();
+
+        RouteMetrics(String route) {
+            this.route = route;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        /**
+         * @return The number of completed calls, failed ones included.
+         */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /**
+         * @return The number of calls currently running, streams being read included.
+         */
+        public long getInFlight() {
+            return inFlight.sum();
+        }
+
+        /**
+         * @return The number of failed calls by error class, see {@link CallMetrics#getErrorClass()}.
+         */
+        public Map<String, Long> getErrors() {
+            Map<String, Long> counts = new TreeMap<>();
+            errors.forEach((errorClass, count) -> counts.put(errorClass, count.sum()));
+            return counts;
+        }
+
+        /**
+         * @return The total number of failed calls.
+         */
+        public long getErrorCount() {
+            long sum = 0;
+            for (LongAdder count : errors.values()) {
+                sum += count.sum();
+            }
+            return sum;
+        }
+
+        /**
+         * @return Durations of DNS lookups, for calls that needed one.
+         */
+        public LatencyHistogram getDns() {
+            return dns;
+        }
+
+        /**
+         * @return Durations of connection setup, for calls that opened a connection.
+         */
+        public LatencyHistogram getConnect() {
+            return connect;
+        }
+
+        /**
+         * @return Durations of TLS handshakes, for calls that performed one.
+         */
+        public LatencyHistogram getTls() {
+            return tls;
+        }
+
+        /**
+         * @return Times until the first byte of the response, for calls that received one.
+         */
+        public LatencyHistogram getTimeToFirstByte() {
+            return timeToFirstByte;
+        }
+
+        /**
+         * @return Total call durations.
+         */
+        public LatencyHistogram getTotal() {
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return route + ": requests=" + getRequests() + " inFlight=" + getInFlight() + " errors=" + getErrors()
+                    + " ttfb[" + timeToFirstByte + "] total[" + total + "]";
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ai.dify.javaclient.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds with bounded relative error.
+ * <p>
+ * Buckets are log-linear in the manner of HdrHistogram: every power of two is split into
+ * {@value #SUB_BUCKETS} equal buckets, so a recorded value is known to within about 3%
+ * over the whole range of {@code long}. Recording is a handful of atomic increments with
+ * no allocation; reads may observe a recording in progress.
+ * </p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a duration. Negative durations are recorded as zero.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return The number of recorded durations.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return The sum of recorded durations in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return sum.sum();
+    }
+
+    /**
+     * @return The largest recorded duration in nanoseconds, exactly.
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * @return The mean recorded duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMeanNanos() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getTotalNanos() / n;
+    }
+
+    /**
+     * Returns the duration at a percentile: the upper bound of the bucket holding it,
+     * and never more than the largest recorded duration.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The duration in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentileNanos(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100.
+     * @param unit       The unit to convert to.
+     * @return The duration at the percentile in the given unit.
+     * @see #percentileNanos(double)
+     */
+    public double percentile(double percentile, TimeUnit unit) {
+        return (double) percentileNanos(percentile) / unit.toNanos(1);
+    }
+
+    /**
+     * Removes all recorded durations. Durations recorded concurrently may be lost or kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms", getCount(),
+                getMeanNanos() / 1e6, percentileNanos(50) / 1e6, percentileNanos(99) / 1e6, getMaxNanos() / 1e6);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        // (value >>> shift) is in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index - (long) shift * SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,152 @@
+package ai.dify.javaclient.metrics;
+
+import ai.dify.javaclient.http.DifyRoute;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Collects the phase timings of each HTTP call and hands them to a {@link MetricsRecorder}.
+ * <p>
+ * Install it on the HTTP client the Dify clients are built with:
+ * <pre>
+ * DifyMetrics metrics = new DifyMetrics();
+ * OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+ *         .eventListenerFactory(MetricsEventListener.factory(metrics))
+ *         .build();
+ * ChatClient client = new ChatClient(apiKey, baseUrl, httpClient);
+ * </pre>
+ * Calls are attributed to the {@link DifyRoute} the SDK tags each request with; other
+ * requests on the same client are reported as route {@value #UNKNOWN_ROUTE}.
+ * </p>
+ */
+public final class MetricsEventListener extends EventListener {
+
+    /**
+     * Route name of requests not sent by a Dify client.
+     */
+    public static final String UNKNOWN_ROUTE = "OTHER";
+
+    private final MetricsRecorder recorder;
+    private final String route;
+
+    private long callStart;
+    private long dnsStart;
+    private long dnsNanos = -1;
+    private long connectStart;
+    private long connectNanos = -1;
+    private long tlsStart;
+    private long tlsNanos = -1;
+    private long timeToFirstByteNanos = -1;
+    private int status;
+    private boolean ended;
+
+    private MetricsEventListener(MetricsRecorder recorder, String route) {
+        this.recorder = recorder;
+        this.route = route;
+    }
+
+    /**
+     * @param recorder The recorder to report to.
+     * @return A factory creating one listener per call.
+     */
+    public static EventListener.Factory factory(MetricsRecorder recorder) {
+        return call -> {
+            DifyRoute difyRoute = call.request().tag(DifyRoute.class);
+            return new MetricsEventListener(recorder, difyRoute != null ? difyRoute.getName() : UNKNOWN_ROUTE);
+        };
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStart = System.nanoTime();
+        recorder.callStarted(route);
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        dnsNanos = add(dnsNanos, System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        tlsStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        tlsNanos = add(tlsNanos, System.nanoTime() - tlsStart);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connectNanos = add(connectNanos, System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol, IOException ioe) {
+        connectNanos = add(connectNanos, System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        if (timeToFirstByteNanos < 0) {
+            timeToFirstByteNanos = System.nanoTime() - callStart;
+        }
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        status = response.code();
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        end(status >= 400 ? String.valueOf(status) : null);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        end(call.isCanceled() ? "canceled" : errorClass(ioe));
+    }
+
+    private void end(String errorClass) {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        recorder.callEnded(new CallMetrics(route, status, errorClass, dnsNanos, connectNanos, tlsNanos,
+                timeToFirstByteNanos, System.nanoTime() - callStart));
+    }
+
+    private static String errorClass(IOException ioe) {
+        // OkHttp fails calls exceeding the call timeout with a plain InterruptedIOException("timeout")
+        if (ioe instanceof InterruptedIOException && "timeout".equals(ioe.getMessage())) {
+            return "timeout";
+        }
+        return ioe.getClass().getSimpleName();
+    }
+
+    private static long add(long total, long nanos) {
+        return total < 0 ? nanos : total + nanos;
+    }
+}
@@ -0,0 +1,39 @@
+package ai.dify.javaclient.metrics;
+
+/**
+ * Receives the metrics of HTTP calls to the Dify API, as collected by {@link MetricsEventListener}.
+ * <p>
+ * Both methods are called on the thread running the call and should return quickly.
+ * {@link DifyMetrics} is a ready-made implementation without dependencies;
+ * {@link MicrometerMetricsRecorder} publishes to a Micrometer registry.
+ * </p>
+ */
+public interface MetricsRecorder {
+
+    /**
+     * A recorder that discards everything.
+     */
+    MetricsRecorder NOOP = new MetricsRecorder() {
+        @Override
+        public void callStarted(String route) {
+        }
+
+        @Override
+        public void callEnded(CallMetrics metrics) {
+        }
+    };
+
+    /**
+     * Called when a call starts.
+     *
+     * @param route The route name.
+     */
+    void callStarted(String route);
+
+    /**
+     * Called exactly once for every started call, when it has ended or failed.
+     *
+     * @param metrics The metrics of the call.
+     */
+    void callEnded(CallMetrics metrics);
+}
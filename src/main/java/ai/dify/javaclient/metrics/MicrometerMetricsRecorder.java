@@ -0,0 +1,100 @@
+package ai.dify.javaclient.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes call metrics to a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Requires {@code io.micrometer:micrometer-core} on the classpath, which the SDK declares
+ * as an optional dependency. Meters:
+ * <ul>
+ *     <li>{@code dify.client.requests}: timer of total call duration, tagged with {@code route},
+ *     {@code status} and {@code error} ({@code none} on success)</li>
+ *     <li>{@code dify.client.requests.phase}: timer per {@code route} and {@code phase}
+ *     ({@code dns}, {@code connect}, {@code tls}, {@code ttfb})</li>
+ *     <li>{@code dify.client.requests.active}: gauge of calls in flight per {@code route}</li>
+ * </ul>
+ * Percentile histograms can be enabled for these timers with a {@code MeterFilter}.
+ * </p>
+ */
+public class MicrometerMetricsRecorder implements MetricsRecorder {
+    static final String REQUESTS = "dify.client.requests";
+    static final String PHASE = "dify.client.requests.phase";
+    static final String ACTIVE = "dify.client.requests.active";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new MicrometerMetricsRecorder.
+     *
+     * @param registry The registry to publish to.
+     */
+    public MicrometerMetricsRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void callStarted(String route) {
+        meters(route).active.incrementAndGet();
+    }
+
+    @Override
+    public void callEnded(CallMetrics metrics) {
+        RouteMeters meters = meters(metrics.getRoute());
+        meters.active.decrementAndGet();
+        Timer.builder(REQUESTS)
+                .tags(meters.tags)
+                .tag("status", String.valueOf(metrics.getStatus()))
+                .tag("error", metrics.getErrorClass() != null ? metrics.getErrorClass() : "none")
+                .register(registry)
+                .record(metrics.getTotalNanos(), TimeUnit.NANOSECONDS);
+        recordIfPresent(meters.dns, metrics.getDnsNanos());
+        recordIfPresent(meters.connect, metrics.getConnectNanos());
+        recordIfPresent(meters.tls, metrics.getTlsNanos());
+        recordIfPresent(meters.timeToFirstByte, metrics.getTimeToFirstByteNanos());
+    }
+
+    private RouteMeters meters(String route) {
+        RouteMeters meters = routes.get(route);
+        return meters != null ? meters : routes.computeIfAbsent(route, name -> new RouteMeters(registry, name));
+    }
+
+    private static void recordIfPresent(Timer timer, long nanos) {
+        if (nanos >= 0) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Meters of a route that do not depend on the call outcome.
+     */
+    private static final class RouteMeters {
+        final Tags tags;
+        final AtomicInteger active;
+        final Timer dns;
+        final Timer connect;
+        final Timer tls;
+        final Timer timeToFirstByte;
+
+        RouteMeters(MeterRegistry registry, String route) {
+            tags = Tags.of("route", route);
+            active = registry.gauge(ACTIVE, tags, new AtomicInteger());
+            dns = phase(registry, "dns");
+            connect = phase(registry, "connect");
+            tls = phase(registry, "tls");
+            timeToFirstByte = phase(registry, "ttfb");
+        }
+
+        private Timer phase(MeterRegistry registry, String phase) {
+            return Timer.builder(PHASE).tags(tags).tag("phase", phase).register(registry);
+        }
+    }
+}
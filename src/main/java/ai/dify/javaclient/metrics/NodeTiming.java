@@ -0,0 +1,51 @@
+package ai.dify.javaclient.metrics;
+
+import lombok.Value;
+
+/**
+ * Timing of one node execution within a workflow run.
+ * A node inside an iteration or loop executes once per round, each with its own timing.
+ */
+@Value
+public class NodeTiming {
+
+    /**
+     * The node's ID in the workflow graph
+     */
+    String nodeId;
+
+    /**
+     * The node type, e.g. {@code llm} or {@code code}, or {@code null} if not reported
+     */
+    String nodeType;
+
+    /**
+     * The node's title in the workflow editor, or {@code null} if not reported
+     */
+    String title;
+
+    /**
+     * ID of the node that ran before this one, or {@code null} for the start node
+     */
+    String predecessorNodeId;
+
+    /**
+     * The execution status, e.g. {@code succeeded} or {@code failed}
+     */
+    String status;
+
+    /**
+     * Time from the start of the stream until {@code node_started} arrived, or {@code -1} if it did not
+     */
+    long startOffsetNanos;
+
+    /**
+     * Execution time reported by Dify, or the time between the node's events if it reported none
+     */
+    long elapsedNanos;
+
+    /**
+     * Tokens the node used, 0 for nodes not calling a model
+     */
+    long totalTokens;
+}
@@ -0,0 +1,315 @@
+package ai.dify.javaclient.metrics;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.stream.ChatEventListener;
+import ai.dify.javaclient.stream.WorkflowEventListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Measures what users perceive of streaming responses: time to first token, gaps between
+ * tokens, tokens per second and stream duration, aggregated per app.
+ * <p>
+ * Wrap the listener of each stream right before sending its request, so that time to
+ * first token includes the request itself:
+ * <pre>
+ * StreamMetrics streamMetrics = new StreamMetrics();
+ * ChatEventListener listener = streamMetrics.trackChat("support-bot", myListener);
+ * Response response = chatClient.createChatMessage(inputs, query, user, true, null);
+ * new ChatEventParser().readAll(new SseReader(response.body().source()), listener);
+ * </pre>
+ * Streams consumed some other way can be measured with {@link #start(String)}.
+ * </p>
+ * <p>
+ * Apps are labels chosen by the caller, e.g. the app name. Since each Dify API key belongs
+ * to one app, they also separate API keys; do not use the keys themselves as labels.
+ * </p>
+ */
+public class StreamMetrics {
+    private final ConcurrentMap<String, AppStreamMetrics> apps = new ConcurrentHashMap<>();
+    private final Consumer<StreamSummary> summaryConsumer;
+
+    /**
+     * Constructs a new StreamMetrics.
+     */
+    public StreamMetrics() {
+        this(summary -> {
+        });
+    }
+
+    /**
+     * Constructs a new StreamMetrics that also hands the summary of every stream to a consumer,
+     * e.g. for logging slow streams.
+     *
+     * @param summaryConsumer The consumer, called on the thread that ends the stream.
+     */
+    public StreamMetrics(Consumer<StreamSummary> summaryConsumer) {
+        this.summaryConsumer = summaryConsumer;
+    }
+
+    /**
+     * Starts measuring a stream. Call right before sending its request.
+     *
+     * @param app The app label.
+     * @return The tracker to notify of the stream's events.
+     */
+    public StreamTracker start(String app) {
+        return new StreamTracker(app);
+    }
+
+    /**
+     * Starts measuring a chat or completion stream.
+     *
+     * @param app      The app label.
+     * @param listener The listener to pass events on to.
+     * @return A listener that measures the stream and notifies {@code listener}.
+     */
+    public ChatEventListener trackChat(String app, ChatEventListener listener) {
+        StreamTracker tracker = start(app);
+        return new ChatEventListener() {
+            @Override
+            public void onEvent(ChatMessageResponse event) {
+                tracker.onEvent(event.getEvent());
+                listener.onEvent(event);
+            }
+
+            @Override
+            public void onComplete() {
+                tracker.complete();
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                tracker.fail(error);
+                listener.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Starts measuring a workflow stream.
+     *
+     * @param app      The app label.
+     * @param listener The listener to pass events on to.
+     * @return A listener that measures the stream and notifies {@code listener}.
+     */
+    public WorkflowEventListener trackWorkflow(String app, WorkflowEventListener listener) {
+        StreamTracker tracker = start(app);
+        return new WorkflowEventListener() {
+            @Override
+            public void onEvent(WorkflowEvent event) {
+                tracker.onEvent(event.getEvent());
+                listener.onEvent(event);
+            }
+
+            @Override
+            public void onComplete() {
+                tracker.complete();
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                tracker.fail(error);
+                listener.onError(error);
+            }
+        };
+    }
+
+    /**
+     * @return The metrics of every app tracked so far, by app label in alphabetical order.
+     */
+    public Map<String, AppStreamMetrics> getApps() {
+        return Collections.unmodifiableMap(new TreeMap<>(apps));
+    }
+
+    /**
+     * @param app The app label.
+     * @return The metrics of the app, or {@code null} if none of its streams has been tracked.
+     */
+    public AppStreamMetrics getApp(String app) {
+        return apps.get(app);
+    }
+
+    /**
+     * Returns whether an event carries a piece of the answer.
+     *
+     * @param event The event type.
+     * @return {@code true} for {@code message}, {@code agent_message} and {@code text_chunk}.
+     */
+    public static boolean isTokenEvent(String event) {
+        return ChatMessageResponse.EVENT_MESSAGE.equals(event)
+                || ChatMessageResponse.EVENT_AGENT_MESSAGE.equals(event)
+                || WorkflowEvent.EVENT_TEXT_CHUNK.equals(event);
+    }
+
+    private AppStreamMetrics app(String app) {
+        AppStreamMetrics metrics = apps.get(app);
+        return metrics != null ? metrics : apps.computeIfAbsent(app, AppStreamMetrics::new);
+    }
+
+    /**
+     * Measures a single stream. Not thread-safe: notify it from the thread reading the stream.
+     */
+    public final class StreamTracker {
+        private final String app;
+        private final AppStreamMetrics metrics;
+        private final long startNanos = System.nanoTime();
+        private long firstTokenNanos = -1;
+        private long lastTokenNanos;
+        private long maxGapNanos;
+        private int events;
+        private int tokens;
+        private StreamSummary summary;
+
+        StreamTracker(String app) {
+            this.app = app;
+            this.metrics = app(app);
+        }
+
+        /**
+         * Records an event.
+         *
+         * @param event The event type.
+         */
+        public void onEvent(String event) {
+            events++;
+            if (!isTokenEvent(event)) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (tokens++ == 0) {
+                firstTokenNanos = now;
+            } else {
+                long gap = now - lastTokenNanos;
+                maxGapNanos = Math.max(maxGapNanos, gap);
+                metrics.interToken.record(gap);
+            }
+            lastTokenNanos = now;
+        }
+
+        /**
+         * Ends the stream successfully. Only the first call to {@code complete} or {@code fail} counts.
+         *
+         * @return The summary of the stream.
+         */
+        public StreamSummary complete() {
+            return end(null);
+        }
+
+        /**
+         * Ends the stream with a failure. Only the first call to {@code complete} or {@code fail} counts.
+         *
+         * @param error The failure.
+         * @return The summary of the stream.
+         */
+        public StreamSummary fail(Throwable error) {
+            return end(error);
+        }
+
+        private StreamSummary end(Throwable error) {
+            if (summary != null) {
+                return summary;
+            }
+            long duration = System.nanoTime() - startNanos;
+            long ttft = firstTokenNanos >= 0 ? firstTokenNanos - startNanos : -1;
+            long generationNanos = lastTokenNanos - firstTokenNanos;
+            double tokensPerSecond = tokens > 1 && generationNanos > 0 ? (tokens - 1) / (generationNanos / 1e9) : 0;
+            summary = new StreamSummary(app, ttft, duration, events, tokens, maxGapNanos, tokensPerSecond, error);
+
+            metrics.streams.increment();
+            if (error != null) {
+                metrics.failures.increment();
+            }
+            if (ttft >= 0) {
+                metrics.timeToFirstToken.record(ttft);
+            }
+            metrics.duration.record(duration);
+            if (tokens > 1) {
+                metrics.generatedTokens.add(tokens - 1);
+                metrics.generationNanos.add(generationNanos);
+            }
+            summaryConsumer.accept(summary);
+            return summary;
+        }
+    }
+
+    /**
+     * Stream metrics of a single app.
+     */
+    public static final class AppStreamMetrics {
+        private final String app;
+        private final LongAdder streams = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder generatedTokens = new LongAdder();
+        private final LongAdder generationNanos = new LongAdder();
+        private final LatencyHistogram timeToFirstToken = new LatencyHistogram();
+        private final LatencyHistogram interToken = new LatencyHistogram();
+        private final LatencyHistogram duration = new LatencyHistogram();
+
+        AppStreamMetrics(String app) {
+            this.app = app;
+        }
+
+        public String getApp() {
+            return app;
+        }
+
+        /**
+         * @return The number of ended streams, failed ones included.
+         */
+        public long getStreams() {
+            return streams.sum();
+        }
+
+        /**
+         * @return The number of failed streams.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return Times from request to first token.
+         */
+        public LatencyHistogram getTimeToFirstToken() {
+            return timeToFirstToken;
+        }
+
+        /**
+         * @return Gaps between consecutive tokens of a stream, recorded as they arrive.
+         */
+        public LatencyHistogram getInterToken() {
+            return interToken;
+        }
+
+        /**
+         * @return Stream durations, from request to end of stream.
+         */
+        public LatencyHistogram getDuration() {
+            return duration;
+        }
+
+        /**
+         * @return The rate of tokens after the first one over all ended streams, or 0 if unknown.
+         */
+        public double getTokensPerSecond() {
+            long nanos = generationNanos.sum();
+            return nanos > 0 ? generatedTokens.sum() / (nanos / 1e9) : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: streams=%d failures=%d tokens/s=%.1f ttft[%s] interToken[%s] duration[%s]",
+                    app, getStreams(), getFailures(), getTokensPerSecond(), timeToFirstToken, interToken, duration);
+        }
+    }
+}
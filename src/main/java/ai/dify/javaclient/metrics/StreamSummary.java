@@ -0,0 +1,55 @@
+package ai.dify.javaclient.metrics;
+
+import lombok.Value;
+
+/**
+ * Timing of one streaming response, as seen by its consumer.
+ * <p>
+ * Tokens are counted as answer events: {@code message} and {@code agent_message} for chat
+ * and completion streams, {@code text_chunk} for workflow streams. Dify sends roughly one
+ * event per model token.
+ * </p>
+ */
+@Value
+public class StreamSummary {
+
+    /**
+     * The app label the stream was tracked under
+     */
+    String app;
+
+    /**
+     * Time from sending the request until the first token, or {@code -1} if none arrived
+     */
+    long timeToFirstTokenNanos;
+
+    /**
+     * Time from sending the request until the stream ended or failed
+     */
+    long durationNanos;
+
+    /**
+     * Number of events received, tokens included
+     */
+    int events;
+
+    /**
+     * Number of tokens received
+     */
+    int tokens;
+
+    /**
+     * Longest gap between two consecutive tokens, or 0 with fewer than two tokens
+     */
+    long maxInterTokenNanos;
+
+    /**
+     * Rate of tokens after the first, or 0 with fewer than two tokens
+     */
+    double tokensPerSecond;
+
+    /**
+     * The failure that ended the stream, or {@code null} if it completed
+     */
+    Throwable error;
+}
@@ -0,0 +1,64 @@
+package ai.dify.javaclient.metrics;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Execution profile of one workflow run, built from its streaming events.
+ */
+@Value
+public class WorkflowProfile {
+
+    /**
+     * The app label the run was profiled under
+     */
+    String app;
+
+    /**
+     * The workflow run ID, or {@code null} if the stream ended before any event carried it
+     */
+    String workflowRunId;
+
+    /**
+     * The run status from {@code workflow_finished}, or {@code null} if the stream ended before it
+     */
+    String status;
+
+    /**
+     * Time from the start of the stream until it ended or failed
+     */
+    long durationNanos;
+
+    /**
+     * Tokens used by the run
+     */
+    long totalTokens;
+
+    /**
+     * Every finished node execution, in the order they finished
+     */
+    List<NodeTiming> nodes;
+
+    /**
+     * The chain of predecessors with the longest total execution time, from the first node
+     * to the last. Nodes on parallel branches off this chain did not delay the run.
+     */
+    List<NodeTiming> criticalPath;
+
+    /**
+     * The failure that ended the stream, or {@code null} if it completed
+     */
+    Throwable error;
+
+    /**
+     * @return The summed execution time of the nodes on the critical path.
+     */
+    public long getCriticalPathNanos() {
+        long nanos = 0;
+        for (NodeTiming node : criticalPath) {
+            nanos += node.getElapsedNanos();
+        }
+        return nanos;
+    }
+}
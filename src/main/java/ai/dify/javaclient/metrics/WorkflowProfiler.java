@@ -0,0 +1,331 @@
+package ai.dify.javaclient.metrics;
+
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.stream.WorkflowEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Profiles workflow runs from their streaming events: node timings, tokens per node and the
+ * critical path of each run, plus per-node latency histograms aggregated over all runs of an app.
+ * <p>
+ * Wrap the listener of each workflow stream:
+ * <pre>
+ * WorkflowProfiler profiler = new WorkflowProfiler(profile -&gt; log.debug("{}", profile.getCriticalPath()));
+ * Response response = workflowClient.runWorkflow(inputs, user, true);
+ * new WorkflowEventParser().readAll(new SseReader(response.body().source()), profiler.profile("report-flow", myListener));
+ * // ...
+ * for (WorkflowProfiler.NodeMetrics node : profiler.getNodes("report-flow").values()) {
+ *     System.out.println(node);
+ * }
+ * </pre>
+ * </p>
+ * <p>
+ * Node IDs are only unique within a workflow, so aggregates are kept per app label.
+ * </p>
+ */
+public class WorkflowProfiler {
+    private final ConcurrentMap<String, ConcurrentMap<String, NodeMetrics>> apps = new ConcurrentHashMap<>();
+    private final Consumer<WorkflowProfile> profileConsumer;
+
+    /**
+     * Constructs a new WorkflowProfiler.
+     */
+    public WorkflowProfiler() {
+        this(profile -> {
+        });
+    }
+
+    /**
+     * Constructs a new WorkflowProfiler that also hands the profile of every run to a consumer,
+     * e.g. for logging slow runs.
+     *
+     * @param profileConsumer The consumer, called on the thread that ends the stream.
+     */
+    public WorkflowProfiler(Consumer<WorkflowProfile> profileConsumer) {
+        this.profileConsumer = profileConsumer;
+    }
+
+    /**
+     * Starts profiling a workflow stream.
+     *
+     * @param app      The app label.
+     * @param listener The listener to pass events on to.
+     * @return A listener that profiles the run and notifies {@code listener}.
+     */
+    public WorkflowEventListener profile(String app, WorkflowEventListener listener) {
+        RunProfiler run = new RunProfiler(app);
+        return new WorkflowEventListener() {
+            @Override
+            public void onEvent(WorkflowEvent event) {
+                run.onEvent(event);
+                listener.onEvent(event);
+            }
+
+            @Override
+            public void onComplete() {
+                run.end(null);
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                run.end(error);
+                listener.onError(error);
+            }
+        };
+    }
+
+    /**
+     * @param app The app label.
+     * @return The metrics of every node of the app seen so far, by node ID in alphabetical order.
+     */
+    public Map<String, NodeMetrics> getNodes(String app) {
+        ConcurrentMap<String, NodeMetrics> nodes = apps.get(app);
+        return nodes != null ? Collections.unmodifiableMap(new TreeMap<>(nodes)) : Collections.emptyMap();
+    }
+
+    /**
+     * Computes the critical path of a run: the chain of nodes, linked through their predecessors,
+     * with the longest total execution time. A node that executed several times is linked
+     * through its last execution.
+     *
+     * @param nodes The finished node executions, in the order they finished.
+     * @return The critical path, from the first node to the last.
+     */
+    static List<NodeTiming> criticalPath(List<NodeTiming> nodes) {
+        Map<String, NodeTiming> lastExecutions = new HashMap<>();
+        for (NodeTiming node : nodes) {
+            lastExecutions.put(node.getNodeId(), node);
+        }
+        List<NodeTiming> path = Collections.emptyList();
+        long longest = -1;
+        for (NodeTiming node : nodes) {
+            List<NodeTiming> chain = chain(node, lastExecutions);
+            long nanos = 0;
+            for (NodeTiming link : chain) {
+                nanos += link.getElapsedNanos();
+            }
+            if (nanos > longest) {
+                longest = nanos;
+                path = chain;
+            }
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Walks the predecessors of a node, stopping at the first node already seen in case they
+     * form a loop.
+     *
+     * @return The chain, from the given node to the first one.
+     */
+    private static List<NodeTiming> chain(NodeTiming node, Map<String, NodeTiming> lastExecutions) {
+        List<NodeTiming> chain = new ArrayList<>();
+        Set<NodeTiming> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (NodeTiming current = node; current != null && visited.add(current); current = predecessor(current, lastExecutions)) {
+            chain.add(current);
+        }
+        return chain;
+    }
+
+    private static NodeTiming predecessor(NodeTiming node, Map<String, NodeTiming> lastExecutions) {
+        String predecessor = node.getPredecessorNodeId();
+        return predecessor != null && !predecessor.equals(node.getNodeId()) ? lastExecutions.get(predecessor) : null;
+    }
+
+    private NodeMetrics node(String app, String nodeId) {
+        ConcurrentMap<String, NodeMetrics> nodes = apps.get(app);
+        if (nodes == null) {
+            nodes = apps.computeIfAbsent(app, k -> new ConcurrentHashMap<>());
+        }
+        NodeMetrics metrics = nodes.get(nodeId);
+        return metrics != null ? metrics : nodes.computeIfAbsent(nodeId, NodeMetrics::new);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    /**
+     * Profiles a single run. Not thread-safe: it is notified from the thread reading the stream.
+     */
+    private final class RunProfiler {
+        private final String app;
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> startedNanos = new HashMap<>();
+        private final List<NodeTiming> nodes = new ArrayList<>();
+        private String workflowRunId;
+        private String status;
+        private Long totalTokens;
+        private boolean ended;
+
+        RunProfiler(String app) {
+            this.app = app;
+        }
+
+        void onEvent(WorkflowEvent event) {
+            if (workflowRunId == null) {
+                workflowRunId = event.getWorkflow_run_id();
+            }
+            if (WorkflowEvent.EVENT_NODE_STARTED.equals(event.getEvent())) {
+                WorkflowEvent.NodeStartedData data = event.getDataAs(WorkflowEvent.NodeStartedData.class);
+                if (data != null) {
+                    startedNanos.put(data.getId() != null ? data.getId() : data.getNode_id(), System.nanoTime());
+                }
+            } else if (WorkflowEvent.EVENT_NODE_FINISHED.equals(event.getEvent())) {
+                WorkflowEvent.NodeFinishedData data = event.getDataAs(WorkflowEvent.NodeFinishedData.class);
+                if (data != null && data.getNode_id() != null) {
+                    nodeFinished(data);
+                }
+            } else if (WorkflowEvent.EVENT_WORKFLOW_FINISHED.equals(event.getEvent())) {
+                WorkflowEvent.WorkflowFinishedData data = event.getDataAs(WorkflowEvent.WorkflowFinishedData.class);
+                if (data != null) {
+                    status = data.getStatus();
+                    totalTokens = data.getTotal_tokens() != null ? data.getTotal_tokens().longValue() : null;
+                }
+            }
+        }
+
+        private void nodeFinished(WorkflowEvent.NodeFinishedData data) {
+            long now = System.nanoTime();
+            Long started = startedNanos.remove(data.getId() != null ? data.getId() : data.getNode_id());
+            long elapsed;
+            if (data.getElapsed_time() != null) {
+                elapsed = Math.round(data.getElapsed_time() * TimeUnit.SECONDS.toNanos(1));
+            } else {
+                elapsed = started != null ? now - started : 0;
+            }
+            long tokens = data.getExecution_metadata() != null ? toLong(data.getExecution_metadata().get("total_tokens")) : 0;
+            nodes.add(new NodeTiming(data.getNode_id(), data.getNode_type(), data.getTitle(), data.getPredecessor_node_id(),
+                    data.getStatus(), started != null ? started - startNanos : -1, elapsed, tokens));
+        }
+
+        void end(Throwable error) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            long duration = System.nanoTime() - startNanos;
+            List<NodeTiming> criticalPath = criticalPath(nodes);
+            long tokens = 0;
+            for (NodeTiming node : nodes) {
+                tokens += node.getTotalTokens();
+                NodeMetrics metrics = node(app, node.getNodeId());
+                metrics.update(node);
+            }
+            for (NodeTiming node : criticalPath) {
+                node(app, node.getNodeId()).onCriticalPath.increment();
+            }
+            WorkflowProfile profile = new WorkflowProfile(app, workflowRunId, status, duration,
+                    totalTokens != null ? totalTokens : tokens, Collections.unmodifiableList(nodes),
+                    Collections.unmodifiableList(criticalPath), error);
+            profileConsumer.accept(profile);
+        }
+    }
+
+    /**
+     * Metrics of a single workflow node, aggregated over all profiled runs.
+     */
+    public static final class NodeMetrics {
+        private final String nodeId;
+        private volatile String nodeType;
+        private volatile String title;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder tokens = new LongAdder();
+        private final LongAdder onCriticalPath = new LongAdder();
+        private final LatencyHistogram elapsed = new LatencyHistogram();
+
+        NodeMetrics(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        void update(NodeTiming node) {
+            if (node.getNodeType() != null) {
+                nodeType = node.getNodeType();
+            }
+            if (node.getTitle() != null) {
+                title = node.getTitle();
+            }
+            executions.increment();
+            if ("failed".equals(node.getStatus())) {
+                failures.increment();
+            }
+            tokens.add(node.getTotalTokens());
+            elapsed.record(node.getElapsedNanos());
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * @return The node type, or {@code null} if never reported.
+         */
+        public String getNodeType() {
+            return nodeType;
+        }
+
+        /**
+         * @return The node's title, or {@code null} if never reported.
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return The number of executions, several per run for nodes in iterations and loops.
+         */
+        public long getExecutions() {
+            return executions.sum();
+        }
+
+        /**
+         * @return The number of executions with status {@code failed}.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return The tokens used over all executions.
+         */
+        public long getTokens() {
+            return tokens.sum();
+        }
+
+        /**
+         * @return The number of runs whose critical path included the node.
+         */
+        public long getCriticalPathCount() {
+            return onCriticalPath.sum();
+        }
+
+        /**
+         * @return Execution times of the node.
+         */
+        public LatencyHistogram getElapsed() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s): executions=%d failures=%d tokens=%d criticalPath=%d elapsed[%s]",
+                    nodeId, nodeType, getExecutions(), getFailures(), getTokens(), getCriticalPathCount(), elapsed);
+        }
+    }
+}
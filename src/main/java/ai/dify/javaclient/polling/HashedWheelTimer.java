@@ -0,0 +1,131 @@
+package ai.dify.javaclient.polling;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timer wheel driven by a single daemon thread.
+ * <p>
+ * Scheduling and expiry are O(1) per timeout, so the cost of one tick depends on the
+ * timeouts due in that slot rather than on the total number scheduled. Timeouts fire
+ * with a precision of one tick. Tasks run on the timer thread and must be short; hand
+ * real work off to an executor.
+ * </p>
+ */
+final class HashedWheelTimer implements AutoCloseable {
+    private final long tickNanos;
+    private final List<Timeout>[] wheel;
+    private final int mask;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final long startNanos;
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * Current tick, only accessed by the timer thread
+     */
+    private long tick;
+
+    /**
+     * Constructs and starts a new HashedWheelTimer.
+     *
+     * @param tickDuration The duration of one tick.
+     * @param unit         The unit of the tick duration.
+     * @param wheelSize    The number of slots; rounded up to a power of two.
+     * @param threadName   The name of the timer thread.
+     */
+    @SuppressWarnings("unchecked")
+    HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, String threadName) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.wheel = new List[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+        this.thread = new Thread(this::run, threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  The task to run on the timer thread.
+     * @param delay The delay.
+     * @param unit  The unit of the delay.
+     */
+    void schedule(Runnable task, long delay, TimeUnit unit) {
+        scheduled.add(new Timeout(task, System.nanoTime() - startNanos + unit.toNanos(delay)));
+    }
+
+    /**
+     * Stops the timer thread. Pending timeouts are dropped.
+     */
+    @Override
+    public void close() {
+        stopped = true;
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (!stopped) {
+            long sleepNanos = startNanos + tickNanos * (tick + 1) - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            transferScheduled();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            long dueTick = Math.max(timeout.deadlineNanos / tickNanos, tick);
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        List<Runnable> due = new ArrayList<>();
+        for (Iterator<Timeout> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout timeout = it.next();
+            if (timeout.remainingRounds <= 0) {
+                it.remove();
+                due.add(timeout.task);
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+        for (Runnable task : due) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // A failing task must not stop the timer
+            }
+        }
+    }
+
+    private static final class Timeout {
+        final Runnable task;
+        final long deadlineNanos;
+        long remainingRounds;
+
+        Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
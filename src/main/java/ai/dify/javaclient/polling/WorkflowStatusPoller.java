@@ -0,0 +1,204 @@
+package ai.dify.javaclient.polling;
+
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks many workflow runs until they reach a terminal status, sharing one timer and a
+ * small pool of polling threads between all of them.
+ * <p>
+ * Each run is polled through {@link WorkflowClient#getWorkflowStatusSync(String)} at an
+ * interval that grows with the time it has been tracked: a tenth of the elapsed time,
+ * clamped between the minimum and maximum interval. Short runs are noticed quickly while
+ * long runs cost few requests. The number of concurrent status requests is bounded,
+ * so the polling cost stays flat however many runs are tracked.
+ * </p>
+ * <p>
+ * Example:
+ * <pre>
+ * WorkflowStatusPoller poller = new WorkflowStatusPoller(client);
+ * poller.track(workflowRunId).thenAccept(run -&gt; System.out.println(run.getData().getStatus()));
+ * </pre>
+ * </p>
+ */
+public class WorkflowStatusPoller implements AutoCloseable {
+
+    /**
+     * Default minimum interval between two polls of the same run.
+     */
+    public static final long DEFAULT_MIN_INTERVAL_MILLIS = 1000;
+
+    /**
+     * Default maximum interval between two polls of the same run.
+     */
+    public static final long DEFAULT_MAX_INTERVAL_MILLIS = 30_000;
+
+    /**
+     * Default number of concurrent status requests.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_POLLS = 4;
+
+    /**
+     * Number of consecutive failed polls after which a run's future fails.
+     */
+    public static final int MAX_CONSECUTIVE_FAILURES = 5;
+
+    private static final int WHEEL_SIZE = 512;
+    private static final AtomicInteger POLLER_NUMBER = new AtomicInteger();
+
+    private final WorkflowClient client;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final HashedWheelTimer timer;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, TrackedRun> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new WorkflowStatusPoller with default intervals and concurrency.
+     *
+     * @param client The client used to retrieve workflow status.
+     */
+    public WorkflowStatusPoller(WorkflowClient client) {
+        this(client, DEFAULT_MIN_INTERVAL_MILLIS, DEFAULT_MAX_INTERVAL_MILLIS, DEFAULT_MAX_CONCURRENT_POLLS);
+    }
+
+    /**
+     * Constructs a new WorkflowStatusPoller.
+     *
+     * @param client             The client used to retrieve workflow status.
+     * @param minIntervalMillis  The minimum interval between two polls of the same run.
+     * @param maxIntervalMillis  The maximum interval between two polls of the same run.
+     * @param maxConcurrentPolls The maximum number of concurrent status requests.
+     */
+    public WorkflowStatusPoller(WorkflowClient client, long minIntervalMillis, long maxIntervalMillis, int maxConcurrentPolls) {
+        if (minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("Intervals must satisfy 0 < minIntervalMillis <= maxIntervalMillis");
+        }
+        this.client = client;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+
+        int pollerNumber = POLLER_NUMBER.incrementAndGet();
+        // A few ticks per minimum interval keeps timing error well below the interval itself
+        long tickMillis = Math.min(Math.max(minIntervalMillis / 4, 1), 100);
+        this.timer = new HashedWheelTimer(tickMillis, TimeUnit.MILLISECONDS, WHEEL_SIZE, "dify-status-timer-" + pollerNumber);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentPolls, r -> {
+            Thread thread = new Thread(r, "dify-status-poll-" + pollerNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts tracking a workflow run.
+     * <p>
+     * The returned future completes with the run once its status is terminal, or fails
+     * after {@link #MAX_CONSECUTIVE_FAILURES} consecutive failed polls. Cancelling it stops
+     * tracking. Tracking a run that is already tracked returns the existing future.
+     * </p>
+     *
+     * @param workflowRunId The ID of the workflow run.
+     * @return A future completed with the finished run.
+     */
+    public CompletableFuture<WorkflowRunResponse> track(String workflowRunId) {
+        TrackedRun created = new TrackedRun(workflowRunId);
+        TrackedRun existing = runs.putIfAbsent(workflowRunId, created);
+        if (existing != null) {
+            return existing.future;
+        }
+        created.future.whenComplete((run, error) -> runs.remove(workflowRunId, created));
+        timer.schedule(() -> dispatch(created), 0, TimeUnit.MILLISECONDS);
+        return created.future;
+    }
+
+    /**
+     * @return The number of runs currently tracked.
+     */
+    public int getTrackedCount() {
+        return runs.size();
+    }
+
+    /**
+     * Stops polling. Futures of runs still tracked are cancelled.
+     */
+    @Override
+    public void close() {
+        timer.close();
+        executor.shutdownNow();
+        for (TrackedRun run : runs.values()) {
+            run.future.cancel(false);
+        }
+    }
+
+    /**
+     * Returns whether a workflow run status is final.
+     *
+     * @param status The status.
+     * @return {@code true} if the run will not change status anymore.
+     */
+    public static boolean isTerminal(String status) {
+        return WorkflowRunResponse.STATUS_SUCCEEDED.equals(status)
+                || WorkflowRunResponse.STATUS_FAILED.equals(status)
+                || WorkflowRunResponse.STATUS_STOPPED.equals(status)
+                || WorkflowRunResponse.STATUS_PARTIAL_SUCCEEDED.equals(status);
+    }
+
+    private void dispatch(TrackedRun run) {
+        if (!run.future.isDone()) {
+            executor.execute(() -> poll(run));
+        }
+    }
+
+    private void poll(TrackedRun run) {
+        if (run.future.isDone()) {
+            return;
+        }
+        try {
+            WorkflowRunResponse response = client.getWorkflowStatusSync(run.workflowRunId);
+            run.consecutiveFailures = 0;
+            if (response.getData() != null && isTerminal(response.getData().getStatus())) {
+                // Untrack before completing, so callers woken by the future see it gone
+                runs.remove(run.workflowRunId, run);
+                run.future.complete(response);
+                return;
+            }
+        } catch (DifyClientException | RuntimeException e) {
+            if (++run.consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                runs.remove(run.workflowRunId, run);
+                run.future.completeExceptionally(e);
+                return;
+            }
+        }
+        timer.schedule(() -> dispatch(run), nextInterval(run), TimeUnit.MILLISECONDS);
+    }
+
+    private long nextInterval(TrackedRun run) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - run.startNanos);
+        return Math.min(Math.max(elapsedMillis / 10, minIntervalMillis), maxIntervalMillis);
+    }
+
+    /**
+     * A run being tracked. At most one poll of a run is in progress at any time,
+     * so the failure count needs no synchronization beyond the executor hand-off.
+     */
+    private static final class TrackedRun {
+        final String workflowRunId;
+        final long startNanos = System.nanoTime();
+        final CompletableFuture<WorkflowRunResponse> future = new CompletableFuture<>();
+        int consecutiveFailures;
+
+        TrackedRun(String workflowRunId) {
+            this.workflowRunId = workflowRunId;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ai.dify.javaclient.stream;
+
+import okhttp3.Call;
+import okhttp3.Response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A streaming response that can be abandoned without leaving its task running on the server.
+ * <p>
+ * Dify keeps generating a streamed answer or running a streamed workflow after the client goes
+ * away, until the task is stopped explicitly. This handle captures the {@code task_id} of the
+ * first event, and {@link #cancel() cancelling} it closes the socket, releases the connection
+ * and sends the stop request for that task. {@link #close() Closing} a stream that has not reached
+ * its last event cancels it the same way, so a stream read in try-with-resources is stopped
+ * whenever the reading code bails out early.
+ * </p>
+ * <p>
+ * Events are read by one thread at a time; {@link #cancel()} may be called from any thread, e.g.
+ * when the downstream user disconnects, and makes a blocked {@link #next()} fail with a
+ * {@link CancellationException}. The stop request is sent asynchronously, see {@link #whenStopped()}.
+ * A stream cancelled before its first event has no known task to stop.
+ * </p>
+ *
+ * @param <T> The type of the events.
+ */
+public abstract class CancellableStream<T> implements Closeable {
+
+    private enum State {
+        OPEN, FINISHED, CANCELLED
+    }
+
+    private final Call call;
+    private final Response response;
+    private final SseReader reader;
+    private final CompletableFuture<Boolean> stopped = new CompletableFuture<>();
+
+    // Guarded by this
+    private State state = State.OPEN;
+    private String taskId;
+    private boolean reading;
+    private boolean stopSent;
+
+    /**
+     * Constructs a new CancellableStream over a successful streaming response.
+     *
+     * @param call     The call of the response, cancelled to close the socket.
+     * @param response The streaming response; it is closed by the stream.
+     */
+    protected CancellableStream(Call call, Response response) {
+        this.call = call;
+        this.response = response;
+        assert response.body() != null;
+        this.reader = new SseReader(response.body().source());
+    }
+
+    /**
+     * Reads and parses the next event.
+     *
+     * @param reader The reader of the stream.
+     * @return The next event, or {@code null} at the end of the stream.
+     * @throws IOException If reading fails or the data is not a valid event.
+     */
+    protected abstract T readEvent(SseReader reader) throws IOException;
+
+    /**
+     * @param event An event of the stream.
+     * @return The task ID carried by the event, or {@code null} if it has none.
+     */
+    protected abstract String taskIdOf(T event);
+
+    /**
+     * @param event An event of the stream.
+     * @return Whether the event is the last one of its task, after which there is nothing to stop.
+     */
+    protected abstract boolean isLast(T event);
+
+    /**
+     * Sends the request stopping the task on the server, without blocking.
+     *
+     * @param taskId The ID of the task.
+     * @return A future completed once the server confirmed the stop.
+     */
+    protected abstract CompletableFuture<?> stopTask(String taskId);
+
+    /**
+     * Reads the next event, blocking until it arrives.
+     *
+     * @return The next event, or {@code null} at the end of the stream.
+     * @throws IOException           If reading fails or the data is not a valid event.
+     * @throws CancellationException If the stream was cancelled, before or while reading.
+     */
+    public T next() throws IOException {
+        synchronized (this) {
+            if (state == State.CANCELLED) {
+                throw new CancellationException("Stream was cancelled");
+            }
+            reading = true;
+        }
+        T event = null;
+        boolean returned = false;
+        try {
+            event = readEvent(reader);
+            returned = true;
+        } catch (IOException e) {
+            if (isCancelled()) {
+                // Reading failed because the socket was closed under it
+                CancellationException ex = new CancellationException("Stream was cancelled");
+                ex.initCause(e);
+                throw ex;
+            }
+            throw e;
+        } finally {
+            if (settleRead(event, returned)) {
+                response.close();
+            }
+        }
+        if (isCancelled()) {
+            throw new CancellationException("Stream was cancelled");
+        }
+        return event;
+    }
+
+    /**
+     * Records what a read found, and settles a cancellation that happened while reading.
+     *
+     * @return Whether the stream was cancelled, and its response is left to the reader to close.
+     */
+    private synchronized boolean settleRead(T event, boolean returned) {
+        reading = false;
+        if (event != null && taskId == null) {
+            taskId = taskIdOf(event);
+        }
+        if (state == State.OPEN && returned && (event == null || isLast(event))) {
+            state = State.FINISHED;
+            stopped.complete(false);
+        }
+        if (state == State.CANCELLED) {
+            sendStop();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancels the stream: closes its socket, releases its connection and stops its task on the
+     * server, if the task ID is known by then. A thread blocked in {@link #next()} fails with a
+     * {@link CancellationException}.
+     *
+     * @return {@code false} if the stream had already ended or been cancelled, {@code true} otherwise.
+     */
+    public boolean cancel() {
+        boolean closeNow;
+        synchronized (this) {
+            if (state != State.OPEN) {
+                return false;
+            }
+            state = State.CANCELLED;
+            sendStop();
+            // A thread blocked in next() closes the response itself once the read fails
+            closeNow = !reading;
+        }
+        call.cancel();
+        if (closeNow) {
+            response.close();
+        }
+        return true;
+    }
+
+    /**
+     * Sends the stop request once, unless the task ID may still arrive with an event being read.
+     */
+    private void sendStop() {
+        if (stopSent || (taskId == null && reading)) {
+            return;
+        }
+        stopSent = true;
+        if (taskId == null) {
+            stopped.complete(false);
+            return;
+        }
+        stopTask(taskId).whenComplete((result, error) -> {
+            if (error != null) {
+                stopped.completeExceptionally(error);
+            } else {
+                stopped.complete(true);
+            }
+        });
+    }
+
+    /**
+     * @return The task ID captured from the first event, or {@code null} before it arrived.
+     */
+    public synchronized String getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * @return Whether the stream was cancelled, explicitly or by closing it early.
+     */
+    public synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    /**
+     * Returns a future completed with {@code true} once the server confirmed the stop of a
+     * cancelled stream's task, with {@code false} when there was nothing to stop because the
+     * stream ended or was cancelled before its first event, or failed if the stop request failed.
+     *
+     * @return The future.
+     */
+    public CompletableFuture<Boolean> whenStopped() {
+        return stopped;
+    }
+
+    /**
+     * Closes the stream. A stream that has not read its last event is {@link #cancel() cancelled}.
+     */
+    @Override
+    public void close() {
+        // A cancelled stream's response is closed by cancel() or by the thread reading it
+        if (!cancel() && !isCancelled()) {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ai.dify.javaclient.stream;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+
+/**
+ * Receives the events of a streaming chat or completion message.
+ *
+ * @see ChatEventParser#readAll(SseReader, ChatEventListener)
+ */
+public interface ChatEventListener {
+
+    /**
+     * Called for every event, in stream order.
+     *
+     * @param event The parsed event, e.g. a {@code message} event carrying a piece of the answer.
+     */
+    void onEvent(ChatMessageResponse event);
+
+    /**
+     * Called once after the last event when the stream ended normally.
+     */
+    default void onComplete() {
+    }
+
+    /**
+     * Called once when reading or parsing the stream failed. No events follow.
+     *
+     * @param error The failure.
+     */
+    default void onError(Throwable error) {
+    }
+}
@@ -0,0 +1,110 @@
+package ai.dify.javaclient.stream;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.helper.JsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okio.Buffer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Parses the data of chat and completion streaming events into {@link ChatMessageResponse} instances.
+ * <p>
+ * A {@code message} event carries the next piece of the answer in
+ * {@link ChatMessageResponse#getAnswer()}; {@code message_end} carries the usage metadata.
+ * </p>
+ */
+public class ChatEventParser {
+    private final ObjectMapper mapper;
+    private final Set<String> eventTypes;
+
+    /**
+     * Constructs a new ChatEventParser with the SDK's default mapper.
+     */
+    public ChatEventParser() {
+        this(JsonUtil.buildMapper());
+    }
+
+    /**
+     * Constructs a new ChatEventParser.
+     *
+     * @param mapper The mapper used to bind events.
+     */
+    public ChatEventParser(ObjectMapper mapper) {
+        this(mapper, null);
+    }
+
+    /**
+     * Constructs a new ChatEventParser reading only some of the events of a stream. Frames of
+     * other types, including {@code ping}, are dropped after finding their type; the rest of
+     * their data is skipped at the token level, without being decoded or bound.
+     *
+     * @param mapper     The mapper used to bind events.
+     * @param eventTypes The types of events to read, e.g. {@code message} and
+     *                   {@code message_end}, or {@code null} for all of them.
+     */
+    public ChatEventParser(ObjectMapper mapper, Set<String> eventTypes) {
+        this.mapper = mapper;
+        this.eventTypes = eventTypes != null ? Collections.unmodifiableSet(new HashSet<>(eventTypes)) : null;
+    }
+
+    /**
+     * Parses the data of a single event.
+     *
+     * @param json The event data.
+     * @return The parsed event.
+     * @throws IOException If the data is not a valid event.
+     */
+    public ChatMessageResponse parse(String json) throws IOException {
+        return mapper.readValue(json, ChatMessageResponse.class);
+    }
+
+    /**
+     * Reads and parses the next event of a stream, skipping events of other types than the
+     * ones this parser reads.
+     *
+     * @param reader The reader of the stream.
+     * @return The next event, or {@code null} at the end of the stream.
+     * @throws IOException If reading fails or the data is not a valid event.
+     */
+    public ChatMessageResponse read(SseReader reader) throws IOException {
+        if (eventTypes == null) {
+            String data = reader.readEvent();
+            return data != null ? parse(data) : null;
+        }
+        Buffer data = new Buffer();
+        while (reader.readEvent(data)) {
+            if (eventTypes.contains(EventTypes.peek(mapper.getFactory(), data))) {
+                return mapper.readValue(data.inputStream(), ChatMessageResponse.class);
+            }
+            data.clear();
+        }
+        return null;
+    }
+
+    /**
+     * Reads and parses a stream to its end, handing each event to the listener.
+     * <p>
+     * Failures are reported to {@link ChatEventListener#onError(Throwable)} rather than
+     * thrown; the reader is not closed.
+     * </p>
+     *
+     * @param reader   The reader of the stream.
+     * @param listener The listener to notify.
+     */
+    public void readAll(SseReader reader, ChatEventListener listener) {
+        try {
+            ChatMessageResponse event;
+            while ((event = read(reader)) != null) {
+                listener.onEvent(event);
+            }
+        } catch (IOException | RuntimeException e) {
+            listener.onError(e);
+            return;
+        }
+        listener.onComplete();
+    }
+}
@@ -0,0 +1,146 @@
+package ai.dify.javaclient.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import okio.Buffer;
+import okio.ByteString;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the type of streaming events from their raw data.
+ */
+final class EventTypes {
+    private static final ByteString EVENT_FIELD = ByteString.encodeUtf8("\"event\"");
+
+    private EventTypes() {
+    }
+
+    /**
+     * Finds the {@code event} field of the event data without consuming it. Dify writes it
+     * first, where it is read straight from the bytes; otherwise values before the field are
+     * skipped at the token level, without being decoded.
+     *
+     * @param factory The factory to create the parser with.
+     * @param data    The event data.
+     * @return The event type, or {@code null} if the data is not an object with an event type.
+     * @throws IOException If the data is not valid JSON.
+     */
+    static String peek(JsonFactory factory, Buffer data) throws IOException {
+        String type = leadingType(data);
+        if (type != null) {
+            return type;
+        }
+        try (JsonParser parser = factory.createParser(new PeekInputStream(data))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("event".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads the type of data starting with {@code {"event": "<type>"}}, or returns {@code null}
+     * when it does not, or the type is escaped.
+     */
+    private static String leadingType(Buffer data) {
+        long i = skipWhitespace(data, 0);
+        if (i >= data.size() || data.getByte(i) != '{') {
+            return null;
+        }
+        i = skipWhitespace(data, i + 1);
+        if (!data.rangeEquals(i, EVENT_FIELD)) {
+            return null;
+        }
+        i = skipWhitespace(data, i + EVENT_FIELD.size());
+        if (i >= data.size() || data.getByte(i) != ':') {
+            return null;
+        }
+        i = skipWhitespace(data, i + 1);
+        if (i >= data.size() || data.getByte(i) != '"') {
+            return null;
+        }
+        long start = i + 1;
+        long end = data.indexOf((byte) '"', start);
+        if (end == -1 || end - start > 64) {
+            return null;
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int j = 0; j < bytes.length; j++) {
+            bytes[j] = data.getByte(start + j);
+            if (bytes[j] == '\\') {
+                return null;
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long skipWhitespace(Buffer data, long i) {
+        while (i < data.size()) {
+            byte b = data.getByte(i);
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Reads a buffer without consuming it. Unlike {@link Buffer#peek()}, it copies bytes out
+     * rather than sharing segments, since shared segments are not recycled once the buffer
+     * is read.
+     */
+    private static final class PeekInputStream extends InputStream {
+        private final Buffer buffer;
+        private long position;
+        private byte[] target;
+        private int targetOffset;
+        private final OutputStream into = new OutputStream() {
+            @Override
+            public void write(int b) {
+                target[targetOffset++] = (byte) b;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                System.arraycopy(b, off, target, targetOffset, len);
+                targetOffset += len;
+            }
+        };
+
+        PeekInputStream(Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return position < buffer.size() ? buffer.getByte(position++) & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= buffer.size()) {
+                return -1;
+            }
+            int count = (int) Math.min(len, buffer.size() - position);
+            target = b;
+            targetOffset = off;
+            buffer.copyTo(into, position, count);
+            position += count;
+            return count;
+        }
+    }
+}
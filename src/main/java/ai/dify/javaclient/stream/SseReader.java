@@ -0,0 +1,127 @@
+package ai.dify.javaclient.stream;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads server-sent events from a streaming Dify response.
+ * <p>
+ * Only the {@code data} field is of interest for Dify streams: every event carries its
+ * type inside the JSON payload. Other fields, comments and events without data
+ * (such as bare {@code event: ping} frames) are skipped.
+ * </p>
+ */
+public final class SseReader implements Closeable {
+    private static final String DATA_FIELD = "data:";
+    private static final ByteString DATA_FIELD_BYTES = ByteString.encodeUtf8(DATA_FIELD);
+
+    private final BufferedSource source;
+
+    /**
+     * Constructs a new SseReader.
+     *
+     * @param source The response body source to read from.
+     */
+    public SseReader(BufferedSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Reads the data of the next event, blocking until it is complete.
+     *
+     * @return The event data, with multiple data lines joined by newlines, or {@code null}
+     * at the end of the stream.
+     * @throws IOException If reading from the source fails.
+     */
+    public String readEvent() throws IOException {
+        String data = null;
+        StringBuilder multiLine = null;
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (line.isEmpty()) {
+                if (multiLine != null) {
+                    return multiLine.toString();
+                }
+                if (data != null) {
+                    return data;
+                }
+                continue;
+            }
+            if (!line.startsWith(DATA_FIELD)) {
+                continue;
+            }
+            int start = line.length() > DATA_FIELD.length() && line.charAt(DATA_FIELD.length()) == ' '
+                    ? DATA_FIELD.length() + 1
+                    : DATA_FIELD.length();
+            String value = line.substring(start);
+            if (data == null) {
+                data = value;
+            } else {
+                if (multiLine == null) {
+                    multiLine = new StringBuilder(data);
+                }
+                multiLine.append('\n').append(value);
+            }
+        }
+        // The stream may end without a trailing blank line
+        return multiLine != null ? multiLine.toString() : data;
+    }
+
+    /**
+     * Reads the data of the next event into a buffer, blocking until it is complete.
+     * <p>
+     * Unlike {@link #readEvent()}, no string is built: the bytes of the data lines are moved
+     * from the source's buffer into {@code sink} as they are, so large payloads (such as TTS
+     * audio) can be parsed straight from the bytes.
+     * </p>
+     *
+     * @param sink The buffer to append the event data to, with multiple data lines joined by
+     *             newlines.
+     * @return {@code false} at the end of the stream, when no more event was read.
+     * @throws IOException If reading from the source fails.
+     */
+    public boolean readEvent(Buffer sink) throws IOException {
+        boolean data = false;
+        while (true) {
+            long newline = source.indexOf((byte) '\n');
+            Buffer buffer = source.getBuffer();
+            if (newline == -1 && buffer.size() == 0) {
+                // The stream may end without a trailing blank line
+                return data;
+            }
+            long lineLength = newline != -1 ? newline : buffer.size();
+            long terminatorLength = newline != -1 ? 1 : 0;
+            long end = lineLength > 0 && buffer.getByte(lineLength - 1) == '\r' ? lineLength - 1 : lineLength;
+            if (end == 0) {
+                source.skip(lineLength + terminatorLength);
+                if (data) {
+                    return true;
+                }
+                continue;
+            }
+            if (end < DATA_FIELD_BYTES.size() || !buffer.rangeEquals(0, DATA_FIELD_BYTES)) {
+                source.skip(lineLength + terminatorLength);
+                continue;
+            }
+            long start = end > DATA_FIELD_BYTES.size() && buffer.getByte(DATA_FIELD_BYTES.size()) == ' '
+                    ? DATA_FIELD_BYTES.size() + 1
+                    : DATA_FIELD_BYTES.size();
+            if (data) {
+                sink.writeByte('\n');
+            }
+            source.skip(start);
+            source.readFully(sink, end - start);
+            source.skip(lineLength - end + terminatorLength);
+            data = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
@@ -0,0 +1,82 @@
+package ai.dify.javaclient.stream;
+
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records streaming Dify responses together with the time each event arrived, so that
+ * they can be replayed later with {@link SseReplay}.
+ * <p>
+ * A recording is itself a valid event stream: each event is preceded by a comment line
+ * holding its arrival time in milliseconds since recording started, and only its data is
+ * kept, e.g.
+ * <pre>
+ * : t=412
+ * data: {"event": "text_chunk", ...}
+ *
+ * </pre>
+ * Comments are ignored by {@link SseReader}, so a recording can also be read directly.
+ * Events without data, such as {@code event: ping} frames, are not recorded.
+ * </p>
+ */
+public final class SseRecorder {
+    static final String TIME_PREFIX = ": t=";
+
+    private SseRecorder() {
+    }
+
+    /**
+     * Reads a whole streaming response and writes its recording to a file.
+     * The response is closed afterwards.
+     *
+     * @param response The streaming response, e.g. from {@code runWorkflow(inputs, user, true)}.
+     * @param file     The file to write the recording to.
+     * @return The number of events recorded.
+     * @throws IOException If reading the response or writing the file fails.
+     */
+    public static int record(Response response, Path file) throws IOException {
+        try (ResponseBody body = response.body();
+             BufferedSink sink = Okio.buffer(Okio.sink(file))) {
+            if (body == null) {
+                throw new IOException("Response has no body");
+            }
+            return record(body.source(), sink);
+        }
+    }
+
+    /**
+     * Reads an event stream to its end and writes its recording. Neither source nor sink is closed.
+     *
+     * @param source The event stream.
+     * @param sink   The sink to write the recording to.
+     * @return The number of events recorded.
+     * @throws IOException If reading or writing fails.
+     */
+    public static int record(BufferedSource source, BufferedSink sink) throws IOException {
+        SseReader reader = new SseReader(source);
+        long startNanos = System.nanoTime();
+        int events = 0;
+        String data;
+        while ((data = reader.readEvent()) != null) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            sink.writeUtf8(TIME_PREFIX).writeDecimalLong(millis).writeByte('\n');
+            int start = 0;
+            int newline;
+            while ((newline = data.indexOf('\n', start)) >= 0) {
+                sink.writeUtf8("data: ").writeUtf8(data, start, newline).writeByte('\n');
+                start = newline + 1;
+            }
+            sink.writeUtf8("data: ").writeUtf8(data, start, data.length()).writeUtf8("\n\n");
+            events++;
+        }
+        sink.flush();
+        return events;
+    }
+}
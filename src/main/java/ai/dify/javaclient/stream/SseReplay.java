@@ -0,0 +1,166 @@
+package ai.dify.javaclient.stream;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays recordings made by {@link SseRecorder} as event streams.
+ * <p>
+ * Events are delivered at their recorded times divided by {@code speed}: {@code 1} replays
+ * in real time, {@code 10} ten times faster and {@link #UNTIMED} as fast as possible.
+ * Times are relative to the first read, so a slow consumer does not accumulate drift.
+ * </p>
+ * <p>
+ * {@link #interceptor(Path, double)} serves a recording in place of the network, so the
+ * SDK's streaming methods, parsers and listeners can be exercised without a Dify server:
+ * <pre>
+ * OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+ *         .addInterceptor(SseReplay.interceptor(recording, 1))
+ *         .build();
+ * WorkflowClient client = new WorkflowClient(apiKey, baseUrl, httpClient);
+ * </pre>
+ * </p>
+ */
+public final class SseReplay {
+
+    /**
+     * Speed at which events are delivered without any delay.
+     */
+    public static final double UNTIMED = Double.POSITIVE_INFINITY;
+
+    private static final MediaType EVENT_STREAM = MediaType.get("text/event-stream");
+
+    private SseReplay() {
+    }
+
+    /**
+     * Opens a recording for replay.
+     *
+     * @param recording The recording file.
+     * @param speed     The replay speed.
+     * @return The event stream, to be read with {@link SseReader}.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static BufferedSource open(Path recording, double speed) throws IOException {
+        return replay(Okio.buffer(Okio.source(recording)), speed);
+    }
+
+    /**
+     * Replays a recording.
+     *
+     * @param recording The recording.
+     * @param speed     The replay speed.
+     * @return The event stream, to be read with {@link SseReader}. Closing it closes the recording.
+     */
+    public static BufferedSource replay(BufferedSource recording, double speed) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("speed must be positive");
+        }
+        if (speed == UNTIMED) {
+            // Timing comments are skipped by SseReader, so the recording can be read as is
+            return recording;
+        }
+        return Okio.buffer(new TimedSource(recording, speed));
+    }
+
+    /**
+     * Returns an interceptor that answers every request with a replay of the recording,
+     * without calling the server.
+     *
+     * @param recording The recording file.
+     * @param speed     The replay speed.
+     * @return The interceptor, to be added to the HTTP client of a Dify client.
+     */
+    public static Interceptor interceptor(Path recording, double speed) {
+        return chain -> new Response.Builder()
+                .request(chain.request())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(open(recording, speed), EVENT_STREAM, -1))
+                .build();
+    }
+
+    /**
+     * Withholds each event of a recording until its time has come, and strips the timing comments.
+     */
+    private static final class TimedSource implements Source {
+        private final BufferedSource recording;
+        private final double speed;
+        private final Buffer pending = new Buffer();
+        private long startNanos = -1;
+
+        TimedSource(BufferedSource recording, double speed) {
+            this.recording = recording;
+            this.speed = speed;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            if (startNanos < 0) {
+                startNanos = System.nanoTime();
+            }
+            if (pending.size() == 0 && !readEvent()) {
+                return -1;
+            }
+            return pending.read(sink, byteCount);
+        }
+
+        /**
+         * Moves the next event into the pending buffer once it is due.
+         *
+         * @return {@code false} at the end of the recording.
+         */
+        private boolean readEvent() throws IOException {
+            String line;
+            while ((line = recording.readUtf8Line()) != null) {
+                if (line.startsWith(SseRecorder.TIME_PREFIX)) {
+                    awaitMillis(Long.parseLong(line.substring(SseRecorder.TIME_PREFIX.length())));
+                    continue;
+                }
+                pending.writeUtf8(line).writeByte('\n');
+                if (line.isEmpty()) {
+                    return true;
+                }
+            }
+            return pending.size() > 0;
+        }
+
+        private void awaitMillis(long recordedMillis) throws InterruptedIOException {
+            long dueNanos = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(recordedMillis) / speed);
+            long waitNanos = dueNanos - System.nanoTime();
+            if (waitNanos <= 0) {
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while replaying");
+            }
+        }
+
+        @Override
+        public Timeout timeout() {
+            return recording.timeout();
+        }
+
+        @Override
+        public void close() throws IOException {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ai.dify.javaclient.stream;
+
+import ai.dify.javaclient.dto.WorkflowEvent;
+
+/**
+ * Receives the events of a streaming workflow run.
+ *
+ * @see WorkflowEventParser#readAll(SseReader, WorkflowEventListener)
+ */
+public interface WorkflowEventListener {
+
+    /**
+     * Called for every event, in stream order.
+     *
+     * @param event The parsed event.
+     */
+    void onEvent(WorkflowEvent event);
+
+    /**
+     * Called once after the last event when the stream ended normally.
+     */
+    default void onComplete() {
+    }
+
+    /**
+     * Called once when reading or parsing the stream failed. No events follow.
+     *
+     * @param error The failure.
+     */
+    default void onError(Throwable error) {
+    }
+}
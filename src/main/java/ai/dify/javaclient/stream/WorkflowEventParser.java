@@ -0,0 +1,295 @@
+package ai.dify.javaclient.stream;
+
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.helper.JsonUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import okio.Buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses the data of workflow streaming events into {@link WorkflowEvent} instances.
+ * <p>
+ * The {@code data} of known event types is bound to its typed class, e.g.
+ * {@link WorkflowEvent.NodeFinishedData} for {@code node_finished}, so that
+ * {@link WorkflowEvent#getDataAs(Class)} works on parsed events.
+ * </p>
+ * <p>
+ * The base64 {@code audio} of {@code tts_message} events can instead be decoded into a sink as
+ * it is read, see {@link #read(SseReader, OutputStream)}. A parser may also read only the event
+ * types it is interested in, see {@link #WorkflowEventParser(ObjectMapper, Set, boolean)}.
+ * </p>
+ */
+public class WorkflowEventParser {
+    private static final Map<String, Class<?>> DATA_TYPES = new HashMap<>();
+
+    static {
+        DATA_TYPES.put(WorkflowEvent.EVENT_WORKFLOW_STARTED, WorkflowEvent.WorkflowStartedData.class);
+        DATA_TYPES.put(WorkflowEvent.EVENT_NODE_STARTED, WorkflowEvent.NodeStartedData.class);
+        DATA_TYPES.put(WorkflowEvent.EVENT_TEXT_CHUNK, WorkflowEvent.TextChunkData.class);
+        DATA_TYPES.put(WorkflowEvent.EVENT_NODE_FINISHED, WorkflowEvent.NodeFinishedData.class);
+        DATA_TYPES.put(WorkflowEvent.EVENT_WORKFLOW_FINISHED, WorkflowEvent.WorkflowFinishedData.class);
+    }
+
+    private static final Set<String> SKIPPED_DATA_FIELDS = new HashSet<>(Arrays.asList("inputs", "outputs", "process_data"));
+
+    /**
+     * Includes everything but the skipped fields of the event's {@code data}, which the
+     * filtering parser skips over without decoding them.
+     */
+    private static final TokenFilter SKIP_INPUTS_OUTPUTS = new TokenFilter() {
+        private final TokenFilter data = new TokenFilter() {
+            @Override
+            public TokenFilter includeProperty(String name) {
+                return SKIPPED_DATA_FIELDS.contains(name) ? null : TokenFilter.INCLUDE_ALL;
+            }
+        };
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            return "data".equals(name) ? data : TokenFilter.INCLUDE_ALL;
+        }
+    };
+
+    private final ObjectMapper mapper;
+    private final ObjectReader eventReader;
+    private final Set<String> eventTypes;
+    private final boolean skipInputsOutputs;
+
+    /**
+     * Constructs a new WorkflowEventParser with the SDK's default mapper.
+     */
+    public WorkflowEventParser() {
+        this(JsonUtil.buildMapper());
+    }
+
+    /**
+     * Constructs a new WorkflowEventParser.
+     *
+     * @param mapper The mapper used to bind events.
+     */
+    public WorkflowEventParser(ObjectMapper mapper) {
+        this(mapper, null, false);
+    }
+
+    /**
+     * Constructs a new WorkflowEventParser reading only some of the events of a stream.
+     * <p>
+     * Frames of other types, including {@code ping}, are dropped after finding their type;
+     * the rest of their data is skipped at the token level, without being decoded or bound.
+     * With {@code skipInputsOutputs}, the {@code inputs}, {@code outputs} and
+     * {@code process_data} of node, iteration and loop events are skipped the same way and
+     * read as {@code null}: these events then stay small, however large the values flowing
+     * through the workflow. The outputs of {@code workflow_finished} are kept.
+     * </p>
+     *
+     * @param mapper            The mapper used to bind events.
+     * @param eventTypes        The types of events to read, e.g. {@code text_chunk} and
+     *                          {@code workflow_finished}, or {@code null} for all of them.
+     * @param skipInputsOutputs Whether to skip the inputs and outputs of node, iteration and
+     *                          loop events.
+     */
+    public WorkflowEventParser(ObjectMapper mapper, Set<String> eventTypes, boolean skipInputsOutputs) {
+        this.mapper = mapper;
+        this.eventReader = mapper.readerFor(WorkflowEvent.class);
+        this.eventTypes = eventTypes != null ? Collections.unmodifiableSet(new HashSet<>(eventTypes)) : null;
+        this.skipInputsOutputs = skipInputsOutputs;
+    }
+
+    /**
+     * Parses the data of a single event, with all its fields.
+     *
+     * @param json The event data.
+     * @return The parsed event.
+     * @throws IOException If the data is not a valid event.
+     */
+    public WorkflowEvent parse(String json) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return bind(parser);
+        }
+    }
+
+    private WorkflowEvent bind(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Workflow event is not a JSON object: " + token);
+        }
+        WorkflowEvent event = eventReader.readValue(parser);
+        Object data = event.getData();
+        Class<?> dataType = DATA_TYPES.get(event.getEvent());
+        // The data is bound untyped, as the event type may only follow it; known types are converted
+        if (data != null && dataType != null) {
+            event.setData(mapper.convertValue(data, dataType));
+        }
+        return event;
+    }
+
+    /**
+     * Reads and parses the next event of a stream, skipping events of other types than the
+     * ones this parser reads.
+     *
+     * @param reader The reader of the stream.
+     * @return The next event, or {@code null} at the end of the stream.
+     * @throws IOException If reading fails or the data is not a valid event.
+     */
+    public WorkflowEvent read(SseReader reader) throws IOException {
+        return read(reader, null);
+    }
+
+    /**
+     * Reads and parses the next event of a stream, decoding TTS audio into a sink.
+     * <p>
+     * The base64 {@code audio} of a {@code tts_message} event is decoded straight from the
+     * bytes of the stream into {@code audio}, a few kilobytes at a time, without ever being
+     * held as a string; the returned event has no {@link WorkflowEvent#getAudio() audio}.
+     * The sink is flushed on {@code tts_message_end}, and is never closed. Other events are
+     * parsed as by {@link #read(SseReader)}.
+     * </p>
+     *
+     * @param reader The reader of the stream.
+     * @param audio  The sink to write decoded audio to, or {@code null} to keep the audio
+     *               in the events.
+     * @return The next event, or {@code null} at the end of the stream.
+     * @throws IOException If reading or writing fails, or the data is not a valid event.
+     */
+    public WorkflowEvent read(SseReader reader, OutputStream audio) throws IOException {
+        Buffer data = new Buffer();
+        while (reader.readEvent(data)) {
+            String type = audio != null || eventTypes != null || skipInputsOutputs
+                    ? EventTypes.peek(mapper.getFactory(), data)
+                    : null;
+            if (eventTypes != null && !eventTypes.contains(type)) {
+                data.clear();
+                continue;
+            }
+            if (audio != null && WorkflowEvent.EVENT_TTS_MESSAGE.equals(type)) {
+                return decodeTtsMessage(data, audio);
+            }
+            if (audio != null && WorkflowEvent.EVENT_TTS_MESSAGE_END.equals(type)) {
+                audio.flush();
+            }
+            boolean skip = skipInputsOutputs && type != null
+                    && (type.startsWith("node_") || type.startsWith("iteration_") || type.startsWith("loop_"));
+            JsonParser parser = mapper.getFactory().createParser(data.inputStream());
+            if (skip) {
+                parser = new FilteringParserDelegate(parser, SKIP_INPUTS_OUTPUTS, TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true);
+            }
+            try {
+                return bind(parser);
+            } finally {
+                parser.close();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads and parses a stream to its end, handing each event to the listener.
+     * <p>
+     * Failures are reported to {@link WorkflowEventListener#onError(Throwable)} rather than
+     * thrown; the reader is not closed.
+     * </p>
+     *
+     * @param reader   The reader of the stream.
+     * @param listener The listener to notify.
+     */
+    public void readAll(SseReader reader, WorkflowEventListener listener) {
+        try {
+            WorkflowEvent event;
+            while ((event = read(reader)) != null) {
+                listener.onEvent(event);
+            }
+        } catch (IOException | RuntimeException e) {
+            listener.onError(e);
+            return;
+        }
+        listener.onComplete();
+    }
+
+    /**
+     * Reads and parses a stream to its end, handing each event to the listener and decoding
+     * TTS audio into a sink as by {@link #read(SseReader, OutputStream)}.
+     *
+     * @param reader   The reader of the stream.
+     * @param listener The listener to notify.
+     * @param audio    The sink to write decoded audio to.
+     */
+    public void readAll(SseReader reader, WorkflowEventListener listener, OutputStream audio) {
+        try {
+            WorkflowEvent event;
+            while ((event = read(reader, audio)) != null) {
+                listener.onEvent(event);
+            }
+        } catch (IOException | RuntimeException e) {
+            listener.onError(e);
+            return;
+        }
+        listener.onComplete();
+    }
+
+    /**
+     * Reads and parses a stream to its end, handing each event to the listener and decoding
+     * TTS audio into a channel, for instance a file, a socket or a pipe to a pooled buffer.
+     *
+     * @param reader   The reader of the stream.
+     * @param listener The listener to notify.
+     * @param audio    The channel to write decoded audio to; it is not closed.
+     */
+    public void readAll(SseReader reader, WorkflowEventListener listener, WritableByteChannel audio) {
+        readAll(reader, listener, Channels.newOutputStream(audio));
+    }
+
+    private WorkflowEvent decodeTtsMessage(Buffer data, OutputStream audio) throws IOException {
+        WorkflowEvent event = new WorkflowEvent();
+        try (JsonParser parser = mapper.getFactory().createParser(data.inputStream())) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (field) {
+                    case "audio":
+                        parser.readBinaryValue(audio);
+                        break;
+                    case "event":
+                        event.setEvent(parser.getText());
+                        break;
+                    case "task_id":
+                        event.setTask_id(parser.getText());
+                        break;
+                    case "workflow_run_id":
+                        event.setWorkflow_run_id(parser.getText());
+                        break;
+                    case "conversation_id":
+                        event.setConversation_id(parser.getText());
+                        break;
+                    case "message_id":
+                        event.setMessage_id(parser.getText());
+                        break;
+                    case "created_at":
+                        event.setCreated_at(parser.getLongValue());
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return event;
+    }
+}
@@ -0,0 +1,76 @@
+package ai.dify.javaclient.tracing;
+
+/**
+ * A span opened by a {@link DifyTracer}. Spans are used from one thread at a time and
+ * must be ended exactly once.
+ */
+public interface DifySpan {
+
+    /**
+     * A span that records nothing and has no trace ID.
+     */
+    DifySpan NOOP = new DifySpan() {
+        @Override
+        public String getTraceId() {
+            return null;
+        }
+
+        @Override
+        public DifySpan startChild(String name) {
+            return this;
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+        }
+
+        @Override
+        public void recordError(Throwable error) {
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    /**
+     * @return The ID of the span's trace, or {@code null} if it is not part of a trace.
+     */
+    String getTraceId();
+
+    /**
+     * Starts a span as a child of this one.
+     *
+     * @param name The span name.
+     * @return The started child span.
+     */
+    DifySpan startChild(String name);
+
+    /**
+     * @param key   The attribute key, see the constants of {@link DifyTracer}.
+     * @param value The attribute value; {@code null} is ignored.
+     */
+    void setAttribute(String key, String value);
+
+    /**
+     * @param key   The attribute key, see the constants of {@link DifyTracer}.
+     * @param value The attribute value.
+     */
+    void setAttribute(String key, long value);
+
+    /**
+     * Marks the span as failed.
+     *
+     * @param error The failure.
+     */
+    void recordError(Throwable error);
+
+    /**
+     * Ends the span.
+     */
+    void end();
+}
@@ -0,0 +1,55 @@
+package ai.dify.javaclient.tracing;
+
+/**
+ * Opens the spans of Dify requests and streams, for {@link TracingInterceptor} and
+ * {@link StreamTracing}.
+ * <p>
+ * {@link #NOOP} records nothing; {@link OpenTelemetryTracer} reports to OpenTelemetry.
+ * Other tracing libraries can be plugged in by implementing this interface and {@link DifySpan}.
+ * </p>
+ */
+public interface DifyTracer {
+
+    /**
+     * A tracer that records nothing and propagates no trace ID.
+     */
+    DifyTracer NOOP = name -> DifySpan.NOOP;
+
+    /**
+     * Route name, see {@link ai.dify.javaclient.http.DifyRoute#getName()}
+     */
+    String ROUTE = "dify.route";
+
+    String HTTP_METHOD = "http.request.method";
+
+    String HTTP_STATUS = "http.response.status_code";
+
+    String PROMPT_TOKENS = "dify.usage.prompt_tokens";
+
+    String COMPLETION_TOKENS = "dify.usage.completion_tokens";
+
+    String TOTAL_TOKENS = "dify.usage.total_tokens";
+
+    String TASK_ID = "dify.task_id";
+
+    String WORKFLOW_RUN_ID = "dify.workflow_run_id";
+
+    String NODE_ID = "dify.node.id";
+
+    String NODE_TYPE = "dify.node.type";
+
+    String NODE_STATUS = "dify.node.status";
+
+    /**
+     * Number of events a stream or phase received
+     */
+    String EVENTS = "dify.stream.events";
+
+    /**
+     * Starts a span as a child of the caller's current span, if the tracing library has one.
+     *
+     * @param name The span name.
+     * @return The started span.
+     */
+    DifySpan startSpan(String name);
+}
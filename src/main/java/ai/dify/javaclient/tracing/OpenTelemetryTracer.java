@@ -0,0 +1,85 @@
+package ai.dify.javaclient.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+
+/**
+ * Reports the SDK's spans to OpenTelemetry. Requires {@code io.opentelemetry:opentelemetry-api}
+ * on the classpath.
+ * <p>
+ * Spans are children of {@link Context#current()} when started, and the trace ID propagated to
+ * Dify is OpenTelemetry's hexadecimal trace ID.
+ * </p>
+ */
+public class OpenTelemetryTracer implements DifyTracer {
+
+    /**
+     * Instrumentation scope name of the SDK's spans.
+     */
+    public static final String INSTRUMENTATION_NAME = "ai.dify.javaclient";
+
+    private final Tracer tracer;
+
+    /**
+     * @param openTelemetry The OpenTelemetry instance to get the tracer from.
+     */
+    public OpenTelemetryTracer(OpenTelemetry openTelemetry) {
+        this(openTelemetry.getTracer(INSTRUMENTATION_NAME));
+    }
+
+    /**
+     * @param tracer The tracer to start spans with.
+     */
+    public OpenTelemetryTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public DifySpan startSpan(String name) {
+        return new OpenTelemetrySpan(tracer.spanBuilder(name).startSpan());
+    }
+
+    private final class OpenTelemetrySpan implements DifySpan {
+        private final Span span;
+
+        OpenTelemetrySpan(Span span) {
+            this.span = span;
+        }
+
+        @Override
+        public String getTraceId() {
+            return span.getSpanContext().isValid() ? span.getSpanContext().getTraceId() : null;
+        }
+
+        @Override
+        public DifySpan startChild(String name) {
+            return new OpenTelemetrySpan(tracer.spanBuilder(name).setParent(Context.current().with(span)).startSpan());
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            if (value != null) {
+                span.setAttribute(key, value);
+            }
+        }
+
+        @Override
+        public void setAttribute(String key, long value) {
+            span.setAttribute(key, value);
+        }
+
+        @Override
+        public void recordError(Throwable error) {
+            span.recordException(error);
+            span.setStatus(StatusCode.ERROR);
+        }
+
+        @Override
+        public void end() {
+            span.end();
+        }
+    }
+}
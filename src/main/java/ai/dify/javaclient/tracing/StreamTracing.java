@@ -0,0 +1,169 @@
+package ai.dify.javaclient.tracing;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.metrics.StreamMetrics;
+import ai.dify.javaclient.stream.ChatEventListener;
+import ai.dify.javaclient.stream.WorkflowEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Traces the phases of streamed responses as spans below a stream span.
+ * <p>
+ * Chat and completion streams get a {@code dify first token} span, until the first answer
+ * event, and a {@code dify generation} span from there until {@code message_end}. Workflow
+ * streams get a {@code dify node} span per node execution. Wrap the stream's listener right
+ * before sending the request, so that its {@link TracingInterceptor} span becomes a sibling
+ * within the same trace:
+ * <pre>
+ * StreamTracing streamTracing = new StreamTracing(tracer);
+ * ChatEventListener listener = streamTracing.traceChat(myListener);
+ * Response response = chatClient.createChatMessage(inputs, query, user, true, null);
+ * new ChatEventParser().readAll(new SseReader(response.body().source()), listener);
+ * </pre>
+ * </p>
+ */
+public class StreamTracing {
+    private final DifyTracer tracer;
+
+    /**
+     * @param tracer The tracer to open spans with.
+     */
+    public StreamTracing(DifyTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Starts tracing a chat or completion stream.
+     *
+     * @param listener The listener to pass events on to.
+     * @return A listener that traces the stream and notifies {@code listener}.
+     */
+    public ChatEventListener traceChat(ChatEventListener listener) {
+        DifySpan stream = tracer.startSpan("dify chat stream");
+        return new ChatEventListener() {
+            private DifySpan phase = stream.startChild("dify first token");
+            private boolean generating;
+            private long events;
+
+            @Override
+            public void onEvent(ChatMessageResponse event) {
+                events++;
+                if (!generating && StreamMetrics.isTokenEvent(event.getEvent())) {
+                    phase.end();
+                    phase = stream.startChild("dify generation");
+                    generating = true;
+                } else if (ChatMessageResponse.EVENT_MESSAGE_END.equals(event.getEvent())) {
+                    stream.setAttribute(DifyTracer.TASK_ID, event.getTask_id());
+                    if (event.getMetadata() != null && event.getMetadata().getUsage() != null) {
+                        ChatMessageResponse.Metadata.Usage usage = event.getMetadata().getUsage();
+                        stream.setAttribute(DifyTracer.PROMPT_TOKENS, usage.getPrompt_tokens());
+                        stream.setAttribute(DifyTracer.COMPLETION_TOKENS, usage.getCompletion_tokens());
+                        stream.setAttribute(DifyTracer.TOTAL_TOKENS, usage.getTotal_tokens());
+                    }
+                }
+                listener.onEvent(event);
+            }
+
+            @Override
+            public void onComplete() {
+                end(null);
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                end(error);
+                listener.onError(error);
+            }
+
+            private void end(Throwable error) {
+                if (error != null) {
+                    phase.recordError(error);
+                    stream.recordError(error);
+                }
+                phase.end();
+                stream.setAttribute(DifyTracer.EVENTS, events);
+                stream.end();
+            }
+        };
+    }
+
+    /**
+     * Starts tracing a workflow stream.
+     *
+     * @param listener The listener to pass events on to.
+     * @return A listener that traces the stream and notifies {@code listener}.
+     */
+    public WorkflowEventListener traceWorkflow(WorkflowEventListener listener) {
+        DifySpan stream = tracer.startSpan("dify workflow stream");
+        return new WorkflowEventListener() {
+            private final Map<String, DifySpan> nodes = new HashMap<>();
+            private long events;
+
+            @Override
+            public void onEvent(WorkflowEvent event) {
+                events++;
+                if (WorkflowEvent.EVENT_NODE_STARTED.equals(event.getEvent())) {
+                    WorkflowEvent.NodeStartedData data = event.getDataAs(WorkflowEvent.NodeStartedData.class);
+                    if (data != null) {
+                        DifySpan node = stream.startChild("dify node");
+                        node.setAttribute(DifyTracer.NODE_ID, data.getNode_id());
+                        node.setAttribute(DifyTracer.NODE_TYPE, data.getNode_type());
+                        nodes.put(data.getId() != null ? data.getId() : data.getNode_id(), node);
+                    }
+                } else if (WorkflowEvent.EVENT_NODE_FINISHED.equals(event.getEvent())) {
+                    WorkflowEvent.NodeFinishedData data = event.getDataAs(WorkflowEvent.NodeFinishedData.class);
+                    DifySpan node = data != null ? nodes.remove(data.getId() != null ? data.getId() : data.getNode_id()) : null;
+                    if (node != null) {
+                        node.setAttribute(DifyTracer.NODE_STATUS, data.getStatus());
+                        Object tokens = data.getExecution_metadata() != null ? data.getExecution_metadata().get("total_tokens") : null;
+                        if (tokens instanceof Number) {
+                            node.setAttribute(DifyTracer.TOTAL_TOKENS, ((Number) tokens).longValue());
+                        }
+                        node.end();
+                    }
+                } else if (WorkflowEvent.EVENT_WORKFLOW_STARTED.equals(event.getEvent())) {
+                    stream.setAttribute(DifyTracer.TASK_ID, event.getTask_id());
+                    stream.setAttribute(DifyTracer.WORKFLOW_RUN_ID, event.getWorkflow_run_id());
+                } else if (WorkflowEvent.EVENT_WORKFLOW_FINISHED.equals(event.getEvent())) {
+                    WorkflowEvent.WorkflowFinishedData data = event.getDataAs(WorkflowEvent.WorkflowFinishedData.class);
+                    if (data != null && data.getTotal_tokens() != null) {
+                        stream.setAttribute(DifyTracer.TOTAL_TOKENS, data.getTotal_tokens());
+                    }
+                }
+                listener.onEvent(event);
+            }
+
+            @Override
+            public void onComplete() {
+                end(null);
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                end(error);
+                listener.onError(error);
+            }
+
+            private void end(Throwable error) {
+                // Nodes still running when the stream ends
+                for (DifySpan node : nodes.values()) {
+                    if (error != null) {
+                        node.recordError(error);
+                    }
+                    node.end();
+                }
+                nodes.clear();
+                if (error != null) {
+                    stream.recordError(error);
+                }
+                stream.setAttribute(DifyTracer.EVENTS, events);
+                stream.end();
+            }
+        };
+    }
+}
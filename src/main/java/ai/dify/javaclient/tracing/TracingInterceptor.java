@@ -0,0 +1,142 @@
+package ai.dify.javaclient.tracing;
+
+import ai.dify.javaclient.DifyClient;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.http.DifyRoute;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Opens a span per request and propagates its trace ID to Dify through the {@value #TRACE_ID_HEADER}
+ * header, so that Dify's own traces of the run can be correlated with the caller's.
+ * <p>
+ * Install it on the HTTP client the Dify clients are built with:
+ * <pre>
+ * OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+ *         .addInterceptor(new TracingInterceptor(new OpenTelemetryTracer(openTelemetry)))
+ *         .build();
+ * ChatClient client = new ChatClient(apiKey, baseUrl, httpClient);
+ * </pre>
+ * The span is named after the request's {@link DifyRoute} and records the route, method,
+ * status and, for blocking chat, completion and workflow runs, the token counts. It ends once the response headers
+ * arrived; streamed responses are traced further by {@link StreamTracing}. Requests that
+ * already carry the header keep it.
+ * </p>
+ * <p>
+ * Spans are children of the tracer's current span on the thread running the call. That is
+ * the caller's thread for blocking calls, but a dispatcher thread for asynchronous ones.
+ * </p>
+ */
+public final class TracingInterceptor implements Interceptor {
+
+    /**
+     * The header Dify reads the trace ID from.
+     */
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    /**
+     * Largest blocking response body scanned for token counts
+     */
+    private static final long MAX_USAGE_SCAN_BYTES = 256 * 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final DifyTracer tracer;
+
+    /**
+     * @param tracer The tracer to open spans with.
+     */
+    public TracingInterceptor(DifyTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        DifyRoute route = request.tag(DifyRoute.class);
+        String routeName = route != null ? route.getName() : request.method() + " " + request.url().encodedPath();
+        DifySpan span = tracer.startSpan("dify " + routeName);
+        Response response = null;
+        try {
+            span.setAttribute(DifyTracer.ROUTE, routeName);
+            span.setAttribute(DifyTracer.HTTP_METHOD, request.method());
+            String traceId = span.getTraceId();
+            if (traceId != null && request.header(TRACE_ID_HEADER) == null) {
+                request = request.newBuilder().header(TRACE_ID_HEADER, traceId).build();
+            }
+
+            response = chain.proceed(request);
+            span.setAttribute(DifyTracer.HTTP_STATUS, response.code());
+            if (isGeneration(route) && response.isSuccessful() && isJson(response.body())) {
+                recordUsage(span, response);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            span.recordError(e);
+            if (response != null) {
+                // Releases the connection of a response the caller never gets
+                response.close();
+            }
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Whether the route generates an answer or runs a workflow, so that the token counts of its
+     * response describe the call. Other responses, such as listed history, carry the token counts
+     * of stored messages.
+     */
+    private static boolean isGeneration(DifyRoute route) {
+        return route == DifyClient.CREATE_CHAT_MESSAGE
+                || route == DifyClient.CREATE_COMPLETION_MESSAGE
+                || route == WorkflowClient.RUN_WORKFLOW;
+    }
+
+    private static boolean isJson(ResponseBody body) {
+        MediaType type = body != null ? body.contentType() : null;
+        return type != null && "json".equals(type.subtype());
+    }
+
+    /**
+     * Records the first token counts found in the body, e.g. {@code metadata.usage} of chat
+     * responses or {@code data.total_tokens} of workflow runs. Only scans the tokens, without
+     * binding the body.
+     */
+    private static void recordUsage(DifySpan span, Response response) throws IOException {
+        boolean prompt = false;
+        boolean completion = false;
+        boolean total = false;
+        ResponseBody body = response.peekBody(MAX_USAGE_SCAN_BYTES);
+        try (JsonParser parser = JSON_FACTORY.createParser(body.byteStream())) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && !(prompt && completion && total)) {
+                if (token != JsonToken.VALUE_NUMBER_INT) {
+                    continue;
+                }
+                String name = parser.getCurrentName();
+                if (!prompt && "prompt_tokens".equals(name)) {
+                    span.setAttribute(DifyTracer.PROMPT_TOKENS, parser.getLongValue());
+                    prompt = true;
+                } else if (!completion && "completion_tokens".equals(name)) {
+                    span.setAttribute(DifyTracer.COMPLETION_TOKENS, parser.getLongValue());
+                    completion = true;
+                } else if (!total && "total_tokens".equals(name)) {
+                    span.setAttribute(DifyTracer.TOTAL_TOKENS, parser.getLongValue());
+                    total = true;
+                }
+            }
+        } catch (IOException e) {
+            // Bodies larger than the scan limit are cut off; keep what was found
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ai.dify.javaclient.usage;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact fixed-point representation of prices as {@code long} billionths of a currency unit.
+ * <p>
+ * Dify reports prices as decimal strings with up to seven fractional digits, e.g.
+ * {@code "0.0001400"}. Nine fractional digits hold them exactly, and a {@code long} still
+ * sums up to nine billion currency units, so totals can be accumulated with plain
+ * additions instead of {@link BigDecimal}.
+ * </p>
+ */
+public final class FixedPoint {
+
+    /**
+     * Number of fractional digits.
+     */
+    public static final int SCALE = 9;
+
+    private static final long ONE = 1_000_000_000L;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Parses a decimal price. Digits beyond {@link #SCALE} are rounded half up.
+     *
+     * @param price The price, e.g. {@code "0.0001400"}; {@code null} or empty is zero.
+     * @return The price in billionths.
+     * @throws NumberFormatException If the price is not a decimal number or does not fit.
+     */
+    public static long parse(String price) {
+        if (price == null || price.isEmpty()) {
+            return 0;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = price.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long integer = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean dot = false;
+        boolean roundUp = false;
+        boolean digits = false;
+        for (; i < price.length(); i++) {
+            char c = price.charAt(i);
+            if (c == '.' && !dot) {
+                dot = true;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+                if (!dot) {
+                    if (integer >= Long.MAX_VALUE / ONE) {
+                        return parseSlow(price);
+                    }
+                    integer = integer * 10 + (c - '0');
+                } else if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + (c - '0');
+                    fractionDigits++;
+                } else if (fractionDigits == SCALE) {
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                }
+            } else {
+                // Exponents and anything unusual take the exact but slower path
+                return parseSlow(price);
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not a price: \"" + price + "\"");
+        }
+        if (integer >= Long.MAX_VALUE / ONE) {
+            return parseSlow(price);
+        }
+        for (int d = Math.min(fractionDigits, SCALE); d < SCALE; d++) {
+            fraction *= 10;
+        }
+        long value = integer * ONE + fraction + (roundUp ? 1 : 0);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Converts a floating-point price, as found in workflow usage, rounding half up.
+     *
+     * @param price The price, or {@code null} for zero.
+     * @return The price in billionths.
+     */
+    public static long of(Double price) {
+        return price == null ? 0 : BigDecimal.valueOf(price).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @param value A price in billionths.
+     * @return The exact decimal value.
+     */
+    public static BigDecimal toDecimal(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    /**
+     * @param value A price in billionths.
+     * @return The decimal value without trailing zeros, e.g. {@code "0.00014"}.
+     */
+    public static String format(long value) {
+        BigDecimal decimal = toDecimal(value).stripTrailingZeros();
+        return decimal.scale() < 0 ? decimal.setScale(0).toPlainString() : decimal.toPlainString();
+    }
+
+    private static long parseSlow(String price) {
+        try {
+            return new BigDecimal(price).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Price out of range: \"" + price + "\"");
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package ai.dify.javaclient.usage;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+import ai.dify.javaclient.stream.ChatEventListener;
+import ai.dify.javaclient.stream.WorkflowEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Accumulates token usage and cost per app, user and currency.
+ * <p>
+ * Recording parses the prices once into fixed-point values and adds them to striped
+ * {@link LongAdder} counters, so concurrent requests neither lock nor contend on a
+ * shared counter. Reading is done separately through snapshots,
+ * e.g. exported periodically to a billing system:
+ * <pre>
+ * UsageAccountant accountant = new UsageAccountant();
+ * accountant.exportPeriodically(records -&gt; billing.push(records), 1, TimeUnit.MINUTES, true);
+ *
+ * ChatMessageResponse response = chatClient.createChatMessageSync(inputs, query, user, null);
+ * accountant.record("support-bot", user, response);
+ * </pre>
+ * </p>
+ * <p>
+ * Apps are labels chosen by the caller, e.g. the app name. Since each Dify API key belongs
+ * to one app, they also separate API keys; do not use the keys themselves as labels.
+ * </p>
+ */
+public class UsageAccountant {
+    private static final ScheduledExecutorService EXPORTER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "dify-usage-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentMap<Key, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Records the usage of a blocking chat or completion response, or of a {@code message_end} event.
+     * Responses without usage metadata are ignored.
+     *
+     * @param app      The app label.
+     * @param user     The end user.
+     * @param response The response.
+     */
+    public void record(String app, String user, ChatMessageResponse response) {
+        if (response.getMetadata() != null && response.getMetadata().getUsage() != null) {
+            record(app, user, response.getMetadata().getUsage());
+        }
+    }
+
+    /**
+     * Records chat or completion usage.
+     *
+     * @param app   The app label.
+     * @param user  The end user.
+     * @param usage The usage.
+     */
+    public void record(String app, String user, ChatMessageResponse.Metadata.Usage usage) {
+        record(app, user, usage.getCurrency(), usage.getPrompt_tokens(), usage.getCompletion_tokens(), usage.getTotal_tokens(),
+                FixedPoint.parse(usage.getPrompt_price()), FixedPoint.parse(usage.getCompletion_price()),
+                FixedPoint.parse(usage.getTotal_price()));
+    }
+
+    /**
+     * Records workflow usage.
+     *
+     * @param app   The app label.
+     * @param user  The end user.
+     * @param usage The usage.
+     */
+    public void record(String app, String user, WorkflowRunResponse.Metadata.TokenUsage usage) {
+        long totalPrice = FixedPoint.of(usage.getTotal_price());
+        record(app, user, usage.getCurrency(), valueOf(usage.getPrompt_tokens()), valueOf(usage.getCompletion_tokens()),
+                valueOf(usage.getTotal_tokens()), 0, 0, totalPrice);
+    }
+
+    /**
+     * Records usage.
+     *
+     * @param app              The app label.
+     * @param user             The end user.
+     * @param currency         The currency of the prices, or {@code null}.
+     * @param promptTokens     The number of prompt tokens.
+     * @param completionTokens The number of completion tokens.
+     * @param totalTokens      The total number of tokens.
+     * @param promptPrice      The prompt price in billionths, see {@link FixedPoint}.
+     * @param completionPrice  The completion price in billionths.
+     * @param totalPrice       The total price in billionths.
+     */
+    public void record(String app, String user, String currency, long promptTokens, long completionTokens, long totalTokens,
+                       long promptPrice, long completionPrice, long totalPrice) {
+        Key key = new Key(app, user, currency);
+        Counters c = counters.get(key);
+        if (c == null) {
+            c = counters.computeIfAbsent(key, k -> new Counters());
+        }
+        c.requests.increment();
+        c.promptTokens.add(promptTokens);
+        c.completionTokens.add(completionTokens);
+        c.totalTokens.add(totalTokens);
+        c.promptPrice.add(promptPrice);
+        c.completionPrice.add(completionPrice);
+        c.totalPrice.add(totalPrice);
+    }
+
+    /**
+     * Wraps a chat stream listener to record the usage carried by {@code message_end}.
+     *
+     * @param app      The app label.
+     * @param user     The end user.
+     * @param listener The listener to pass events on to.
+     * @return A listener that records usage and notifies {@code listener}.
+     */
+    public ChatEventListener recordChat(String app, String user, ChatEventListener listener) {
+        return new ChatEventListener() {
+            @Override
+            public void onEvent(ChatMessageResponse event) {
+                if (ChatMessageResponse.EVENT_MESSAGE_END.equals(event.getEvent())) {
+                    record(app, user, event);
+                }
+                listener.onEvent(event);
+            }
+
+            @Override
+            public void onComplete() {
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                listener.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Wraps a workflow stream listener to record the run's usage.
+     * <p>
+     * Workflow streams report no usage summary with prices, so the prices and tokens in the
+     * {@code execution_metadata} of {@code node_finished} events are summed, and recorded
+     * together once the run finishes.
+     * </p>
+     *
+     * @param app      The app label.
+     * @param user     The end user.
+     * @param listener The listener to pass events on to.
+     * @return A listener that records usage and notifies {@code listener}.
+     */
+    public WorkflowEventListener recordWorkflow(String app, String user, WorkflowEventListener listener) {
+        return new WorkflowEventListener() {
+            private long tokens;
+            private long price;
+            private String currency;
+
+            @Override
+            public void onEvent(WorkflowEvent event) {
+                if (WorkflowEvent.EVENT_NODE_FINISHED.equals(event.getEvent())) {
+                    WorkflowEvent.NodeFinishedData data = event.getDataAs(WorkflowEvent.NodeFinishedData.class);
+                    Map<String, Object> metadata = data != null ? data.getExecution_metadata() : null;
+                    if (metadata != null) {
+                        tokens += toLong(metadata.get("total_tokens"));
+                        price += toPrice(metadata.get("total_price"));
+                        if (metadata.get("currency") != null) {
+                            currency = String.valueOf(metadata.get("currency"));
+                        }
+                    }
+                } else if (WorkflowEvent.EVENT_WORKFLOW_FINISHED.equals(event.getEvent())) {
+                    WorkflowEvent.WorkflowFinishedData data = event.getDataAs(WorkflowEvent.WorkflowFinishedData.class);
+                    // The run's own token count also covers nodes without execution metadata
+                    long totalTokens = data != null && data.getTotal_tokens() != null ? data.getTotal_tokens() : tokens;
+                    record(app, user, currency, 0, 0, totalTokens, 0, 0, price);
+                }
+                listener.onEvent(event);
+            }
+
+            @Override
+            public void onComplete() {
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                listener.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Returns the usage accumulated so far.
+     *
+     * @return One record per app, user and currency.
+     */
+    public List<UsageRecord> snapshot() {
+        return collect(false);
+    }
+
+    /**
+     * Returns the usage accumulated since the previous call, for exporting deltas.
+     * The counters themselves are not reset: usage recorded concurrently is reported
+     * either now or with the next call, and never lost.
+     *
+     * @return One record per app, user and currency that had usage since the previous call.
+     */
+    public synchronized List<UsageRecord> deltaSnapshot() {
+        return collect(true);
+    }
+
+    /**
+     * Hands snapshots to an exporter at a fixed rate on a background thread.
+     *
+     * @param exporter The exporter, e.g. pushing to a billing dashboard.
+     * @param period   The time between exports.
+     * @param unit     The unit of the period.
+     * @param deltas   Whether to export deltas ({@link #deltaSnapshot()}) rather than totals.
+     * @return A future to cancel the exports with.
+     */
+    public ScheduledFuture<?> exportPeriodically(Consumer<List<UsageRecord>> exporter, long period, TimeUnit unit, boolean deltas) {
+        return EXPORTER.scheduleAtFixedRate(() -> {
+            try {
+                exporter.accept(deltas ? deltaSnapshot() : snapshot());
+            } catch (RuntimeException e) {
+                // Keep exporting; a failing exporter must not cancel the schedule
+            }
+        }, period, period, unit);
+    }
+
+    private List<UsageRecord> collect(boolean delta) {
+        List<UsageRecord> records = new ArrayList<>(counters.size());
+        for (Map.Entry<Key, Counters> entry : counters.entrySet()) {
+            Key key = entry.getKey();
+            long[] values = entry.getValue().sums();
+            if (delta) {
+                long[] exported = entry.getValue().exported;
+                boolean changed = false;
+                for (int i = 0; i < values.length; i++) {
+                    long sum = values[i];
+                    values[i] -= exported[i];
+                    exported[i] = sum;
+                    changed |= values[i] != 0;
+                }
+                if (!changed) {
+                    continue;
+                }
+            }
+            records.add(new UsageRecord(key.app, key.user, key.currency,
+                    values[0], values[1], values[2], values[3], values[4], values[5], values[6]));
+        }
+        return records;
+    }
+
+    private static long valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static long toPrice(Object value) {
+        if (value instanceof String) {
+            return FixedPoint.parse((String) value);
+        }
+        return value instanceof Number ? FixedPoint.of(((Number) value).doubleValue()) : 0;
+    }
+
+    private static final class Key {
+        final String app;
+        final String user;
+        final String currency;
+        final int hash;
+
+        Key(String app, String user, String currency) {
+            this.app = app;
+            this.user = user;
+            this.currency = currency;
+            this.hash = Objects.hash(app, user, currency);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(app, other.app) && Objects.equals(user, other.user) && Objects.equals(currency, other.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder requests = new LongAdder();
+        final LongAdder promptTokens = new LongAdder();
+        final LongAdder completionTokens = new LongAdder();
+        final LongAdder totalTokens = new LongAdder();
+        final LongAdder promptPrice = new LongAdder();
+        final LongAdder completionPrice = new LongAdder();
+        final LongAdder totalPrice = new LongAdder();
+
+        /**
+         * Sums at the previous delta export, guarded by the accountant's lock
+         */
+        final long[] exported = new long[7];
+
+        /**
+         * Reads the counters one by one, so a response recorded concurrently may be split
+         * between two snapshots. Deltas still add up to the totals.
+         */
+        long[] sums() {
+            return new long[]{requests.sum(), promptTokens.sum(), completionTokens.sum(), totalTokens.sum(),
+                    promptPrice.sum(), completionPrice.sum(), totalPrice.sum()};
+        }
+    }
+}
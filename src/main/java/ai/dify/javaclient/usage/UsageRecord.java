@@ -0,0 +1,52 @@
+package ai.dify.javaclient.usage;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Accumulated token usage and cost of one app, user and currency.
+ * Prices are in billionths of the currency unit, see {@link FixedPoint}.
+ */
+@Value
+public class UsageRecord {
+
+    /**
+     * The app label usage was recorded under
+     */
+    String app;
+
+    /**
+     * The end user
+     */
+    String user;
+
+    /**
+     * Currency of the prices, or {@code null} if Dify reported none
+     */
+    String currency;
+
+    /**
+     * Number of recorded responses
+     */
+    long requests;
+
+    long promptTokens;
+
+    long completionTokens;
+
+    long totalTokens;
+
+    long promptPrice;
+
+    long completionPrice;
+
+    long totalPrice;
+
+    /**
+     * @return The total price as an exact decimal.
+     */
+    public BigDecimal getTotalPriceDecimal() {
+        return FixedPoint.toDecimal(totalPrice);
+    }
+}
@@ -1,5 +1,6 @@
 package ai.dify.javaclient;
 
+import ai.dify.javaclient.dto.ChatMessageResponse;
 import okhttp3.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 
@@ -65,6 +67,20 @@ class ChatClientTest {
         verify(mockCall).execute();
     }
 
+    /**
+     * Tests that the createChatMessageAsync method cancels the HTTP call when its future is cancelled.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCreateChatMessageAsyncCancel() throws Exception {
+        CompletableFuture<ChatMessageResponse> future = chatClient.createChatMessageAsync("testInputs", "testQuery", "testUser", null);
+
+        verify(mockCall).enqueue(any(Callback.class));
+        future.cancel(true);
+        verify(mockCall).cancel();
+    }
+
     /**
      * Tests the getConversationMessages method of the ChatClient class.
      *
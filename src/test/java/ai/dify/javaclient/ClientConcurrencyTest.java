@@ -0,0 +1,144 @@
+package ai.dify.javaclient;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.ConversationMessage;
+import ai.dify.javaclient.dto.ConversationMessagesResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains stress tests sharing single client instances between many threads,
+ * against the stand-in server.
+ */
+class ClientConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 40;
+
+    private DifyStandInServer server;
+    private OkHttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = DifyStandInServer.start().streamChunks(3).historySize(12);
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(THREADS);
+        httpClient = DifyClient.defaultHttpClientBuilder().dispatcher(dispatcher).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that one chat client and one workflow client serve many threads at once, each
+     * thread getting the responses to its own requests.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testSharedClients() throws Exception {
+        ChatClient chatClient = new ChatClient("key", server.getBaseUrl(), httpClient);
+        WorkflowClient workflowClient = new WorkflowClient("key", server.getBaseUrl(), httpClient);
+        WorkflowEventParser parser = new WorkflowEventParser();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        String id = "t" + thread + "-" + i;
+                        switch ((thread + i) % 5) {
+                            case 0:
+                                assertEquals(id, chatClient.createChatMessageSync("", "hello", "user", id).getConversation_id());
+                                break;
+                            case 1:
+                                ChatMessageResponse async = chatClient.createChatMessageAsync("", "hello", "user", id).get(30, TimeUnit.SECONDS);
+                                assertEquals(id, async.getConversation_id());
+                                break;
+                            case 2:
+                                ConversationMessagesResponse page = chatClient.getConversationMessagesSync("user", id, null, 5);
+                                assertEquals(5, page.getData().size());
+                                for (ConversationMessage message : page.getData()) {
+                                    assertEquals(id, message.getConversation_id());
+                                }
+                                break;
+                            case 3:
+                                assertEquals(id, workflowClient.getWorkflowStatusSync(id).getData().getId());
+                                break;
+                            default:
+                                assertEquals(id, streamWorkflow(workflowClient, parser, id));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }, "stress-" + t));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.MINUTES.toMillis(2));
+        }
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " failures, first: " + failures.peek());
+        assertEquals(THREADS * ITERATIONS, server.getRequestCount());
+        assertEquals(0, server.getActiveStreams());
+    }
+
+    /**
+     * Tests that all clients share one mapper, so that it is configured and warmed up once.
+     */
+    @Test
+    public void testSharedMapper() {
+        DifyClient chatClient = new ChatClient("key", server.getBaseUrl(), httpClient);
+        DifyClient workflowClient = new WorkflowClient("other-key", server.getBaseUrl());
+
+        assertSame(chatClient.mapper, workflowClient.mapper);
+        assertSame(chatClient.mapper, new CompletionClient("key").mapper);
+    }
+
+    private static String streamWorkflow(WorkflowClient client, WorkflowEventParser parser, String id) throws Exception {
+        Map<String, Object> inputs = Collections.singletonMap("id", id);
+        String echoed = null;
+        Response response = client.runWorkflow(inputs, "user", true);
+        try (SseReader reader = new SseReader(response.body().source())) {
+            WorkflowEvent event;
+            while ((event = parser.read(reader)) != null) {
+                if (event.isEventType(WorkflowEvent.EVENT_NODE_STARTED)) {
+                    echoed = String.valueOf(event.getDataAs(WorkflowEvent.NodeStartedData.class).getInputs().get("id"));
+                }
+                if (event.isEventType(WorkflowEvent.EVENT_WORKFLOW_FINISHED)) {
+                    assertEquals(WorkflowRunResponse.STATUS_SUCCEEDED, event.getDataAs(WorkflowEvent.WorkflowFinishedData.class).getStatus());
+                }
+            }
+        }
+        return echoed;
+    }
+}
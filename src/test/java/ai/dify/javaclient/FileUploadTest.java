@@ -0,0 +1,134 @@
+package ai.dify.javaclient;
+
+import ai.dify.javaclient.dto.FileUploadResponse;
+import ai.dify.javaclient.http.UploadProgressListener;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for streaming file uploads against the stand-in server.
+ */
+class FileUploadTest {
+    private DifyStandInServer server;
+    private DifyClient client;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = DifyStandInServer.start();
+        client = new DifyClient("test-key", server.getBaseUrl());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests uploading a file with progress reports.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testUploadPath() throws Exception {
+        byte[] content = randomBytes(3 * 1024 * 1024 + 17, 1);
+        Path file = Files.write(dir.resolve("report.pdf"), content);
+        List<Long> progress = new ArrayList<>();
+
+        FileUploadResponse upload = client.uploadFileSync(file, "user", (bytesWritten, totalBytes) -> {
+            assertEquals(content.length, totalBytes);
+            progress.add(bytesWritten);
+        });
+
+        assertEquals("report.pdf", upload.getName());
+        assertEquals("pdf", upload.getExtension());
+        assertEquals("application/pdf", upload.getMime_type());
+        assertEquals(content.length, upload.getSize());
+        assertArrayEquals(content, server.getUpload(upload.getId()));
+        assertEquals(0L, progress.get(0));
+        assertEquals((long) content.length, progress.get(progress.size() - 1));
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) > progress.get(i - 1));
+        }
+    }
+
+    /**
+     * Tests uploading an open channel, which is left open and unmoved.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testUploadChannel() throws Exception {
+        byte[] content = randomBytes(200_000, 2);
+        Path file = Files.write(dir.resolve("data.bin"), content);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(1234);
+            String id;
+            try (Response response = client.uploadFile(channel, "notes.txt", "user", UploadProgressListener.NONE)) {
+                id = client.mapper.readTree(response.body().string()).get("id").asText();
+            }
+            assertArrayEquals(content, server.getUpload(id));
+            assertTrue(channel.isOpen());
+            assertEquals(1234, channel.position());
+        }
+    }
+
+    /**
+     * Tests concurrent asynchronous uploads.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testConcurrentUploads() throws Exception {
+        List<byte[]> contents = new ArrayList<>();
+        List<CompletableFuture<FileUploadResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            byte[] content = randomBytes(500_000 + i, 10 + i);
+            contents.add(content);
+            futures.add(client.uploadFileAsync(Files.write(dir.resolve("doc-" + i + ".pdf"), content), "user", UploadProgressListener.NONE));
+        }
+
+        for (int i = 0; i < 4; i++) {
+            FileUploadResponse upload = futures.get(i).get(30, TimeUnit.SECONDS);
+            assertEquals("doc-" + i + ".pdf", upload.getName());
+            assertArrayEquals(contents.get(i), server.getUpload(upload.getId()));
+        }
+    }
+
+    /**
+     * Tests that a missing file fails before sending anything.
+     */
+    @Test
+    public void testMissingFile() {
+        Path missing = dir.resolve("missing.pdf");
+        assertThrows(DifyClientException.class, () -> client.uploadFile(missing, "user", UploadProgressListener.NONE));
+        assertThrows(Exception.class, () -> client.uploadFileAsync(missing, "user", UploadProgressListener.NONE).join());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
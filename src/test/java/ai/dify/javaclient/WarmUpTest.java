@@ -0,0 +1,109 @@
+package ai.dify.javaclient;
+
+import ai.dify.javaclient.helper.JsonUtil;
+import ai.dify.javaclient.http.WarmUpReport;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for warming up clients against the stand-in server.
+ */
+class WarmUpTest {
+    private DifyStandInServer server;
+    private final AtomicInteger connects = new AtomicInteger();
+    private OkHttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = DifyStandInServer.start();
+        httpClient = DifyClient.defaultHttpClientBuilder()
+                .eventListener(new EventListener() {
+                    @Override
+                    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+                        connects.incrementAndGet();
+                    }
+                })
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that warm-up opens the requested connections and later requests reuse them.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testWarmUp() throws Exception {
+        ChatClient client = new ChatClient("test-key", server.getBaseUrl(), httpClient);
+
+        WarmUpReport report = client.warmUp(3);
+
+        assertTrue(report.isSuccess(), String.valueOf(report.getError()));
+        assertEquals(3, report.getRequestedConnections());
+        assertEquals(3, report.getPooledConnections());
+        assertEquals(3, connects.get());
+        assertTrue(report.getMapperNanos() > 0);
+        assertTrue(report.getDuration(TimeUnit.NANOSECONDS) >= report.getConnectNanos());
+
+        client.createChatMessageSync("{}", "Hi", "user", null);
+        assertEquals(3, connects.get());
+        assertEquals(3, httpClient.connectionPool().connectionCount());
+    }
+
+    /**
+     * Tests that an unreachable server is reported rather than thrown, without waiting for all connections.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testUnreachable() throws Exception {
+        DifyClient client = new DifyClient("test-key", "http://127.0.0.1:1/v1", httpClient);
+
+        long start = System.nanoTime();
+        WarmUpReport report = client.warmUp(2);
+
+        assertFalse(report.isSuccess());
+        assertEquals(0, report.getPooledConnections());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+    }
+
+    /**
+     * Tests that a warm-up without connections is rejected before anything is sent.
+     */
+    @Test
+    public void testRejectsNonPositiveConnections() {
+        DifyClient client = new DifyClient("test-key", server.getBaseUrl(), httpClient);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> client.warmUp(0));
+        assertEquals("connections must be positive", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> client.warmUp(-1));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    /**
+     * Tests that every DTO can be primed.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testPrimeMapper() throws Exception {
+        JsonUtil.warmUp(JsonUtil.buildMapper());
+    }
+}
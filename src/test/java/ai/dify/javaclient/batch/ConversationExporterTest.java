@@ -0,0 +1,167 @@
+package ai.dify.javaclient.batch;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the ConversationExporter class against the stand-in server.
+ */
+class ConversationExporterTest {
+
+    private static final List<String> USERS = Arrays.asList("alice", "bob");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private DifyStandInServer server;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = DifyStandInServer.start().conversations(7).historySize(23);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that every conversation and message of every user is written once.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testExportsAll() throws Exception {
+        ConversationExporter exporter = new ConversationExporter(new ChatClient("test-key", server.getBaseUrl()), 3, 5, 4);
+
+        ConversationExporter.Summary summary = exporter.export(USERS, dir.resolve("export.ndjson"), dir.resolve("ckpt.json"));
+
+        assertEquals(14, summary.getConversations());
+        assertEquals(14 * 23, summary.getMessages());
+        assertEquals(0, summary.getFailed());
+        assertComplete(readOutput());
+        JsonNode checkpoint = mapper.readTree(dir.resolve("ckpt.json").toFile());
+        assertEquals(2, checkpoint.path("next_user").asInt());
+        assertEquals(0, checkpoint.path("pending").size());
+        assertEquals(Files.size(dir.resolve("export.ndjson")), checkpoint.path("output_bytes").asLong());
+
+        ConversationExporter.Summary again = exporter.export(USERS, dir.resolve("export.ndjson"), dir.resolve("ckpt.json"));
+        assertEquals(0, again.getConversations());
+        assertComplete(readOutput());
+    }
+
+    /**
+     * Tests that an export interrupted mid-conversation resumes without writing any line twice,
+     * including lines written after the last checkpoint and a torn trailing line.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testResumesAfterCrash() throws Exception {
+        Path output = dir.resolve("export.ndjson");
+        Path checkpoint = dir.resolve("ckpt.json");
+        ChatClient crashing = new ChatClient("test-key", server.getBaseUrl()) {
+            @Override
+            public Response getConversationMessages(String user, String conversation_id, String first_id, int limit) throws DifyClientException {
+                if (user.equals("bob") && "conv-4-msg-8".equals(first_id)) {
+                    // Simulates the process dying mid-run
+                    throw new Error("crash");
+                }
+                return super.getConversationMessages(user, conversation_id, first_id, limit);
+            }
+        };
+        assertThrows(Error.class, () -> new ConversationExporter(crashing, 2, 5, 3).export(USERS, output, checkpoint));
+        assertEquals(1, mapper.readTree(checkpoint.toFile()).path("next_user").asInt());
+        // A half-written line as left by a crash during write
+        Files.write(output, "{\"user\":\"bob\",\"mess".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        ConversationExporter.Summary summary = new ConversationExporter(new ChatClient("test-key", server.getBaseUrl()), 3, 5, 3)
+                .export(USERS, output, checkpoint);
+
+        assertTrue(summary.getConversations() < 14);
+        assertComplete(readOutput());
+    }
+
+    /**
+     * Tests exporting to a channel, with a failing conversation reported and retried by the
+     * next run of a checkpointed export.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testFailedConversationsAreRetried() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        ChatClient client = new ChatClient("test-key", server.getBaseUrl()) {
+            @Override
+            public Response getConversationMessages(String user, String conversation_id, String first_id, int limit) throws DifyClientException {
+                if (failing.get() && user.equals("alice") && conversation_id.equals("conv-2") && first_id != null) {
+                    throw new DifyClientException("Request failed with status: 503");
+                }
+                return super.getConversationMessages(user, conversation_id, first_id, limit);
+            }
+        };
+        ConversationExporter exporter = new ConversationExporter(client, 4, 10, 100);
+
+        ByteArrayOutputStream channel = new ByteArrayOutputStream();
+        ConversationExporter.Summary streamed = exporter.export(USERS, Channels.newChannel(channel));
+        assertEquals(13, streamed.getConversations());
+        assertEquals(1, streamed.getFailed());
+
+        Path output = dir.resolve("export.ndjson");
+        assertEquals(1, exporter.export(USERS, output, dir.resolve("ckpt.json")).getFailed());
+        assertEquals(1, mapper.readTree(dir.resolve("ckpt.json").toFile()).path("pending").size());
+        failing.set(false);
+        ConversationExporter.Summary retried = exporter.export(USERS, output, dir.resolve("ckpt.json"));
+        assertEquals(1, retried.getConversations());
+        assertEquals(13, retried.getMessages());
+        assertComplete(readOutput());
+    }
+
+    private List<JsonNode> readOutput() throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(dir.resolve("export.ndjson"), StandardCharsets.UTF_8)) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static void assertComplete(List<JsonNode> lines) {
+        Set<String> conversations = new HashSet<>();
+        Set<String> messages = new HashSet<>();
+        for (JsonNode line : lines) {
+            String user = line.path("user").asText();
+            if (line.has("conversation")) {
+                assertTrue(conversations.add(user + "/" + line.path("conversation").path("id").asText()), line.toString());
+            } else {
+                assertEquals(line.path("conversation_id").asText(), line.path("message").path("conversation_id").asText());
+                assertTrue(messages.add(user + "/" + line.path("message").path("id").asText()), line.toString());
+            }
+        }
+        assertEquals(14, conversations.size());
+        assertEquals(14 * 23, messages.size());
+    }
+}
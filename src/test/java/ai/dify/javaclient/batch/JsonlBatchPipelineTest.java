@@ -0,0 +1,184 @@
+package ai.dify.javaclient.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the JsonlBatchPipeline class.
+ */
+class JsonlBatchPipelineTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Tests that every record is run once and results carry the record index.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testRunsAllRecords() throws Exception {
+        Path input = writeInput(50);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        JsonlBatchPipeline pipeline = new JsonlBatchPipeline(record -> {
+            String query = record.path("query").asText();
+            assertTrue(seen.add(query), "record run twice: " + query);
+            if (query.equals("q13")) {
+                throw new IllegalStateException("boom");
+            }
+            return Collections.singletonMap("answer", query.toUpperCase());
+        }, 4, 0, 7);
+
+        JsonlBatchPipeline.Summary summary = pipeline.run(input, dir.resolve("out.jsonl"), dir.resolve("ckpt.json"));
+
+        assertEquals(49, summary.getSucceeded());
+        assertEquals(1, summary.getFailed());
+        assertEquals(0, summary.getSkipped());
+        List<JsonNode> output = readOutput();
+        assertEquals(LongStream.range(0, 50).boxed().collect(Collectors.toList()), indexes(output));
+        for (JsonNode line : output) {
+            if (line.path("index").asLong() == 13) {
+                assertEquals("boom", line.path("error").asText());
+            } else {
+                assertEquals("Q" + line.path("index").asLong(), line.path("response").path("answer").asText());
+            }
+        }
+        JsonNode checkpoint = mapper.readTree(dir.resolve("ckpt.json").toFile());
+        assertEquals(50, checkpoint.path("next_line").asLong());
+        assertEquals(Files.size(input), checkpoint.path("next_offset").asLong());
+    }
+
+    /**
+     * Tests that a run interrupted after some results resumes without re-running them,
+     * including results written after the last checkpoint and a torn trailing line.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testResumesAfterCrash() throws Exception {
+        Path input = writeInput(30);
+        Path output = dir.resolve("out.jsonl");
+        Path checkpoint = dir.resolve("ckpt.json");
+
+        JsonlBatchPipeline crashing = new JsonlBatchPipeline(record -> {
+            if (record.path("query").asText().equals("q20")) {
+                // Simulates the process dying mid-run
+                throw new Error("crash");
+            }
+            return Collections.singletonMap("answer", "ok");
+        }, 1, 0, 5);
+        assertThrows(Error.class, () -> crashing.run(input, output, checkpoint));
+        // A half-written line as left by a crash during write
+        Files.write(output, "{\"index\":2".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        Set<String> rerun = ConcurrentHashMap.newKeySet();
+        JsonlBatchPipeline resumed = new JsonlBatchPipeline(record -> {
+            rerun.add(record.path("query").asText());
+            return Collections.singletonMap("answer", "ok");
+        }, 3, 0, 5);
+        JsonlBatchPipeline.Summary summary = resumed.run(input, output, checkpoint);
+
+        assertEquals(10, summary.getSucceeded());
+        assertEquals(10, rerun.size());
+        assertTrue(rerun.contains("q20"));
+        assertFalse(rerun.contains("q19"));
+        assertEquals(LongStream.range(0, 30).boxed().collect(Collectors.toList()), indexes(readOutput()));
+    }
+
+    /**
+     * Tests that a stuck record pauses the run once the window past it is full, keeping the
+     * checkpoint small, and that the run finishes once the record completes.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testStuckRecordBoundsRunAhead() throws Exception {
+        Path input = writeInput(40);
+        Path checkpoint = dir.resolve("ckpt.json");
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> started = ConcurrentHashMap.newKeySet();
+        JsonlBatchPipeline pipeline = new JsonlBatchPipeline(record -> {
+            String query = record.path("query").asText();
+            started.add(query);
+            if (query.equals("q0")) {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            }
+            return Collections.singletonMap("answer", "ok");
+        }, 2, 0, 1);
+        int window = JsonlBatchPipeline.WINDOW_FACTOR * 2;
+
+        CompletableFuture<JsonlBatchPipeline.Summary> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pipeline.run(input, dir.resolve("out.jsonl"), checkpoint);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (started.size() < window) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+        // Leaves the run time to go past the window if it could
+        Thread.sleep(200);
+
+        assertEquals(window, started.size());
+        assertFalse(started.contains("q" + window));
+        JsonNode state = mapper.readTree(checkpoint.toFile());
+        assertEquals(0, state.path("next_line").asLong());
+        assertEquals(window - 1, state.path("completed").size());
+
+        release.countDown();
+        assertEquals(40, run.get(10, TimeUnit.SECONDS).getSucceeded());
+        assertEquals(LongStream.range(0, 40).boxed().collect(Collectors.toList()), indexes(readOutput()));
+        assertEquals(0, mapper.readTree(checkpoint.toFile()).path("completed").size());
+    }
+
+    private Path writeInput(int count) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("{\"inputs\":\"{}\",\"query\":\"q").append(i).append("\"}\n");
+            if (i % 10 == 0) {
+                sb.append('\n');
+            }
+        }
+        Path input = dir.resolve("in.jsonl");
+        Files.write(input, sb.toString().getBytes(StandardCharsets.UTF_8));
+        return input;
+    }
+
+    private List<JsonNode> readOutput() throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(dir.resolve("out.jsonl"), StandardCharsets.UTF_8)) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static List<Long> indexes(List<JsonNode> lines) {
+        return lines.stream().map(line -> line.path("index").asLong()).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,127 @@
+package ai.dify.javaclient.batch;
+
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the WorkflowBatchRunner class.
+ */
+class WorkflowBatchRunnerTest {
+
+    @Mock
+    private WorkflowClient mockClient;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(mockClient.runWorkflowSync(anyMap(), eq("batch"))).thenAnswer(invocation -> {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Map<String, Object> inputs = invocation.getArgument(0);
+                int n = (Integer) inputs.get("n");
+                // Later items finish first to exercise ordering
+                Thread.sleep(10 - n % 10);
+                if (n == 7) {
+                    throw new DifyClientException("Request failed with status: 500");
+                }
+                WorkflowRunResponse response = new WorkflowRunResponse();
+                response.setWorkflow_run_id("run-" + n);
+                return response;
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Tests that ordered results come back in input order with bounded concurrency.
+     */
+    @Test
+    public void testRunOrdered() {
+        try (WorkflowBatchRunner runner = new WorkflowBatchRunner(mockClient, "batch", 4)) {
+            List<Long> indexes = new ArrayList<>();
+            Iterator<BatchResult<Map<String, Object>, WorkflowRunResponse>> results = runner.runOrdered(inputs(30));
+            while (results.hasNext()) {
+                BatchResult<Map<String, Object>, WorkflowRunResponse> result = results.next();
+                indexes.add(result.getIndex());
+                if (result.getIndex() == 7) {
+                    assertFalse(result.isSuccess());
+                    assertInstanceOf(DifyClientException.class, result.getError());
+                } else {
+                    assertEquals("run-" + result.getIndex(), result.getResponse().getWorkflow_run_id());
+                }
+            }
+
+            assertEquals(IntStream.range(0, 30).mapToObj(i -> (long) i).collect(Collectors.toList()), indexes);
+            assertTrue(maxRunning.get() <= 4);
+            assertEquals(30, runner.getSubmitted());
+            assertEquals(29, runner.getSucceeded());
+            assertEquals(1, runner.getFailed());
+            assertEquals(0, runner.getInFlight());
+        }
+    }
+
+    /**
+     * Tests that unordered results cover every input exactly once.
+     */
+    @Test
+    public void testRunUnordered() {
+        try (WorkflowBatchRunner runner = new WorkflowBatchRunner(mockClient, "batch", 3)) {
+            List<Long> indexes = runner.runUnordered(IntStream.range(0, 20).mapToObj(WorkflowBatchRunnerTest::input))
+                    .map(BatchResult::getIndex)
+                    .collect(Collectors.toList());
+
+            Collections.sort(indexes);
+            assertEquals(IntStream.range(0, 20).mapToObj(i -> (long) i).collect(Collectors.toList()), indexes);
+            assertTrue(maxRunning.get() <= 3);
+        }
+    }
+
+    /**
+     * Tests that the rate limit spaces out requests.
+     */
+    @Test
+    public void testRateLimit() {
+        try (WorkflowBatchRunner runner = new WorkflowBatchRunner(mockClient, "batch", 8, 100)) {
+            long start = System.nanoTime();
+            runner.run(inputs(11), result -> { });
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // 11 permits at 100/s need at least 100ms
+            assertTrue(elapsedMillis >= 95, "elapsed " + elapsedMillis + "ms");
+            verify(mockClient, times(11)).runWorkflowSync(anyMap(), eq("batch"));
+        } catch (DifyClientException e) {
+            fail(e);
+        }
+    }
+
+    private static Iterator<Map<String, Object>> inputs(int count) {
+        return IntStream.range(0, count).mapToObj(WorkflowBatchRunnerTest::input).iterator();
+    }
+
+    private static Map<String, Object> input(int n) {
+        return Collections.singletonMap("n", n);
+    }
+}
@@ -0,0 +1,122 @@
+package ai.dify.javaclient.cache;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.dto.ConversationMessage;
+import ai.dify.javaclient.dto.ConversationMessagesResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the ConversationHistoryCache class.
+ */
+class ConversationHistoryCacheTest {
+
+    private static final String TEST_USER = "testUser";
+
+    @Mock
+    private ChatClient mockClient;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * Tests that reopening a conversation only fetches the newest page.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testReopenFetchesOnlyDelta() throws Exception {
+        when(mockClient.getConversationMessagesSync(TEST_USER, "c1", null, ConversationHistoryCache.FULL_PAGE_SIZE))
+                .thenReturn(page(false, "m1", "m2", "m3"));
+        ConversationHistoryCache cache = new ConversationHistoryCache(mockClient, 1 << 20, 2);
+
+        assertEquals(Arrays.asList("m1", "m2", "m3"), ids(cache.getMessages(TEST_USER, "c1")));
+
+        when(mockClient.getConversationMessagesSync(TEST_USER, "c1", null, 2))
+                .thenReturn(page(true, "m3", "m4"));
+        assertEquals(Arrays.asList("m1", "m2", "m3", "m4"), ids(cache.getMessages(TEST_USER, "c1")));
+
+        verify(mockClient, times(1)).getConversationMessagesSync(TEST_USER, "c1", null, 2);
+        verify(mockClient, never()).getConversationMessagesSync(eq(TEST_USER), eq("c1"), notNull(), anyInt());
+    }
+
+    /**
+     * Tests that a delta larger than one page walks back with the first_id cursor.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testLargeDeltaPagesBackWithFirstId() throws Exception {
+        when(mockClient.getConversationMessagesSync(TEST_USER, "c1", null, ConversationHistoryCache.FULL_PAGE_SIZE))
+                .thenReturn(page(false, "m1"));
+        ConversationHistoryCache cache = new ConversationHistoryCache(mockClient, 1 << 20, 2);
+        cache.getMessages(TEST_USER, "c1");
+
+        when(mockClient.getConversationMessagesSync(TEST_USER, "c1", null, 2))
+                .thenReturn(page(true, "m4", "m5"));
+        when(mockClient.getConversationMessagesSync(TEST_USER, "c1", "m4", ConversationHistoryCache.FULL_PAGE_SIZE))
+                .thenReturn(page(false, "m1", "m2", "m3"));
+
+        assertEquals(Arrays.asList("m1", "m2", "m3", "m4", "m5"), ids(cache.getMessages(TEST_USER, "c1")));
+    }
+
+    /**
+     * Tests that least recently used conversations are evicted once the budget is exceeded.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        when(mockClient.getConversationMessagesSync(eq(TEST_USER), anyString(), isNull(), anyInt()))
+                .thenAnswer(invocation -> page(false, invocation.getArgument(1) + "-m1"));
+        long oneConversation = ConversationHistoryCache.estimateSize(page(false, "c1-m1").getData().get(0));
+        ConversationHistoryCache cache = new ConversationHistoryCache(mockClient, 2 * oneConversation);
+
+        cache.getMessages(TEST_USER, "c1");
+        cache.getMessages(TEST_USER, "c2");
+        cache.getMessages(TEST_USER, "c1");
+        cache.getMessages(TEST_USER, "c3");
+
+        assertEquals(2, cache.size());
+        assertEquals(2 * oneConversation, cache.getEstimatedBytes());
+
+        // c2 was evicted, so it is loaded in full again
+        cache.getMessages(TEST_USER, "c2");
+        verify(mockClient, times(2)).getConversationMessagesSync(TEST_USER, "c2", null, ConversationHistoryCache.FULL_PAGE_SIZE);
+    }
+
+    private static ConversationMessagesResponse page(boolean hasMore, String... ids) {
+        List<ConversationMessage> data = new ArrayList<>();
+        for (String id : ids) {
+            ConversationMessage message = new ConversationMessage();
+            message.setId(id);
+            message.setConversation_id("c1");
+            message.setAnswer("answer " + id);
+            data.add(message);
+        }
+        ConversationMessagesResponse response = new ConversationMessagesResponse();
+        response.setHas_more(hasMore);
+        response.setData(data);
+        return response;
+    }
+
+    private static List<String> ids(List<ConversationMessage> messages) {
+        List<String> ids = new ArrayList<>();
+        for (ConversationMessage message : messages) {
+            ids.add(message.getId());
+        }
+        return ids;
+    }
+}
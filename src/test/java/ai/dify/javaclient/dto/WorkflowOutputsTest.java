@@ -0,0 +1,102 @@
+package ai.dify.javaclient.dto;
+
+import ai.dify.javaclient.helper.JsonUtil;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the lazily bound outputs of workflow runs and nodes.
+ */
+class WorkflowOutputsTest {
+
+    private static final String RUN_RESPONSE = "{\"workflow_run_id\":\"r1\",\"task_id\":\"t1\",\"data\":{"
+            + "\"id\":\"r1\",\"status\":\"succeeded\","
+            + "\"outputs\":{\"summary\":\"Sales rose.\",\"scores\":[0.5,0.75],\"meta\":{\"pages\":3},\"unused\":{\"deep\":[1,2,3]}},"
+            + "\"elapsed_time\":0.875,\"total_tokens\":3562}}";
+
+    private final ObjectMapper mapper = JsonUtil.buildMapper();
+
+    @Data
+    public static class Report {
+        private String summary;
+        private List<Double> scores;
+    }
+
+    /**
+     * Tests binding the outputs of a run into a caller's class, one by one, and as a map.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testBindRunOutputs() throws Exception {
+        WorkflowRunResponse.WorkflowRunData data = mapper.readValue(RUN_RESPONSE, WorkflowRunResponse.class).getData();
+
+        Report report = data.getOutputs(Report.class);
+        assertEquals("Sales rose.", report.getSummary());
+        assertEquals(Arrays.asList(0.5, 0.75), report.getScores());
+        assertEquals("Sales rose.", data.getOutput("summary", String.class));
+        assertEquals(3, data.getOutput("meta", Map.class).get("pages"));
+        assertNull(data.getOutput("missing", String.class));
+        assertEquals(0.875, data.getElapsed_time());
+
+        Map<String, Object> outputs = data.getOutputs();
+        assertEquals(4, outputs.size());
+        assertSame(outputs, data.getOutputs());
+    }
+
+    /**
+     * Tests that outputs survive writing and reading a response again.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        WorkflowRunResponse response = mapper.readValue(RUN_RESPONSE, WorkflowRunResponse.class);
+        WorkflowRunResponse copy = mapper.readValue(mapper.writeValueAsString(response), WorkflowRunResponse.class);
+
+        assertEquals(response, copy);
+        assertEquals(Arrays.asList(0.5, 0.75), copy.getData().getOutputs(Report.class).getScores());
+        assertNull(mapper.readValue("{\"data\":{\"outputs\":null}}", WorkflowRunResponse.class).getData().getOutputs(Report.class));
+    }
+
+    /**
+     * Tests outputs set by the caller rather than read from a response.
+     */
+    @Test
+    public void testSetOutputs() {
+        WorkflowEvent.WorkflowFinishedData data = new WorkflowEvent.WorkflowFinishedData();
+        data.setOutputs(Collections.singletonMap("summary", "Done."));
+
+        assertEquals("Done.", data.getOutputs(Report.class).getSummary());
+        assertEquals("Done.", data.getOutput("summary", String.class));
+        assertEquals(Collections.singletonMap("summary", "Done."), data.getOutputs());
+    }
+
+    /**
+     * Tests binding the outputs of streamed node and workflow events.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testBindEventOutputs() throws Exception {
+        WorkflowEventParser parser = new WorkflowEventParser(mapper);
+        WorkflowEvent node = parser.parse("{\"event\":\"node_finished\",\"data\":{\"node_id\":\"n1\",\"status\":\"succeeded\","
+                + "\"outputs\":{\"text\":\"hi\",\"usage\":{\"total_tokens\":12}}}}");
+        WorkflowEvent finished = parser.parse("{\"event\":\"workflow_finished\",\"data\":{\"status\":\"succeeded\","
+                + "\"outputs\":{\"summary\":\"hi\",\"scores\":[1.0]}}}");
+
+        WorkflowEvent.NodeFinishedData nodeData = node.getDataAs(WorkflowEvent.NodeFinishedData.class);
+        assertEquals("hi", nodeData.getOutput("text", String.class));
+        assertEquals(12, nodeData.getOutput("usage", Map.class).get("total_tokens"));
+        assertEquals("hi", finished.getDataAs(WorkflowEvent.WorkflowFinishedData.class).getOutputs(Report.class).getSummary());
+    }
+}
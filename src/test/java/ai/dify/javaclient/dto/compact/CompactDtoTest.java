@@ -0,0 +1,133 @@
+package ai.dify.javaclient.dto.compact;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.helper.JsonUtil;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the compact DTOs and string canonicalization.
+ */
+class CompactDtoTest {
+    private static final String MESSAGE_END = "{\"event\":\"message_end\",\"message_id\":\"m1\",\"task_id\":\"t1\","
+            + "\"conversation_id\":\"c1\",\"mode\":\"advanced-chat\",\"answer\":\"\",\"metadata\":{\"usage\":{"
+            + "\"prompt_tokens\":100,\"prompt_unit_price\":\"0.001\",\"prompt_price_unit\":\"0.001\",\"prompt_price\":\"0.0001000\","
+            + "\"completion_tokens\":20,\"completion_unit_price\":\"0.002\",\"completion_price_unit\":\"0.001\",\"completion_price\":0.00004,"
+            + "\"total_tokens\":120,\"total_price\":\"0.0001400\",\"currency\":\"USD\",\"latency\":0.5},"
+            + "\"retriever_resources\":[{\"position\":1,\"dataset_id\":\"d1\",\"dataset_name\":\"Docs\",\"score\":0.9}]},"
+            + "\"created_at\":1705407629}";
+
+    private final ObjectMapper mapper = JsonUtil.buildMapper();
+    private DifyStandInServer server;
+    private ChatClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = DifyStandInServer.start().historySize(30);
+        client = new ChatClient("test-key", server.getBaseUrl());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests binding enums and fixed-point prices, and writing them back.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testChatMessage() throws Exception {
+        CompactChatMessage message = mapper.readValue(MESSAGE_END, CompactChatMessage.class);
+
+        assertEquals(ChatEvent.MESSAGE_END, message.getEvent());
+        assertEquals(AppMode.ADVANCED_CHAT, message.getMode());
+        CompactUsage usage = message.getMetadata().getUsage();
+        assertEquals(100_000L, usage.getPromptPrice());
+        assertEquals(40_000L, usage.getCompletionPrice());
+        assertEquals(140_000L, usage.getTotalPrice());
+        assertEquals(1_000_000L, usage.getPromptPriceUnit());
+        assertEquals("Docs", message.getMetadata().getRetrieverResources().get(0).getDatasetName());
+        assertThrows(UnsupportedOperationException.class, () -> message.getMetadata().getRetrieverResources().clear());
+
+        String json = mapper.writeValueAsString(message);
+        assertTrue(json.contains("\"total_price\":\"0.00014\""), json);
+        assertTrue(json.contains("\"mode\":\"advanced-chat\""), json);
+        assertEquals(message, mapper.readValue(json, CompactChatMessage.class));
+
+        CompactChatMessage unknown = mapper.readValue("{\"event\":\"new_event\",\"mode\":\"new-mode\"}", CompactChatMessage.class);
+        assertEquals(ChatEvent.UNKNOWN, unknown.getEvent());
+        assertEquals(AppMode.UNKNOWN, unknown.getMode());
+        assertNull(unknown.getMetadata());
+    }
+
+    /**
+     * Tests that pages read with a shared canonicalizer share their repeated identifiers.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCanonicalizePages() throws Exception {
+        StringCanonicalizer canonicalizer = new StringCanonicalizer();
+        CompactMessagePage newest = client.getConversationMessagesCompactSync("user", "conv-1", null, 20, canonicalizer);
+        CompactMessagePage oldest = client.getConversationMessagesCompactSync("user", "conv-1",
+                newest.getData().get(0).getId(), 20, canonicalizer);
+
+        assertEquals(20, newest.getData().size());
+        assertEquals(10, oldest.getData().size());
+        assertFalse(oldest.isHasMore());
+        CompactConversationMessage first = oldest.getData().get(0);
+        CompactConversationMessage last = newest.getData().get(19);
+        assertEquals(MessageStatus.NORMAL, last.getStatus());
+        assertEquals("like", last.getFeedbackRating());
+        assertSame(first.getConversationId(), last.getConversationId());
+        assertSame(first.getFeedbackRating(), last.getFeedbackRating());
+        CompactRetrieverResource firstResource = first.getRetrieverResources().get(0);
+        CompactRetrieverResource lastResource = last.getRetrieverResources().get(0);
+        assertSame(firstResource.getDatasetName(), lastResource.getDatasetName());
+        assertSame(firstResource.getDocumentName(), lastResource.getDocumentName());
+        assertNotSame(firstResource.getSegmentId(), lastResource.getSegmentId());
+
+        CompactMessagePage plain = client.getConversationMessagesCompactSync("user", "conv-1", null, 20, null);
+        assertNotSame(plain.getData().get(0).getConversationId(), plain.getData().get(1).getConversationId());
+        assertEquals(newest, plain);
+    }
+
+    /**
+     * Tests the compact response of a blocking chat message.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCreateChatMessage() throws Exception {
+        CompactChatMessage message = client.createChatMessageCompactSync("{}", "Hi", "user", null);
+
+        assertNotNull(message.getAnswer());
+        assertEquals(140_000L, message.getMetadata().getUsage().getTotalPrice());
+        assertTrue(message.getMetadata().getRetrieverResources().isEmpty());
+    }
+
+    /**
+     * Tests that a full canonicalizer hands strings back as they are.
+     */
+    @Test
+    public void testCanonicalizerBound() {
+        StringCanonicalizer canonicalizer = new StringCanonicalizer(2);
+        String a = canonicalizer.canonicalize(new String("a"));
+        assertSame(a, canonicalizer.canonicalize(new String("a")));
+        canonicalizer.canonicalize("b");
+        String c = new String("c");
+        assertSame(c, canonicalizer.canonicalize(c));
+        assertNotSame(c, canonicalizer.canonicalize(new String("c")));
+        assertEquals(2, canonicalizer.size());
+        assertNull(canonicalizer.canonicalize(null));
+    }
+}
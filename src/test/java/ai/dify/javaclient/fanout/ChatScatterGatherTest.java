@@ -0,0 +1,172 @@
+package ai.dify.javaclient.fanout;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the ChatScatterGather class.
+ */
+class ChatScatterGatherTest {
+
+    private final List<CompletableFuture<ChatMessageResponse>> requests = new ArrayList<>();
+    private final Map<String, ChatClient> apps = new LinkedHashMap<>();
+    private ChatScatterGather scatterGather;
+
+    @BeforeEach
+    public void setUp() {
+        for (String name : new String[]{"a", "b", "c"}) {
+            CompletableFuture<ChatMessageResponse> request = new CompletableFuture<>();
+            ChatClient client = mock(ChatClient.class);
+            when(client.createChatMessageAsync(eq("inputs"), eq("query"), eq("user"), isNull())).thenReturn(request);
+            requests.add(request);
+            apps.put(name, client);
+        }
+        scatterGather = new ChatScatterGather(apps);
+    }
+
+    /**
+     * Tests that the first success wins and the other requests are cancelled.
+     */
+    @Test
+    public void testFirstSuccessfulCancelsRest() throws Exception {
+        CompletableFuture<AppResponse> result = scatterGather.firstSuccessful("inputs", "query", "user");
+        requests.get(0).completeExceptionally(new DifyClientException("Request failed with status: 500"));
+        assertFalse(result.isDone());
+
+        requests.get(2).complete(answer("from c"));
+
+        AppResponse response = result.get(1, TimeUnit.SECONDS);
+        assertEquals("c", response.getApp());
+        assertEquals("from c", response.getResponse().getAnswer());
+        assertTrue(requests.get(1).isCancelled());
+    }
+
+    /**
+     * Tests that first-wins fails once every app failed.
+     */
+    @Test
+    public void testFirstSuccessfulAllFailed() {
+        CompletableFuture<AppResponse> result = scatterGather.firstSuccessful("inputs", "query", "user");
+        for (CompletableFuture<ChatMessageResponse> request : requests) {
+            request.completeExceptionally(new DifyClientException("Request failed with status: 500"));
+        }
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertEquals("All 3 apps failed", e.getCause().getMessage());
+    }
+
+    /**
+     * Tests that all-with-deadline reports late apps as timed out.
+     */
+    @Test
+    public void testAllWithDeadline() throws Exception {
+        requests.get(0).complete(answer("from a"));
+        requests.get(1).completeExceptionally(new DifyClientException("Request failed with status: 429"));
+
+        List<AppResponse> responses = scatterGather.all("inputs", "query", "user", 100, TimeUnit.MILLISECONDS).get(1, TimeUnit.SECONDS);
+
+        assertEquals(3, responses.size());
+        assertEquals("from a", responses.get(0).getResponse().getAnswer());
+        assertInstanceOf(DifyClientException.class, responses.get(1).getError());
+        assertInstanceOf(TimeoutException.class, responses.get(2).getError());
+        assertTrue(requests.get(2).isCancelled());
+    }
+
+    /**
+     * Tests that a quorum completes with the required number of successes.
+     */
+    @Test
+    public void testQuorum() throws Exception {
+        CompletableFuture<List<AppResponse>> result = scatterGather.quorum("inputs", "query", "user", 2, 1, TimeUnit.SECONDS);
+        requests.get(1).complete(answer("from b"));
+        requests.get(0).completeExceptionally(new DifyClientException("Request failed with status: 500"));
+        assertFalse(result.isDone());
+        requests.get(2).complete(answer("from c"));
+
+        List<AppResponse> responses = result.get(1, TimeUnit.SECONDS);
+        assertEquals("b", responses.get(0).getApp());
+        assertEquals("c", responses.get(1).getApp());
+    }
+
+    /**
+     * Tests that a quorum fails as soon as it cannot be reached anymore.
+     */
+    @Test
+    public void testQuorumUnreachable() {
+        CompletableFuture<List<AppResponse>> result = scatterGather.quorum("inputs", "query", "user", 2, 1, TimeUnit.SECONDS);
+        requests.get(0).completeExceptionally(new DifyClientException("Request failed with status: 500"));
+        requests.get(2).completeExceptionally(new DifyClientException("Request failed with status: 500"));
+
+        assertThrows(ExecutionException.class, () -> result.get(100, TimeUnit.MILLISECONDS));
+        assertTrue(requests.get(1).isCancelled());
+    }
+
+    /**
+     * Tests that the deadlines of calls completing early are cancelled, instead of holding on
+     * to the calls until they expire.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testEarlyCompletionCancelsDeadline() throws Exception {
+        List<ScheduledFuture<?>> deadlines = new ArrayList<>();
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1) {
+            @Override
+            public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+                ScheduledFuture<?> deadline = super.schedule(command, delay, unit);
+                deadlines.add(deadline);
+                return deadline;
+            }
+
+            @Override
+            public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+                ScheduledFuture<V> deadline = super.schedule(callable, delay, unit);
+                deadlines.add(deadline);
+                return deadline;
+            }
+        };
+        try {
+            ChatScatterGather timed = new ChatScatterGather(apps, timer);
+            CompletableFuture<List<AppResponse>> quorum = timed.quorum("inputs", "query", "user", 1, 1, TimeUnit.HOURS);
+            CompletableFuture<List<AppResponse>> all = timed.all("inputs", "query", "user", 1, TimeUnit.HOURS);
+            assertEquals(2, deadlines.size());
+            assertFalse(deadlines.get(0).isCancelled());
+
+            for (CompletableFuture<ChatMessageResponse> request : requests) {
+                request.complete(answer("answer"));
+            }
+
+            assertEquals(1, quorum.get(1, TimeUnit.SECONDS).size());
+            assertEquals(3, all.get(1, TimeUnit.SECONDS).size());
+            assertTrue(deadlines.get(0).isCancelled());
+            assertTrue(deadlines.get(1).isCancelled());
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    private static ChatMessageResponse answer(String answer) {
+        ChatMessageResponse response = new ChatMessageResponse();
+        response.setAnswer(answer);
+        return response;
+    }
+}
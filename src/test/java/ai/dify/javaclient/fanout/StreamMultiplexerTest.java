@@ -0,0 +1,164 @@
+package ai.dify.javaclient.fanout;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.fanout.StreamMultiplexer.Backpressure;
+import ai.dify.javaclient.fanout.StreamMultiplexer.Subscription;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import ai.dify.javaclient.standin.LatencyDistribution;
+import ai.dify.javaclient.stream.CancellableStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the StreamMultiplexer class against the stand-in server.
+ */
+class StreamMultiplexerTest {
+
+    private DifyStandInServer server;
+    private ChatClient client;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = DifyStandInServer.start().streamChunks(100);
+        client = new ChatClient("test-key", server.getBaseUrl());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that blocking subscribers each read every event in order, however slow, from a
+     * single upstream request.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testBlockingSubscribersReadEveryEvent() throws Exception {
+        StreamMultiplexer<ChatMessageResponse> multiplexer = new StreamMultiplexer<>(stream(), 8);
+        Subscription<ChatMessageResponse> fast = multiplexer.subscribe(Backpressure.BLOCK, false);
+        Subscription<ChatMessageResponse> slow = multiplexer.subscribe(Backpressure.BLOCK, false);
+        multiplexer.start();
+
+        CompletableFuture<List<ChatMessageResponse>> fastEvents = CompletableFuture.supplyAsync(() -> readAll(fast, 0));
+        List<ChatMessageResponse> slowEvents = readAll(slow, 1);
+
+        assertEquals(101, slowEvents.size());
+        assertEquals(slowEvents, fastEvents.get(10, TimeUnit.SECONDS));
+        assertEquals("token0 ", slowEvents.get(0).getAnswer());
+        assertEquals(ChatMessageResponse.EVENT_MESSAGE_END, slowEvents.get(100).getEvent());
+        assertEquals(0, slow.getDropped());
+        assertTrue(slow.isFinished());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    /**
+     * Tests that a subscriber falling behind loses the oldest events when dropping, and is
+     * disconnected when asking to be, without slowing down the others.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testSlowSubscribers() throws Exception {
+        StreamMultiplexer<ChatMessageResponse> multiplexer = new StreamMultiplexer<>(stream(), 8);
+        Subscription<ChatMessageResponse> reader = multiplexer.subscribe(Backpressure.BLOCK, false);
+        Subscription<ChatMessageResponse> dropping = multiplexer.subscribe(Backpressure.DROP, false);
+        Subscription<ChatMessageResponse> disconnecting = multiplexer.subscribe(Backpressure.DISCONNECT, false);
+        multiplexer.start();
+
+        assertEquals(101, readAll(reader, 0).size());
+
+        assertTrue(disconnecting.isDisconnected());
+        assertThrows(DifyClientException.class, disconnecting::next);
+        List<ChatMessageResponse> dropped = readAll(dropping, 0);
+        assertEquals(8, dropped.size());
+        assertEquals(93, dropping.getDropped());
+        assertEquals(ChatMessageResponse.EVENT_MESSAGE_END, dropped.get(7).getEvent());
+    }
+
+    /**
+     * Tests that late subscribers replay the stream from its start while the buffer holds it,
+     * and from the oldest buffered event once it has wrapped.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testLateSubscribersReplay() throws Exception {
+        server.streamChunks(20);
+        StreamMultiplexer<ChatMessageResponse> multiplexer = new StreamMultiplexer<>(stream(), 32).start();
+        Subscription<ChatMessageResponse> first = multiplexer.subscribe(Backpressure.BLOCK, true);
+        List<ChatMessageResponse> events = readAll(first, 0);
+        assertEquals(21, events.size());
+
+        assertEquals(events, readAll(multiplexer.subscribe(Backpressure.DISCONNECT, true), 0));
+        Subscription<ChatMessageResponse> live = multiplexer.subscribe(Backpressure.DROP, false);
+        assertNull(live.next());
+        assertTrue(live.isFinished());
+
+        server.streamChunks(40);
+        StreamMultiplexer<ChatMessageResponse> wrapped = new StreamMultiplexer<>(stream(), 32);
+        Subscription<ChatMessageResponse> reader = wrapped.subscribe(Backpressure.BLOCK, false);
+        wrapped.start();
+        assertEquals(41, readAll(reader, 0).size());
+        Subscription<ChatMessageResponse> late = wrapped.subscribe(Backpressure.DROP, true);
+        assertEquals(9, late.getDropped());
+        assertEquals(32, readAll(late, 0).size());
+    }
+
+    /**
+     * Tests that closing the multiplexer ends its subscribers and stops the upstream task.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCloseStopsUpstream() throws Exception {
+        server.streamChunks(500).eventInterval(LatencyDistribution.fixed(10));
+        CancellableStream<ChatMessageResponse> upstream = stream();
+        StreamMultiplexer<ChatMessageResponse> multiplexer = new StreamMultiplexer<>(upstream);
+        Subscription<ChatMessageResponse> subscription = multiplexer.subscribe(Backpressure.DROP, false);
+        Subscription<ChatMessageResponse> leaving = multiplexer.subscribe(Backpressure.BLOCK, false);
+        multiplexer.start();
+        assertNotNull(subscription.next());
+        leaving.close();
+        assertNull(leaving.next());
+
+        multiplexer.close();
+
+        readAll(subscription, 0);
+        assertTrue(subscription.isFinished());
+        assertTrue(upstream.whenStopped().get(10, TimeUnit.SECONDS));
+        assertTrue(server.isStopped(upstream.getTaskId()));
+        assertTrue(multiplexer.getPublished() < 501);
+    }
+
+    private CancellableStream<ChatMessageResponse> stream() throws DifyClientException {
+        return client.streamChatMessage("", "hello", "user", null);
+    }
+
+    private static List<ChatMessageResponse> readAll(Subscription<ChatMessageResponse> subscription, long pauseMillis) {
+        List<ChatMessageResponse> events = new ArrayList<>();
+        try {
+            ChatMessageResponse event;
+            while ((event = subscription.next()) != null) {
+                events.add(event);
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (DifyClientException | InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return events;
+    }
+}
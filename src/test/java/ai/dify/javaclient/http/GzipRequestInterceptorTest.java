@@ -0,0 +1,132 @@
+package ai.dify.javaclient.http;
+
+import ai.dify.javaclient.DifyClient;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import ai.dify.javaclient.standin.LatencyDistribution;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the GzipRequestInterceptor class and for streamed
+ * decompression of gzip responses, against the stand-in server.
+ */
+class GzipRequestInterceptorTest {
+    private DifyStandInServer server;
+    private final AtomicLong requestBodyBytes = new AtomicLong();
+    private WorkflowClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = DifyStandInServer.start().streamChunks(3);
+        OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+                .addInterceptor(new GzipRequestInterceptor(1024))
+                .eventListener(new EventListener() {
+                    @Override
+                    public void requestBodyEnd(Call call, long byteCount) {
+                        requestBodyBytes.set(byteCount);
+                    }
+                })
+                .build();
+        client = new WorkflowClient("test-key", server.getBaseUrl(), httpClient);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that large bodies are sent compressed and arrive intact.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testLargeBodyCompressed() throws Exception {
+        StringBuilder document = new StringBuilder();
+        while (document.length() < 1024 * 1024) {
+            document.append("The quick brown fox jumps over the lazy dog. ");
+        }
+        Map<String, Object> inputs = Collections.singletonMap("document", document.toString());
+
+        WorkflowEvent.NodeStartedData nodeStarted = null;
+        try (Response response = client.runWorkflow(inputs, "user", true)) {
+            SseReader reader = new SseReader(response.body().source());
+            WorkflowEventParser parser = new WorkflowEventParser();
+            WorkflowEvent event;
+            while ((event = parser.read(reader)) != null) {
+                if (event.isEventType(WorkflowEvent.EVENT_NODE_STARTED)) {
+                    nodeStarted = event.getDataAs(WorkflowEvent.NodeStartedData.class);
+                }
+            }
+        }
+
+        assertEquals(1, server.getGzipRequestCount());
+        assertTrue(requestBodyBytes.get() < document.length() / 50, "sent " + requestBodyBytes.get() + " bytes");
+        assertNotNull(nodeStarted);
+        assertEquals(document.toString(), nodeStarted.getInputs().get("document"));
+    }
+
+    /**
+     * Tests that bodies below the threshold are sent as they are.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testSmallBodyUncompressed() throws Exception {
+        client.runWorkflowSync(Collections.singletonMap("query", "what is AI?"), "user");
+
+        assertEquals(0, server.getGzipRequestCount());
+        assertTrue(requestBodyBytes.get() > 0 && requestBodyBytes.get() < 1024);
+    }
+
+    /**
+     * Tests that gzip responses are decompressed as they are read: streamed events arrive
+     * one by one, not once the whole response is in.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testStreamedResponseDecompression() throws Exception {
+        server.gzip(true).eventInterval(LatencyDistribution.fixed(200));
+
+        long start = System.nanoTime();
+        long firstChunkNanos = -1;
+        try (Response response = client.runWorkflow(Collections.emptyMap(), "user", true)) {
+            assertEquals("gzip", response.networkResponse().header("Content-Encoding"));
+            SseReader reader = new SseReader(response.body().source());
+            WorkflowEventParser parser = new WorkflowEventParser();
+            WorkflowEvent event;
+            while ((event = parser.read(reader)) != null) {
+                if (firstChunkNanos < 0 && event.isEventType(WorkflowEvent.EVENT_TEXT_CHUNK)) {
+                    firstChunkNanos = System.nanoTime() - start;
+                }
+            }
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        // Three chunks 200 ms apart: the first one arrives about 400 ms before the end
+        assertTrue(firstChunkNanos > 0);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(totalNanos - firstChunkNanos) >= 300,
+                "first chunk after " + TimeUnit.NANOSECONDS.toMillis(firstChunkNanos) + " of "
+                        + TimeUnit.NANOSECONDS.toMillis(totalNanos) + " ms");
+
+        assertEquals("succeeded", client.runWorkflowSync(Collections.emptyMap(), "user").getData().getStatus());
+    }
+}
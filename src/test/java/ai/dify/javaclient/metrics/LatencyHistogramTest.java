@@ -0,0 +1,54 @@
+package ai.dify.javaclient.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the LatencyHistogram class.
+ */
+class LatencyHistogramTest {
+
+    /**
+     * Tests that every value falls into a bucket whose upper bound is within 1/32 above it.
+     */
+    @Test
+    public void testBucketPrecision() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = (random.nextLong() & Long.MAX_VALUE) >>> random.nextInt(64);
+            int index = LatencyHistogram.bucketIndex(value);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= value, value + " above bucket bound " + upper);
+            assertTrue(upper - value <= value / 32, value + " too far from bucket bound " + upper);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value);
+            }
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Tests percentiles of a known distribution.
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500, histogram.percentile(50, TimeUnit.MILLISECONDS), 500 * 0.04);
+        assertEquals(990, histogram.percentile(99, TimeUnit.MILLISECONDS), 990 * 0.04);
+        assertEquals(1000, histogram.percentile(100, TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(500.5, histogram.getMeanNanos() / 1e6, 0.001);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileNanos(99));
+    }
+}
@@ -0,0 +1,121 @@
+package ai.dify.javaclient.metrics;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains tests for the MetricsEventListener class against a local stand-in server.
+ */
+class MetricsEventListenerTest {
+
+    private DifyStandInServer server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = DifyStandInServer.start().streamChunks(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that calls are counted and timed per route, errors by class.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testRecordsPerRoute() throws Exception {
+        DifyMetrics metrics = new DifyMetrics();
+        OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+                .eventListenerFactory(MetricsEventListener.factory(metrics))
+                .build();
+        ChatClient chatClient = new ChatClient("key", server.getBaseUrl(), httpClient);
+        WorkflowClient workflowClient = new WorkflowClient("key", server.getBaseUrl(), httpClient);
+
+        chatClient.createChatMessageSync("", "hello", "user", null);
+        chatClient.createChatMessageSync("", "hello", "user", null);
+        workflowClient.getWorkflowStatusSync("run-1");
+        workflowClient.getWorkflowStatusSync("run-2");
+        server.rateLimitRate(1.0);
+        assertThrows(DifyClientException.class, () -> chatClient.createChatMessageSync("", "hello", "user", null));
+
+        DifyMetrics.RouteMetrics chat = metrics.getRoute("POST /chat-messages");
+        assertEquals(3, chat.getRequests());
+        assertEquals(0, chat.getInFlight());
+        assertEquals(Collections.singletonMap("429", 1L), chat.getErrors());
+        assertEquals(3, chat.getTotal().getCount());
+        assertEquals(3, chat.getTimeToFirstByte().getCount());
+        // The first call opened the connection, the others reused it
+        assertEquals(1, chat.getConnect().getCount());
+
+        DifyMetrics.RouteMetrics status = metrics.getRoute("GET /workflows/run/{}");
+        assertEquals(2, status.getRequests());
+        assertEquals(0, status.getErrorCount());
+        assertEquals(2, metrics.getRoutes().size());
+    }
+
+    /**
+     * Tests that a stream is in flight until its body is closed.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testStreamInFlight() throws Exception {
+        DifyMetrics metrics = new DifyMetrics();
+        OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+                .eventListenerFactory(MetricsEventListener.factory(metrics))
+                .build();
+        WorkflowClient client = new WorkflowClient("key", server.getBaseUrl(), httpClient);
+
+        Response response = client.runWorkflow(Collections.emptyMap(), "user", true);
+        DifyMetrics.RouteMetrics route = metrics.getRoute("POST /workflows/run");
+        assertEquals(1, route.getInFlight());
+        assertEquals(0, route.getRequests());
+
+        response.body().string();
+        response.close();
+        assertEquals(0, route.getInFlight());
+        assertEquals(1, route.getRequests());
+        assertEquals(1, route.getTimeToFirstByte().getCount());
+        assertTrue(route.getTotal().getMaxNanos() >= route.getTimeToFirstByte().getMaxNanos());
+    }
+
+    /**
+     * Tests that the Micrometer adapter registers timers and gauges per route.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testMicrometer() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+                .eventListenerFactory(MetricsEventListener.factory(new MicrometerMetricsRecorder(registry)))
+                .build();
+        ChatClient client = new ChatClient("key", server.getBaseUrl(), httpClient);
+
+        client.createChatMessageSync("", "hello", "user", null);
+
+        Timer requests = registry.get(MicrometerMetricsRecorder.REQUESTS)
+                .tags("route", "POST /chat-messages", "status", "200", "error", "none").timer();
+        assertEquals(1, requests.count());
+        Timer ttfb = registry.get(MicrometerMetricsRecorder.PHASE).tags("route", "POST /chat-messages", "phase", "ttfb").timer();
+        assertEquals(1, ttfb.count());
+        assertEquals(0, registry.get(MicrometerMetricsRecorder.ACTIVE).gauge().value());
+    }
+}
@@ -0,0 +1,101 @@
+package ai.dify.javaclient.metrics;
+
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.stream.ChatEventParser;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.SseReplay;
+import ai.dify.javaclient.stream.WorkflowEventListener;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the StreamMetrics class, using replayed streams.
+ */
+class StreamMetricsTest {
+
+    /**
+     * Tests time to first token, inter-token gaps and tokens per second of a chat stream.
+     */
+    @Test
+    public void testChatStream() {
+        List<StreamSummary> summaries = new ArrayList<>();
+        StreamMetrics metrics = new StreamMetrics(summaries::add);
+        List<String> answer = new ArrayList<>();
+
+        String recording = ": t=60\ndata: {\"event\":\"message\",\"answer\":\"Hel\"}\n\n"
+                + ": t=80\ndata: {\"event\":\"message\",\"answer\":\"lo\"}\n\n"
+                + ": t=100\ndata: {\"event\":\"message\",\"answer\":\"!\"}\n\n"
+                + ": t=110\ndata: {\"event\":\"message_end\",\"metadata\":{\"usage\":{\"total_tokens\":3}}}\n\n";
+        SseReader reader = new SseReader(SseReplay.replay(new Buffer().writeUtf8(recording), 1));
+        new ChatEventParser().readAll(reader, metrics.trackChat("bot", event -> answer.add(event.getAnswer())));
+
+        assertEquals(4, answer.size());
+        assertEquals(1, summaries.size());
+        StreamSummary summary = summaries.get(0);
+        assertEquals("bot", summary.getApp());
+        assertEquals(4, summary.getEvents());
+        assertEquals(3, summary.getTokens());
+        assertNull(summary.getError());
+        assertTrue(millis(summary.getTimeToFirstTokenNanos()) >= 55, "ttft " + millis(summary.getTimeToFirstTokenNanos()));
+        assertTrue(millis(summary.getDurationNanos()) >= 105);
+        assertTrue(millis(summary.getMaxInterTokenNanos()) >= 15);
+        // Two tokens after the first within about 40 ms, i.e. about 50 tokens per second
+        assertTrue(summary.getTokensPerSecond() > 20 && summary.getTokensPerSecond() < 200, "tokens/s " + summary.getTokensPerSecond());
+
+        StreamMetrics.AppStreamMetrics app = metrics.getApp("bot");
+        assertEquals(1, app.getStreams());
+        assertEquals(1, app.getTimeToFirstToken().getCount());
+        assertEquals(2, app.getInterToken().getCount());
+        assertEquals(summary.getTokensPerSecond(), app.getTokensPerSecond(), 0.001);
+    }
+
+    /**
+     * Tests that failed workflow streams are counted and only ended once.
+     */
+    @Test
+    public void testWorkflowStreamFailure() {
+        StreamMetrics metrics = new StreamMetrics();
+        List<Throwable> errors = new ArrayList<>();
+
+        String stream = "data: {\"event\":\"workflow_started\",\"data\":{\"id\":\"r1\"}}\n\n"
+                + "data: {\"event\":\"text_chunk\",\"data\":{\"text\":\"a\"}}\n\n"
+                + "data: not json\n\n";
+        new WorkflowEventParser().readAll(new SseReader(new Buffer().writeUtf8(stream)),
+                metrics.trackWorkflow("flow", new WorkflowEventListener() {
+                    @Override
+                    public void onEvent(WorkflowEvent event) {
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        errors.add(error);
+                    }
+                }));
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IOException);
+        StreamMetrics.AppStreamMetrics app = metrics.getApp("flow");
+        assertEquals(1, app.getStreams());
+        assertEquals(1, app.getFailures());
+        assertEquals(1, app.getTimeToFirstToken().getCount());
+        assertEquals(0, app.getInterToken().getCount());
+
+        StreamMetrics.StreamTracker tracker = metrics.start("flow");
+        StreamSummary summary = tracker.complete();
+        assertSame(summary, tracker.fail(new IOException()));
+        assertEquals(-1, summary.getTimeToFirstTokenNanos());
+        assertEquals(2, app.getStreams());
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
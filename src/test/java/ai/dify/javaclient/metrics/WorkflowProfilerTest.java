@@ -0,0 +1,163 @@
+package ai.dify.javaclient.metrics;
+
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the WorkflowProfiler class.
+ */
+class WorkflowProfilerTest {
+
+    /**
+     * Tests node timings, tokens and the critical path of a run with parallel branches.
+     */
+    @Test
+    public void testProfile() {
+        List<WorkflowProfile> profiles = new ArrayList<>();
+        WorkflowProfiler profiler = new WorkflowProfiler(profiles::add);
+        List<String> events = new ArrayList<>();
+
+        run(profiler, events, "failed");
+
+        assertEquals(9, events.size());
+        assertEquals(1, profiles.size());
+        WorkflowProfile profile = profiles.get(0);
+        assertEquals("flow", profile.getApp());
+        assertEquals("run-1", profile.getWorkflowRunId());
+        assertEquals("succeeded", profile.getStatus());
+        assertEquals(120, profile.getTotalTokens());
+        assertNull(profile.getError());
+        assertEquals(4, profile.getNodes().size());
+
+        NodeTiming llm = profile.getNodes().get(2);
+        assertEquals("llm", llm.getNodeId());
+        assertEquals("llm", llm.getNodeType());
+        assertEquals("Summarize", llm.getTitle());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), llm.getElapsedNanos());
+        assertEquals(100, llm.getTotalTokens());
+        assertTrue(llm.getStartOffsetNanos() >= 0);
+
+        assertEquals(Arrays.asList("start", "llm", "end"),
+                profile.getCriticalPath().stream().map(NodeTiming::getNodeId).collect(Collectors.toList()));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(530), profile.getCriticalPathNanos());
+    }
+
+    /**
+     * Tests that node metrics aggregate over runs.
+     */
+    @Test
+    public void testAggregation() {
+        WorkflowProfiler profiler = new WorkflowProfiler();
+        run(profiler, new ArrayList<>(), "succeeded");
+        run(profiler, new ArrayList<>(), "failed");
+
+        Map<String, WorkflowProfiler.NodeMetrics> nodes = profiler.getNodes("flow");
+        assertEquals(Arrays.asList("code", "end", "llm", "start"), new ArrayList<>(nodes.keySet()));
+        WorkflowProfiler.NodeMetrics llm = nodes.get("llm");
+        assertEquals("Summarize", llm.getTitle());
+        assertEquals(2, llm.getExecutions());
+        assertEquals(200, llm.getTokens());
+        assertEquals(2, llm.getCriticalPathCount());
+        assertEquals(500, llm.getElapsed().percentile(50, TimeUnit.MILLISECONDS), 500 * 0.05);
+
+        WorkflowProfiler.NodeMetrics code = nodes.get("code");
+        assertEquals(1, code.getFailures());
+        assertEquals(0, code.getCriticalPathCount());
+        assertTrue(profiler.getNodes("other").isEmpty());
+    }
+
+    /**
+     * Tests that a failed stream still ends its profile, once, with the nodes finished so far.
+     */
+    @Test
+    public void testStreamFailure() {
+        List<WorkflowProfile> profiles = new ArrayList<>();
+        WorkflowProfiler profiler = new WorkflowProfiler(profiles::add);
+
+        String stream = nodeFinished("start", null, 0.01, 0) + "data: not json\n\n";
+        new WorkflowEventParser().readAll(new SseReader(new Buffer().writeUtf8(stream)), profiler.profile("flow", event -> {
+        }));
+
+        assertEquals(1, profiles.size());
+        assertNotNull(profiles.get(0).getError());
+        assertNull(profiles.get(0).getStatus());
+        assertEquals(1, profiles.get(0).getCriticalPath().size());
+    }
+
+    /**
+     * Tests that predecessors forming a loop do not hang the critical path computation.
+     */
+    @Test
+    public void testCriticalPathLoop() {
+        NodeTiming a = new NodeTiming("a", null, null, "b", "succeeded", -1, 10, 0);
+        NodeTiming b = new NodeTiming("b", null, null, "a", "succeeded", -1, 20, 0);
+        assertEquals(2, WorkflowProfiler.criticalPath(Arrays.asList(a, b)).size());
+        assertTrue(WorkflowProfiler.criticalPath(new ArrayList<>()).isEmpty());
+    }
+
+    /**
+     * Tests that predecessors forming a loop put each node on the critical path once.
+     */
+    @Test
+    public void testCriticalPathCycleCountsNodesOnce() {
+        List<WorkflowProfile> profiles = new ArrayList<>();
+        WorkflowProfiler profiler = new WorkflowProfiler(profiles::add);
+        String stream = nodeFinished("start", null, 0.01, 0)
+                + nodeFinished("a", "b", 0.1, 0)
+                + nodeFinished("b", "a", 0.2, 0)
+                + "data: {\"event\":\"workflow_finished\",\"workflow_run_id\":\"run-1\",\"data\":{\"id\":\"run-1\","
+                + "\"status\":\"succeeded\"}}\n\n";
+        new WorkflowEventParser().readAll(new SseReader(new Buffer().writeUtf8(stream)), profiler.profile("flow", event -> {
+        }));
+
+        WorkflowProfile profile = profiles.get(0);
+        assertEquals(Arrays.asList("b", "a"),
+                profile.getCriticalPath().stream().map(NodeTiming::getNodeId).collect(Collectors.toList()));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300), profile.getCriticalPathNanos());
+        Map<String, WorkflowProfiler.NodeMetrics> nodes = profiler.getNodes("flow");
+        assertEquals(1, nodes.get("a").getCriticalPathCount());
+        assertEquals(1, nodes.get("b").getCriticalPathCount());
+        assertEquals(0, nodes.get("start").getCriticalPathCount());
+    }
+
+    private static void run(WorkflowProfiler profiler, List<String> events, String codeStatus) {
+        String stream = "data: {\"event\":\"workflow_started\",\"workflow_run_id\":\"run-1\",\"data\":{\"id\":\"run-1\"}}\n\n"
+                + nodeStarted("start")
+                + nodeFinished("start", null, 0.01, 0)
+                + nodeStarted("llm")
+                + "data: {\"event\":\"node_finished\",\"workflow_run_id\":\"run-1\",\"data\":{\"id\":\"exec-code\",\"node_id\":\"code\","
+                + "\"node_type\":\"code\",\"predecessor_node_id\":\"start\",\"status\":\"" + codeStatus + "\",\"elapsed_time\":0.1}}\n\n"
+                + "data: {\"event\":\"node_finished\",\"workflow_run_id\":\"run-1\",\"data\":{\"id\":\"exec-llm\",\"node_id\":\"llm\","
+                + "\"node_type\":\"llm\",\"title\":\"Summarize\",\"predecessor_node_id\":\"start\",\"status\":\"succeeded\","
+                + "\"elapsed_time\":0.5,\"execution_metadata\":{\"total_tokens\":100}}}\n\n"
+                + nodeStarted("end")
+                + nodeFinished("end", "llm", 0.02, 20)
+                + "data: {\"event\":\"workflow_finished\",\"workflow_run_id\":\"run-1\",\"data\":{\"id\":\"run-1\","
+                + "\"status\":\"succeeded\",\"total_tokens\":120}}\n\n";
+        new WorkflowEventParser().readAll(new SseReader(new Buffer().writeUtf8(stream)),
+                profiler.profile("flow", event -> events.add(event.getEvent())));
+    }
+
+    private static String nodeStarted(String nodeId) {
+        return "data: {\"event\":\"node_started\",\"workflow_run_id\":\"run-1\",\"data\":{\"id\":\"exec-" + nodeId
+                + "\",\"node_id\":\"" + nodeId + "\",\"node_type\":\"" + nodeId + "\"}}\n\n";
+    }
+
+    private static String nodeFinished(String nodeId, String predecessor, double elapsed, int tokens) {
+        return "data: {\"event\":\"node_finished\",\"workflow_run_id\":\"run-1\",\"data\":{\"id\":\"exec-" + nodeId
+                + "\",\"node_id\":\"" + nodeId + "\",\"node_type\":\"" + nodeId + "\",\"predecessor_node_id\":"
+                + (predecessor != null ? "\"" + predecessor + "\"" : "null") + ",\"status\":\"succeeded\",\"elapsed_time\":" + elapsed
+                + ",\"execution_metadata\":{\"total_tokens\":" + tokens + "}}}\n\n";
+    }
+}
@@ -0,0 +1,106 @@
+package ai.dify.javaclient.polling;
+
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * This class contains unit tests for the WorkflowStatusPoller class.
+ */
+class WorkflowStatusPollerTest {
+
+    @Mock
+    private WorkflowClient mockClient;
+
+    private WorkflowStatusPoller poller;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        poller = new WorkflowStatusPoller(mockClient, 10, 40, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        poller.close();
+    }
+
+    /**
+     * Tests that many runs complete once their status turns terminal.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCompletesWhenTerminal() throws Exception {
+        ConcurrentHashMap<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+        when(mockClient.getWorkflowStatusSync(anyString())).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            int count = polls.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+            return run(id, count < 3 ? WorkflowRunResponse.STATUS_RUNNING : WorkflowRunResponse.STATUS_SUCCEEDED);
+        });
+
+        List<CompletableFuture<WorkflowRunResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(poller.track("run-" + i));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            WorkflowRunResponse response = futures.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals("run-" + i, response.getWorkflow_run_id());
+            assertEquals(WorkflowRunResponse.STATUS_SUCCEEDED, response.getData().getStatus());
+            assertEquals(3, polls.get("run-" + i).get());
+        }
+        assertEquals(0, poller.getTrackedCount());
+    }
+
+    /**
+     * Tests that tracking the same run twice shares one future.
+     */
+    @Test
+    public void testTrackIsIdempotent() throws Exception {
+        when(mockClient.getWorkflowStatusSync("run-1")).thenReturn(run("run-1", WorkflowRunResponse.STATUS_RUNNING));
+
+        CompletableFuture<WorkflowRunResponse> first = poller.track("run-1");
+        assertSame(first, poller.track("run-1"));
+        first.cancel(false);
+        assertEquals(0, poller.getTrackedCount());
+    }
+
+    /**
+     * Tests that repeated failures fail the future.
+     */
+    @Test
+    public void testFailsAfterConsecutiveErrors() throws Exception {
+        when(mockClient.getWorkflowStatusSync("run-1")).thenThrow(new DifyClientException("Request failed with status: 404"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> poller.track("run-1").get(10, TimeUnit.SECONDS));
+        assertInstanceOf(DifyClientException.class, e.getCause());
+        verify(mockClient, times(WorkflowStatusPoller.MAX_CONSECUTIVE_FAILURES)).getWorkflowStatusSync("run-1");
+    }
+
+    private static WorkflowRunResponse run(String id, String status) {
+        WorkflowRunResponse.WorkflowRunData data = new WorkflowRunResponse.WorkflowRunData();
+        data.setId(id);
+        data.setStatus(status);
+        WorkflowRunResponse response = new WorkflowRunResponse();
+        response.setWorkflow_run_id(id);
+        response.setData(data);
+        return response;
+    }
+}
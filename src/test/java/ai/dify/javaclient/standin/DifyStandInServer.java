@@ -0,0 +1,687 @@
+package ai.dify.javaclient.standin;
+
+import ai.dify.javaclient.helper.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the Dify API, for offline tests and load tests of the SDK.
+ * <p>
+ * Serves {@code /chat-messages}, {@code /chat-messages/{id}/stop}, {@code /completion-messages}, {@code /workflows/run},
+ * {@code /workflows/run/{id}}, {@code /workflows/tasks/{id}/stop}, {@code /messages},
+ * {@code /conversations} and {@code /files/upload} under {@link #getBaseUrl()}, in blocking and streaming mode.
+ * Response latency, the pacing of streamed events and injected failures are configurable
+ * at any time and apply to the following requests.
+ * </p>
+ * <p>
+ * Conversation history is synthetic: every user has {@link #conversations(int)}
+ * conversations {@code conv-0..n}, each with {@link #historySize(int)} messages
+ * {@code <conversation>-msg-0..n}, oldest first.
+ * </p>
+ * <p>
+ * A streamed answer or workflow run ends early once its task is stopped, as the generation
+ * does on Dify.
+ * </p>
+ */
+public class DifyStandInServer implements AutoCloseable {
+
+    static {
+        // Without TCP_NODELAY, small streamed events wait for delayed ACKs and inflate time to first event
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ObjectMapper mapper = JsonUtil.buildMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private volatile LatencyDistribution latency = LatencyDistribution.fixed(0);
+    private volatile LatencyDistribution eventInterval = LatencyDistribution.fixed(0);
+    private volatile int streamChunks = 20;
+    private volatile double errorRate;
+    private volatile double rateLimitRate;
+    private volatile int historySize = 50;
+    private volatile int conversations = 5;
+    private volatile boolean gzip;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong stopRequests = new AtomicLong();
+    private final AtomicLong gzipRequests = new AtomicLong();
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final Map<String, byte[]> uploads = new ConcurrentHashMap<>();
+    private final Set<String> stoppedTasks = ConcurrentHashMap.newKeySet();
+    private volatile String lastTraceId;
+
+    private DifyStandInServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "dify-stand-in-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/v1/chat-messages", exchange -> handle(exchange, this::chatMessage));
+        server.createContext("/v1/completion-messages", exchange -> handle(exchange, this::completionMessage));
+        server.createContext("/v1/workflows/run", exchange -> handle(exchange, this::workflowRun));
+        server.createContext("/v1/workflows/tasks", exchange -> handle(exchange, this::stopTask));
+        server.createContext("/v1/messages", exchange -> handle(exchange, this::messages));
+        server.createContext("/v1/conversations", exchange -> handle(exchange, this::conversations));
+        server.createContext("/v1/files/upload", exchange -> handle(exchange, this::uploadFile));
+        server.createContext("/", this::notFound);
+    }
+
+    /**
+     * Starts a stand-in server on an ephemeral loopback port.
+     *
+     * @return The running server.
+     * @throws IOException If the server cannot be started.
+     */
+    public static DifyStandInServer start() throws IOException {
+        DifyStandInServer standIn = new DifyStandInServer();
+        standIn.server.start();
+        return standIn;
+    }
+
+    /**
+     * @return The base URL to construct SDK clients with.
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1";
+    }
+
+    /**
+     * Sets the delay before a response (or the first streamed event) is sent.
+     */
+    public DifyStandInServer latency(LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Sets the delay between two streamed events.
+     */
+    public DifyStandInServer eventInterval(LatencyDistribution eventInterval) {
+        this.eventInterval = eventInterval;
+        return this;
+    }
+
+    /**
+     * Sets the number of text chunks in a streamed answer.
+     */
+    public DifyStandInServer streamChunks(int streamChunks) {
+        this.streamChunks = streamChunks;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of requests answered with {@code 500}.
+     */
+    public DifyStandInServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of requests answered with {@code 429} and {@code Retry-After}.
+     */
+    public DifyStandInServer rateLimitRate(double rateLimitRate) {
+        this.rateLimitRate = rateLimitRate;
+        return this;
+    }
+
+    /**
+     * Sets the number of messages in every conversation.
+     */
+    public DifyStandInServer historySize(int historySize) {
+        this.historySize = historySize;
+        return this;
+    }
+
+    /**
+     * Sets the number of conversations of every user.
+     */
+    public DifyStandInServer conversations(int conversations) {
+        this.conversations = conversations;
+        return this;
+    }
+
+    /**
+     * Sets whether responses are gzip-compressed for clients accepting it.
+     */
+    public DifyStandInServer gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * @return The number of requests received, including failed ones.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return The number of workflow and chat message stop requests received.
+     */
+    public long getStopRequestCount() {
+        return stopRequests.get();
+    }
+
+    /**
+     * @param taskId The task ID of a streamed answer or workflow run.
+     * @return Whether the task was stopped.
+     */
+    public boolean isStopped(String taskId) {
+        return stoppedTasks.contains(taskId);
+    }
+
+    /**
+     * @return The number of requests received with a gzip-encoded body.
+     */
+    public long getGzipRequestCount() {
+        return gzipRequests.get();
+    }
+
+    /**
+     * @param id The ID of an uploaded file.
+     * @return The content of the file, or {@code null} if no file has this ID.
+     */
+    public byte[] getUpload(String id) {
+        return uploads.get(id);
+    }
+
+    /**
+     * @return The number of streaming responses currently being written.
+     */
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    /**
+     * @return The {@code X-Trace-Id} header of the latest request, or {@code null} if it had none.
+     */
+    public String getLastTraceId() {
+        return lastTraceId;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        void serve(HttpExchange exchange, Random random) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        requests.incrementAndGet();
+        lastTraceId = exchange.getRequestHeaders().getFirst("X-Trace-Id");
+        try {
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization == null || !authorization.startsWith("Bearer ")) {
+                sendError(exchange, 401, "unauthorized", "Access token is invalid");
+                return;
+            }
+            Random random = ThreadLocalRandom.current();
+            double roll = random.nextDouble();
+            if (roll < rateLimitRate) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 429, "too_many_requests", "Too many requests");
+                return;
+            }
+            if (roll < rateLimitRate + errorRate) {
+                sendError(exchange, 500, "internal_server_error", "Injected failure");
+                return;
+            }
+            endpoint.serve(exchange, random);
+        } catch (IOException e) {
+            // The client went away, e.g. it cancelled a stream
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void chatMessage(HttpExchange exchange, Random random) throws IOException {
+        if (exchange.getRequestURI().getPath().endsWith("/stop")) {
+            stopTask(exchange, random);
+            return;
+        }
+        answer(exchange, random, "chat");
+    }
+
+    private void completionMessage(HttpExchange exchange, Random random) throws IOException {
+        answer(exchange, random, "completion");
+    }
+
+    private void answer(HttpExchange exchange, Random random, String mode) throws IOException {
+        JsonNode request = readBody(exchange);
+        String taskId = UUID.randomUUID().toString();
+        String messageId = UUID.randomUUID().toString();
+        String conversationId = request.path("conversation_id").asText(UUID.randomUUID().toString());
+        sleep(latency.nextMillis(random));
+
+        if (isStreaming(request)) {
+            try (OutputStream out = startStream(exchange)) {
+                for (int i = 0; i < streamChunks; i++) {
+                    if (stoppedTasks.contains(taskId)) {
+                        return;
+                    }
+                    ObjectNode event = messageEvent("message", taskId, messageId, conversationId);
+                    event.put("answer", "token" + i + " ");
+                    writeEvent(out, event);
+                    sleep(eventInterval.nextMillis(random));
+                }
+                ObjectNode end = messageEvent("message_end", taskId, messageId, conversationId);
+                end.set("metadata", metadata());
+                writeEvent(out, end);
+            } finally {
+                activeStreams.decrementAndGet();
+            }
+            return;
+        }
+
+        ObjectNode response = messageEvent("message", taskId, messageId, conversationId);
+        response.put("mode", mode);
+        StringBuilder answer = new StringBuilder();
+        for (int i = 0; i < streamChunks; i++) {
+            answer.append("token").append(i).append(' ');
+        }
+        response.put("answer", answer.toString());
+        response.set("metadata", metadata());
+        sendJson(exchange, 200, response);
+    }
+
+    private void workflowRun(HttpExchange exchange, Random random) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if ("GET".equals(exchange.getRequestMethod())) {
+            // GET /workflows/run/{workflowRunId}
+            String workflowRunId = path.substring(path.lastIndexOf('/') + 1);
+            sleep(latency.nextMillis(random));
+            sendJson(exchange, 200, workflowRunData(workflowRunId));
+            return;
+        }
+
+        JsonNode request = readBody(exchange);
+        String taskId = UUID.randomUUID().toString();
+        String workflowRunId = UUID.randomUUID().toString();
+        sleep(latency.nextMillis(random));
+
+        if (isStreaming(request)) {
+            try (OutputStream out = startStream(exchange)) {
+                ObjectNode started = workflowEvent("workflow_started", taskId, workflowRunId);
+                started.putObject("data").put("id", workflowRunId).put("workflow_id", "stand-in-workflow")
+                        .put("created_at", System.currentTimeMillis() / 1000);
+                writeEvent(out, started);
+
+                ObjectNode nodeStarted = workflowEvent("node_started", taskId, workflowRunId);
+                ObjectNode nodeStartedData = nodeStarted.putObject("data").put("id", "node-run-1").put("node_id", "llm")
+                        .put("node_type", "llm").put("title", "LLM").put("index", 1);
+                nodeStartedData.set("inputs", request.path("inputs"));
+                writeEvent(out, nodeStarted);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < streamChunks; i++) {
+                    sleep(eventInterval.nextMillis(random));
+                    if (stoppedTasks.contains(taskId)) {
+                        return;
+                    }
+                    ObjectNode chunk = workflowEvent("text_chunk", taskId, workflowRunId);
+                    ObjectNode data = chunk.putObject("data").put("text", "token" + i + " ");
+                    data.putArray("from_variable_selector").add("llm").add("text");
+                    writeEvent(out, chunk);
+                }
+                double elapsed = (System.nanoTime() - start) / 1e9;
+
+                ObjectNode nodeFinished = workflowEvent("node_finished", taskId, workflowRunId);
+                ObjectNode nodeFinishedData = nodeFinished.putObject("data").put("id", "node-run-1").put("node_id", "llm")
+                        .put("node_type", "llm").put("index", 1).put("status", "succeeded").put("elapsed_time", elapsed);
+                nodeFinishedData.set("inputs", request.path("inputs"));
+                nodeFinishedData.putObject("outputs").put("text", "stand-in answer");
+                nodeFinishedData.putObject("execution_metadata").put("total_tokens", 120).put("total_price", "0.00024").put("currency", "USD");
+                writeEvent(out, nodeFinished);
+
+                ObjectNode finished = workflowEvent("workflow_finished", taskId, workflowRunId);
+                finished.set("data", workflowRunData(workflowRunId).put("elapsed_time", elapsed));
+                writeEvent(out, finished);
+            } finally {
+                activeStreams.decrementAndGet();
+            }
+            return;
+        }
+
+        ObjectNode response = mapper.createObjectNode();
+        response.put("workflow_run_id", workflowRunId);
+        response.put("task_id", taskId);
+        response.set("data", workflowRunData(workflowRunId));
+        sendJson(exchange, 200, response);
+    }
+
+    private void stopTask(HttpExchange exchange, Random random) throws IOException {
+        // POST /workflows/tasks/{taskId}/stop or /chat-messages/{taskId}/stop
+        readBody(exchange);
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        stoppedTasks.add(path[path.length - 2]);
+        stopRequests.incrementAndGet();
+        sendJson(exchange, 200, mapper.createObjectNode().put("result", "success"));
+    }
+
+    private void messages(HttpExchange exchange, Random random) throws IOException {
+        Map<String, String> query = queryParams(exchange);
+        String conversationId = query.get("conversation_id");
+        int limit = Integer.parseInt(query.getOrDefault("limit", "20"));
+        int end = historySize;
+        String firstId = query.get("first_id");
+        if (firstId != null) {
+            end = Integer.parseInt(firstId.substring(firstId.lastIndexOf('-') + 1));
+        }
+        int start = Math.max(0, end - limit);
+        sleep(latency.nextMillis(random));
+
+        ObjectNode page = mapper.createObjectNode();
+        page.put("limit", limit);
+        page.put("has_more", start > 0);
+        ArrayNode data = page.putArray("data");
+        for (int i = start; i < end; i++) {
+            ObjectNode message = data.addObject()
+                    .put("id", conversationId + "-msg-" + i)
+                    .put("conversation_id", conversationId)
+                    .put("query", "question " + i)
+                    .put("answer", "answer " + i)
+                    .put("status", "normal")
+                    .put("created_at", 1705407629L + i);
+            message.putObject("feedback").put("rating", "like");
+            message.putArray("retriever_resources").addObject()
+                    .put("position", 1)
+                    .put("dataset_id", "stand-in-dataset")
+                    .put("dataset_name", "Stand-in knowledge")
+                    .put("document_id", "stand-in-document")
+                    .put("document_name", "handbook.pdf")
+                    .put("segment_id", "segment-" + i)
+                    .put("score", 0.9)
+                    .put("content", "segment " + i);
+        }
+        sendJson(exchange, 200, page);
+    }
+
+    private void conversations(HttpExchange exchange, Random random) throws IOException {
+        Map<String, String> query = queryParams(exchange);
+        int limit = Integer.parseInt(query.getOrDefault("limit", "20"));
+        int start = 0;
+        String lastId = query.containsKey("last_id") ? query.get("last_id") : query.get("first_id");
+        if (lastId != null) {
+            start = Integer.parseInt(lastId.substring(lastId.lastIndexOf('-') + 1)) + 1;
+        }
+        int end = Math.min(conversations, start + limit);
+        sleep(latency.nextMillis(random));
+
+        ObjectNode page = mapper.createObjectNode();
+        page.put("limit", limit);
+        page.put("has_more", end < conversations);
+        ArrayNode data = page.putArray("data");
+        for (int i = start; i < end; i++) {
+            data.addObject()
+                    .put("id", "conv-" + i)
+                    .put("name", "Conversation " + i)
+                    .put("status", "normal")
+                    .put("created_at", 1705407629L + i);
+        }
+        sendJson(exchange, 200, page);
+    }
+
+    private void notFound(HttpExchange exchange) throws IOException {
+        // Like Dify, answer unknown paths without closing the connection, e.g. warm-up requests
+        try {
+            drain(exchange);
+            exchange.sendResponseHeaders(404, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void uploadFile(HttpExchange exchange, Random random) throws IOException {
+        // POST /files/upload, multipart with the parts "file" and "user"
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        int boundary = contentType != null ? contentType.indexOf("boundary=") : -1;
+        if (boundary < 0) {
+            sendError(exchange, 400, "no_file_uploaded", "Please upload your file.");
+            return;
+        }
+        byte[] delimiter = ("\r\n--" + contentType.substring(boundary + "boundary=".length())).getBytes(StandardCharsets.ISO_8859_1);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        buffer.write('\r');
+        buffer.write('\n');
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] chunk = new byte[65536];
+            int n;
+            while ((n = in.read(chunk)) >= 0) {
+                buffer.write(chunk, 0, n);
+            }
+        }
+        byte[] body = buffer.toByteArray();
+
+        String fileName = null;
+        String mimeType = null;
+        byte[] file = null;
+        int part = indexOf(body, delimiter, 0);
+        while (part >= 0) {
+            int headersStart = part + delimiter.length + 2;
+            int headersEnd = indexOf(body, "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1), headersStart);
+            int next = headersEnd >= 0 ? indexOf(body, delimiter, headersEnd + 4) : -1;
+            if (next < 0) {
+                break;
+            }
+            String headers = new String(body, headersStart, headersEnd - headersStart, StandardCharsets.UTF_8);
+            if (headers.contains("name=\"file\"")) {
+                int nameStart = headers.indexOf("filename=\"") + "filename=\"".length();
+                fileName = headers.substring(nameStart, headers.indexOf('"', nameStart));
+                int typeStart = headers.indexOf("Content-Type: ");
+                mimeType = typeStart >= 0 ? headers.substring(typeStart + "Content-Type: ".length()).split("\r\n")[0] : null;
+                file = Arrays.copyOfRange(body, headersEnd + 4, next);
+            }
+            part = next;
+        }
+        if (file == null) {
+            sendError(exchange, 400, "no_file_uploaded", "Please upload your file.");
+            return;
+        }
+
+        sleep(latency.nextMillis(random));
+        String id = UUID.randomUUID().toString();
+        uploads.put(id, file);
+        ObjectNode response = mapper.createObjectNode();
+        response.put("id", id);
+        response.put("name", fileName);
+        response.put("size", file.length);
+        response.put("extension", fileName.substring(fileName.lastIndexOf('.') + 1));
+        response.put("mime_type", mimeType);
+        response.put("created_by", "stand-in-user");
+        response.put("created_at", System.currentTimeMillis() / 1000);
+        sendJson(exchange, 201, response);
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private ObjectNode messageEvent(String event, String taskId, String messageId, String conversationId) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("event", event);
+        node.put("task_id", taskId);
+        node.put("id", messageId);
+        node.put("message_id", messageId);
+        node.put("conversation_id", conversationId);
+        node.put("created_at", System.currentTimeMillis() / 1000);
+        return node;
+    }
+
+    private ObjectNode workflowEvent(String event, String taskId, String workflowRunId) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("event", event);
+        node.put("task_id", taskId);
+        node.put("workflow_run_id", workflowRunId);
+        return node;
+    }
+
+    private ObjectNode workflowRunData(String workflowRunId) {
+        ObjectNode data = mapper.createObjectNode();
+        data.put("id", workflowRunId);
+        data.put("workflow_id", "stand-in-workflow");
+        data.put("status", "succeeded");
+        data.putObject("outputs").put("text", "stand-in answer");
+        data.put("elapsed_time", 0.0);
+        data.put("total_tokens", 120);
+        data.put("total_steps", 2);
+        data.put("created_at", System.currentTimeMillis() / 1000);
+        data.put("finished_at", System.currentTimeMillis() / 1000);
+        return data;
+    }
+
+    private ObjectNode metadata() {
+        ObjectNode metadata = mapper.createObjectNode();
+        metadata.putObject("usage")
+                .put("prompt_tokens", 100).put("prompt_unit_price", "0.001").put("prompt_price_unit", "0.001").put("prompt_price", "0.0001000")
+                .put("completion_tokens", 20).put("completion_unit_price", "0.002").put("completion_price_unit", "0.001").put("completion_price", "0.0000400")
+                .put("total_tokens", 120).put("total_price", "0.0001400").put("currency", "USD").put("latency", 0.5);
+        metadata.putArray("retriever_resources");
+        return metadata;
+    }
+
+    private boolean isStreaming(JsonNode request) {
+        return "streaming".equals(request.path("response_mode").asText());
+    }
+
+    private boolean acceptsGzip(HttpExchange exchange) {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        return gzip && acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        InputStream requestBody = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            gzipRequests.incrementAndGet();
+            requestBody = new GZIPInputStream(requestBody);
+        }
+        try (InputStream in = requestBody) {
+            JsonNode body = mapper.readTree(in);
+            return body != null ? body : mapper.createObjectNode();
+        }
+    }
+
+    private Map<String, String> queryParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return params;
+    }
+
+    private OutputStream startStream(HttpExchange exchange) throws IOException {
+        activeStreams.incrementAndGet();
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (acceptsGzip(exchange)) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, 0);
+            // Sync flush, so every flushed event reaches the client
+            return new GZIPOutputStream(exchange.getResponseBody(), true);
+        }
+        exchange.sendResponseHeaders(200, 0);
+        return exchange.getResponseBody();
+    }
+
+    private void writeEvent(OutputStream out, JsonNode event) throws IOException {
+        out.write(("data: " + mapper.writeValueAsString(event) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (acceptsGzip(exchange)) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(status, 0);
+            try (OutputStream out = new GZIPOutputStream(exchange.getResponseBody())) {
+                out.write(bytes);
+            }
+            return;
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, int status, String code, String message) throws IOException {
+        drain(exchange);
+        sendJson(exchange, status, mapper.createObjectNode().put("status", status).put("code", code).put("message", message));
+    }
+
+    private void drain(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) >= 0) {
+                // Discard the request body so the connection can be reused
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ai.dify.javaclient.standin;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.ConversationMessagesResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.dto.WorkflowRunResponse;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class drives the SDK against the DifyStandInServer.
+ */
+class DifyStandInServerTest {
+
+    private DifyStandInServer server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = DifyStandInServer.start().streamChunks(5).historySize(25);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests blocking chat messages.
+     */
+    @Test
+    public void testChatBlocking() throws Exception {
+        ChatClient client = new ChatClient("key", server.getBaseUrl());
+
+        ChatMessageResponse response = client.createChatMessageSync("", "hello", "user", "conv-1");
+
+        assertEquals("conv-1", response.getConversation_id());
+        assertEquals("token0 token1 token2 token3 token4 ", response.getAnswer());
+    }
+
+    /**
+     * Tests that a streamed workflow run yields the full event sequence.
+     */
+    @Test
+    public void testWorkflowStreaming() throws Exception {
+        WorkflowClient client = new WorkflowClient("key", server.getBaseUrl());
+        WorkflowEventParser parser = new WorkflowEventParser();
+
+        List<String> events = new ArrayList<>();
+        Response response = client.runWorkflow(Collections.singletonMap("query", "hello"), "user", true);
+        try (SseReader reader = new SseReader(response.body().source())) {
+            WorkflowEvent event;
+            while ((event = parser.read(reader)) != null) {
+                events.add(event.getEvent());
+            }
+        }
+
+        assertEquals(9, events.size());
+        assertEquals(WorkflowEvent.EVENT_WORKFLOW_STARTED, events.get(0));
+        assertEquals(WorkflowEvent.EVENT_TEXT_CHUNK, events.get(2));
+        assertEquals(WorkflowEvent.EVENT_WORKFLOW_FINISHED, events.get(8));
+        assertEquals(0, server.getActiveStreams());
+    }
+
+    /**
+     * Tests that workflow status is served for any run ID.
+     */
+    @Test
+    public void testWorkflowStatus() throws Exception {
+        WorkflowClient client = new WorkflowClient("key", server.getBaseUrl());
+
+        WorkflowRunResponse response = client.getWorkflowStatusSync("run-1");
+
+        assertEquals("run-1", response.getData().getId());
+        assertEquals(WorkflowRunResponse.STATUS_SUCCEEDED, response.getData().getStatus());
+    }
+
+    /**
+     * Tests paging backward through conversation history with first_id.
+     */
+    @Test
+    public void testConversationMessagesPaging() throws Exception {
+        ChatClient client = new ChatClient("key", server.getBaseUrl());
+
+        ConversationMessagesResponse newest = client.getConversationMessagesSync("user", "conv-0", null, 20);
+        assertEquals(20, newest.getData().size());
+        assertEquals("conv-0-msg-5", newest.getData().get(0).getId());
+        assertTrue(newest.isHas_more());
+
+        ConversationMessagesResponse older = client.getConversationMessagesSync("user", "conv-0", "conv-0-msg-5", 20);
+        assertEquals(5, older.getData().size());
+        assertEquals("conv-0-msg-0", older.getData().get(0).getId());
+        assertFalse(older.isHas_more());
+    }
+
+    /**
+     * Tests that injected rate limiting surfaces as a request exception.
+     */
+    @Test
+    public void testRateLimited() {
+        server.rateLimitRate(1.0);
+        ChatClient client = new ChatClient("key", server.getBaseUrl());
+
+        DifyClientException e = assertThrows(DifyClientException.class,
+                () -> client.createChatMessageSync("", "hello", "user", null));
+        assertTrue(e.getMessage().contains("429"));
+    }
+
+    /**
+     * Tests a short load run with injected failures.
+     */
+    @Test
+    public void testLoadGenerator() throws Exception {
+        server.errorRate(0.1).latency(LatencyDistribution.uniform(1, 5));
+        LoadGenerator generator = new LoadGenerator(server.getBaseUrl(), "key", LoadGenerator.Scenario.CHAT_STREAMING, 4);
+
+        LoadGenerator.Report report = generator.run(200);
+
+        assertEquals(200, report.getRequests());
+        assertTrue(report.getErrors() > 0 && report.getErrors() < 60, "errors: " + report.getErrors());
+        assertTrue(report.latencyMillis(99) >= report.latencyMillis(50));
+        assertTrue(report.firstEventMillis(50) > 0);
+        assertEquals(200, server.getRequestCount());
+    }
+}
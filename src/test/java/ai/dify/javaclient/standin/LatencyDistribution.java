@@ -0,0 +1,50 @@
+package ai.dify.javaclient.standin;
+
+import java.util.Random;
+
+/**
+ * Distribution of simulated delays in milliseconds.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Draws the next delay.
+     *
+     * @param random The random source.
+     * @return The delay in milliseconds.
+     */
+    long nextMillis(Random random);
+
+    /**
+     * @param millis The delay.
+     * @return A distribution that always returns the same delay.
+     */
+    static LatencyDistribution fixed(long millis) {
+        return random -> millis;
+    }
+
+    /**
+     * @param minMillis The smallest delay.
+     * @param maxMillis The largest delay.
+     * @return A distribution of delays uniform between the bounds.
+     */
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+    }
+
+    /**
+     * Log-normal delays, the usual shape of service latency: most requests close to the
+     * median with a long tail.
+     *
+     * @param medianMillis The median delay.
+     * @param p99Millis    The 99th percentile delay.
+     * @return A log-normal distribution with the given median and 99th percentile.
+     */
+    static LatencyDistribution logNormal(double medianMillis, double p99Millis) {
+        double mu = Math.log(medianMillis);
+        // 2.326 is the 99th percentile of the standard normal distribution
+        double sigma = (Math.log(p99Millis) - mu) / 2.326;
+        return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+}
@@ -0,0 +1,301 @@
+package ai.dify.javaclient.standin;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.CompletionClient;
+import ai.dify.javaclient.DifyClient;
+import ai.dify.javaclient.DifyClientException;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the SDK with concurrent requests and reports throughput, latency percentiles and
+ * time to first event.
+ * <p>
+ * All requests share one client, and therefore one connection pool, as an application would.
+ * Latency is measured from sending the request until the response is fully read; time to
+ * first event from sending the request until the first streamed event is parsed.
+ * </p>
+ * <p>
+ * Run it against a local {@link DifyStandInServer} with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=ai.dify.javaclient.standin.LoadGenerator -Dexec.classpathScope=test \
+ *     -Dexec.args="WORKFLOW_STREAMING 32 5000"
+ * </pre>
+ * </p>
+ */
+public class LoadGenerator {
+
+    /**
+     * The kind of request to send.
+     */
+    public enum Scenario {
+        CHAT_BLOCKING,
+        CHAT_STREAMING,
+        COMPLETION_BLOCKING,
+        WORKFLOW_BLOCKING,
+        WORKFLOW_STREAMING
+    }
+
+    private static final String USER = "load-test";
+    private static final Map<String, Object> WORKFLOW_INPUTS = Collections.singletonMap("query", "What is Dify?");
+
+    private final Scenario scenario;
+    private final int threads;
+    private final ChatClient chatClient;
+    private final CompletionClient completionClient;
+    private final WorkflowClient workflowClient;
+    private final WorkflowEventParser eventParser = new WorkflowEventParser();
+
+    /**
+     * Constructs a new LoadGenerator.
+     *
+     * @param baseUrl  The base URL of the API to load.
+     * @param apiKey   The API key to send.
+     * @param scenario The kind of request to send.
+     * @param threads  The number of concurrent callers.
+     */
+    public LoadGenerator(String baseUrl, String apiKey, Scenario scenario, int threads) {
+        this.scenario = scenario;
+        this.threads = threads;
+        OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+                .connectionPool(new ConnectionPool(threads, 5, TimeUnit.MINUTES))
+                .build();
+        this.chatClient = new ChatClient(apiKey, baseUrl, httpClient);
+        this.completionClient = new CompletionClient(apiKey, baseUrl, httpClient);
+        this.workflowClient = new WorkflowClient(apiKey, baseUrl, httpClient);
+    }
+
+    /**
+     * Sends the requests and waits until all have completed.
+     *
+     * @param totalRequests The number of requests to send.
+     * @return The measurements.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public Report run(int totalRequests) throws InterruptedException {
+        Samples latencies = new Samples(totalRequests);
+        Samples firstEvents = new Samples(totalRequests);
+        AtomicInteger remaining = new AtomicInteger(totalRequests);
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    while (remaining.getAndDecrement() > 0) {
+                        long requestStart = System.nanoTime();
+                        try {
+                            long firstEvent = send();
+                            latencies.add(System.nanoTime() - requestStart);
+                            if (firstEvent > 0) {
+                                firstEvents.add(firstEvent - requestStart);
+                            }
+                        } catch (DifyClientException | IOException | RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+        return new Report(scenario, threads, totalRequests, errors.get(), elapsedNanos, latencies, firstEvents);
+    }
+
+    /**
+     * Sends one request and reads the whole response.
+     *
+     * @return The {@link System#nanoTime()} of the first streamed event, or 0 for blocking requests.
+     */
+    private long send() throws DifyClientException, IOException {
+        switch (scenario) {
+            case CHAT_BLOCKING:
+                chatClient.createChatMessageSync("", "What is Dify?", USER, null);
+                return 0;
+            case COMPLETION_BLOCKING:
+                completionClient.createCompletionMessageSync("", "What is Dify?", USER);
+                return 0;
+            case WORKFLOW_BLOCKING:
+                workflowClient.runWorkflowSync(WORKFLOW_INPUTS, USER);
+                return 0;
+            case CHAT_STREAMING:
+                return drainChat(chatClient.createChatMessage("", "What is Dify?", USER, true, null));
+            case WORKFLOW_STREAMING:
+                return drainWorkflow(workflowClient.runWorkflow(WORKFLOW_INPUTS, USER, true));
+            default:
+                throw new IllegalStateException("Unknown scenario " + scenario);
+        }
+    }
+
+    private long drainChat(Response response) throws IOException {
+        try (SseReader reader = new SseReader(response.body().source())) {
+            long firstEvent = 0;
+            while (reader.readEvent() != null) {
+                if (firstEvent == 0) {
+                    firstEvent = System.nanoTime();
+                }
+            }
+            return firstEvent;
+        }
+    }
+
+    private long drainWorkflow(Response response) throws IOException {
+        try (SseReader reader = new SseReader(response.body().source())) {
+            long firstEvent = 0;
+            while (eventParser.read(reader) != null) {
+                if (firstEvent == 0) {
+                    firstEvent = System.nanoTime();
+                }
+            }
+            return firstEvent;
+        }
+    }
+
+    /**
+     * Runs a load test against a local stand-in server.
+     * <p>
+     * Arguments: scenario (default {@code CHAT_STREAMING}), threads (default 16) and number
+     * of requests (default 2000). The server answers after a log-normal delay with a median
+     * of 50 ms and streams 20 events 5 ms apart.
+     * </p>
+     */
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = args.length > 0 ? Scenario.valueOf(args[0]) : Scenario.CHAT_STREAMING;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        try (DifyStandInServer server = DifyStandInServer.start()) {
+            server.latency(LatencyDistribution.logNormal(50, 250))
+                    .eventInterval(LatencyDistribution.fixed(5))
+                    .streamChunks(20);
+            LoadGenerator generator = new LoadGenerator(server.getBaseUrl(), "load-test-key", scenario, threads);
+            // Warm up connections and JIT before measuring
+            generator.run(Math.min(requests, threads * 10));
+            System.out.println(generator.run(requests));
+        }
+    }
+
+    /**
+     * Measurements of a load test run.
+     */
+    public static final class Report {
+        private final Scenario scenario;
+        private final int threads;
+        private final int requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final Samples latencies;
+        private final Samples firstEvents;
+
+        Report(Scenario scenario, int threads, int requests, long errors, long elapsedNanos, Samples latencies, Samples firstEvents) {
+            this.scenario = scenario;
+            this.threads = threads;
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.firstEvents = firstEvents;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return Completed requests per second, failed ones included.
+         */
+        public double getThroughput() {
+            return requests / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @param percentile The percentile, between 0 and 100.
+         * @return The latency of successful requests at the percentile, in milliseconds.
+         */
+        public double latencyMillis(double percentile) {
+            return latencies.percentile(percentile) / 1e6;
+        }
+
+        /**
+         * @param percentile The percentile, between 0 and 100.
+         * @return The time to first event at the percentile, in milliseconds, or 0 for blocking scenarios.
+         */
+        public double firstEventMillis(double percentile) {
+            return firstEvents.percentile(percentile) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("%s, %d threads: %d requests, %d errors in %.1f s%n",
+                    scenario, threads, requests, errors, elapsedNanos / 1e9));
+            report.append(String.format("  throughput     %10.1f req/s%n", getThroughput()));
+            report.append(String.format("  latency        p50 %8.2f ms   p99 %8.2f ms%n", latencyMillis(50), latencyMillis(99)));
+            if (firstEvents.size() > 0) {
+                report.append(String.format("  first event    p50 %8.2f ms   p99 %8.2f ms%n", firstEventMillis(50), firstEventMillis(99)));
+            }
+            return report.toString();
+        }
+    }
+
+    /**
+     * A fixed-capacity collection of durations in nanoseconds.
+     */
+    static final class Samples {
+        private final long[] values;
+        private final AtomicInteger size = new AtomicInteger();
+
+        Samples(int capacity) {
+            this.values = new long[capacity];
+        }
+
+        void add(long nanos) {
+            int index = size.getAndIncrement();
+            if (index < values.length) {
+                values[index] = nanos;
+            }
+        }
+
+        int size() {
+            return Math.min(size.get(), values.length);
+        }
+
+        /**
+         * Nearest-rank percentile. Must only be called once all samples have been added.
+         */
+        long percentile(double percentile) {
+            int count = size();
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * count);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+    }
+}
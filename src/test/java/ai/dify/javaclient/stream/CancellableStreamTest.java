@@ -0,0 +1,254 @@
+package ai.dify.javaclient.stream;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClient;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import ai.dify.javaclient.standin.LatencyDistribution;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for cancelling workflow and chat streams against the stand-in
+ * server.
+ */
+class CancellableStreamTest {
+
+    private static final Map<String, Object> INPUTS = Collections.singletonMap("query", "hello");
+
+    private DifyStandInServer server;
+    private OkHttpClient httpClient;
+    private WorkflowClient workflowClient;
+    private ChatClient chatClient;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // Long enough streams to be cancelled halfway
+        server = DifyStandInServer.start().streamChunks(500).eventInterval(LatencyDistribution.fixed(10));
+        httpClient = DifyClient.defaultHttpClientBuilder().build();
+        workflowClient = new WorkflowClient("test-key", server.getBaseUrl(), httpClient);
+        chatClient = new ChatClient("test-key", server.getBaseUrl(), httpClient);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Tests that cancelling a workflow stream stops the run with the task ID of its first event.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCancelStopsWorkflow() throws Exception {
+        CancellableStream<WorkflowEvent> stream = workflowClient.streamWorkflow(INPUTS, "user");
+        assertEquals(WorkflowEvent.EVENT_WORKFLOW_STARTED, stream.next().getEvent());
+        String taskId = stream.getTaskId();
+        assertNotNull(taskId);
+        stream.next();
+
+        assertTrue(stream.cancel());
+        assertFalse(stream.cancel());
+
+        assertTrue(stream.whenStopped().get(10, TimeUnit.SECONDS));
+        assertTrue(server.isStopped(taskId));
+        assertTrue(stream.isCancelled());
+        assertThrows(CancellationException.class, stream::next);
+        awaitTrue(() -> server.getActiveStreams() == 0);
+        assertEquals(1, server.getStopRequestCount());
+    }
+
+    /**
+     * Tests cancelling a chat stream from another thread while a reader is blocked on it.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCancelWhileReading() throws Exception {
+        server.eventInterval(LatencyDistribution.fixed(200));
+        CancellableStream<ChatMessageResponse> stream = chatClient.streamChatMessage("", "hello", "user", null);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (stream.next() != null) {
+                    // Reads until cancelled
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        awaitTrue(() -> stream.getTaskId() != null);
+
+        stream.cancel();
+        reader.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertInstanceOf(CancellationException.class, failure.get());
+        assertTrue(stream.whenStopped().get(10, TimeUnit.SECONDS));
+        assertTrue(server.isStopped(stream.getTaskId()));
+    }
+
+    /**
+     * Tests that closing a stream early stops its task, while closing a stream read to its end
+     * stops nothing.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testClose() throws Exception {
+        CancellableStream<WorkflowEvent> abandoned;
+        try (CancellableStream<WorkflowEvent> stream = workflowClient.streamWorkflow(INPUTS, "user")) {
+            abandoned = stream;
+            stream.next();
+        }
+        assertTrue(abandoned.whenStopped().get(10, TimeUnit.SECONDS));
+        assertTrue(server.isStopped(abandoned.getTaskId()));
+
+        server.streamChunks(3).eventInterval(LatencyDistribution.fixed(0));
+        CancellableStream<ChatMessageResponse> finished;
+        try (CancellableStream<ChatMessageResponse> stream = chatClient.streamChatMessage("", "hello", "user", null)) {
+            finished = stream;
+            ChatMessageResponse event;
+            do {
+                event = stream.next();
+            } while (!ChatMessageResponse.EVENT_MESSAGE_END.equals(event.getEvent()));
+        }
+        assertFalse(finished.whenStopped().get(10, TimeUnit.SECONDS));
+        assertFalse(finished.isCancelled());
+        assertFalse(server.isStopped(finished.getTaskId()));
+        assertEquals(1, server.getStopRequestCount());
+    }
+
+    /**
+     * Tests that cancelling the future of an asynchronous chat stream stops the generation and
+     * releases the dispatcher.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testCancelAsync() throws Exception {
+        AtomicReference<String> taskId = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch firstEvent = new CountDownLatch(1);
+        CompletableFuture<Void> future = chatClient.streamChatMessageAsync("", "hello", "user", null, new ChatEventListener() {
+            @Override
+            public void onEvent(ChatMessageResponse event) {
+                taskId.compareAndSet(null, event.getTask_id());
+                firstEvent.countDown();
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                error.set(e);
+            }
+        });
+        assertTrue(firstEvent.await(10, TimeUnit.SECONDS));
+
+        assertTrue(future.cancel(true));
+
+        assertInstanceOf(CancellationException.class, error.get());
+        awaitTrue(() -> server.isStopped(taskId.get()));
+        awaitTrue(() -> httpClient.dispatcher().runningCallsCount() == 0);
+        awaitTrue(() -> server.getActiveStreams() == 0);
+    }
+
+    /**
+     * Tests that an asynchronous workflow stream read to its end completes without stopping anything.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testAsyncCompletes() throws Exception {
+        server.streamChunks(3).eventInterval(LatencyDistribution.fixed(0));
+        CountDownLatch completed = new CountDownLatch(1);
+        AtomicReference<WorkflowEvent> last = new AtomicReference<>();
+        CompletableFuture<Void> future = workflowClient.streamWorkflowAsync(INPUTS, "user", new WorkflowEventListener() {
+            @Override
+            public void onEvent(WorkflowEvent event) {
+                last.set(event);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+
+        future.get(10, TimeUnit.SECONDS);
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertEquals(WorkflowEvent.EVENT_WORKFLOW_FINISHED, last.get().getEvent());
+        assertFalse(future.cancel(true));
+        assertEquals(0, server.getStopRequestCount());
+    }
+
+    /**
+     * Tests that more asynchronous streams than the dispatcher runs per host leave it free, so
+     * that cancelled streams, blocking or not, have their tasks stopped at once.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testStopWithManyAsyncStreams() throws Exception {
+        // Streams lasting 10 seconds, far longer than a stop may take
+        server.streamChunks(1000);
+        int count = httpClient.dispatcher().getMaxRequestsPerHost() + 2;
+        AtomicReferenceArray<String> taskIds = new AtomicReferenceArray<>(count);
+        CountDownLatch firstEvents = new CountDownLatch(count);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int stream = i;
+            futures.add(chatClient.streamChatMessageAsync("", "hello", "user", null, new ChatEventListener() {
+                @Override
+                public void onEvent(ChatMessageResponse event) {
+                    if (taskIds.compareAndSet(stream, null, event.getTask_id())) {
+                        firstEvents.countDown();
+                    }
+                }
+            }));
+        }
+        assertTrue(firstEvents.await(10, TimeUnit.SECONDS));
+        awaitTrue(() -> httpClient.dispatcher().runningCallsCount() == 0);
+
+        CancellableStream<WorkflowEvent> blocking = workflowClient.streamWorkflow(INPUTS, "user");
+        blocking.next();
+        blocking.cancel();
+        assertTrue(blocking.whenStopped().get(2, TimeUnit.SECONDS));
+
+        futures.get(0).cancel(true);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!server.isStopped(taskIds.get(0))) {
+            assertTrue(System.nanoTime() < deadline, "Stop not sent within 2 seconds");
+            Thread.sleep(10);
+        }
+
+        futures.forEach(future -> future.cancel(true));
+        awaitTrue(() -> server.getActiveStreams() == 0);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}
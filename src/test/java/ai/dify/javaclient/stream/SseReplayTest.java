@@ -0,0 +1,114 @@
+package ai.dify.javaclient.stream;
+
+import ai.dify.javaclient.DifyClient;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SseRecorder and SseReplay classes.
+ */
+class SseReplayTest {
+
+    private static final String RECORDING = ": t=0\n"
+            + "data: {\"event\":\"workflow_started\",\"task_id\":\"t1\",\"workflow_run_id\":\"r1\",\"data\":{\"id\":\"r1\"}}\n\n"
+            + ": t=100\n"
+            + "data: {\"event\":\"text_chunk\",\"task_id\":\"t1\",\"data\":{\"text\":\"hi\"}}\n\n"
+            + ": t=200\n"
+            + "data: {\"event\":\"workflow_finished\",\"task_id\":\"t1\",\"data\":{\"id\":\"r1\",\"status\":\"succeeded\"}}\n\n";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Tests that a recording keeps the data of every event and drops events without data.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testRecordAndReplayUntimed() throws Exception {
+        Buffer stream = new Buffer().writeUtf8("event: ping\n\n"
+                + "data: {\"a\":1}\n\n"
+                + "data: first\ndata: second\n\n");
+        Buffer recording = new Buffer();
+
+        assertEquals(2, SseRecorder.record(stream, recording));
+
+        SseReader reader = new SseReader(SseReplay.replay(recording, SseReplay.UNTIMED));
+        assertEquals("{\"a\":1}", reader.readEvent());
+        assertEquals("first\nsecond", reader.readEvent());
+        assertNull(reader.readEvent());
+    }
+
+    /**
+     * Tests that events are withheld until their recorded time, scaled by the speed.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testReplayTimed() throws Exception {
+        SseReader reader = new SseReader(SseReplay.replay(new Buffer().writeUtf8(RECORDING), 2));
+
+        long start = System.nanoTime();
+        assertNotNull(reader.readEvent());
+        assertTrue(elapsedMillis(start) < 50);
+        assertNotNull(reader.readEvent());
+        assertNotNull(reader.readEvent());
+        assertTrue(elapsedMillis(start) >= 95, "elapsed: " + elapsedMillis(start));
+        assertNull(reader.readEvent());
+    }
+
+    /**
+     * Tests that a recording replayed through the interceptor reaches a listener via the client.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testReplayThroughClient() throws Exception {
+        Path file = tempDir.resolve("workflow.sse");
+        Files.write(file, RECORDING.getBytes(StandardCharsets.UTF_8));
+        OkHttpClient httpClient = DifyClient.defaultHttpClientBuilder()
+                .addInterceptor(SseReplay.interceptor(file, SseReplay.UNTIMED))
+                .build();
+        WorkflowClient client = new WorkflowClient("key", "http://localhost/v1", httpClient);
+
+        List<String> events = new ArrayList<>();
+        boolean[] completed = new boolean[1];
+        Response response = client.runWorkflow(Collections.emptyMap(), "user", true);
+        try (SseReader reader = new SseReader(response.body().source())) {
+            new WorkflowEventParser().readAll(reader, new WorkflowEventListener() {
+                @Override
+                public void onEvent(WorkflowEvent event) {
+                    events.add(event.getEvent());
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+            });
+        }
+
+        assertEquals(3, events.size());
+        assertEquals(WorkflowEvent.EVENT_WORKFLOW_FINISHED, events.get(2));
+        assertTrue(completed[0]);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,202 @@
+package ai.dify.javaclient.stream;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.dto.WorkflowEvent;
+import ai.dify.javaclient.helper.JsonUtil;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the SseReader, WorkflowEventParser and ChatEventParser classes.
+ */
+class WorkflowEventParserTest {
+
+    private final WorkflowEventParser parser = new WorkflowEventParser();
+
+    /**
+     * Tests that events are split on blank lines and non-data lines are skipped.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testReadEvents() throws Exception {
+        SseReader reader = new SseReader(new Buffer().writeUtf8(": comment\n"
+                + "event: ping\n\n"
+                + "data: {\"a\":1}\n\n"
+                + "data:first\ndata: second\n\n"
+                + "data: {\"b\":2}"));
+
+        assertEquals("{\"a\":1}", reader.readEvent());
+        assertEquals("first\nsecond", reader.readEvent());
+        assertEquals("{\"b\":2}", reader.readEvent());
+        assertNull(reader.readEvent());
+    }
+
+    /**
+     * Tests that event data is bound to the class of its event type.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testParseTypedData() throws Exception {
+        SseReader reader = new SseReader(new Buffer().writeUtf8(
+                "data: {\"event\":\"node_finished\",\"task_id\":\"t1\",\"workflow_run_id\":\"r1\",\"data\":{\"node_id\":\"n1\","
+                        + "\"outputs\":{\"text\":\"hi\"},\"status\":\"succeeded\",\"elapsed_time\":0.5}}\n\n"
+                        + "data: {\"event\":\"text_chunk\",\"task_id\":\"t1\",\"data\":{\"text\":\"hi\",\"from_variable_selector\":[\"n1\",\"text\"]}}\n\n"
+                        + "data: {\"event\":\"unknown_event\",\"data\":{\"x\":1}}\n\n"));
+
+        WorkflowEvent finished = parser.read(reader);
+        assertTrue(finished.isEventType(WorkflowEvent.EVENT_NODE_FINISHED));
+        assertEquals("r1", finished.getWorkflow_run_id());
+        WorkflowEvent.NodeFinishedData data = finished.getDataAs(WorkflowEvent.NodeFinishedData.class);
+        assertEquals("n1", data.getNode_id());
+        assertEquals(0.5, data.getElapsed_time());
+        assertEquals("hi", data.getOutputs().get("text"));
+
+        WorkflowEvent chunk = parser.read(reader);
+        assertArrayEquals(new String[]{"n1", "text"}, chunk.getDataAs(WorkflowEvent.TextChunkData.class).getFrom_variable_selector());
+
+        WorkflowEvent unknown = parser.read(reader);
+        assertInstanceOf(Map.class, unknown.getData());
+        assertNull(parser.read(reader));
+    }
+
+    /**
+     * Tests that reading event data as bytes splits events like reading it as strings.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testReadEventBytes() throws Exception {
+        SseReader reader = new SseReader(new Buffer().writeUtf8(": comment\r\n"
+                + "event: ping\n\n"
+                + "data: {\"a\":\"\u00e9\"}\r\n\r\n"
+                + "data:first\ndata: second\n\n"
+                + "data: {\"b\":2}"));
+
+        Buffer data = new Buffer();
+        assertTrue(reader.readEvent(data));
+        assertEquals("{\"a\":\"\u00e9\"}", data.readUtf8());
+        assertTrue(reader.readEvent(data));
+        assertEquals("first\nsecond", data.readUtf8());
+        assertTrue(reader.readEvent(data));
+        assertEquals("{\"b\":2}", data.readUtf8());
+        assertFalse(reader.readEvent(data));
+        assertEquals(0, data.size());
+    }
+
+    /**
+     * Tests that TTS audio is decoded into the sink across chunks, and other events are
+     * parsed as usual.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testDecodeTtsAudio() throws Exception {
+        Random random = new Random(42);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        StringBuilder stream = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            byte[] chunk = new byte[10_000 + i];
+            random.nextBytes(chunk);
+            expected.write(chunk);
+            stream.append("data: {\"event\":\"text_chunk\",\"task_id\":\"t1\",\"data\":{\"text\":\"").append(i).append("\"}}\n\n");
+            stream.append("data: {\"audio\":\"").append(Base64.getEncoder().encodeToString(chunk))
+                    .append("\",\"event\":\"tts_message\",\"task_id\":\"t1\",\"message_id\":\"m1\",\"created_at\":1705395332}\n\n");
+        }
+        stream.append("data: {\"event\":\"tts_message_end\",\"task_id\":\"t1\",\"message_id\":\"m1\",\"audio\":\"\"}\n\n");
+
+        ByteArrayOutputStream audio = new ByteArrayOutputStream();
+        List<WorkflowEvent> events = new ArrayList<>();
+        parser.readAll(new SseReader(new Buffer().writeUtf8(stream.toString())), new WorkflowEventListener() {
+            @Override
+            public void onEvent(WorkflowEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+        }, audio);
+
+        assertArrayEquals(expected.toByteArray(), audio.toByteArray());
+        assertEquals(11, events.size());
+        WorkflowEvent tts = events.get(1);
+        assertTrue(tts.isEventType(WorkflowEvent.EVENT_TTS_MESSAGE));
+        assertEquals("t1", tts.getTask_id());
+        assertEquals("m1", tts.getMessage_id());
+        assertEquals(1705395332L, tts.getCreated_at());
+        assertNull(tts.getAudio());
+        assertEquals("4", events.get(8).getDataAs(WorkflowEvent.TextChunkData.class).getText());
+        assertTrue(events.get(10).isEventType(WorkflowEvent.EVENT_TTS_MESSAGE_END));
+    }
+
+    /**
+     * Tests that a parser reads only the selected event types, without node inputs and outputs.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testSelectEventTypes() throws Exception {
+        String stream = "data: {\"event\":\"ping\"}\n\n"
+                + "data: {\"data\":{\"node_id\":\"n1\",\"inputs\":{\"doc\":[1,2,{\"x\":\"y\"}]}},\"event\":\"node_started\"}\n\n"
+                + "data: {\"event\":\"node_finished\",\"data\":{\"node_id\":\"n1\",\"inputs\":{\"doc\":\"big\"},"
+                + "\"process_data\":{\"p\":1},\"outputs\":{\"text\":\"hi\"},\"status\":\"succeeded\",\"elapsed_time\":0.5}}\n\n"
+                + "data: { \"event\": \"text_chunk\", \"data\": {\"text\": \"hi\"}}\n\n"
+                + "data: {\"event\":\"workflow_finished\",\"data\":{\"status\":\"succeeded\",\"outputs\":{\"text\":\"hi\"}}}\n\n";
+
+        WorkflowEventParser selecting = new WorkflowEventParser(JsonUtil.buildMapper(), new HashSet<>(Arrays.asList(
+                WorkflowEvent.EVENT_NODE_FINISHED, WorkflowEvent.EVENT_TEXT_CHUNK, WorkflowEvent.EVENT_WORKFLOW_FINISHED)), true);
+        SseReader reader = new SseReader(new Buffer().writeUtf8(stream));
+
+        WorkflowEvent.NodeFinishedData node = selecting.read(reader).getDataAs(WorkflowEvent.NodeFinishedData.class);
+        assertEquals("n1", node.getNode_id());
+        assertEquals("succeeded", node.getStatus());
+        assertEquals(0.5, node.getElapsed_time());
+        assertNull(node.getInputs());
+        assertNull(node.getOutputs());
+        assertEquals("hi", selecting.read(reader).getDataAs(WorkflowEvent.TextChunkData.class).getText());
+        WorkflowEvent.WorkflowFinishedData finished = selecting.read(reader).getDataAs(WorkflowEvent.WorkflowFinishedData.class);
+        assertEquals("hi", finished.getOutputs().get("text"));
+        assertNull(selecting.read(reader));
+
+        SseReader all = new SseReader(new Buffer().writeUtf8(stream));
+        assertTrue(parser.read(all).isEventType(WorkflowEvent.EVENT_PING));
+        WorkflowEvent.NodeStartedData started = parser.read(all).getDataAs(WorkflowEvent.NodeStartedData.class);
+        assertEquals(Arrays.asList(1, 2, Collections.singletonMap("x", "y")), started.getInputs().get("doc"));
+    }
+
+    /**
+     * Tests that a chat parser reads only the selected event types.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testSelectChatEventTypes() throws Exception {
+        SseReader reader = new SseReader(new Buffer().writeUtf8(
+                "data: {\"event\":\"ping\"}\n\n"
+                        + "data: {\"event\":\"agent_thought\",\"thought\":\"hmm\"}\n\n"
+                        + "data: {\"event\":\"message\",\"answer\":\"Hi\"}\n\n"
+                        + "data: {\"event\":\"message_end\",\"metadata\":{\"usage\":{\"total_tokens\":3}}}\n\n"));
+        ChatEventParser chatParser = new ChatEventParser(JsonUtil.buildMapper(), new HashSet<>(Arrays.asList("message", "message_end")));
+
+        ChatMessageResponse message = chatParser.read(reader);
+        assertEquals("message", message.getEvent());
+        assertEquals("Hi", message.getAnswer());
+        assertEquals("message_end", chatParser.read(reader).getEvent());
+        assertNull(chatParser.read(reader));
+    }
+}
@@ -0,0 +1,186 @@
+package ai.dify.javaclient.tracing;
+
+import ai.dify.javaclient.ChatClient;
+import ai.dify.javaclient.DifyClient;
+import ai.dify.javaclient.WorkflowClient;
+import ai.dify.javaclient.standin.DifyStandInServer;
+import ai.dify.javaclient.stream.ChatEventParser;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the TracingInterceptor, StreamTracing and OpenTelemetryTracer
+ * classes, exporting spans to memory.
+ */
+class TracingTest {
+    private DifyStandInServer server;
+    private InMemorySpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private DifyTracer tracer;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = DifyStandInServer.start().streamChunks(3);
+        exporter = InMemorySpanExporter.create();
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build();
+        tracer = new OpenTelemetryTracer(tracerProvider.get(OpenTelemetryTracer.INSTRUMENTATION_NAME));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        tracerProvider.close();
+    }
+
+    /**
+     * Tests that requests are traced within the caller's trace and propagate its ID to Dify.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testRequestSpan() throws Exception {
+        ChatClient client = new ChatClient("test-key", server.getBaseUrl(), httpClient(tracer));
+
+        Span parent = tracerProvider.get("test").spanBuilder("handle request").startSpan();
+        try (Scope scope = parent.makeCurrent()) {
+            client.createChatMessageSync("{}", "Hi", "user", null);
+        } finally {
+            parent.end();
+        }
+
+        String traceId = parent.getSpanContext().getTraceId();
+        assertEquals(traceId, server.getLastTraceId());
+        SpanData span = span("dify POST /chat-messages");
+        assertEquals(traceId, span.getTraceId());
+        assertEquals(parent.getSpanContext().getSpanId(), span.getParentSpanId());
+        assertEquals("POST /chat-messages", span.getAttributes().get(AttributeKey.stringKey(DifyTracer.ROUTE)));
+        assertEquals(200L, span.getAttributes().get(AttributeKey.longKey(DifyTracer.HTTP_STATUS)));
+        assertEquals(100L, span.getAttributes().get(AttributeKey.longKey(DifyTracer.PROMPT_TOKENS)));
+        assertEquals(120L, span.getAttributes().get(AttributeKey.longKey(DifyTracer.TOTAL_TOKENS)));
+    }
+
+    /**
+     * Tests that only generation routes record token counts, not reads of stored runs or history.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testUsageOfGenerationsOnly() throws Exception {
+        WorkflowClient client = new WorkflowClient("test-key", server.getBaseUrl(), httpClient(tracer));
+
+        client.runWorkflowSync(Collections.emptyMap(), "user");
+        client.getWorkflowStatusSync("run-1");
+
+        assertEquals(120L, span("dify POST /workflows/run").getAttributes().get(AttributeKey.longKey(DifyTracer.TOTAL_TOKENS)));
+        SpanData status = span("dify GET /workflows/run/{}");
+        assertEquals(200L, status.getAttributes().get(AttributeKey.longKey(DifyTracer.HTTP_STATUS)));
+        assertNull(status.getAttributes().get(AttributeKey.longKey(DifyTracer.TOTAL_TOKENS)));
+    }
+
+    /**
+     * Tests that a failed request marks its span and that the no-op tracer propagates nothing.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testFailureAndNoop() throws Exception {
+        OkHttpClient unreachable = DifyClient.defaultHttpClientBuilder().addInterceptor(new TracingInterceptor(tracer)).build();
+        ChatClient failing = new ChatClient("test-key", "http://127.0.0.1:1/v1", unreachable);
+        assertThrows(Exception.class, () -> failing.createChatMessageSync("{}", "Hi", "user", null));
+        assertEquals(StatusCode.ERROR, span("dify POST /chat-messages").getStatus().getStatusCode());
+
+        ChatClient client = new ChatClient("test-key", server.getBaseUrl(), httpClient(DifyTracer.NOOP));
+        client.createChatMessageSync("{}", "Hi", "user", null);
+        assertNull(server.getLastTraceId());
+        assertEquals(1, exporter.getFinishedSpanItems().size());
+    }
+
+    /**
+     * Tests the phase spans of a chat stream.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testChatStream() throws Exception {
+        ChatClient client = new ChatClient("test-key", server.getBaseUrl(), httpClient(tracer));
+        StreamTracing streamTracing = new StreamTracing(tracer);
+
+        try (Response response = client.createChatMessage("{}", "Hi", "user", true, null)) {
+            new ChatEventParser().readAll(new SseReader(response.body().source()), streamTracing.traceChat(event -> {
+            }));
+        }
+
+        SpanData stream = span("dify chat stream");
+        assertEquals(4L, stream.getAttributes().get(AttributeKey.longKey(DifyTracer.EVENTS)));
+        assertEquals(120L, stream.getAttributes().get(AttributeKey.longKey(DifyTracer.TOTAL_TOKENS)));
+        assertNotNull(stream.getAttributes().get(AttributeKey.stringKey(DifyTracer.TASK_ID)));
+        assertEquals(stream.getSpanId(), span("dify first token").getParentSpanId());
+        assertEquals(stream.getSpanId(), span("dify generation").getParentSpanId());
+        assertTrue(span("dify generation").getStartEpochNanos() >= span("dify first token").getEndEpochNanos());
+    }
+
+    /**
+     * Tests the node spans of a workflow stream, and that running nodes end with a failed stream.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testWorkflowStream() throws Exception {
+        WorkflowClient client = new WorkflowClient("test-key", server.getBaseUrl(), httpClient(tracer));
+        StreamTracing streamTracing = new StreamTracing(tracer);
+
+        try (Response response = client.runWorkflow(Collections.emptyMap(), "user", true)) {
+            new WorkflowEventParser().readAll(new SseReader(response.body().source()), streamTracing.traceWorkflow(event -> {
+            }));
+        }
+
+        SpanData stream = span("dify workflow stream");
+        assertNotNull(stream.getAttributes().get(AttributeKey.stringKey(DifyTracer.WORKFLOW_RUN_ID)));
+        assertEquals(120L, stream.getAttributes().get(AttributeKey.longKey(DifyTracer.TOTAL_TOKENS)));
+        SpanData node = span("dify node");
+        assertEquals(stream.getSpanId(), node.getParentSpanId());
+        assertEquals("llm", node.getAttributes().get(AttributeKey.stringKey(DifyTracer.NODE_ID)));
+        assertEquals("succeeded", node.getAttributes().get(AttributeKey.stringKey(DifyTracer.NODE_STATUS)));
+        assertEquals(120L, node.getAttributes().get(AttributeKey.longKey(DifyTracer.TOTAL_TOKENS)));
+
+        exporter.reset();
+        String truncated = "data: {\"event\":\"node_started\",\"data\":{\"id\":\"n1\",\"node_id\":\"llm\"}}\n\ndata: {";
+        new WorkflowEventParser().readAll(new SseReader(new Buffer().writeUtf8(truncated)), streamTracing.traceWorkflow(event -> {
+        }));
+        assertEquals(StatusCode.ERROR, span("dify node").getStatus().getStatusCode());
+        assertEquals(StatusCode.ERROR, span("dify workflow stream").getStatus().getStatusCode());
+    }
+
+    private OkHttpClient httpClient(DifyTracer tracer) {
+        return DifyClient.defaultHttpClientBuilder().addInterceptor(new TracingInterceptor(tracer)).build();
+    }
+
+    private SpanData span(String name) {
+        List<SpanData> spans = exporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getName().equals(name))
+                .collect(Collectors.toList());
+        assertEquals(1, spans.size(), "spans named " + name);
+        return spans.get(0);
+    }
+}
@@ -0,0 +1,146 @@
+package ai.dify.javaclient.usage;
+
+import ai.dify.javaclient.dto.ChatMessageResponse;
+import ai.dify.javaclient.stream.ChatEventParser;
+import ai.dify.javaclient.stream.SseReader;
+import ai.dify.javaclient.stream.WorkflowEventParser;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This class contains unit tests for the UsageAccountant and FixedPoint classes.
+ */
+class UsageAccountantTest {
+
+    /**
+     * Tests parsing and formatting of fixed-point prices.
+     */
+    @Test
+    public void testFixedPoint() {
+        assertEquals(140_000, FixedPoint.parse("0.0001400"));
+        assertEquals(1_500_000_000L, FixedPoint.parse("1.5"));
+        assertEquals(-2_000_000_000L, FixedPoint.parse("-2"));
+        assertEquals(1, FixedPoint.parse("0.0000000005"));
+        assertEquals(0, FixedPoint.parse("0.0000000004"));
+        assertEquals(120_000, FixedPoint.parse("1.2E-4"));
+        assertEquals(0, FixedPoint.parse(null));
+        assertEquals(240_000, FixedPoint.of(0.00024));
+        assertEquals("0.00014", FixedPoint.format(140_000));
+        assertEquals("3", FixedPoint.format(3_000_000_000L));
+        assertEquals(new BigDecimal("0.000140000"), FixedPoint.toDecimal(140_000));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("abc"));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("99999999999"));
+    }
+
+    /**
+     * Tests that concurrent recording sums exactly, per app and user.
+     *
+     * @throws Exception If an error occurs during the test.
+     */
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        UsageAccountant accountant = new UsageAccountant();
+        ChatMessageResponse response = response(100, 20, "0.0001000", "0.0000400", "0.0001400");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            String user = "user-" + (t % 2);
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    accountant.record("bot", user, response);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<UsageRecord> records = accountant.snapshot();
+        assertEquals(2, records.size());
+        for (UsageRecord record : records) {
+            assertEquals("bot", record.getApp());
+            assertEquals("USD", record.getCurrency());
+            assertEquals(40_000, record.getRequests());
+            assertEquals(4_000_000, record.getPromptTokens());
+            assertEquals(4_800_000, record.getTotalTokens());
+            assertEquals(new BigDecimal("5.6"), record.getTotalPriceDecimal().stripTrailingZeros());
+        }
+    }
+
+    /**
+     * Tests that delta snapshots report only new usage.
+     */
+    @Test
+    public void testDeltaSnapshot() {
+        UsageAccountant accountant = new UsageAccountant();
+        accountant.record("bot", "user", response(10, 5, "0.001", "0.002", "0.003"));
+
+        assertEquals(1, accountant.deltaSnapshot().get(0).getRequests());
+        assertTrue(accountant.deltaSnapshot().isEmpty());
+
+        accountant.record("bot", "user", response(10, 5, "0.001", "0.002", "0.003"));
+        accountant.record("bot", "user", response(10, 5, "0.001", "0.002", "0.003"));
+        UsageRecord delta = accountant.deltaSnapshot().get(0);
+        assertEquals(2, delta.getRequests());
+        assertEquals(6_000_000, delta.getTotalPrice());
+        assertEquals(3, accountant.snapshot().get(0).getRequests());
+    }
+
+    /**
+     * Tests recording usage from chat and workflow streams.
+     */
+    @Test
+    public void testStreams() {
+        UsageAccountant accountant = new UsageAccountant();
+
+        String chat = "data: {\"event\":\"message\",\"answer\":\"Hi\"}\n\n"
+                + "data: {\"event\":\"message_end\",\"metadata\":{\"usage\":{\"prompt_tokens\":7,\"completion_tokens\":1,"
+                + "\"total_tokens\":8,\"total_price\":\"0.0000080\",\"currency\":\"USD\"}}}\n\n";
+        new ChatEventParser().readAll(new SseReader(new Buffer().writeUtf8(chat)),
+                accountant.recordChat("bot", "alice", event -> {
+                }));
+
+        String workflow = "data: {\"event\":\"node_finished\",\"data\":{\"node_id\":\"llm1\",\"execution_metadata\":"
+                + "{\"total_tokens\":50,\"total_price\":\"0.0001\",\"currency\":\"USD\"}}}\n\n"
+                + "data: {\"event\":\"node_finished\",\"data\":{\"node_id\":\"llm2\",\"execution_metadata\":"
+                + "{\"total_tokens\":30,\"total_price\":\"0.00005\",\"currency\":\"USD\"}}}\n\n"
+                + "data: {\"event\":\"workflow_finished\",\"data\":{\"id\":\"r1\",\"status\":\"succeeded\",\"total_tokens\":80}}\n\n";
+        new WorkflowEventParser().readAll(new SseReader(new Buffer().writeUtf8(workflow)),
+                accountant.recordWorkflow("flow", "bob", event -> {
+                }));
+
+        List<UsageRecord> records = accountant.snapshot();
+        assertEquals(2, records.size());
+        UsageRecord chatUsage = records.stream().filter(r -> r.getApp().equals("bot")).findFirst().get();
+        assertEquals(8, chatUsage.getTotalTokens());
+        assertEquals(8_000, chatUsage.getTotalPrice());
+        UsageRecord workflowUsage = records.stream().filter(r -> r.getApp().equals("flow")).findFirst().get();
+        assertEquals("bob", workflowUsage.getUser());
+        assertEquals(80, workflowUsage.getTotalTokens());
+        assertEquals(150_000, workflowUsage.getTotalPrice());
+    }
+
+    private static ChatMessageResponse response(int promptTokens, int completionTokens,
+                                                String promptPrice, String completionPrice, String totalPrice) {
+        ChatMessageResponse.Metadata.Usage usage = new ChatMessageResponse.Metadata.Usage();
+        usage.setPrompt_tokens(promptTokens);
+        usage.setCompletion_tokens(completionTokens);
+        usage.setTotal_tokens(promptTokens + completionTokens);
+        usage.setPrompt_price(promptPrice);
+        usage.setCompletion_price(completionPrice);
+        usage.setTotal_price(totalPrice);
+        usage.setCurrency("USD");
+        ChatMessageResponse.Metadata metadata = new ChatMessageResponse.Metadata();
+        metadata.setUsage(usage);
+        ChatMessageResponse response = new ChatMessageResponse();
+        response.setMetadata(metadata);
+        return response;
+    }
+}